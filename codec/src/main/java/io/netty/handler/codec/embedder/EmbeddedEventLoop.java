@@ -44,6 +44,11 @@ class EmbeddedEventLoop extends AbstractExecutorService implements
         // NOOP
     }
 
+    @Override
+    public void shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        // NOOP
+    }
+
     @Override
     public List<Runnable> shutdownNow() {
         return Collections.emptyList();
@@ -1,34 +1,96 @@
 package io.netty.util;
 
-import java.util.IdentityHashMap;
-import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
+/**
+ * The default {@link AttributeMap} implementation, which never blocks.
+ * <p>
+ * The attributes are kept in a small table of insert-only linked lists
+ * indexed by {@link AttributeKey#id()}.  A new attribute is appended with a
+ * compare-and-set, and an attribute is never unlinked once added, so a
+ * lookup can traverse the table without any lock.  The table itself is
+ * created on the first access.
+ */
 public class DefaultAttributeMap implements AttributeMap {
 
+    private static final int BUCKET_SIZE = 4;
+    private static final int MASK = BUCKET_SIZE - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<DefaultAttributeMap, AtomicReferenceArray> updater =
+            AtomicReferenceFieldUpdater.newUpdater(DefaultAttributeMap.class, AtomicReferenceArray.class, "attributes");
+
     // Initialize lazily to reduce memory consumption.
-    private Map<AttributeKey<?>, Attribute<?>> map;
+    private volatile AtomicReferenceArray<DefaultAttribute<?>> attributes;
 
     @Override
-    public synchronized <T> Attribute<T> attr(AttributeKey<T> key) {
-        Map<AttributeKey<?>, Attribute<?>> map = this.map;
-        if (map == null) {
-            // Not using ConcurrentHashMap due to high memory consumption.
-            map = this.map = new IdentityHashMap<AttributeKey<?>, Attribute<?>>(2);
+    @SuppressWarnings("unchecked")
+    public <T> Attribute<T> attr(AttributeKey<T> key) {
+        if (key == null) {
+            throw new NullPointerException("key");
         }
 
-        Attribute<T> attr = (Attribute<T>) map.get(key);
-        if (attr == null) {
-            attr = new DefaultAttribute<T>();
-            map.put(key, attr);
+        AtomicReferenceArray<DefaultAttribute<?>> attributes = this.attributes;
+        if (attributes == null) {
+            attributes = new AtomicReferenceArray<DefaultAttribute<?>>(BUCKET_SIZE);
+            if (!updater.compareAndSet(this, null, attributes)) {
+                attributes = this.attributes;
+            }
+        }
+
+        final int i = key.id() & MASK;
+        DefaultAttribute<?> head = attributes.get(i);
+        if (head == null) {
+            DefaultAttribute<T> attr = new DefaultAttribute<T>(key);
+            if (attributes.compareAndSet(i, null, attr)) {
+                return attr;
+            }
+            head = attributes.get(i);
+        }
+
+        DefaultAttribute<?> curr = head;
+        DefaultAttribute<T> attr = null;
+        for (;;) {
+            if (curr.key == key) {
+                return (Attribute<T>) curr;
+            }
+
+            DefaultAttribute<?> next = curr.next;
+            if (next == null) {
+                if (attr == null) {
+                    attr = new DefaultAttribute<T>(key);
+                }
+                if (curr.casNext(attr)) {
+                    return attr;
+                }
+                // Lost the race - continue with the node appended by the other thread.
+                next = curr.next;
+            }
+            curr = next;
         }
-        return attr;
     }
 
-    private class DefaultAttribute<T> extends AtomicReference<T> implements Attribute<T> {
+    private static final class DefaultAttribute<T> extends AtomicReference<T> implements Attribute<T> {
 
         private static final long serialVersionUID = -2661411462200283011L;
 
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<DefaultAttribute, DefaultAttribute> nextUpdater =
+                AtomicReferenceFieldUpdater.newUpdater(DefaultAttribute.class, DefaultAttribute.class, "next");
+
+        final AttributeKey<T> key;
+        volatile DefaultAttribute<?> next;
+
+        DefaultAttribute(AttributeKey<T> key) {
+            this.key = key;
+        }
+
+        boolean casNext(DefaultAttribute<?> next) {
+            return nextUpdater.compareAndSet(this, null, next);
+        }
+
         @Override
         public T setIfAbsent(T value) {
             if (compareAndSet(null, value)) {
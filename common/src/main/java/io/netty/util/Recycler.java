@@ -0,0 +1,247 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util;
+
+import io.netty.util.internal.SystemPropertyUtil;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A light-weight object pool backed by a thread-local stack.
+ * <p>
+ * {@link #get()} pops an object from the stack of the current thread, or
+ * creates a new one with {@link #newObject(Handle)} if the stack is empty.
+ * Once the object is not used anymore, {@link Handle#recycle()} pushes it
+ * back to the stack of the thread which created it.  When another thread
+ * recycles the object, it is handed over via a lock-free list which the
+ * owner thread drains when its stack becomes empty.  Each stack holds up to
+ * {@code maxCapacity} objects; an object recycled to a full stack is left
+ * to the garbage collector.
+ * <pre>
+ * public final class MyObject {
+ *
+ *     private static final {@link Recycler}&lt;MyObject&gt; RECYCLER = new {@link Recycler}&lt;MyObject&gt;() {
+ *         protected MyObject newObject({@link Handle} handle) {
+ *             return new MyObject(handle);
+ *         }
+ *     }
+ *
+ *     public static MyObject newInstance(int a, String b) {
+ *         MyObject obj = RECYCLER.get();
+ *         obj.myFieldA = a;
+ *         obj.myFieldB = b;
+ *         return obj;
+ *     }
+ *
+ *     private final {@link Handle} handle;
+ *     private int myFieldA;
+ *     private String myFieldB;
+ *
+ *     private MyObject({@link Handle} handle) {
+ *         this.handle = handle;
+ *     }
+ *
+ *     public void recycle() {
+ *         myFieldA = 0;
+ *         myFieldB = null;
+ *         handle.recycle();
+ *     }
+ * }
+ * </pre>
+ *
+ * @param <T> the type of the pooled objects
+ */
+public abstract class Recycler<T> {
+
+    /**
+     * The default maximum number of the pooled objects per thread, which can be
+     * overridden by the {@code io.netty.recycler.maxCapacity} system property.
+     */
+    public static final int DEFAULT_MAX_CAPACITY =
+            Math.max(0, SystemPropertyUtil.get("io.netty.recycler.maxCapacity", 4096));
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int maxCapacity;
+    private final ThreadLocal<Stack<T>> threadLocal = new ThreadLocal<Stack<T>>() {
+        @Override
+        protected Stack<T> initialValue() {
+            return new Stack<T>(Thread.currentThread(), maxCapacity);
+        }
+    };
+
+    protected Recycler() {
+        this(DEFAULT_MAX_CAPACITY);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxCapacity the maximum number of the pooled objects per thread.
+     *                    {@code 0} disables pooling.
+     */
+    protected Recycler(int maxCapacity) {
+        if (maxCapacity < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "maxCapacity: %d (expected: >= 0)", maxCapacity));
+        }
+        this.maxCapacity = maxCapacity;
+    }
+
+    /**
+     * Returns a pooled object, or a new one if the pool of the current thread is empty.
+     */
+    public final T get() {
+        if (maxCapacity == 0) {
+            return newObject(new DefaultHandle<T>(null));
+        }
+
+        Stack<T> stack = threadLocal.get();
+        DefaultHandle<T> handle = stack.pop();
+        if (handle == null) {
+            handle = new DefaultHandle<T>(stack);
+            handle.value = newObject(handle);
+        }
+        return handle.value;
+    }
+
+    /**
+     * Creates a new object which is recycled via the specified {@link Handle}.
+     */
+    protected abstract T newObject(Handle handle);
+
+    /**
+     * Returns an object to the pool it was taken from.
+     */
+    public interface Handle {
+        /**
+         * Returns the object to its pool.  The object must not be accessed
+         * after this method is called.
+         *
+         * @throws IllegalStateException if the object has been recycled already
+         */
+        void recycle();
+    }
+
+    private static final class DefaultHandle<T> implements Handle {
+        final Stack<T> stack;
+        T value;
+        boolean recycled;
+        DefaultHandle<T> next; // Used only while in Stack.returned
+
+        DefaultHandle(Stack<T> stack) {
+            this.stack = stack;
+        }
+
+        @Override
+        public void recycle() {
+            if (recycled) {
+                throw new IllegalStateException("recycled already");
+            }
+            recycled = true;
+
+            if (stack == null) {
+                // Pooling disabled
+                return;
+            }
+            if (Thread.currentThread() == stack.thread) {
+                stack.push(this);
+            } else {
+                stack.pushLater(this);
+            }
+        }
+    }
+
+    private static final class Stack<T> {
+        final Thread thread;
+        final int maxCapacity;
+
+        private DefaultHandle<T>[] elements;
+        private int size;
+
+        /** The objects recycled by the other threads. */
+        private final AtomicReference<DefaultHandle<T>> returned = new AtomicReference<DefaultHandle<T>>();
+        private final AtomicInteger returnedCount = new AtomicInteger();
+
+        Stack(Thread thread, int maxCapacity) {
+            this.thread = thread;
+            this.maxCapacity = maxCapacity;
+            // A generic array cannot be created directly.  The array holds only the handles of this stack.
+            @SuppressWarnings("unchecked")
+            DefaultHandle<T>[] elements = (DefaultHandle<T>[]) new DefaultHandle<?>[
+                    Math.min(INITIAL_CAPACITY, maxCapacity)];
+            this.elements = elements;
+        }
+
+        DefaultHandle<T> pop() {
+            if (size == 0 && !drainReturned()) {
+                return null;
+            }
+
+            DefaultHandle<T> handle = elements[-- size];
+            elements[size] = null;
+            handle.recycled = false;
+            return handle;
+        }
+
+        void push(DefaultHandle<T> handle) {
+            if (size == elements.length) {
+                if (size >= maxCapacity) {
+                    // Let the garbage collector take it.
+                    return;
+                }
+                elements = Arrays.copyOf(elements, Math.min(size << 1, maxCapacity));
+            }
+            elements[size ++] = handle;
+        }
+
+        void pushLater(DefaultHandle<T> handle) {
+            // The count is approximate, which is fine for a capacity limit.
+            if (returnedCount.get() >= maxCapacity) {
+                return;
+            }
+            returnedCount.incrementAndGet();
+
+            for (;;) {
+                DefaultHandle<T> head = returned.get();
+                handle.next = head;
+                if (returned.compareAndSet(head, handle)) {
+                    break;
+                }
+            }
+        }
+
+        private boolean drainReturned() {
+            if (returned.get() == null) {
+                return false;
+            }
+
+            DefaultHandle<T> handle = returned.getAndSet(null);
+            int count = 0;
+            while (handle != null) {
+                DefaultHandle<T> next = handle.next;
+                handle.next = null;
+                push(handle);
+                handle = next;
+                count ++;
+            }
+            returnedCount.addAndGet(-count);
+            return size != 0;
+        }
+    }
+}
@@ -40,6 +40,14 @@ public class UniqueName implements Comparable<UniqueName> {
         return name;
     }
 
+    /**
+     * Returns the identifier of this name, which is unique and sequentially
+     * assigned in the order of creation.
+     */
+    public final int id() {
+        return id;
+    }
+
     @Override
     public final int hashCode() {
         return super.hashCode();
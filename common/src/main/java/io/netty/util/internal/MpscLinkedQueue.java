@@ -0,0 +1,126 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An unbounded lock-free queue which allows any number of threads to
+ * {@linkplain #offer(Object) offer} elements, but only one thread to
+ * {@linkplain #poll() retrieve} them.  An offer is a single atomic swap,
+ * which makes it much cheaper than the offer of a general purpose
+ * concurrent queue when there are few producers.
+ * <p>
+ * All methods other than {@link #offer(Object)} and {@link #add(Object)}
+ * must be called by the consumer thread only.  {@link #isEmpty()} may
+ * return {@code true} while an offer is in progress.
+ */
+public final class MpscLinkedQueue<E> extends AbstractQueue<E> {
+
+    private final AtomicReference<Node<E>> tail;
+    private Node<E> head; // Accessed by the consumer only
+
+    public MpscLinkedQueue() {
+        Node<E> stub = new Node<E>(null);
+        head = stub;
+        tail = new AtomicReference<Node<E>>(stub);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException("e");
+        }
+
+        Node<E> node = new Node<E>(e);
+        Node<E> prev = tail.getAndSet(node);
+        // The consumer does not see the new node until it is linked.
+        prev.next = node;
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        Node<E> next = head.next;
+        if (next == null) {
+            return null;
+        }
+
+        E value = next.value;
+        next.value = null;
+        head = next;
+        return value;
+    }
+
+    @Override
+    public E peek() {
+        Node<E> next = head.next;
+        return next == null? null : next.value;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Node<E> n = head.next; n != null; n = n.next) {
+            size ++;
+        }
+        return size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private Node<E> next = head.next;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public E next() {
+                Node<E> node = next;
+                if (node == null) {
+                    throw new NoSuchElementException();
+                }
+                next = node.next;
+                return node.value;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static final class Node<E> {
+        E value;
+        volatile Node<E> next;
+
+        Node(E value) {
+            this.value = value;
+        }
+    }
+}
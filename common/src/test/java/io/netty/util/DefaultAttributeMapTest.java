@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.junit.Test;
+
+public class DefaultAttributeMapTest {
+
+    @Test
+    public void testSameAttribute() {
+        DefaultAttributeMap map = new DefaultAttributeMap();
+        AttributeKey<String> key = new AttributeKey<String>("DefaultAttributeMapTest.testSameAttribute");
+        Attribute<String> attr = map.attr(key);
+        assertSame(attr, map.attr(key));
+
+        assertNull(attr.setIfAbsent("a"));
+        assertEquals("a", attr.setIfAbsent("b"));
+        assertEquals("a", map.attr(key).get());
+        attr.remove();
+        assertNull(map.attr(key).get());
+    }
+
+    @Test
+    public void testManyKeys() {
+        DefaultAttributeMap map = new DefaultAttributeMap();
+        @SuppressWarnings("unchecked")
+        AttributeKey<Integer>[] keys = new AttributeKey[64];
+        for (int i = 0; i < keys.length; i ++) {
+            keys[i] = new AttributeKey<Integer>("DefaultAttributeMapTest.testManyKeys." + i);
+            map.attr(keys[i]).set(i);
+        }
+        for (int i = 0; i < keys.length; i ++) {
+            assertEquals(Integer.valueOf(i), map.attr(keys[i]).get());
+        }
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final int nThreads = 8;
+        final DefaultAttributeMap map = new DefaultAttributeMap();
+        @SuppressWarnings("unchecked")
+        final AttributeKey<Object>[] keys = new AttributeKey[16];
+        for (int i = 0; i < keys.length; i ++) {
+            keys[i] = new AttributeKey<Object>("DefaultAttributeMapTest.testConcurrentAccess." + i);
+        }
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReferenceArray<Attribute<Object>[]> results =
+                new AtomicReferenceArray<Attribute<Object>[]>(nThreads);
+        Thread[] threads = new Thread[nThreads];
+        for (int i = 0; i < nThreads; i ++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    @SuppressWarnings("unchecked")
+                    Attribute<Object>[] attrs = new Attribute[keys.length];
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < keys.length; j ++) {
+                        attrs[j] = map.attr(keys[j]);
+                    }
+                    results.set(index, attrs);
+                }
+            };
+            threads[i].start();
+        }
+
+        start.countDown();
+        for (Thread t: threads) {
+            t.join();
+        }
+
+        for (int j = 0; j < keys.length; j ++) {
+            Attribute<Object> expected = map.attr(keys[j]);
+            for (int i = 0; i < nThreads; i ++) {
+                assertSame(expected, results.get(i)[j]);
+            }
+        }
+    }
+}
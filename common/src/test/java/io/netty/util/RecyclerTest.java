@@ -0,0 +1,96 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class RecyclerTest {
+
+    private static final class Pooled {
+        final Recycler.Handle handle;
+
+        Pooled(Recycler.Handle handle) {
+            this.handle = handle;
+        }
+    }
+
+    private static Recycler<Pooled> newRecycler(int maxCapacity) {
+        return new Recycler<Pooled>(maxCapacity) {
+            @Override
+            protected Pooled newObject(Handle handle) {
+                return new Pooled(handle);
+            }
+        };
+    }
+
+    @Test
+    public void testRecycle() {
+        Recycler<Pooled> recycler = newRecycler(16);
+        Pooled a = recycler.get();
+        a.handle.recycle();
+        assertSame(a, recycler.get());
+        assertNotSame(a, recycler.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRecycleTwice() {
+        Pooled a = newRecycler(16).get();
+        a.handle.recycle();
+        a.handle.recycle();
+    }
+
+    @Test
+    public void testRecycleFromOtherThread() throws Exception {
+        Recycler<Pooled> recycler = newRecycler(16);
+        final Pooled a = recycler.get();
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                a.handle.recycle();
+            }
+        };
+        t.start();
+        t.join();
+
+        assertSame(a, recycler.get());
+    }
+
+    @Test
+    public void testMaxCapacity() {
+        Recycler<Pooled> recycler = newRecycler(2);
+        Pooled a = recycler.get();
+        Pooled b = recycler.get();
+        Pooled c = recycler.get();
+        a.handle.recycle();
+        b.handle.recycle();
+        c.handle.recycle(); // Discarded
+
+        assertSame(b, recycler.get());
+        assertSame(a, recycler.get());
+        Pooled d = recycler.get();
+        assertNotSame(c, d);
+    }
+
+    @Test
+    public void testDisabled() {
+        Recycler<Pooled> recycler = newRecycler(0);
+        Pooled a = recycler.get();
+        a.handle.recycle();
+        assertNotSame(a, recycler.get());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class MpscLinkedQueueTest {
+
+    @Test
+    public void testFifo() {
+        Queue<Integer> queue = new MpscLinkedQueue<Integer>();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+
+        queue.add(1);
+        queue.add(2);
+        queue.add(3);
+        assertFalse(queue.isEmpty());
+        assertEquals(3, queue.size());
+        assertEquals(Integer.valueOf(1), queue.peek());
+
+        Iterator<Integer> i = queue.iterator();
+        assertEquals(Integer.valueOf(1), i.next());
+        assertEquals(Integer.valueOf(2), i.next());
+        assertEquals(Integer.valueOf(3), i.next());
+        assertFalse(i.hasNext());
+
+        assertEquals(Integer.valueOf(1), queue.poll());
+        assertEquals(Integer.valueOf(2), queue.poll());
+        assertEquals(Integer.valueOf(3), queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullElement() {
+        new MpscLinkedQueue<Object>().offer(null);
+    }
+
+    @Test(timeout = 10000)
+    public void testMultipleProducers() throws Exception {
+        final int producers = 4;
+        final int count = 100000;
+        final Queue<long[]> queue = new MpscLinkedQueue<long[]>();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        for (int i = 0; i < producers; i ++) {
+            final int id = i;
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < count; j ++) {
+                        queue.add(new long[] { id, j });
+                    }
+                }
+            }.start();
+        }
+        start.countDown();
+
+        // The elements of each producer should be retrieved in the order they were offered.
+        int[] next = new int[producers];
+        for (int received = 0; received < producers * count;) {
+            long[] e = queue.poll();
+            if (e == null) {
+                Thread.yield();
+                continue;
+            }
+            assertEquals(next[(int) e[0]] ++, e[1]);
+            received ++;
+        }
+        assertNull(queue.poll());
+    }
+}
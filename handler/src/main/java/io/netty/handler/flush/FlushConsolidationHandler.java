@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.flush;
+
+import io.netty.channel.ChannelBufferHolder;
+import io.netty.channel.ChannelBufferHolders;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureNotifier;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerContext;
+import io.netty.channel.ChannelPipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consolidates the flush operations requested by the handlers behind it, so
+ * that the messages written while handling the same inbound data are sent
+ * with a single flush, usually resulting in a single write system call.
+ * <p>
+ * A flush requested while the handlers behind this handler are processing an
+ * {@code inboundBufferUpdated} event is deferred until the event has been
+ * handled, or until the specified number of flushes have been deferred.  A
+ * flush requested outside of the read process is either forwarded
+ * immediately or, if {@code consolidateWhenNoReadInProgress} is
+ * {@code true}, deferred until the event loop runs the next task.
+ * <p>
+ * The {@link ChannelFuture} of a deferred flush is notified when the
+ * consolidated flush is complete.  This handler should be placed at the
+ * head of the {@link ChannelPipeline}:
+ * <pre>
+ * pipeline.addFirst("flushConsolidator", new {@link FlushConsolidationHandler}());
+ * </pre>
+ */
+public class FlushConsolidationHandler extends ChannelHandlerAdapter<Object, Object> {
+
+    /** The default maximum number of flushes that can be deferred before one flush is issued. */
+    public static final int DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES = 256;
+
+    private final int explicitFlushAfterFlushes;
+    private final boolean consolidateWhenNoReadInProgress;
+    private final Runnable flushTask;
+
+    private final List<ChannelFuture> pendingFutures = new ArrayList<ChannelFuture>();
+    private int pendingFlushes;
+    private boolean readInProgress;
+    private boolean flushScheduled;
+    private ChannelHandlerContext ctx;
+
+    /**
+     * Creates a new instance which flushes after
+     * {@value #DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES} deferred flushes and does
+     * not consolidate the flushes requested outside of the read process.
+     */
+    public FlushConsolidationHandler() {
+        this(DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES, false);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param explicitFlushAfterFlushes
+     *        the maximum number of flushes that can be deferred before one flush is issued
+     * @param consolidateWhenNoReadInProgress
+     *        whether the flushes requested outside of the read process are also
+     *        consolidated, which trades a little latency for fewer system calls
+     */
+    public FlushConsolidationHandler(int explicitFlushAfterFlushes, boolean consolidateWhenNoReadInProgress) {
+        if (explicitFlushAfterFlushes <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "explicitFlushAfterFlushes: %d (expected: > 0)", explicitFlushAfterFlushes));
+        }
+        this.explicitFlushAfterFlushes = explicitFlushAfterFlushes;
+        this.consolidateWhenNoReadInProgress = consolidateWhenNoReadInProgress;
+        flushTask = consolidateWhenNoReadInProgress? new Runnable() {
+            @Override
+            public void run() {
+                flushScheduled = false;
+                flushIfNeeded();
+            }
+        } : null;
+    }
+
+    @Override
+    public void beforeAdd(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public ChannelBufferHolder<Object> newInboundBuffer(
+            ChannelInboundHandlerContext<Object> ctx) throws Exception {
+        return ChannelBufferHolders.inboundBypassBuffer(ctx);
+    }
+
+    @Override
+    public ChannelBufferHolder<Object> newOutboundBuffer(
+            ChannelOutboundHandlerContext<Object> ctx) throws Exception {
+        return ChannelBufferHolders.outboundBypassBuffer(ctx);
+    }
+
+    @Override
+    public void inboundBufferUpdated(ChannelInboundHandlerContext<Object> ctx) throws Exception {
+        readInProgress = true;
+        try {
+            ctx.fireInboundBufferUpdated();
+        } finally {
+            readInProgress = false;
+            flushIfNeeded();
+        }
+    }
+
+    @Override
+    public void flush(ChannelOutboundHandlerContext<Object> ctx, ChannelFuture future) throws Exception {
+        if (future != ctx.voidFuture()) {
+            pendingFutures.add(future);
+        }
+
+        if (++ pendingFlushes >= explicitFlushAfterFlushes) {
+            flushNow();
+        } else if (readInProgress) {
+            // Flushed when the read process is over.
+        } else if (consolidateWhenNoReadInProgress) {
+            if (!flushScheduled) {
+                flushScheduled = true;
+                ctx.executor().execute(flushTask);
+            }
+        } else {
+            flushNow();
+        }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelInboundHandlerContext<Object> ctx, Throwable cause) throws Exception {
+        // Send what has been written so far before the handlers react to the exception.
+        flushIfNeeded();
+        ctx.fireExceptionCaught(cause);
+    }
+
+    @Override
+    public void disconnect(ChannelOutboundHandlerContext<Object> ctx, ChannelFuture future) throws Exception {
+        flushIfNeeded();
+        ctx.disconnect(future);
+    }
+
+    @Override
+    public void close(ChannelOutboundHandlerContext<Object> ctx, ChannelFuture future) throws Exception {
+        flushIfNeeded();
+        ctx.close(future);
+    }
+
+    @Override
+    public void beforeRemove(ChannelHandlerContext ctx) throws Exception {
+        flushIfNeeded();
+    }
+
+    private void flushIfNeeded() {
+        if (pendingFlushes > 0) {
+            flushNow();
+        }
+    }
+
+    private void flushNow() {
+        pendingFlushes = 0;
+        ctx.flush(ChannelFutureNotifier.combine(ctx, pendingFutures));
+    }
+}
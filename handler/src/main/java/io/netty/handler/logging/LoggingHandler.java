@@ -25,6 +25,7 @@ import io.netty.channel.ChannelHandlerAdapter;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerContext;
 import io.netty.channel.ChannelOutboundHandlerContext;
+import io.netty.channel.FileRegion;
 import io.netty.logging.InternalLogLevel;
 import io.netty.logging.InternalLogger;
 import io.netty.logging.InternalLoggerFactory;
@@ -330,6 +331,16 @@ public class LoggingHandler extends ChannelHandlerAdapter<Object, Object> {
         super.channelInactive(ctx);
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelInboundHandlerContext<Object> ctx)
+            throws Exception {
+        if (getLogger().isEnabled(internalLevel)) {
+            logger.log(internalLevel, format(ctx,
+                    "WRITABILITY_CHANGED(writable: " + ctx.channel().isWritable() + ')'));
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
     @Override
     public void exceptionCaught(ChannelInboundHandlerContext<Object> ctx,
             Throwable cause) throws Exception {
@@ -411,4 +422,14 @@ public class LoggingHandler extends ChannelHandlerAdapter<Object, Object> {
         }
         ctx.flush(future);
     }
+
+    @Override
+    public void sendFile(ChannelOutboundHandlerContext<Object> ctx,
+            FileRegion region, ChannelFuture future) throws Exception {
+        if (getLogger().isEnabled(internalLevel)) {
+            logger.log(internalLevel, format(ctx,
+                    "SENDFILE(position: " + region.position() + ", count: " + region.count() + ')'));
+        }
+        super.sendFile(ctx, region, future);
+    }
 }
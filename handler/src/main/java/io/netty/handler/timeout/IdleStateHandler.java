@@ -256,6 +256,10 @@ public class IdleStateHandler extends ChannelHandlerAdapter<Object, Object> {
 
     @Override
     public void flush(final ChannelOutboundHandlerContext<Object> ctx, ChannelFuture future) throws Exception {
+        if (future == ctx.voidFuture()) {
+            // A void future does not accept a listener.
+            future = ctx.newFuture();
+        }
         future.addListener(new ChannelFutureListener() {
             @Override
             public void operationComplete(ChannelFuture future) throws Exception {
@@ -110,13 +110,19 @@ public class WriteTimeoutHandler extends ChannelOutboundHandlerAdapter<Object> {
     }
 
     @Override
-    public void flush(final ChannelOutboundHandlerContext<Object> ctx, final ChannelFuture future) throws Exception {
+    public void flush(final ChannelOutboundHandlerContext<Object> ctx, ChannelFuture future) throws Exception {
         if (timeoutMillis > 0) {
+            if (future == ctx.voidFuture()) {
+                // A void future does not accept a listener.
+                future = ctx.newFuture();
+            }
+
             // Schedule a timeout.
+            final ChannelFuture writeFuture = future;
             final ScheduledFuture<?> sf = ctx.executor().schedule(new Runnable() {
                 @Override
                 public void run() {
-                    if (future.setFailure(WriteTimeoutException.INSTANCE)) {
+                    if (writeFuture.setFailure(WriteTimeoutException.INSTANCE)) {
                         // If succeeded to mark as failure, notify the pipeline, too.
                         try {
                             writeTimedOut(ctx);
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.traffic;
+
+import io.netty.buffer.ChannelBuffer;
+import io.netty.buffer.ChannelBuffers;
+import io.netty.channel.ChannelBufferHolder;
+import io.netty.channel.ChannelBufferHolders;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureNotifier;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerContext;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the read and write throughput of a stream channel according to
+ * one or more {@link TrafficCounter}s, without blocking the event loop.
+ * <p>
+ * When the bytes read exceed the read limit, reading is suspended by turning
+ * off {@linkplain ChannelConfig#setAutoRead(boolean) auto read} and resumed
+ * by a task scheduled in the event loop.  When the bytes written exceed the
+ * write limit, the flushed bytes are queued and flushed by a scheduled task
+ * later.  The {@link ChannelFuture} of a delayed flush is notified when the
+ * queued bytes have been flushed.
+ * <p>
+ * The queued bytes are not counted toward the
+ * {@linkplain ChannelConfig#getWriteBufferHighWaterMark() write buffer water marks},
+ * so {@link io.netty.channel.Channel#isWritable()} does not reflect them.  A
+ * handler that produces data faster than the write limit allows should check
+ * {@link #queuedBytes()} as well.
+ * <p>
+ * A new handler instance is required for each channel.  It should be placed
+ * at the head of the pipeline, where the traffic is a stream of bytes:
+ * <pre>
+ * pipeline.addFirst("trafficShaper", new {@link ChannelTrafficShapingHandler}(writeLimit, readLimit));
+ * </pre>
+ */
+public abstract class AbstractTrafficShapingHandler extends ChannelHandlerAdapter<Byte, Byte> {
+
+    /** The maximum time in milliseconds a read is suspended or a flush is delayed for. */
+    public static final long DEFAULT_MAX_TIME = 15000;
+
+    /** Waits shorter than this are ignored, because the scheduler is not that precise. */
+    static final long MINIMAL_WAIT = 10;
+
+    private final TrafficCounter globalCounter;
+    private final TrafficCounter channelCounter;
+
+    private final Deque<PendingWrite> pendingWrites = new ArrayDeque<PendingWrite>();
+    private long queuedBytes;
+    private ScheduledFuture<?> sendTimeout;
+    private ScheduledFuture<?> reopenReadTimeout;
+    private ChannelHandlerContext ctx;
+
+    private final Runnable sendTask = new Runnable() {
+        @Override
+        public void run() {
+            sendTimeout = null;
+            long now = System.currentTimeMillis();
+            sendPendingWrites(now);
+            scheduleSend(now);
+        }
+    };
+
+    private final Runnable reopenReadTask = new Runnable() {
+        @Override
+        public void run() {
+            reopenReadTimeout = null;
+            ctx.channel().config().setAutoRead(true);
+        }
+    };
+
+    /**
+     * Creates a new instance.
+     *
+     * @param globalCounter  the counter shared with the other channels, or {@code null}
+     * @param channelCounter the counter of this channel only, or {@code null}
+     */
+    protected AbstractTrafficShapingHandler(TrafficCounter globalCounter, TrafficCounter channelCounter) {
+        if (globalCounter == null && channelCounter == null) {
+            throw new NullPointerException("globalCounter and channelCounter");
+        }
+        this.globalCounter = globalCounter;
+        this.channelCounter = channelCounter;
+    }
+
+    /**
+     * Returns the counter shared with the other channels, or {@code null} if
+     * there is no global limit.
+     */
+    public TrafficCounter globalCounter() {
+        return globalCounter;
+    }
+
+    /**
+     * Returns the counter of this channel only, or {@code null} if there is no
+     * per-channel limit.
+     */
+    public TrafficCounter channelCounter() {
+        return channelCounter;
+    }
+
+    /**
+     * Returns the number of bytes whose flush is delayed at the moment.  They
+     * are not counted by {@link io.netty.channel.Channel#isWritable()}.
+     */
+    public long queuedBytes() {
+        return queuedBytes;
+    }
+
+    @Override
+    public ChannelBufferHolder<Byte> newInboundBuffer(ChannelInboundHandlerContext<Byte> ctx) throws Exception {
+        return ChannelBufferHolders.byteBuffer();
+    }
+
+    @Override
+    public ChannelBufferHolder<Byte> newOutboundBuffer(ChannelOutboundHandlerContext<Byte> ctx) throws Exception {
+        return ChannelBufferHolders.byteBuffer();
+    }
+
+    @Override
+    public void beforeAdd(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void beforeRemove(ChannelHandlerContext ctx) throws Exception {
+        // Let the traffic through without delay from now on.
+        sendPendingWrites(Long.MAX_VALUE);
+        cancelTimeouts();
+    }
+
+    @Override
+    public void channelInactive(ChannelInboundHandlerContext<Byte> ctx) throws Exception {
+        cancelTimeouts();
+        failPendingWrites(new ClosedChannelException());
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void inboundBufferUpdated(ChannelInboundHandlerContext<Byte> ctx) throws Exception {
+        ChannelBuffer in = ctx.inbound().byteBuffer();
+        int size = in.readableBytes();
+        if (size > 0) {
+            long now = System.currentTimeMillis();
+            long wait = 0;
+            if (globalCounter != null) {
+                globalCounter.bytesRead(size, now);
+                wait = globalCounter.readTimeToWait(now);
+            }
+            if (channelCounter != null) {
+                channelCounter.bytesRead(size, now);
+                wait = Math.max(wait, channelCounter.readTimeToWait(now));
+            }
+
+            wait = checkWait(wait);
+            if (wait > 0) {
+                suspendRead(ctx, wait);
+            }
+
+            ctx.nextInboundByteBuffer().writeBytes(in);
+            in.discardReadBytes();
+        }
+        ctx.fireInboundBufferUpdated();
+    }
+
+    @Override
+    public void flush(ChannelOutboundHandlerContext<Byte> ctx, ChannelFuture future) throws Exception {
+        ChannelBuffer out = ctx.outbound().byteBuffer();
+        int size = out.readableBytes();
+        long now = System.currentTimeMillis();
+        long wait = checkWait(writeTimeToWait(size, now));
+
+        if (wait == 0 && pendingWrites.isEmpty()) {
+            ctx.nextOutboundByteBuffer().writeBytes(out);
+            out.discardReadBytes();
+            ctx.flush(future);
+            return;
+        }
+
+        ChannelBuffer buf = size > 0? out.readBytes(size) : ChannelBuffers.EMPTY_BUFFER;
+        out.discardReadBytes();
+        enqueue(new PendingWrite(buf, null, future, now + wait), size, now);
+    }
+
+    @Override
+    public void sendFile(ChannelOutboundHandlerContext<Byte> ctx, FileRegion region, ChannelFuture future)
+            throws Exception {
+        // Flush what's been buffered so far so that the region is not sent before it.
+        if (!ctx.outbound().isEmpty()) {
+            flush(ctx, ctx.newFuture());
+        }
+
+        long now = System.currentTimeMillis();
+        long wait = checkWait(writeTimeToWait(region.count(), now));
+        if (wait == 0 && pendingWrites.isEmpty()) {
+            ctx.sendFile(region, future);
+            return;
+        }
+
+        enqueue(new PendingWrite(null, region, future, now + wait), region.count(), now);
+    }
+
+    private long writeTimeToWait(long size, long now) {
+        if (size == 0) {
+            return 0;
+        }
+
+        long wait = 0;
+        if (globalCounter != null) {
+            globalCounter.bytesWritten(size, now);
+            wait = globalCounter.writeTimeToWait(now);
+        }
+        if (channelCounter != null) {
+            channelCounter.bytesWritten(size, now);
+            wait = Math.max(wait, channelCounter.writeTimeToWait(now));
+        }
+        return wait;
+    }
+
+    private static long checkWait(long wait) {
+        if (wait < MINIMAL_WAIT) {
+            return 0;
+        }
+        return Math.min(wait, DEFAULT_MAX_TIME);
+    }
+
+    private void suspendRead(ChannelHandlerContext ctx, long wait) {
+        ChannelConfig config = ctx.channel().config();
+        if (reopenReadTimeout != null || !config.isAutoRead()) {
+            // Suspended already, either by this handler or by the user.
+            return;
+        }
+
+        config.setAutoRead(false);
+        reopenReadTimeout = ctx.executor().schedule(reopenReadTask, wait, TimeUnit.MILLISECONDS);
+    }
+
+    private void enqueue(PendingWrite write, long size, long now) {
+        // Keep the flushes in order even if a later one has to wait less.
+        PendingWrite last = pendingWrites.peekLast();
+        if (last != null && last.sendTime > write.sendTime) {
+            write.sendTime = last.sendTime;
+        }
+
+        pendingWrites.add(write);
+        queuedBytes += size;
+        scheduleSend(now);
+    }
+
+    private void scheduleSend(long now) {
+        PendingWrite first = pendingWrites.peek();
+        if (sendTimeout != null || first == null) {
+            return;
+        }
+        sendTimeout = ctx.executor().schedule(
+                sendTask, Math.max(first.sendTime - now, 0), TimeUnit.MILLISECONDS);
+    }
+
+    private void sendPendingWrites(long now) {
+        List<ChannelFuture> futures = new ArrayList<ChannelFuture>();
+        boolean flushNeeded = false;
+        for (;;) {
+            PendingWrite write = pendingWrites.peek();
+            if (write == null || write.sendTime > now) {
+                break;
+            }
+            pendingWrites.remove();
+
+            if (write.region != null) {
+                if (flushNeeded) {
+                    flush(futures);
+                    flushNeeded = false;
+                }
+                queuedBytes -= write.region.count();
+                ctx.sendFile(write.region, write.future);
+                continue;
+            }
+
+            queuedBytes -= write.buf.readableBytes();
+            ctx.nextOutboundByteBuffer().writeBytes(write.buf);
+            if (write.future != ctx.voidFuture()) {
+                futures.add(write.future);
+            }
+            flushNeeded = true;
+        }
+
+        if (flushNeeded) {
+            flush(futures);
+        }
+    }
+
+    private void flush(List<ChannelFuture> futures) {
+        ctx.flush(ChannelFutureNotifier.combine(ctx, futures));
+    }
+
+    private void failPendingWrites(Throwable cause) {
+        for (;;) {
+            PendingWrite write = pendingWrites.poll();
+            if (write == null) {
+                break;
+            }
+            if (write.region != null) {
+                releaseFileRegion(write.region);
+            }
+            if (write.future != ctx.voidFuture()) {
+                write.future.setFailure(cause);
+            }
+        }
+        queuedBytes = 0;
+    }
+
+    /**
+     * Releases the specified {@link FileRegion} the same way the transport
+     * does when it fails to send it.
+     */
+    private static void releaseFileRegion(FileRegion region) {
+        if (region instanceof DefaultFileRegion &&
+            ((DefaultFileRegion) region).releaseAfterTransfer()) {
+            region.releaseExternalResources();
+        }
+    }
+
+    private void cancelTimeouts() {
+        if (sendTimeout != null) {
+            sendTimeout.cancel(false);
+            sendTimeout = null;
+        }
+        if (reopenReadTimeout != null) {
+            reopenReadTimeout.cancel(false);
+            reopenReadTimeout = null;
+            ctx.channel().config().setAutoRead(true);
+        }
+    }
+
+    private static final class PendingWrite {
+        final ChannelBuffer buf;
+        final FileRegion region;
+        final ChannelFuture future;
+        long sendTime;
+
+        PendingWrite(ChannelBuffer buf, FileRegion region, ChannelFuture future, long sendTime) {
+            this.buf = buf;
+            this.region = region;
+            this.future = future;
+            this.sendTime = sendTime;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.traffic;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the throughput of a single channel.  The traffic of the channel is
+ * available via {@link #channelCounter()}.
+ */
+public class ChannelTrafficShapingHandler extends AbstractTrafficShapingHandler {
+
+    /**
+     * Creates a new instance.
+     *
+     * @param writeLimit the maximum write throughput in bytes per second, or {@code 0} for no limit
+     * @param readLimit  the maximum read throughput in bytes per second, or {@code 0} for no limit
+     */
+    public ChannelTrafficShapingHandler(long writeLimit, long readLimit) {
+        this(writeLimit, readLimit, TrafficCounter.DEFAULT_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param writeLimit    the maximum write throughput in bytes per second, or {@code 0} for no limit
+     * @param readLimit     the maximum read throughput in bytes per second, or {@code 0} for no limit
+     * @param checkInterval the interval the traffic is accounted and the throughput is computed for
+     * @param unit          the {@link TimeUnit} of {@code checkInterval}
+     */
+    public ChannelTrafficShapingHandler(long writeLimit, long readLimit, long checkInterval, TimeUnit unit) {
+        super(null, new TrafficCounter(writeLimit, readLimit, checkInterval, unit));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.traffic;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits both the throughput of a single channel and the aggregate
+ * throughput of all channels which share the same {@link TrafficCounter}.
+ * The stricter of the two limits applies.  This is useful to give every
+ * tenant connection a fair share while capping the total bandwidth:
+ * <pre>
+ * {@link TrafficCounter} global = new {@link TrafficCounter}(totalWriteLimit, totalReadLimit);
+ *
+ * // For each new channel:
+ * pipeline.addFirst("trafficShaper",
+ *         new {@link GlobalChannelTrafficShapingHandler}(global, writeLimit, readLimit));
+ * </pre>
+ */
+public class GlobalChannelTrafficShapingHandler extends AbstractTrafficShapingHandler {
+
+    /**
+     * Creates a new instance.
+     *
+     * @param globalCounter the counter shared by the channels whose throughput is limited together
+     * @param writeLimit    the maximum write throughput of this channel in bytes per second,
+     *                      or {@code 0} for no limit
+     * @param readLimit     the maximum read throughput of this channel in bytes per second,
+     *                      or {@code 0} for no limit
+     */
+    public GlobalChannelTrafficShapingHandler(TrafficCounter globalCounter, long writeLimit, long readLimit) {
+        this(globalCounter, writeLimit, readLimit, TrafficCounter.DEFAULT_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param globalCounter the counter shared by the channels whose throughput is limited together
+     * @param writeLimit    the maximum write throughput of this channel in bytes per second,
+     *                      or {@code 0} for no limit
+     * @param readLimit     the maximum read throughput of this channel in bytes per second,
+     *                      or {@code 0} for no limit
+     * @param checkInterval the interval the traffic of this channel is accounted for
+     * @param unit          the {@link TimeUnit} of {@code checkInterval}
+     */
+    public GlobalChannelTrafficShapingHandler(
+            TrafficCounter globalCounter, long writeLimit, long readLimit, long checkInterval, TimeUnit unit) {
+        super(GlobalTrafficShapingHandler.checkNotNull(globalCounter),
+              new TrafficCounter(writeLimit, readLimit, checkInterval, unit));
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.traffic;
+
+/**
+ * Limits the aggregate throughput of all channels which share the same
+ * {@link TrafficCounter}:
+ * <pre>
+ * {@link TrafficCounter} global = new {@link TrafficCounter}(writeLimit, readLimit);
+ *
+ * // For each new channel:
+ * pipeline.addFirst("trafficShaper", new {@link GlobalTrafficShapingHandler}(global));
+ * </pre>
+ */
+public class GlobalTrafficShapingHandler extends AbstractTrafficShapingHandler {
+
+    /**
+     * Creates a new instance.
+     *
+     * @param globalCounter the counter shared by the channels whose throughput is limited together
+     */
+    public GlobalTrafficShapingHandler(TrafficCounter globalCounter) {
+        super(checkNotNull(globalCounter), null);
+    }
+
+    static TrafficCounter checkNotNull(TrafficCounter globalCounter) {
+        if (globalCounter == null) {
+            throw new NullPointerException("globalCounter");
+        }
+        return globalCounter;
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.traffic;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the bytes read and written by one or more channels, and limits the
+ * throughput of the {@link AbstractTrafficShapingHandler}s which share it.
+ * <p>
+ * The traffic is accounted per check interval.  When an interval is over,
+ * the number of bytes transferred during the interval and the resulting
+ * throughput become available via {@link #lastReadBytes()},
+ * {@link #lastReadThroughput()} and their write counterparts.  A counter is
+ * thread-safe, so a single instance can be shared by the handlers of many
+ * channels to enforce a global limit.
+ */
+public class TrafficCounter {
+
+    /** The default check interval in milliseconds. */
+    public static final long DEFAULT_CHECK_INTERVAL = 1000;
+
+    private final long checkInterval;
+    private volatile long writeLimit;
+    private volatile long readLimit;
+
+    private final AtomicLong currentWrittenBytes = new AtomicLong();
+    private final AtomicLong currentReadBytes = new AtomicLong();
+    private final AtomicLong cumulativeWrittenBytes = new AtomicLong();
+    private final AtomicLong cumulativeReadBytes = new AtomicLong();
+
+    private volatile long lastTime;
+    private volatile long lastWrittenBytes;
+    private volatile long lastReadBytes;
+    private volatile long lastWriteThroughput;
+    private volatile long lastReadThroughput;
+
+    /**
+     * Creates a new instance with the {@linkplain #DEFAULT_CHECK_INTERVAL default check interval}.
+     *
+     * @param writeLimit the maximum write throughput in bytes per second, or {@code 0} for no limit
+     * @param readLimit  the maximum read throughput in bytes per second, or {@code 0} for no limit
+     */
+    public TrafficCounter(long writeLimit, long readLimit) {
+        this(writeLimit, readLimit, DEFAULT_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param writeLimit    the maximum write throughput in bytes per second, or {@code 0} for no limit
+     * @param readLimit     the maximum read throughput in bytes per second, or {@code 0} for no limit
+     * @param checkInterval the interval the traffic is accounted and the throughput is computed for
+     * @param unit          the {@link TimeUnit} of {@code checkInterval}
+     */
+    public TrafficCounter(long writeLimit, long readLimit, long checkInterval, TimeUnit unit) {
+        if (unit == null) {
+            throw new NullPointerException("unit");
+        }
+        if (checkInterval <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "checkInterval: %d (expected: > 0)", checkInterval));
+        }
+        setWriteLimit(writeLimit);
+        setReadLimit(readLimit);
+        this.checkInterval = Math.max(unit.toMillis(checkInterval), 1);
+        lastTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the check interval in milliseconds.
+     */
+    public long checkInterval() {
+        return checkInterval;
+    }
+
+    /**
+     * Returns the maximum write throughput in bytes per second.  {@code 0} means no limit.
+     */
+    public long writeLimit() {
+        return writeLimit;
+    }
+
+    /**
+     * Changes the maximum write throughput in bytes per second.  {@code 0} means no limit.
+     */
+    public void setWriteLimit(long writeLimit) {
+        if (writeLimit < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "writeLimit: %d (expected: >= 0)", writeLimit));
+        }
+        this.writeLimit = writeLimit;
+    }
+
+    /**
+     * Returns the maximum read throughput in bytes per second.  {@code 0} means no limit.
+     */
+    public long readLimit() {
+        return readLimit;
+    }
+
+    /**
+     * Changes the maximum read throughput in bytes per second.  {@code 0} means no limit.
+     */
+    public void setReadLimit(long readLimit) {
+        if (readLimit < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "readLimit: %d (expected: >= 0)", readLimit));
+        }
+        this.readLimit = readLimit;
+    }
+
+    /**
+     * Returns the number of bytes written during the current interval.
+     */
+    public long currentWrittenBytes() {
+        checkInterval(System.currentTimeMillis());
+        return currentWrittenBytes.get();
+    }
+
+    /**
+     * Returns the number of bytes read during the current interval.
+     */
+    public long currentReadBytes() {
+        checkInterval(System.currentTimeMillis());
+        return currentReadBytes.get();
+    }
+
+    /**
+     * Returns the number of bytes written since this counter was created.
+     */
+    public long cumulativeWrittenBytes() {
+        return cumulativeWrittenBytes.get();
+    }
+
+    /**
+     * Returns the number of bytes read since this counter was created.
+     */
+    public long cumulativeReadBytes() {
+        return cumulativeReadBytes.get();
+    }
+
+    /**
+     * Returns the number of bytes written during the last complete interval.
+     */
+    public long lastWrittenBytes() {
+        checkInterval(System.currentTimeMillis());
+        return lastWrittenBytes;
+    }
+
+    /**
+     * Returns the number of bytes read during the last complete interval.
+     */
+    public long lastReadBytes() {
+        checkInterval(System.currentTimeMillis());
+        return lastReadBytes;
+    }
+
+    /**
+     * Returns the write throughput of the last complete interval in bytes per second.
+     */
+    public long lastWriteThroughput() {
+        checkInterval(System.currentTimeMillis());
+        return lastWriteThroughput;
+    }
+
+    /**
+     * Returns the read throughput of the last complete interval in bytes per second.
+     */
+    public long lastReadThroughput() {
+        checkInterval(System.currentTimeMillis());
+        return lastReadThroughput;
+    }
+
+    void bytesWritten(long amount, long now) {
+        checkInterval(now);
+        currentWrittenBytes.addAndGet(amount);
+        cumulativeWrittenBytes.addAndGet(amount);
+    }
+
+    void bytesRead(long amount, long now) {
+        checkInterval(now);
+        currentReadBytes.addAndGet(amount);
+        cumulativeReadBytes.addAndGet(amount);
+    }
+
+    /**
+     * Returns the number of milliseconds the writer has to wait so that the
+     * bytes written during the current interval do not exceed the write limit.
+     */
+    long writeTimeToWait(long now) {
+        return timeToWait(currentWrittenBytes.get(), writeLimit, now - lastTime);
+    }
+
+    /**
+     * Returns the number of milliseconds the reader has to wait so that the
+     * bytes read during the current interval do not exceed the read limit.
+     */
+    long readTimeToWait(long now) {
+        return timeToWait(currentReadBytes.get(), readLimit, now - lastTime);
+    }
+
+    private static long timeToWait(long bytes, long limit, long elapsed) {
+        if (limit == 0 || bytes == 0) {
+            return 0;
+        }
+        return Math.max(bytes * 1000 / limit - elapsed, 0);
+    }
+
+    private void checkInterval(long now) {
+        if (now - lastTime < checkInterval) {
+            return;
+        }
+
+        synchronized (this) {
+            long elapsed = now - lastTime;
+            if (elapsed < checkInterval) {
+                return;
+            }
+
+            long written = currentWrittenBytes.getAndSet(0);
+            long read = currentReadBytes.getAndSet(0);
+            lastWrittenBytes = written;
+            lastReadBytes = read;
+            lastWriteThroughput = written * 1000 / elapsed;
+            lastReadThroughput = read * 1000 / elapsed;
+            lastTime = now;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() +
+                "(writeLimit: " + writeLimit +
+                ", readLimit: " + readLimit +
+                ", lastWriteThroughput: " + lastWriteThroughput() +
+                ", lastReadThroughput: " + lastReadThroughput() +
+                ", cumulativeWrittenBytes: " + cumulativeWrittenBytes() +
+                ", cumulativeReadBytes: " + cumulativeReadBytes() + ')';
+    }
+}
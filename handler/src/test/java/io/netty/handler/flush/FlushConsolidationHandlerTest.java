@@ -0,0 +1,195 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.flush;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelBufferHolder;
+import io.netty.channel.ChannelBufferHolders;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelInboundMessageHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerContext;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalEventLoop;
+import io.netty.channel.local.LocalServerChannel;
+
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class FlushConsolidationHandlerTest {
+
+    private static final int MESSAGES = 64;
+    private static final LocalAddress ADDRESS = new LocalAddress("flush-consolidation");
+
+    private final AtomicInteger flushes = new AtomicInteger();
+    private final BlockingQueue<ChannelFuture> writeFutures = new LinkedBlockingQueue<ChannelFuture>();
+    private final BlockingQueue<Object> responses = new LinkedBlockingQueue<Object>();
+    private final BlockingQueue<Channel> serverChannels = new LinkedBlockingQueue<Channel>();
+    private ServerBootstrap sb;
+    private Bootstrap cb;
+
+    @After
+    public void stop() {
+        if (sb != null) {
+            sb.shutdown();
+        }
+        if (cb != null) {
+            cb.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testFlushesInReadProcessAreConsolidated() throws Exception {
+        Channel cc = start(new FlushConsolidationHandler());
+        sendRequests(cc);
+        assertResponses();
+        assertEquals(1, flushes.get());
+        cc.close().sync();
+    }
+
+    @Test(timeout = 10000)
+    public void testExplicitFlushAfterFlushes() throws Exception {
+        Channel cc = start(new FlushConsolidationHandler(10, false));
+        sendRequests(cc);
+        assertResponses();
+        // A flush after every 10 deferred flushes, and one for the last 4 at the end of the read process.
+        assertEquals(7, flushes.get());
+        cc.close().sync();
+    }
+
+    @Test(timeout = 10000)
+    public void testFlushesOutsideReadProcessAreForwarded() throws Exception {
+        Channel cc = start(new FlushConsolidationHandler());
+        writeOutsideReadProcess(serverChannels.poll(5, TimeUnit.SECONDS));
+        assertResponses();
+        assertEquals(MESSAGES, flushes.get());
+        cc.close().sync();
+    }
+
+    @Test(timeout = 10000)
+    public void testConsolidateWhenNoReadInProgress() throws Exception {
+        Channel cc = start(new FlushConsolidationHandler(
+                FlushConsolidationHandler.DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES, true));
+        writeOutsideReadProcess(serverChannels.poll(5, TimeUnit.SECONDS));
+        assertResponses();
+        assertEquals(1, flushes.get());
+        cc.close().sync();
+    }
+
+    private Channel start(final FlushConsolidationHandler handler) throws Exception {
+        sb = new ServerBootstrap();
+        sb.eventLoop(new LocalEventLoop(), new LocalEventLoop())
+          .channel(new LocalServerChannel())
+          .localAddress(ADDRESS)
+          .childHandler(new ChannelInitializer<LocalChannel>() {
+              @Override
+              public void initChannel(LocalChannel ch) throws Exception {
+                  ch.pipeline().addLast(new FlushCounter(flushes));
+                  ch.pipeline().addLast(handler);
+                  ch.pipeline().addLast(new ChannelInboundMessageHandlerAdapter<Object>() {
+                      @Override
+                      public void messageReceived(ChannelInboundHandlerContext<Object> ctx, Object msg) {
+                          // Respond with one flush per message.
+                          writeFutures.add(ctx.write(msg));
+                      }
+                  });
+                  serverChannels.add(ch);
+              }
+          });
+
+        cb = new Bootstrap();
+        cb.eventLoop(new LocalEventLoop())
+          .channel(new LocalChannel())
+          .remoteAddress(ADDRESS)
+          .handler(new ChannelInboundMessageHandlerAdapter<Object>() {
+              @Override
+              public void messageReceived(ChannelInboundHandlerContext<Object> ctx, Object msg) {
+                  responses.add(msg);
+              }
+          });
+
+        sb.bind().sync();
+        return cb.connect().sync().channel();
+    }
+
+    private static void sendRequests(final Channel cc) throws Exception {
+        // Send all requests with a single flush so that the server reads them in a single batch.
+        cc.eventLoop().submit(new Runnable() {
+            @Override
+            public void run() {
+                Queue<Object> out = cc.outboundMessageBuffer();
+                for (int i = 0; i < MESSAGES; i ++) {
+                    out.add(i);
+                }
+                cc.flush();
+            }
+        }).get();
+    }
+
+    private void writeOutsideReadProcess(final Channel sc) throws Exception {
+        // Write with one flush per message from a task rather than from an inboundBufferUpdated event.
+        sc.eventLoop().submit(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < MESSAGES; i ++) {
+                    writeFutures.add(sc.write(i));
+                }
+            }
+        }).get();
+    }
+
+    private void assertResponses() throws Exception {
+        for (int i = 0; i < MESSAGES; i ++) {
+            assertEquals(i, responses.poll(5, TimeUnit.SECONDS));
+            assertTrue(writeFutures.take().await(5000));
+        }
+        for (ChannelFuture f: writeFutures) {
+            assertTrue(f.isSuccess());
+        }
+    }
+
+    private static final class FlushCounter extends ChannelOutboundHandlerAdapter<Object> {
+        private final AtomicInteger flushes;
+
+        FlushCounter(AtomicInteger flushes) {
+            this.flushes = flushes;
+        }
+
+        @Override
+        public ChannelBufferHolder<Object> newOutboundBuffer(
+                ChannelOutboundHandlerContext<Object> ctx) throws Exception {
+            return ChannelBufferHolders.outboundBypassBuffer(ctx);
+        }
+
+        @Override
+        public void flush(ChannelOutboundHandlerContext<Object> ctx, ChannelFuture future) throws Exception {
+            flushes.incrementAndGet();
+            ctx.flush(future);
+        }
+    }
+}
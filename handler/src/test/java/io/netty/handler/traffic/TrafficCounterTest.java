@@ -0,0 +1,69 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.traffic;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class TrafficCounterTest {
+
+    @Test
+    public void testTimeToWait() {
+        TrafficCounter counter = new TrafficCounter(10000, 0);
+        long now = System.currentTimeMillis();
+
+        counter.bytesWritten(5000, now);
+        long wait = counter.writeTimeToWait(now);
+        assertTrue(String.valueOf(wait), wait > 400 && wait <= 500);
+
+        // No read limit.
+        counter.bytesRead(5000, now);
+        assertEquals(0, counter.readTimeToWait(now));
+
+        counter.setReadLimit(5000);
+        wait = counter.readTimeToWait(now);
+        assertTrue(String.valueOf(wait), wait > 900 && wait <= 1000);
+    }
+
+    @Test
+    public void testInterval() {
+        TrafficCounter counter = new TrafficCounter(0, 0);
+        long now = System.currentTimeMillis();
+
+        counter.bytesWritten(3000, now);
+        counter.bytesRead(1000, now);
+        assertEquals(3000, counter.currentWrittenBytes());
+        assertEquals(1000, counter.currentReadBytes());
+        assertEquals(0, counter.lastWrittenBytes());
+
+        // The next interval starts with the next accounting.
+        counter.bytesWritten(500, now + 2000);
+        assertEquals(500, counter.currentWrittenBytes());
+        assertEquals(0, counter.currentReadBytes());
+        assertEquals(3000, counter.lastWrittenBytes());
+        assertEquals(1000, counter.lastReadBytes());
+        assertTrue(counter.lastWriteThroughput() > 1400 && counter.lastWriteThroughput() <= 1500);
+        assertTrue(counter.lastReadThroughput() > 400 && counter.lastReadThroughput() <= 500);
+        assertEquals(3500, counter.cumulativeWrittenBytes());
+        assertEquals(1000, counter.cumulativeReadBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLimit() {
+        new TrafficCounter(-1, 0);
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.traffic;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ChannelBuffer;
+import io.netty.buffer.ChannelBuffers;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelBufferHolder;
+import io.netty.channel.ChannelBufferHolders;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelInboundStreamHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOutboundHandlerContext;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalEventLoop;
+import io.netty.channel.local.LocalServerChannel;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TrafficShapingHandlerTest {
+
+    private static final LocalAddress ADDRESS = new LocalAddress("traffic-shaping");
+
+    private final AtomicInteger received = new AtomicInteger();
+    private final BlockingQueue<AbstractTrafficShapingHandler> serverShapers =
+            new LinkedBlockingQueue<AbstractTrafficShapingHandler>();
+    private final BlockingQueue<Channel> serverChannels = new LinkedBlockingQueue<Channel>();
+    private final BlockingQueue<Boolean> serverAutoRead = new LinkedBlockingQueue<Boolean>();
+    private volatile long serverReadLimit;
+    private ServerBootstrap sb;
+
+    @Before
+    public void startServer() throws Exception {
+        sb = new ServerBootstrap();
+        sb.eventLoop(new LocalEventLoop(), new LocalEventLoop())
+          .channel(new LocalServerChannel())
+          .localAddress(ADDRESS)
+          .childHandler(new ChannelInitializer<LocalChannel>() {
+              @Override
+              public void initChannel(LocalChannel ch) throws Exception {
+                  serverChannels.add(ch);
+                  ch.pipeline().addLast(new StreamAdapter());
+                  if (serverReadLimit > 0) {
+                      AbstractTrafficShapingHandler shaper = new ChannelTrafficShapingHandler(0, serverReadLimit);
+                      serverShapers.add(shaper);
+                      ch.pipeline().addLast(shaper);
+                  }
+                  ch.pipeline().addLast(new ChannelInboundStreamHandlerAdapter() {
+                      @Override
+                      public void inboundBufferUpdated(ChannelInboundHandlerContext<Byte> ctx, ChannelBuffer in) {
+                          serverAutoRead.add(ctx.channel().config().isAutoRead());
+                          received.addAndGet(in.readableBytes());
+                          in.skipBytes(in.readableBytes());
+                          in.discardReadBytes();
+                      }
+                  });
+              }
+          });
+        sb.bind().sync();
+    }
+
+    @After
+    public void stopServer() {
+        sb.shutdown();
+    }
+
+    @Test(timeout = 10000)
+    public void testWriteShaping() throws Exception {
+        ChannelTrafficShapingHandler shaper = new ChannelTrafficShapingHandler(10000, 0);
+        Bootstrap cb = newClient(shaper);
+        try {
+            final Channel cc = cb.connect().sync().channel();
+
+            long startTime = System.nanoTime();
+            List<ChannelFuture> futures = write(cc, 3, 5000);
+            assertTrue(shaper.queuedBytes() > 0);
+
+            for (ChannelFuture f: futures) {
+                assertTrue(f.await(5, TimeUnit.SECONDS));
+                assertTrue(f.isSuccess());
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+            // 15000 bytes at 10000 bytes per second.
+            assertTrue(String.valueOf(elapsed), elapsed >= 1000);
+            waitForReceived(15000);
+            assertEquals(0, shaper.queuedBytes());
+            assertEquals(15000, shaper.channelCounter().cumulativeWrittenBytes());
+        } finally {
+            cb.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testWriteShapingWhileShuttingDown() throws Exception {
+        ChannelTrafficShapingHandler shaper = new ChannelTrafficShapingHandler(10000, 0);
+        Bootstrap cb = newClient(shaper);
+        try {
+            final Channel cc = cb.connect().sync().channel();
+
+            List<ChannelFuture> futures = write(cc, 3, 5000);
+            assertTrue(shaper.queuedBytes() > 0);
+
+            // The queued writes are still sent during the quiet period.
+            cb.shutdownGracefully(500, 5000, TimeUnit.MILLISECONDS);
+            for (ChannelFuture f: futures) {
+                assertTrue(f.await(5, TimeUnit.SECONDS));
+                assertTrue(f.isSuccess());
+            }
+            waitForReceived(15000);
+            assertEquals(0, shaper.queuedBytes());
+            assertTrue(cc.eventLoop().awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            cb.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testQueuedFileRegionReleasedOnClose() throws Exception {
+        ChannelTrafficShapingHandler shaper = new ChannelTrafficShapingHandler(10000, 0);
+        Bootstrap cb = newClient(shaper);
+        File file = File.createTempFile("netty-", ".tmp");
+        file.deleteOnExit();
+        FileChannel fc = new RandomAccessFile(file, "r").getChannel();
+        try {
+            final Channel cc = cb.connect().sync().channel();
+
+            write(cc, 3, 5000);
+            ChannelFuture f = cc.sendFile(new DefaultFileRegion(fc, 0, 0));
+            assertTrue(shaper.queuedBytes() > 0);
+
+            cc.close().sync();
+            assertTrue(f.await(5, TimeUnit.SECONDS));
+            assertFalse(f.isSuccess());
+            assertFalse(fc.isOpen());
+            assertEquals(0, shaper.queuedBytes());
+        } finally {
+            fc.close();
+            cb.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testReadShaping() throws Exception {
+        serverReadLimit = 10000;
+        Bootstrap cb = newClient(null);
+        try {
+            Channel cc = cb.connect().sync().channel();
+            Channel sc = serverChannels.poll(5, TimeUnit.SECONDS);
+            AbstractTrafficShapingHandler shaper = serverShapers.poll(5, TimeUnit.SECONDS);
+
+            write(cc, 1, 20000);
+            waitForReceived(20000);
+
+            // Reading has been suspended and is resumed later.
+            assertEquals(Boolean.FALSE, serverAutoRead.poll(5, TimeUnit.SECONDS));
+            while (!sc.config().isAutoRead()) {
+                Thread.sleep(10);
+            }
+            assertEquals(20000, shaper.channelCounter().cumulativeReadBytes());
+        } finally {
+            cb.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testGlobalShaping() throws Exception {
+        TrafficCounter global = new TrafficCounter(10000, 0);
+        GlobalTrafficShapingHandler shaper1 = new GlobalTrafficShapingHandler(global);
+        GlobalChannelTrafficShapingHandler shaper2 = new GlobalChannelTrafficShapingHandler(global, 0, 0);
+        Bootstrap cb1 = newClient(shaper1);
+        Bootstrap cb2 = newClient(shaper2);
+        try {
+            Channel cc1 = cb1.connect().sync().channel();
+            Channel cc2 = cb2.connect().sync().channel();
+
+            // Neither channel exceeds the limit on its own, but together they do.
+            write(cc1, 1, 5000);
+            List<ChannelFuture> futures = write(cc2, 1, 5000);
+            assertTrue(shaper2.queuedBytes() > 0);
+
+            futures.get(0).sync();
+            waitForReceived(10000);
+            assertEquals(10000, global.cumulativeWrittenBytes());
+            assertEquals(5000, shaper2.channelCounter().cumulativeWrittenBytes());
+            assertNull(shaper1.channelCounter());
+        } finally {
+            cb1.shutdown();
+            cb2.shutdown();
+        }
+    }
+
+    private static Bootstrap newClient(final ChannelHandler shaper) {
+        Bootstrap cb = new Bootstrap();
+        cb.eventLoop(new LocalEventLoop())
+          .channel(new LocalChannel())
+          .remoteAddress(ADDRESS)
+          .handler(new ChannelInitializer<LocalChannel>() {
+              @Override
+              public void initChannel(LocalChannel ch) throws Exception {
+                  ch.pipeline().addLast(new StreamAdapter());
+                  if (shaper != null) {
+                      ch.pipeline().addLast(shaper);
+                  }
+              }
+          });
+        return cb;
+    }
+
+    private static List<ChannelFuture> write(final Channel ch, final int count, final int size) throws Exception {
+        return ch.eventLoop().submit(new Callable<List<ChannelFuture>>() {
+            @Override
+            public List<ChannelFuture> call() {
+                List<ChannelFuture> futures = new ArrayList<ChannelFuture>();
+                for (int i = 0; i < count; i ++) {
+                    futures.add(ch.write(ChannelBuffers.wrappedBuffer(new byte[size])));
+                }
+                return futures;
+            }
+        }).get();
+    }
+
+    private void waitForReceived(int expected) throws InterruptedException {
+        while (received.get() < expected) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, received.get());
+    }
+
+    /**
+     * Converts the buffers sent by the local transport into a stream of bytes and vice versa.
+     */
+    private static final class StreamAdapter extends ChannelHandlerAdapter<Object, Byte> {
+
+        @Override
+        public ChannelBufferHolder<Object> newInboundBuffer(ChannelInboundHandlerContext<Object> ctx) {
+            return ChannelBufferHolders.messageBuffer();
+        }
+
+        @Override
+        public ChannelBufferHolder<Byte> newOutboundBuffer(ChannelOutboundHandlerContext<Byte> ctx) {
+            return ChannelBufferHolders.byteBuffer();
+        }
+
+        @Override
+        public void inboundBufferUpdated(ChannelInboundHandlerContext<Object> ctx) {
+            Queue<Object> in = ctx.inbound().messageBuffer();
+            ChannelBuffer out = ctx.nextInboundByteBuffer();
+            for (;;) {
+                Object msg = in.poll();
+                if (msg == null) {
+                    break;
+                }
+                out.writeBytes((ChannelBuffer) msg);
+            }
+            ctx.fireInboundBufferUpdated();
+        }
+
+        @Override
+        public void flush(ChannelOutboundHandlerContext<Byte> ctx, ChannelFuture future) {
+            ChannelBuffer out = ctx.outbound().byteBuffer();
+            if (out.readable()) {
+                ctx.nextOutboundMessageBuffer().add(out.readBytes(out.readableBytes()));
+                out.discardReadBytes();
+            }
+            ctx.flush(future);
+        }
+    }
+}
@@ -17,14 +17,19 @@ package io.netty.testsuite.transport.socket;
 
 import static org.junit.Assert.*;
 import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ChannelBuffer;
 import io.netty.buffer.ChannelBuffers;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInboundHandlerContext;
 import io.netty.channel.ChannelInboundMessageHandlerAdapter;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.socket.DatagramPacket;
 
+import java.util.Arrays;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -67,4 +72,72 @@ public class DatagramUnicastTest extends AbstractDatagramTest {
         sc.close().sync();
         cc.close().sync();
     }
+
+    @Test
+    public void testPacketsOfVariousSizes() throws Throwable {
+        run();
+    }
+
+    public void testPacketsOfVariousSizes(Bootstrap sb, Bootstrap cb) throws Throwable {
+        final int[] sizes = { 4, 100, 1500, 20000, 8, 16000, 1, 3000 };
+        final int packets = sizes.length * 2;
+        final CountDownLatch latch = new CountDownLatch(packets);
+        final AtomicReference<Throwable> exception = new AtomicReference<Throwable>();
+
+        sb.option(ChannelOption.UDP_RECEIVE_PACKET_SIZE, 32768);
+        sb.handler(new ChannelInboundMessageHandlerAdapter<DatagramPacket>() {
+            @Override
+            public void messageReceived(
+                    ChannelInboundHandlerContext<DatagramPacket> ctx,
+                    DatagramPacket msg) throws Exception {
+                try {
+                    // Every byte of a packet is its size modulo 256.
+                    ChannelBuffer data = msg.data();
+                    int size = data.readableBytes();
+                    for (int i = data.readerIndex(); i < data.writerIndex(); i ++) {
+                        assertEquals((byte) size, data.getByte(i));
+                    }
+                } catch (Throwable t) {
+                    exception.compareAndSet(null, t);
+                }
+                latch.countDown();
+            }
+        });
+
+        cb.handler(new ChannelInboundMessageHandlerAdapter<DatagramPacket>() {
+            @Override
+            public void messageReceived(
+                    ChannelInboundHandlerContext<DatagramPacket> ctx,
+                    DatagramPacket msg) throws Exception {
+                // Nothing will be sent.
+            }
+        });
+
+        Channel sc = sb.bind().sync().channel();
+        Channel cc = cb.bind().sync().channel();
+
+        ChannelFuture f = null;
+        for (int i = 0; i < packets; i ++) {
+            int size = sizes[i % sizes.length];
+            byte[] data = new byte[size];
+            Arrays.fill(data, (byte) size);
+            ChannelBuffer buf;
+            if (i % 2 == 0) {
+                buf = ChannelBuffers.wrappedBuffer(data);
+            } else {
+                buf = ChannelBuffers.directBuffer(size);
+                buf.writeBytes(data);
+            }
+            f = cc.write(new DatagramPacket(buf, addr));
+        }
+        f.sync();
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        sc.close().sync();
+        cc.close().sync();
+
+        if (exception.get() != null) {
+            throw exception.get();
+        }
+    }
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.testsuite.transport.socket;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ChannelBuffer;
+import io.netty.buffer.ChannelBuffers;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelInboundStreamHandlerAdapter;
+import io.netty.channel.socket.nio.NioDomainSocketChannel;
+import io.netty.channel.socket.nio.NioDomainSockets;
+import io.netty.channel.socket.nio.NioEventLoop;
+import io.netty.channel.socket.nio.NioServerDomainSocketChannel;
+import io.netty.logging.InternalLogger;
+import io.netty.logging.InternalLoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class DomainSocketEchoTest {
+
+    private static final InternalLogger logger =
+            InternalLoggerFactory.getInstance(DomainSocketEchoTest.class);
+
+    private static final Random random = new Random();
+    static final byte[] data = new byte[1048576];
+
+    static {
+        random.nextBytes(data);
+    }
+
+    @Test
+    public void testSimpleEcho() throws Throwable {
+        if (!NioDomainSockets.isSupported()) {
+            logger.info("Unix domain sockets are not supported; skipping.");
+            return;
+        }
+
+        File file = File.createTempFile("netty-", ".sock");
+        file.delete();
+        SocketAddress addr = NioDomainSockets.newAddress(file.getPath());
+
+        ServerBootstrap sb = new ServerBootstrap().
+                eventLoop(new NioEventLoop(), new NioEventLoop()).
+                channel(new NioServerDomainSocketChannel()).
+                localAddress(addr);
+        Bootstrap cb = new Bootstrap().
+                eventLoop(new NioEventLoop()).
+                channel(new NioDomainSocketChannel()).
+                remoteAddress(addr);
+        try {
+            testSimpleEcho(sb, cb);
+        } finally {
+            sb.shutdown();
+            cb.shutdown();
+        }
+
+        // The socket file is deleted on close.
+        assertFalse(file.exists());
+    }
+
+    private static void testSimpleEcho(ServerBootstrap sb, Bootstrap cb) throws Throwable {
+        EchoHandler sh = new EchoHandler();
+        EchoHandler ch = new EchoHandler();
+
+        sb.childHandler(sh);
+        cb.handler(ch);
+
+        Channel sc = sb.bind().sync().channel();
+        Channel cc = cb.connect().sync().channel();
+        assertEquals(sc.localAddress(), cc.remoteAddress());
+
+        for (int i = 0; i < data.length;) {
+            int length = Math.min(random.nextInt(1024 * 64), data.length - i);
+            cc.write(ChannelBuffers.wrappedBuffer(data, i, length));
+            i += length;
+        }
+
+        while (ch.counter < data.length) {
+            if (sh.exception.get() != null) {
+                break;
+            }
+            if (ch.exception.get() != null) {
+                break;
+            }
+
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                // Ignore.
+            }
+        }
+
+        sh.channel.close().sync();
+        ch.channel.close().sync();
+        sc.close().sync();
+
+        if (sh.exception.get() != null && !(sh.exception.get() instanceof IOException)) {
+            throw sh.exception.get();
+        }
+        if (ch.exception.get() != null && !(ch.exception.get() instanceof IOException)) {
+            throw ch.exception.get();
+        }
+        if (sh.exception.get() != null) {
+            throw sh.exception.get();
+        }
+        if (ch.exception.get() != null) {
+            throw ch.exception.get();
+        }
+        assertEquals(data.length, sh.counter);
+        assertEquals(data.length, ch.counter);
+    }
+
+    private static class EchoHandler extends ChannelInboundStreamHandlerAdapter {
+        volatile Channel channel;
+        final AtomicReference<Throwable> exception = new AtomicReference<Throwable>();
+        volatile int counter;
+
+        @Override
+        public void channelActive(ChannelInboundHandlerContext<Byte> ctx)
+                throws Exception {
+            channel = ctx.channel();
+        }
+
+        @Override
+        public void inboundBufferUpdated(
+                ChannelInboundHandlerContext<Byte> ctx, ChannelBuffer in)
+                throws Exception {
+            byte[] actual = new byte[in.readableBytes()];
+            in.readBytes(actual);
+
+            int lastIdx = counter;
+            for (int i = 0; i < actual.length; i ++) {
+                assertEquals(data[i + lastIdx], actual[i]);
+            }
+
+            if (channel.parent() != null) {
+                channel.write(ChannelBuffers.wrappedBuffer(actual));
+            }
+
+            counter += actual.length;
+        }
+
+        @Override
+        public void exceptionCaught(ChannelInboundHandlerContext<Byte> ctx,
+                Throwable cause) throws Exception {
+            if (exception.compareAndSet(null, cause)) {
+                ctx.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.testsuite.transport.socket;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ChannelBuffer;
+import io.netty.buffer.ChannelBuffers;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelInboundStreamHandlerAdapter;
+import io.netty.channel.ChannelOption;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class SocketAutoReadTest extends AbstractSocketTest {
+
+    @Test
+    public void testAutoReadOff() throws Throwable {
+        run();
+    }
+
+    public void testAutoReadOff(ServerBootstrap sb, Bootstrap cb) throws Throwable {
+        TestHandler ch = new TestHandler();
+        TestHandler sh = new TestHandler();
+
+        sb.childHandler(sh);
+        sb.childOption(ChannelOption.AUTO_READ, false);
+        cb.handler(ch);
+
+        Channel sc = sb.bind().sync().channel();
+        Channel cc = cb.connect().sync().channel();
+
+        // Nothing is read until requested.
+        cc.write(ChannelBuffers.wrappedBuffer(new byte[] { 1 })).sync();
+        Thread.sleep(300);
+        assertEquals(0, sh.counter);
+
+        // An explicit request reads once.
+        sh.channel.read();
+        waitForCounter(sh, ch, 1);
+        cc.write(ChannelBuffers.wrappedBuffer(new byte[] { 2 })).sync();
+        Thread.sleep(300);
+        assertEquals(1, sh.counter);
+
+        // Enabling auto read resumes reading.
+        sh.channel.config().setAutoRead(true);
+        waitForCounter(sh, ch, 2);
+        cc.write(ChannelBuffers.wrappedBuffer(new byte[] { 3 })).sync();
+        waitForCounter(sh, ch, 3);
+
+        sh.channel.close().sync();
+        ch.channel.close().sync();
+        sc.close().sync();
+
+        if (sh.exception.get() != null && !(sh.exception.get() instanceof IOException)) {
+            throw sh.exception.get();
+        }
+        if (ch.exception.get() != null && !(ch.exception.get() instanceof IOException)) {
+            throw ch.exception.get();
+        }
+        if (sh.exception.get() != null) {
+            throw sh.exception.get();
+        }
+        if (ch.exception.get() != null) {
+            throw ch.exception.get();
+        }
+        assertEquals(3, sh.counter);
+    }
+
+    private static void waitForCounter(TestHandler sh, TestHandler ch, int expected) {
+        while (sh.counter < expected) {
+            if (sh.exception.get() != null) {
+                break;
+            }
+            if (ch.exception.get() != null) {
+                break;
+            }
+
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                // Ignore.
+            }
+        }
+    }
+
+    private static class TestHandler extends ChannelInboundStreamHandlerAdapter {
+        volatile Channel channel;
+        final AtomicReference<Throwable> exception = new AtomicReference<Throwable>();
+        volatile int counter;
+
+        @Override
+        public void channelActive(ChannelInboundHandlerContext<Byte> ctx)
+                throws Exception {
+            channel = ctx.channel();
+        }
+
+        @Override
+        public void inboundBufferUpdated(
+                ChannelInboundHandlerContext<Byte> ctx, ChannelBuffer in)
+                throws Exception {
+            counter += in.readableBytes();
+            in.skipBytes(in.readableBytes());
+        }
+
+        @Override
+        public void exceptionCaught(ChannelInboundHandlerContext<Byte> ctx,
+                Throwable cause) throws Exception {
+            if (exception.compareAndSet(null, cause)) {
+                ctx.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.testsuite.transport.socket;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ChannelBuffer;
+import io.netty.buffer.ChannelBuffers;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureProgressListener;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelInboundStreamHandlerAdapter;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class SocketFileRegionTest extends AbstractSocketTest {
+
+    private static final Random random = new Random();
+    static final byte[] data = new byte[1048576 * 10];
+
+    static {
+        random.nextBytes(data);
+    }
+
+    @Test
+    public void testFileRegion() throws Throwable {
+        run();
+    }
+
+    public void testFileRegion(ServerBootstrap sb, Bootstrap cb) throws Throwable {
+        File file = File.createTempFile("netty-", ".tmp");
+        file.deleteOnExit();
+
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(data);
+        out.close();
+
+        // The data written before and after the region must not be reordered.
+        final byte[] header = "HEADER".getBytes("ASCII");
+        final byte[] trailer = "TRAILER".getBytes("ASCII");
+        final byte[] expected = new byte[header.length + data.length + trailer.length];
+        System.arraycopy(header, 0, expected, 0, header.length);
+        System.arraycopy(data, 0, expected, header.length, data.length);
+        System.arraycopy(trailer, 0, expected, header.length + data.length, trailer.length);
+
+        TestHandler ch = new TestHandler(expected);
+        TestHandler sh = new TestHandler(expected);
+
+        sb.childHandler(sh);
+        cb.handler(ch);
+
+        Channel sc = sb.bind().sync().channel();
+        Channel cc = cb.connect().sync().channel();
+
+        final AtomicLong progress = new AtomicLong();
+        FileRegion region = new DefaultFileRegion(
+                new RandomAccessFile(file, "r").getChannel(), 0L, file.length());
+        cc.write(ChannelBuffers.wrappedBuffer(header));
+        ChannelFuture f = cc.sendFile(region);
+        f.addListener(new ChannelFutureProgressListener() {
+            @Override
+            public void operationProgressed(ChannelFuture future, long amount, long current, long total) {
+                progress.set(current);
+            }
+
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                // NOOP
+            }
+        });
+        cc.write(ChannelBuffers.wrappedBuffer(trailer));
+
+        while (sh.counter < expected.length) {
+            if (sh.exception.get() != null) {
+                break;
+            }
+            if (ch.exception.get() != null) {
+                break;
+            }
+
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                // Ignore.
+            }
+        }
+
+        f.sync();
+        assertEquals(data.length, progress.get());
+
+        sh.channel.close().sync();
+        ch.channel.close().sync();
+        sc.close().sync();
+
+        if (sh.exception.get() != null && !(sh.exception.get() instanceof IOException)) {
+            throw sh.exception.get();
+        }
+        if (ch.exception.get() != null && !(ch.exception.get() instanceof IOException)) {
+            throw ch.exception.get();
+        }
+        if (sh.exception.get() != null) {
+            throw sh.exception.get();
+        }
+        if (ch.exception.get() != null) {
+            throw ch.exception.get();
+        }
+    }
+
+    private static class TestHandler extends ChannelInboundStreamHandlerAdapter {
+        private final byte[] expected;
+        volatile Channel channel;
+        final AtomicReference<Throwable> exception = new AtomicReference<Throwable>();
+        volatile int counter;
+
+        TestHandler(byte[] expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void channelActive(ChannelInboundHandlerContext<Byte> ctx)
+                throws Exception {
+            channel = ctx.channel();
+        }
+
+        @Override
+        public void inboundBufferUpdated(
+                ChannelInboundHandlerContext<Byte> ctx, ChannelBuffer in)
+                throws Exception {
+            byte[] actual = new byte[in.readableBytes()];
+            in.readBytes(actual);
+
+            int lastIdx = counter;
+            for (int i = 0; i < actual.length; i ++) {
+                assertEquals(expected[i + lastIdx], actual[i]);
+            }
+
+            counter += actual.length;
+        }
+
+        @Override
+        public void exceptionCaught(ChannelInboundHandlerContext<Byte> ctx,
+                Throwable cause) throws Exception {
+            if (exception.compareAndSet(null, cause)) {
+                ctx.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.testsuite.transport.socket;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ChannelBuffer;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelInboundStreamHandlerAdapter;
+import io.netty.channel.socket.ServerSocketChannelConfig;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+
+import java.net.Socket;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class SocketReusePortTest extends AbstractSocketTest {
+
+    private static final int ACCEPTORS = 4;
+    private static final int CONNECTIONS = 64;
+
+    @Test
+    public void testMultipleAcceptors() throws Throwable {
+        NioServerSocketChannel probe = new NioServerSocketChannel();
+        try {
+            ServerSocketChannelConfig config = probe.config();
+            try {
+                config.setReusePort(true);
+            } catch (UnsupportedOperationException e) {
+                logger.info("SO_REUSEPORT is not supported; skipping: " + e);
+                return;
+            }
+        } finally {
+            probe.unsafe().ch().close();
+        }
+
+        run();
+    }
+
+    public void testMultipleAcceptors(ServerBootstrap sb, Bootstrap cb) throws Throwable {
+        TestHandler sh = new TestHandler();
+        sb.childHandler(sh);
+        sb.acceptorCount(ACCEPTORS);
+
+        Channel sc = sb.bind().sync().channel();
+        // A Bootstrap connects only one channel, so use plain sockets instead.
+        for (int i = 0; i < CONNECTIONS; i ++) {
+            Socket s = new Socket();
+            try {
+                s.connect(addr, 10000);
+            } finally {
+                s.close();
+            }
+        }
+
+        assertTrue(sh.latch.await(10, TimeUnit.SECONDS));
+        sc.close().sync();
+
+        // The kernel spreads the connections across the acceptors.
+        assertTrue("acceptors used: " + sh.parents.size(), sh.parents.size() > 1);
+        for (Channel parent: sh.parents) {
+            assertEquals(sc.localAddress(), parent.localAddress());
+            // Closing the bound channel closes the other acceptors, too.
+            assertTrue(parent.closeFuture().await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Sharable
+    private static class TestHandler extends ChannelInboundStreamHandlerAdapter {
+        final CountDownLatch latch = new CountDownLatch(CONNECTIONS);
+        final Set<Channel> parents = Collections.synchronizedSet(
+                Collections.newSetFromMap(new IdentityHashMap<Channel, Boolean>()));
+
+        @Override
+        public void channelActive(ChannelInboundHandlerContext<Byte> ctx) throws Exception {
+            parents.add(ctx.channel().parent());
+            latch.countDown();
+        }
+
+        @Override
+        public void inboundBufferUpdated(
+                ChannelInboundHandlerContext<Byte> ctx, ChannelBuffer in) throws Exception {
+            in.clear();
+        }
+    }
+}
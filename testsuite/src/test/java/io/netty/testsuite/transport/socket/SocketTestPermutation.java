@@ -15,6 +15,8 @@ import io.netty.channel.socket.oio.OioSocketChannel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 final class SocketTestPermutation {
 
@@ -85,6 +87,37 @@ final class SocketTestPermutation {
         // Remove the OIO-OIO case which often leads to a dead lock by its nature.
         list.remove(list.size() - 1);
 
+        // ... unless the sockets are read by dedicated threads.
+        list.add(new Entry<Factory<ServerBootstrap>, Factory<Bootstrap>>() {
+            @Override
+            public Factory<ServerBootstrap> getKey() {
+                return new Factory<ServerBootstrap>() {
+                    @Override
+                    public ServerBootstrap newInstance() {
+                        return new ServerBootstrap().
+                                        eventLoop(new OioEventLoop(), newDedicatedReadOioEventLoop()).
+                                        channel(new OioServerSocketChannel());
+                    }
+                };
+            }
+
+            @Override
+            public Factory<Bootstrap> getValue() {
+                return new Factory<Bootstrap>() {
+                    @Override
+                    public Bootstrap newInstance() {
+                        return new Bootstrap().eventLoop(newDedicatedReadOioEventLoop()).
+                                        channel(new OioSocketChannel());
+                    }
+                };
+            }
+
+            @Override
+            public Factory<Bootstrap> setValue(Factory<Bootstrap> value) {
+                throw new UnsupportedOperationException();
+            }
+        });
+
         return list;
     }
 
@@ -135,6 +168,14 @@ final class SocketTestPermutation {
 
         return list;
     }
+    private static OioEventLoop newDedicatedReadOioEventLoop() {
+        ThreadFactory threadFactory = OioEventLoop.newVirtualThreadFactory();
+        if (threadFactory == null) {
+            threadFactory = Executors.defaultThreadFactory();
+        }
+        return new OioEventLoop(0, threadFactory, true);
+    }
+
     private SocketTestPermutation() {}
 
     static interface Factory<T> {
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.testsuite.transport.socket;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ChannelBuffer;
+import io.netty.buffer.ChannelBuffers;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelInboundStreamHandlerAdapter;
+import io.netty.channel.ChannelOption;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class SocketWritabilityTest extends AbstractSocketTest {
+
+    private static final Random random = new Random();
+    static final byte[] data = new byte[1048576 * 4];
+
+    static {
+        random.nextBytes(data);
+    }
+
+    @Test
+    public void testWritabilityChanged() throws Throwable {
+        run();
+    }
+
+    public void testWritabilityChanged(ServerBootstrap sb, Bootstrap cb) throws Throwable {
+        TestHandler ch = new TestHandler();
+        TestHandler sh = new TestHandler();
+
+        sb.childHandler(sh);
+        cb.handler(ch);
+        cb.option(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, 1024);
+
+        Channel sc = sb.bind().sync().channel();
+        Channel cc = cb.connect().sync().channel();
+
+        assertTrue(cc.isWritable());
+        cc.write(ChannelBuffers.wrappedBuffer(data)).sync();
+
+        while (sh.counter < data.length) {
+            if (sh.exception.get() != null) {
+                break;
+            }
+            if (ch.exception.get() != null) {
+                break;
+            }
+
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                // Ignore.
+            }
+        }
+
+        sh.channel.close().sync();
+        ch.channel.close().sync();
+        sc.close().sync();
+
+        if (sh.exception.get() != null && !(sh.exception.get() instanceof IOException)) {
+            throw sh.exception.get();
+        }
+        if (ch.exception.get() != null && !(ch.exception.get() instanceof IOException)) {
+            throw ch.exception.get();
+        }
+        if (sh.exception.get() != null) {
+            throw sh.exception.get();
+        }
+        if (ch.exception.get() != null) {
+            throw ch.exception.get();
+        }
+
+        // A blocking transport writes everything at once and thus never becomes
+        // unwritable, but every change must be reverted once the data is written.
+        assertTrue(cc.isWritable());
+        synchronized (ch.writabilityChanges) {
+            assertEquals(0, ch.writabilityChanges.size() % 2);
+            for (int i = 0; i < ch.writabilityChanges.size(); i ++) {
+                assertEquals(i % 2 != 0, ch.writabilityChanges.get(i));
+            }
+        }
+    }
+
+    private static class TestHandler extends ChannelInboundStreamHandlerAdapter {
+        volatile Channel channel;
+        final AtomicReference<Throwable> exception = new AtomicReference<Throwable>();
+        final List<Boolean> writabilityChanges = new ArrayList<Boolean>();
+        volatile int counter;
+
+        @Override
+        public void channelActive(ChannelInboundHandlerContext<Byte> ctx)
+                throws Exception {
+            channel = ctx.channel();
+        }
+
+        @Override
+        public void channelWritabilityChanged(ChannelInboundHandlerContext<Byte> ctx)
+                throws Exception {
+            synchronized (writabilityChanges) {
+                writabilityChanges.add(ctx.channel().isWritable());
+            }
+        }
+
+        @Override
+        public void inboundBufferUpdated(
+                ChannelInboundHandlerContext<Byte> ctx, ChannelBuffer in)
+                throws Exception {
+            counter += in.readableBytes();
+            in.skipBytes(in.readableBytes());
+        }
+
+        @Override
+        public void exceptionCaught(ChannelInboundHandlerContext<Byte> ctx,
+                Throwable cause) throws Exception {
+            if (exception.compareAndSet(null, cause)) {
+                ctx.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,601 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.bootstrap;
+
+import io.netty.channel.BlockingOperationException;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelException;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoop;
+import io.netty.channel.MultithreadEventExecutor;
+import io.netty.channel.SingleThreadEventExecutor;
+import io.netty.logging.InternalLogger;
+import io.netty.logging.InternalLoggerFactory;
+
+import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A skeletal {@link ChannelPool} which keeps the idle channels per event
+ * loop and connects new channels with {@link Bootstrap}.
+ */
+public abstract class AbstractChannelPool implements ChannelPool {
+
+    private static final InternalLogger logger =
+            InternalLoggerFactory.getInstance(AbstractChannelPool.class);
+
+    private final EventLoop eventLoop;
+    private final ChannelPoolHandler handler;
+    private final SocketAddress remoteAddress;
+    private final int maxConnections;
+    private final int maxPendingAcquires;
+    private final int maxIdle;
+    private final long acquireTimeoutNanos;
+    private final ChannelPoolMetrics metrics = new ChannelPoolMetrics(this);
+
+    private final ChannelInitializer<Channel> initializer = new ChannelInitializer<Channel>() {
+        @Override
+        public void initChannel(Channel ch) throws Exception {
+            handler.initChannel(ch);
+        }
+    };
+    private final ChannelFutureListener closeListener = new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+            channelClosed(future.channel());
+        }
+    };
+
+    // Guarded by 'this'
+    private final Map<EventLoop, Deque<Channel>> idleChannels = new IdentityHashMap<EventLoop, Deque<Channel>>();
+    private final Set<Channel> channels = new HashSet<Channel>();
+    private final Set<Channel> leasedChannels = new HashSet<Channel>();
+    private final Queue<PendingAcquire> pendingAcquires = new ArrayDeque<PendingAcquire>();
+    private int idleCount;
+    private int connecting;
+    private boolean closed;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param eventLoop          the event loop to register the new channels to
+     * @param maxConnections     the maximum number of the open channels
+     * @param maxPendingAcquires the maximum number of the acquisitions waiting
+     *                           for a channel while {@code maxConnections} are open
+     * @param maxIdle            the maximum number of the idle channels to keep
+     * @param acquireTimeout     the maximum time to acquire a channel, or {@code 0} to wait forever
+     */
+    protected AbstractChannelPool(
+            EventLoop eventLoop, ChannelPoolHandler handler, SocketAddress remoteAddress,
+            int maxConnections, int maxPendingAcquires, int maxIdle, long acquireTimeout, TimeUnit unit) {
+        if (eventLoop == null) {
+            throw new NullPointerException("eventLoop");
+        }
+        if (handler == null) {
+            throw new NullPointerException("handler");
+        }
+        if (remoteAddress == null) {
+            throw new NullPointerException("remoteAddress");
+        }
+        if (unit == null) {
+            throw new NullPointerException("unit");
+        }
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "maxConnections: %d (expected: > 0)", maxConnections));
+        }
+        if (maxPendingAcquires < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "maxPendingAcquires: %d (expected: >= 0)", maxPendingAcquires));
+        }
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "maxIdle: %d (expected: >= 0)", maxIdle));
+        }
+        if (acquireTimeout < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "acquireTimeout: %d (expected: >= 0)", acquireTimeout));
+        }
+
+        this.eventLoop = eventLoop;
+        this.handler = handler;
+        this.remoteAddress = remoteAddress;
+        this.maxConnections = maxConnections;
+        this.maxPendingAcquires = maxPendingAcquires;
+        this.maxIdle = maxIdle;
+        acquireTimeoutNanos = unit.toNanos(acquireTimeout);
+    }
+
+    @Override
+    public void acquire(ChannelAcquireListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+
+        PendingAcquire acquire = new PendingAcquire(listener);
+        EventLoop preferredLoop = preferredEventLoop();
+        for (;;) {
+            Channel ch;
+            boolean pending = false;
+            synchronized (this) {
+                if (closed) {
+                    metrics.acquireRejected();
+                    acquire.fail(new IllegalStateException("pool closed"));
+                    return;
+                }
+
+                ch = pollIdle(preferredLoop);
+                if (ch == null) {
+                    if (channels.size() + connecting < maxConnections) {
+                        connecting ++;
+                    } else if (pendingAcquires.size() < maxPendingAcquires) {
+                        pendingAcquires.add(acquire);
+                        pending = true;
+                    } else {
+                        metrics.acquireRejected();
+                        acquire.fail(new ChannelException(
+                                "too many pending acquires: " + pendingAcquires.size()));
+                        return;
+                    }
+                } else {
+                    leasedChannels.add(ch);
+                }
+            }
+
+            if (pending) {
+                // Wait for a channel to be released or closed.
+                scheduleTimeout(acquire);
+                return;
+            }
+
+            if (ch == null) {
+                scheduleTimeout(acquire);
+                connect(acquire, preferredLoop);
+                return;
+            }
+
+            if (isHealthy(ch)) {
+                acquire.complete();
+                metrics.channelAcquired(true);
+                acquire.succeed(ch);
+                return;
+            }
+
+            synchronized (this) {
+                leasedChannels.remove(ch);
+                // Make room for a new channel without waiting for the closure.
+                channels.remove(ch);
+            }
+            metrics.channelUnhealthy();
+            ch.close();
+        }
+    }
+
+    @Override
+    public Channel acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        if (unit == null) {
+            throw new NullPointerException("unit");
+        }
+        if (SingleThreadEventExecutor.currentEventLoop() != null) {
+            throw new BlockingOperationException();
+        }
+
+        BlockingAcquire acquire = new BlockingAcquire();
+        acquire(acquire);
+        return acquire.await(unit.toNanos(timeout));
+    }
+
+    @Override
+    public void release(Channel channel) {
+        if (channel == null) {
+            throw new NullPointerException("channel");
+        }
+        synchronized (this) {
+            if (!leasedChannels.remove(channel)) {
+                throw new IllegalArgumentException("not acquired from this pool: " + channel);
+            }
+        }
+        offer(channel);
+    }
+
+    @Override
+    public ChannelPoolMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        List<Channel> idle = new ArrayList<Channel>();
+        List<PendingAcquire> pending;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Deque<Channel> q: idleChannels.values()) {
+                idle.addAll(q);
+            }
+            idleChannels.clear();
+            idleCount = 0;
+            pending = new ArrayList<PendingAcquire>(pendingAcquires);
+            pendingAcquires.clear();
+        }
+
+        for (Channel ch: idle) {
+            ch.close();
+        }
+        for (PendingAcquire acquire: pending) {
+            if (acquire.complete()) {
+                metrics.acquireRejected();
+                acquire.fail(new IllegalStateException("pool closed"));
+            }
+        }
+    }
+
+    synchronized int openChannels() {
+        return channels.size();
+    }
+
+    synchronized int idleChannels() {
+        return idleCount;
+    }
+
+    synchronized int pendingAcquires() {
+        return pendingAcquires.size();
+    }
+
+    /**
+     * Returns the event loop of the caller if it belongs to the event loop of this pool.
+     */
+    private EventLoop preferredEventLoop() {
+        SingleThreadEventExecutor current = SingleThreadEventExecutor.currentEventLoop();
+        if (!(current instanceof EventLoop)) {
+            return null;
+        }
+        if (current == eventLoop ||
+            eventLoop instanceof MultithreadEventExecutor && ((MultithreadEventExecutor) eventLoop).isChild(current)) {
+            return (EventLoop) current;
+        }
+        return null;
+    }
+
+    private Channel pollIdle(EventLoop preferredLoop) {
+        assert Thread.holdsLock(this);
+        if (idleCount == 0) {
+            return null;
+        }
+
+        Deque<Channel> q = preferredLoop != null? idleChannels.get(preferredLoop) : null;
+        if (q == null || q.isEmpty()) {
+            q = null;
+            for (Deque<Channel> e: idleChannels.values()) {
+                if (!e.isEmpty()) {
+                    q = e;
+                    break;
+                }
+            }
+        }
+
+        // The most recently used channel is the least likely to have been closed by the peer.
+        idleCount --;
+        return q.pollLast();
+    }
+
+    private boolean isHealthy(Channel ch) {
+        try {
+            return ch.isActive() && handler.isHealthy(ch);
+        } catch (Throwable t) {
+            logger.warn("Failed to check the health of a channel: " + ch, t);
+            return false;
+        }
+    }
+
+    private void connect(final PendingAcquire acquire, EventLoop preferredLoop) {
+        final Channel ch;
+        ChannelFuture future;
+        try {
+            ch = handler.newChannel();
+            Bootstrap b = new Bootstrap();
+            b.eventLoop(preferredLoop != null? preferredLoop : eventLoop)
+             .channel(ch)
+             .handler(initializer)
+             .remoteAddress(remoteAddress);
+            future = b.connect();
+        } catch (Throwable t) {
+            connectFailed(acquire, t);
+            return;
+        }
+
+        future.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                if (future.isSuccess()) {
+                    connected(acquire, ch);
+                } else {
+                    connectFailed(acquire, future.cause());
+                }
+            }
+        });
+    }
+
+    private void connected(PendingAcquire acquire, Channel ch) {
+        boolean closed;
+        synchronized (this) {
+            connecting --;
+            closed = this.closed;
+            if (!closed) {
+                channels.add(ch);
+            }
+        }
+
+        if (closed) {
+            ch.close();
+            if (acquire.complete()) {
+                metrics.acquireRejected();
+                acquire.fail(new IllegalStateException("pool closed"));
+            }
+            return;
+        }
+
+        metrics.channelCreated();
+        ch.closeFuture().addListener(closeListener);
+        if (acquire.complete()) {
+            synchronized (this) {
+                leasedChannels.add(ch);
+            }
+            metrics.channelAcquired(false);
+            acquire.succeed(ch);
+        } else {
+            // Timed out while connecting - let the others use it.
+            offer(ch);
+        }
+    }
+
+    private void connectFailed(PendingAcquire acquire, Throwable cause) {
+        synchronized (this) {
+            connecting --;
+        }
+        metrics.connectFailed();
+        if (acquire.complete()) {
+            acquire.fail(cause);
+        }
+        retryPendingAcquire();
+    }
+
+    /**
+     * Hands the specified channel, which is not acquired by anyone, over to
+     * a pending acquisition or keeps it as an idle channel.
+     */
+    private void offer(Channel ch) {
+        if (!ch.isActive()) {
+            ch.close();
+            return;
+        }
+
+        for (;;) {
+            PendingAcquire acquire;
+            synchronized (this) {
+                if (closed) {
+                    break;
+                }
+                acquire = pendingAcquires.poll();
+                if (acquire == null) {
+                    if (idleCount >= maxIdle) {
+                        break;
+                    }
+                    Deque<Channel> q = idleChannels.get(ch.eventLoop());
+                    if (q == null) {
+                        q = new ArrayDeque<Channel>();
+                        idleChannels.put(ch.eventLoop(), q);
+                    }
+                    q.addLast(ch);
+                    idleCount ++;
+                    return;
+                }
+                if (acquire.isDone()) {
+                    continue;
+                }
+                leasedChannels.add(ch);
+            }
+
+            if (acquire.complete()) {
+                metrics.channelAcquired(true);
+                acquire.succeed(ch);
+                return;
+            }
+            synchronized (this) {
+                leasedChannels.remove(ch);
+            }
+        }
+
+        ch.close();
+    }
+
+    private void channelClosed(Channel ch) {
+        synchronized (this) {
+            if (!channels.remove(ch)) {
+                return;
+            }
+            Deque<Channel> q = idleChannels.get(ch.eventLoop());
+            if (q != null && q.remove(ch)) {
+                idleCount --;
+            }
+        }
+        retryPendingAcquire();
+    }
+
+    /**
+     * Connects a new channel for the oldest pending acquisition if the
+     * number of the open channels has dropped below the maximum.
+     */
+    private void retryPendingAcquire() {
+        PendingAcquire acquire;
+        synchronized (this) {
+            for (;;) {
+                acquire = pendingAcquires.peek();
+                if (acquire == null || !acquire.isDone()) {
+                    break;
+                }
+                pendingAcquires.poll();
+            }
+            if (closed || acquire == null || channels.size() + connecting >= maxConnections) {
+                return;
+            }
+            pendingAcquires.poll();
+            connecting ++;
+        }
+        connect(acquire, null);
+    }
+
+    private void scheduleTimeout(final PendingAcquire acquire) {
+        if (acquireTimeoutNanos == 0) {
+            return;
+        }
+
+        try {
+            acquire.timeoutFuture = eventLoop.unsafe().nextChild().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (!acquire.complete()) {
+                        return;
+                    }
+                    synchronized (AbstractChannelPool.this) {
+                        pendingAcquires.remove(acquire);
+                    }
+                    metrics.acquireTimedOut();
+                    acquire.fail(new TimeoutException(
+                            "failed to acquire a channel within " + acquireTimeoutNanos + " ns"));
+                }
+            }, acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // The event loop is shut down and will fail the connection attempt.
+        }
+    }
+
+    private static final class PendingAcquire extends AtomicBoolean {
+
+        private static final long serialVersionUID = -4586587429719283634L;
+
+        private final ChannelAcquireListener listener;
+        volatile ScheduledFuture<?> timeoutFuture;
+
+        PendingAcquire(ChannelAcquireListener listener) {
+            this.listener = listener;
+        }
+
+        boolean isDone() {
+            return get();
+        }
+
+        /**
+         * Returns {@code true} if the caller is the first to finish this acquisition.
+         */
+        boolean complete() {
+            if (!compareAndSet(false, true)) {
+                return false;
+            }
+            ScheduledFuture<?> timeoutFuture = this.timeoutFuture;
+            if (timeoutFuture != null) {
+                timeoutFuture.cancel(false);
+            }
+            return true;
+        }
+
+        void succeed(Channel ch) {
+            try {
+                listener.acquired(ch);
+            } catch (Throwable t) {
+                logger.warn("An exception was thrown by " + ChannelAcquireListener.class.getSimpleName() + '.', t);
+            }
+        }
+
+        void fail(Throwable cause) {
+            try {
+                listener.failed(cause);
+            } catch (Throwable t) {
+                logger.warn("An exception was thrown by " + ChannelAcquireListener.class.getSimpleName() + '.', t);
+            }
+        }
+    }
+
+    private final class BlockingAcquire implements ChannelAcquireListener {
+        private Channel channel;
+        private Throwable cause;
+        private boolean done;
+        private boolean abandoned;
+
+        @Override
+        public void acquired(Channel channel) {
+            synchronized (this) {
+                if (!abandoned) {
+                    this.channel = channel;
+                    done = true;
+                    notifyAll();
+                    return;
+                }
+            }
+            release(channel);
+        }
+
+        @Override
+        public synchronized void failed(Throwable cause) {
+            this.cause = cause;
+            done = true;
+            notifyAll();
+        }
+
+        synchronized Channel await(long timeoutNanos) throws InterruptedException {
+            long deadline = System.nanoTime() + timeoutNanos;
+            try {
+                while (!done) {
+                    long waitNanos = deadline - System.nanoTime();
+                    if (waitNanos <= 0) {
+                        break;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+                }
+            } finally {
+                if (!done) {
+                    abandoned = true;
+                }
+            }
+
+            if (!done) {
+                metrics.acquireTimedOut();
+                throw new ChannelException("failed to acquire a channel within " + timeoutNanos + " ns");
+            }
+            if (cause != null) {
+                throw new ChannelException("failed to acquire a channel", cause);
+            }
+            return channel;
+        }
+    }
+}
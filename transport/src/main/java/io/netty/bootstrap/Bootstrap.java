@@ -7,6 +7,7 @@ import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventExecutor;
 import io.netty.channel.EventLoop;
 import io.netty.logging.InternalLogger;
 import io.netty.logging.InternalLoggerFactory;
@@ -18,6 +19,7 @@ import java.nio.channels.ClosedChannelException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 
 public class Bootstrap {
 
@@ -205,6 +207,15 @@ public class Bootstrap {
         }
     }
 
+    /**
+     * @see EventExecutor#shutdownGracefully(long, long, TimeUnit)
+     */
+    public void shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        if (eventLoop != null) {
+            eventLoop.shutdownGracefully(quietPeriod, timeout, unit);
+        }
+    }
+
     private void validate() {
         if (eventLoop == null) {
             throw new IllegalStateException("eventLoop not set");
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.bootstrap;
+
+import io.netty.channel.Channel;
+
+/**
+ * Notified when {@link ChannelPool#acquire(ChannelAcquireListener)} is finished.
+ */
+public interface ChannelAcquireListener {
+
+    /**
+     * Invoked with the acquired channel, which must be released to the pool later.
+     */
+    void acquired(Channel channel);
+
+    /**
+     * Invoked when no channel could be acquired.
+     */
+    void failed(Throwable cause);
+}
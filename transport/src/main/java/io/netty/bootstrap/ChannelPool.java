@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.bootstrap;
+
+import io.netty.channel.BlockingOperationException;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pool of the connected {@link Channel}s to a remote peer.  A channel
+ * acquired from the pool must be given back with {@link #release(Channel)}
+ * once the caller is done with it, so that the next caller can reuse it.
+ * <pre>
+ * pool.acquire(new {@link ChannelAcquireListener}() {
+ *     public void acquired(Channel ch) {
+ *         ch.write(request).addListener(...);
+ *         ...
+ *         pool.release(ch);
+ *     }
+ *
+ *     public void failed(Throwable cause) {
+ *         ...
+ *     }
+ * });
+ * </pre>
+ *
+ * @see FixedChannelPool
+ * @see ElasticChannelPool
+ */
+public interface ChannelPool {
+
+    /**
+     * Acquires a healthy channel, connecting a new one if necessary, and
+     * notifies the specified listener.  When called from an event loop of
+     * the pool, the channels registered to the same event loop are preferred.
+     */
+    void acquire(ChannelAcquireListener listener);
+
+    /**
+     * Acquires a healthy channel, waiting for the specified amount of time at most.
+     *
+     * @throws ChannelException if failed to acquire a channel in time
+     * @throws BlockingOperationException if called from an event loop
+     */
+    Channel acquire(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Gives back the specified channel, which was acquired from this pool.
+     *
+     * @throws IllegalArgumentException if the channel is not acquired from this pool
+     */
+    void release(Channel channel);
+
+    ChannelPoolMetrics metrics();
+
+    /**
+     * Closes the idle channels and fails the pending acquisitions.  The
+     * acquired channels are closed when they are released.
+     */
+    void close();
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.bootstrap;
+
+import io.netty.channel.Channel;
+
+/**
+ * Creates and checks the channels of a {@link ChannelPool}.
+ */
+public interface ChannelPoolHandler {
+
+    /**
+     * Creates a new unregistered channel, such as {@code new NioSocketChannel()}.
+     */
+    Channel newChannel();
+
+    /**
+     * Sets up the options and the pipeline of a new channel before it is connected.
+     */
+    void initChannel(Channel channel) throws Exception;
+
+    /**
+     * Returns {@code true} if the specified idle channel can be handed out.
+     * The pool hands out only active channels, so this method checks the
+     * state of the protocol, if any.  It must be quick and thread-safe.
+     */
+    boolean isHealthy(Channel channel);
+}
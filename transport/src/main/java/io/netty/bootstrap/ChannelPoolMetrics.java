@@ -0,0 +1,148 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.bootstrap;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The statistics of a {@link ChannelPool}.
+ */
+public final class ChannelPoolMetrics {
+
+    private final AbstractChannelPool pool;
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong connectFailures = new AtomicLong();
+    private final AtomicLong unhealthy = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    ChannelPoolMetrics(AbstractChannelPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the number of the successful acquisitions.
+     */
+    public long acquired() {
+        return acquired.get();
+    }
+
+    /**
+     * Returns the number of the acquisitions served by a channel which had been used before.
+     */
+    public long reused() {
+        return reused.get();
+    }
+
+    /**
+     * Returns the ratio of {@link #reused()} to {@link #acquired()}.
+     */
+    public double reuseRatio() {
+        long acquired = acquired();
+        return acquired == 0? 0 : (double) reused() / acquired;
+    }
+
+    /**
+     * Returns the number of the channels connected by the pool.
+     */
+    public long created() {
+        return created.get();
+    }
+
+    public long connectFailures() {
+        return connectFailures.get();
+    }
+
+    /**
+     * Returns the number of the idle channels closed because they were inactive or unhealthy.
+     */
+    public long unhealthy() {
+        return unhealthy.get();
+    }
+
+    /**
+     * Returns the number of the acquisitions which timed out.
+     */
+    public long timeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * Returns the number of the acquisitions rejected because too many were
+     * pending or the pool was closed.
+     */
+    public long rejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Returns the number of the open channels, whether idle or acquired.
+     */
+    public int openChannels() {
+        return pool.openChannels();
+    }
+
+    public int idleChannels() {
+        return pool.idleChannels();
+    }
+
+    public int pendingAcquires() {
+        return pool.pendingAcquires();
+    }
+
+    void channelAcquired(boolean reused) {
+        acquired.incrementAndGet();
+        if (reused) {
+            this.reused.incrementAndGet();
+        }
+    }
+
+    void channelCreated() {
+        created.incrementAndGet();
+    }
+
+    void connectFailed() {
+        connectFailures.incrementAndGet();
+    }
+
+    void channelUnhealthy() {
+        unhealthy.incrementAndGet();
+    }
+
+    void acquireTimedOut() {
+        timeouts.incrementAndGet();
+    }
+
+    void acquireRejected() {
+        rejected.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "ChannelPoolMetrics(open: " + openChannels() +
+                ", idle: " + idleChannels() +
+                ", pending: " + pendingAcquires() +
+                ", acquired: " + acquired() +
+                ", reused: " + reused() +
+                ", created: " + created() +
+                ", connectFailures: " + connectFailures() +
+                ", unhealthy: " + unhealthy() +
+                ", timeouts: " + timeouts() +
+                ", rejected: " + rejected() + ')';
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.bootstrap;
+
+import io.netty.channel.EventLoop;
+
+import java.net.SocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ChannelPool} which connects a new channel whenever no idle
+ * channel is available, and keeps up to {@code maxIdle} channels open for
+ * reuse.  The channels released while {@code maxIdle} channels are idle
+ * are closed.
+ */
+public class ElasticChannelPool extends AbstractChannelPool {
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxIdle        the maximum number of the idle channels to keep
+     * @param acquireTimeout the maximum time to connect a channel, or {@code 0} to wait forever
+     */
+    public ElasticChannelPool(
+            EventLoop eventLoop, ChannelPoolHandler handler, SocketAddress remoteAddress,
+            int maxIdle, long acquireTimeout, TimeUnit unit) {
+        super(eventLoop, handler, remoteAddress,
+              Integer.MAX_VALUE, 0, maxIdle, acquireTimeout, unit);
+    }
+}
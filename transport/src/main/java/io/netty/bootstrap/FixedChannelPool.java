@@ -0,0 +1,43 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.bootstrap;
+
+import io.netty.channel.EventLoop;
+
+import java.net.SocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ChannelPool} which opens up to a fixed number of channels and
+ * keeps them open.  When all channels are acquired, the acquisitions wait
+ * for a channel to be released, up to {@code maxPendingAcquires} at a time.
+ */
+public class FixedChannelPool extends AbstractChannelPool {
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxConnections     the maximum number of the open channels
+     * @param maxPendingAcquires the maximum number of the acquisitions waiting for a channel
+     * @param acquireTimeout     the maximum time to acquire a channel, or {@code 0} to wait forever
+     */
+    public FixedChannelPool(
+            EventLoop eventLoop, ChannelPoolHandler handler, SocketAddress remoteAddress,
+            int maxConnections, int maxPendingAcquires, long acquireTimeout, TimeUnit unit) {
+        super(eventLoop, handler, remoteAddress,
+              maxConnections, maxPendingAcquires, maxConnections, acquireTimeout, unit);
+    }
+}
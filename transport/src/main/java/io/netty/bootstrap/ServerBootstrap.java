@@ -12,20 +12,25 @@ import io.netty.channel.ChannelInboundHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventExecutor;
 import io.netty.channel.EventLoop;
 import io.netty.channel.ServerChannel;
 import io.netty.logging.InternalLogger;
 import io.netty.logging.InternalLoggerFactory;
 import io.netty.util.SocketAddresses;
 
+import java.lang.reflect.InvocationTargetException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
+import java.util.concurrent.TimeUnit;
 
 public class ServerBootstrap {
 
@@ -47,6 +52,7 @@ public class ServerBootstrap {
     private ChannelHandler handler;
     private ChannelHandler childHandler;
     private SocketAddress localAddress;
+    private int acceptorCount = 1;
 
     public ServerBootstrap eventLoop(EventLoop parentEventLoop, EventLoop childEventLoop) {
         if (parentEventLoop == null) {
@@ -131,6 +137,28 @@ public class ServerBootstrap {
         return this;
     }
 
+    /**
+     * Sets the number of the server channels which listen on the local address.
+     * If greater than {@code 1}, {@link #bind()} binds as many server channels of
+     * the same type as {@link #channel(ServerChannel)} to the same address with
+     * {@link ChannelOption#SO_REUSEPORT}, each registered to a different event
+     * loop of {@link #eventLoop(EventLoop, EventLoop) the parent event loop}, so
+     * that the operating system spreads the incoming connections across them.
+     * Closing the channel returned by {@link #bind()} closes all of them.
+     * <p>
+     * The handler specified with {@link #handler(ChannelHandler)} is added to
+     * every server channel and thus must be {@link ChannelHandler.Sharable}.
+     * The default value is {@code 1}.
+     */
+    public ServerBootstrap acceptorCount(int acceptorCount) {
+        if (acceptorCount <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "acceptorCount: %d (expected: > 0)", acceptorCount));
+        }
+        this.acceptorCount = acceptorCount;
+        return this;
+    }
+
     public ChannelFuture bind() {
         validate();
         return bind(channel.newFuture());
@@ -151,6 +179,48 @@ public class ServerBootstrap {
             return future;
         }
 
+        Throwable cause = init(channel);
+        if (cause != null) {
+            future.setFailure(cause);
+            return future;
+        }
+
+        if (acceptorCount == 1) {
+            channel.bind(localAddress, future).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+        } else {
+            bindAcceptors(future);
+        }
+
+        return future;
+    }
+
+    /**
+     * Configures the specified server channel and registers it to the parent event loop.
+     *
+     * @return the cause of the failure, or {@code null} on success
+     */
+    private Throwable init(ServerChannel channel) {
+        for (Entry<ChannelOption<?>, Object> e: parentOptions.entrySet()) {
+            try {
+                if (!channel.config().setOption((ChannelOption<Object>) e.getKey(), e.getValue())) {
+                    logger.warn("Unknown channel option: " + e);
+                }
+            } catch (Throwable t) {
+                logger.warn("Failed to set a channel option: " + channel, t);
+            }
+        }
+
+        if (acceptorCount > 1) {
+            try {
+                if (!channel.config().setOption(ChannelOption.SO_REUSEPORT, true)) {
+                    return new ChannelException(
+                            "SO_REUSEPORT is not supported by " + channel.getClass().getSimpleName());
+                }
+            } catch (Throwable t) {
+                return new ChannelException("failed to enable SO_REUSEPORT", t);
+            }
+        }
+
         ChannelPipeline p = channel.pipeline();
         if (handler != null) {
             p.addLast(handler);
@@ -159,20 +229,72 @@ public class ServerBootstrap {
 
         ChannelFuture f = parentEventLoop.register(channel).awaitUninterruptibly();
         if (!f.isSuccess()) {
-            future.setFailure(f.cause());
-            return future;
+            return f.cause();
         }
 
         if (!channel.isOpen()) {
             // Registration was successful but the channel was closed due to some failure in
             // handler.
-            future.setFailure(new ChannelException("initialization failure"));
-            return future;
+            return new ChannelException("initialization failure");
         }
 
-        channel.bind(localAddress, future).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+        return null;
+    }
 
-        return future;
+    private void bindAcceptors(ChannelFuture future) {
+        final List<ServerChannel> acceptors = new ArrayList<ServerChannel>(acceptorCount - 1);
+        ChannelFuture f = channel.bind(localAddress).awaitUninterruptibly();
+        Throwable cause = f.cause();
+        if (cause == null) {
+            // Use the actual address so that the acceptors share an ephemeral port, too.
+            SocketAddress boundAddress = channel.localAddress();
+            for (int i = 1; i < acceptorCount; i ++) {
+                ServerChannel acceptor;
+                try {
+                    acceptor = channel.getClass().getConstructor().newInstance();
+                } catch (InvocationTargetException e) {
+                    cause = new ChannelException(
+                            "failed to create a new " + channel.getClass().getSimpleName(), e.getCause());
+                    break;
+                } catch (Exception e) {
+                    cause = new ChannelException(
+                            "failed to create a new " + channel.getClass().getSimpleName(), e);
+                    break;
+                }
+
+                acceptors.add(acceptor);
+                cause = init(acceptor);
+                if (cause != null) {
+                    break;
+                }
+
+                cause = acceptor.bind(boundAddress).awaitUninterruptibly().cause();
+                if (cause != null) {
+                    break;
+                }
+            }
+        }
+
+        if (cause != null) {
+            channel.close();
+            for (ServerChannel acceptor: acceptors) {
+                if (acceptor.isRegistered()) {
+                    acceptor.close();
+                }
+            }
+            future.setFailure(cause);
+            return;
+        }
+
+        channel.closeFuture().addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                for (ServerChannel acceptor: acceptors) {
+                    acceptor.close();
+                }
+            }
+        });
+        future.setSuccess();
     }
 
     public void shutdown() {
@@ -184,6 +306,21 @@ public class ServerBootstrap {
         }
     }
 
+    /**
+     * Stops accepting new connections immediately, and shuts down the child
+     * event loop gracefully.
+     *
+     * @see EventExecutor#shutdownGracefully(long, long, TimeUnit)
+     */
+    public void shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        if (parentEventLoop != null && parentEventLoop != childEventLoop) {
+            parentEventLoop.shutdown();
+        }
+        if (childEventLoop != null) {
+            childEventLoop.shutdownGracefully(quietPeriod, timeout, unit);
+        }
+    }
+
     private void validate() {
         if (parentEventLoop == null) {
             throw new IllegalStateException("eventLoop not set");
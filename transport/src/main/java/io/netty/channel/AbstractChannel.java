@@ -16,9 +16,14 @@
 package io.netty.channel;
 
 import io.netty.buffer.ChannelBuffer;
+import io.netty.channel.metrics.ChannelMetrics;
+import io.netty.channel.metrics.ChannelMetricsRegistry;
+import io.netty.channel.metrics.TransportEventType;
+import io.netty.channel.metrics.TransportEvents;
 import io.netty.logging.InternalLogger;
 import io.netty.logging.InternalLoggerFactory;
 import io.netty.util.DefaultAttributeMap;
+import io.netty.util.Recycler;
 
 import java.io.IOException;
 import java.net.SocketAddress;
@@ -28,6 +33,7 @@ import java.util.Deque;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A skeletal {@link Channel} implementation.
@@ -38,33 +44,39 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
 
     static final ConcurrentMap<Integer, Channel> allChannels = new ConcurrentHashMap<Integer, Channel>();
 
+    private static final int ID_BLOCK_SIZE = 256;
+    private static final AtomicInteger nextIdBlock = new AtomicInteger();
+    private static final ThreadLocal<int[]> idBlock = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            // { next sequence, end of the block }
+            return new int[2];
+        }
+    };
+
     /**
      * Generates a negative unique integer ID.  This method generates only
      * negative integers to avoid conflicts with user-specified IDs where only
      * non-negative integers are allowed.
+     * <p>
+     * Each thread reserves a block of sequence numbers from a global counter,
+     * so that the counter is touched only once per block.  Once the sequence
+     * wraps around, an ID still used by an open channel is skipped.
      */
     private static Integer allocateId(Channel channel) {
-        int idVal = System.identityHashCode(channel);
-        if (idVal > 0) {
-            idVal = -idVal;
-        } else if (idVal == 0) {
-            idVal = -1;
-        }
-
-        Integer id;
+        int[] block = idBlock.get();
         for (;;) {
-            id = Integer.valueOf(idVal);
-            // Loop until a unique ID is acquired.
-            // It should be found in one loop practically.
+            int seq = block[0];
+            if (seq == block[1]) {
+                seq = nextIdBlock.getAndAdd(ID_BLOCK_SIZE);
+                block[1] = seq + ID_BLOCK_SIZE;
+            }
+            block[0] = seq + 1;
+
+            Integer id = Integer.valueOf(-(seq & Integer.MAX_VALUE) - 1);
             if (allChannels.putIfAbsent(id, channel) == null) {
                 // Successfully acquired.
                 return id;
-            } else {
-                // Taken by other channel at almost the same moment.
-                idVal --;
-                if (idVal >= 0) {
-                    idVal = -1;
-                }
             }
         }
     }
@@ -81,6 +93,8 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
     private volatile SocketAddress remoteAddress;
     private volatile EventLoop eventLoop;
     private volatile boolean registered;
+    private volatile boolean writable = true;
+    private volatile ChannelMetrics metrics;
 
     private ClosedChannelException closedChannelException;
     private final Deque<FlushCheckpoint> flushCheckpoints = new ArrayDeque<FlushCheckpoint>();
@@ -130,7 +144,6 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
                 allChannels.remove(id());
             }
         });
-
     }
 
     @Override
@@ -138,6 +151,37 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         return id;
     }
 
+    /**
+     * Returns the traffic counters of this channel, or {@code null} if the
+     * channel was registered while {@link ChannelMetricsRegistry} was disabled.
+     */
+    public ChannelMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Records the amount of data read by the transport: the number of bytes
+     * for a {@link ChannelType#STREAM} channel and the number of messages
+     * for a {@link ChannelType#MESSAGE} channel.
+     */
+    protected final void recordRead(int amount) {
+        ChannelMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.read(amount);
+        }
+    }
+
+    /**
+     * Records that the transport has transferred the specified
+     * {@link FileRegion} completely.
+     */
+    protected final void recordFileRegionWritten(FileRegion region) {
+        ChannelMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.fileRegionWritten(region.count());
+        }
+    }
+
     @Override
     public Channel parent() {
         return parent;
@@ -198,6 +242,11 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         return registered;
     }
 
+    @Override
+    public boolean isWritable() {
+        return writable;
+    }
+
     @Override
     public ChannelFuture bind(SocketAddress localAddress) {
         return pipeline.bind(localAddress);
@@ -238,6 +287,16 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         return pipeline.write(message);
     }
 
+    @Override
+    public ChannelFuture sendFile(FileRegion region) {
+        return pipeline.sendFile(region);
+    }
+
+    @Override
+    public void read() {
+        unsafe.beginRead();
+    }
+
     @Override
     public ChannelFuture bind(SocketAddress localAddress, ChannelFuture future) {
         return pipeline.bind(localAddress, future);
@@ -288,6 +347,11 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         return pipeline.write(message, future);
     }
 
+    @Override
+    public ChannelFuture sendFile(FileRegion region, ChannelFuture future) {
+        return pipeline.sendFile(region, future);
+    }
+
     @Override
     public ChannelFuture newFuture() {
         return new DefaultChannelFuture(this, false);
@@ -303,6 +367,11 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         return new FailedChannelFuture(this, cause);
     }
 
+    @Override
+    public ChannelFuture voidFuture() {
+        return voidFuture;
+    }
+
     @Override
     public ChannelFuture closeFuture() {
         return closeFuture;
@@ -424,6 +493,9 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
             try {
                 Runnable postRegisterTask = doRegister();
                 registered = true;
+                if (metrics == null && ChannelMetricsRegistry.isEnabled()) {
+                    metrics = ChannelMetricsRegistry.register(AbstractChannel.this);
+                }
                 future.setSuccess();
                 pipeline.fireChannelRegistered();
                 if (postRegisterTask != null) {
@@ -511,11 +583,12 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
                         future.setFailure(t);
                     }
 
-                    if (closedChannelException != null) {
+                    if (closedChannelException == null) {
                         closedChannelException = new ClosedChannelException();
                     }
 
                     notifyFlushFutures(closedChannelException);
+                    failPendingWrites(closedChannelException);
 
                     if (wasActive && !isActive()) {
                         pipeline.fireChannelInactive();
@@ -581,7 +654,7 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
                         cp.flushCheckpoint(checkpoint);
                         flushCheckpoints.add(cp);
                     } else {
-                        flushCheckpoints.add(new DefaultFlushCheckpoint(checkpoint, future));
+                        flushCheckpoints.add(DefaultFlushCheckpoint.newInstance(checkpoint, future));
                     }
                 }
 
@@ -591,6 +664,7 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
                             flushNow();
                         } else {
                             // Event loop will call flushNow() later by itself.
+                            updateWritability();
                         }
                     } catch (Throwable t) {
                         notifyFlushFutures(t);
@@ -630,6 +704,11 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
             try {
                 Throwable cause = null;
                 int oldSize = out.size();
+                long startTime = 0;
+                boolean traced = TransportEvents.isEnabled(TransportEventType.FLUSH);
+                if (traced) {
+                    startTime = System.nanoTime();
+                }
                 try {
                     doFlush(out);
                 } catch (Throwable t) {
@@ -637,6 +716,13 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
                 } finally {
                     final int newSize = out.size();
                     writeCounter += oldSize - newSize;
+                    ChannelMetrics metrics = AbstractChannel.this.metrics;
+                    if (metrics != null) {
+                        metrics.flushed(oldSize - newSize, newSize);
+                    }
+                    if (traced) {
+                        TransportEvents.flushed(AbstractChannel.this, oldSize - newSize, newSize, startTime);
+                    }
                     if (newSize == 0 && out.hasByteBuffer()) {
                         out.byteBuffer().discardReadBytes();
                     }
@@ -644,6 +730,7 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
 
                 if (cause == null) {
                     notifyFlushFutures();
+                    updateWritability();
                 } else {
                     notifyFlushFutures(cause);
                     pipeline.fireExceptionCaught(cause);
@@ -656,6 +743,61 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
             }
         }
 
+        @Override
+        public void sendFile(final FileRegion region, final ChannelFuture future) {
+            if (eventLoop().inEventLoop()) {
+                if (!ensureOpen(future)) {
+                    releaseFileRegion(region);
+                    return;
+                }
+
+                try {
+                    doSendFile(region, future);
+                } catch (Throwable t) {
+                    releaseFileRegion(region);
+                    future.setFailure(t);
+                    pipeline.fireExceptionCaught(t);
+                    if (t instanceof IOException) {
+                        close(voidFuture());
+                    }
+                    return;
+                }
+
+                // Let the transport write the region as a part of the usual flush process.
+                flush(voidFuture);
+            } else {
+                eventLoop().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        sendFile(region, future);
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void beginRead() {
+            if (eventLoop().inEventLoop()) {
+                if (!isActive()) {
+                    return;
+                }
+
+                try {
+                    doBeginRead();
+                } catch (Throwable t) {
+                    pipeline.fireExceptionCaught(t);
+                    close(voidFuture());
+                }
+            } else {
+                eventLoop().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        beginRead();
+                    }
+                });
+            }
+        }
+
         protected final boolean ensureOpen(ChannelFuture future) {
             if (isOpen()) {
                 return true;
@@ -697,6 +839,73 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
 
     protected abstract boolean isFlushPending();
 
+    /**
+     * Schedules a read operation of the inbound data.  Called by {@link Unsafe#beginRead()}
+     * for an active channel.  The default implementation does nothing, which is fine for
+     * a transport which does not support {@link ChannelConfig#isAutoRead()}.
+     */
+    protected void doBeginRead() throws Exception {
+        // NOOP
+    }
+
+    /**
+     * Enqueues the specified {@link FileRegion} so that it is transferred by
+     * {@link #doFlush(ChannelBufferHolder)} after all the data which was written
+     * before it.  The specified {@code future} must be notified once the region
+     * has been transferred completely or the transfer has failed.  The default
+     * implementation raises an {@link UnsupportedOperationException}.
+     */
+    protected void doSendFile(FileRegion region, ChannelFuture future) throws Exception {
+        throw new UnsupportedOperationException(
+                getClass().getSimpleName() + " does not support zero-copy file transfer.");
+    }
+
+    /**
+     * Fails the write requests which are pending in the transport itself rather than
+     * in {@link Unsafe#directOutbound()}, such as the {@link FileRegion}s enqueued by
+     * {@link #doSendFile(FileRegion, ChannelFuture)}.  Called when this channel is closed.
+     */
+    protected void failPendingWrites(Throwable cause) {
+        // NOOP by default
+    }
+
+    /**
+     * Releases the external resources of the specified {@link FileRegion} if it
+     * asked the transport to do so once its transfer is finished or failed.
+     */
+    protected static void releaseFileRegion(FileRegion region) {
+        if (region instanceof DefaultFileRegion &&
+            ((DefaultFileRegion) region).releaseAfterTransfer()) {
+            region.releaseExternalResources();
+        }
+    }
+
+    /**
+     * Compares the number of the bytes pending in the outbound byte buffer with
+     * the write buffer water marks and fires a {@code channelWritabilityChanged}
+     * event if {@link #isWritable()} has changed.  Must be called from the event loop.
+     */
+    private void updateWritability() {
+        ChannelBufferHolder<Object> out = unsafe.directOutbound();
+        if (!out.hasByteBuffer()) {
+            // Only the transports with a byte buffer apply the water marks.
+            return;
+        }
+
+        int pendingBytes = out.byteBuffer().readableBytes();
+        if (writable) {
+            if (pendingBytes > config().getWriteBufferHighWaterMark()) {
+                writable = false;
+                pipeline.fireChannelWritabilityChanged();
+            }
+        } else {
+            if (pendingBytes <= config().getWriteBufferLowWaterMark()) {
+                writable = true;
+                pipeline.fireChannelWritabilityChanged();
+            }
+        }
+    }
+
     private void notifyFlushFutures() {
         if (flushCheckpoints.isEmpty()) {
             return;
@@ -720,7 +929,9 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
             }
 
             flushCheckpoints.remove();
-            cp.future().setSuccess();
+            ChannelFuture future = cp.future();
+            cp.recycle();
+            future.setSuccess();
         }
 
         // Avoid overflow
@@ -742,7 +953,9 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
             if (cp == null) {
                 break;
             }
-            cp.future().setFailure(cause);
+            ChannelFuture future = cp.future();
+            cp.recycle();
+            future.setFailure(cause);
         }
     }
 
@@ -750,15 +963,43 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         abstract long flushCheckpoint();
         abstract void flushCheckpoint(long checkpoint);
         abstract ChannelFuture future();
+
+        /**
+         * Releases this checkpoint once its future is taken.  The default
+         * implementation does nothing.
+         */
+        void recycle() {
+            // NOOP
+        }
     }
 
-    private static class DefaultFlushCheckpoint extends FlushCheckpoint {
+    private static final class DefaultFlushCheckpoint extends FlushCheckpoint {
+        private static final Recycler<DefaultFlushCheckpoint> RECYCLER = new Recycler<DefaultFlushCheckpoint>() {
+            @Override
+            protected DefaultFlushCheckpoint newObject(Handle handle) {
+                return new DefaultFlushCheckpoint(handle);
+            }
+        };
+
+        static DefaultFlushCheckpoint newInstance(long checkpoint, ChannelFuture future) {
+            DefaultFlushCheckpoint cp = RECYCLER.get();
+            cp.checkpoint = checkpoint;
+            cp.future = future;
+            return cp;
+        }
+
+        private final Recycler.Handle handle;
         private long checkpoint;
-        private final ChannelFuture future;
+        private ChannelFuture future;
 
-        DefaultFlushCheckpoint(long checkpoint, ChannelFuture future) {
-            this.checkpoint = checkpoint;
-            this.future = future;
+        private DefaultFlushCheckpoint(Recycler.Handle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        void recycle() {
+            future = null;
+            handle.recycle();
         }
 
         @Override
@@ -794,9 +1035,8 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         }
 
         boolean setClosed() {
-            boolean set = super.setSuccess();
-            assert set;
-            return set;
+            // Returns false if the channel has been closed already.
+            return super.setSuccess();
         }
     }
 }
@@ -109,7 +109,8 @@ import java.util.Queue;
 public interface Channel extends AttributeMap, ChannelOutboundInvoker, ChannelFutureFactory, Comparable<Channel> {
 
     /**
-     * Returns the unique integer ID of this channel.
+     * Returns the unique integer ID of this channel.  An auto-generated ID is
+     * negative, and no two open channels share the same ID.
      */
     Integer id();
 
@@ -140,6 +141,18 @@ public interface Channel extends AttributeMap, ChannelOutboundInvoker, ChannelFu
     boolean isRegistered();
     boolean isActive();
 
+    /**
+     * Returns {@code true} if and only if the number of bytes queued in the
+     * write buffer of this channel does not exceed the
+     * {@linkplain ChannelConfig#getWriteBufferHighWaterMark() high water mark}.
+     * Once it returns {@code false}, it returns {@code true} again only after
+     * the queued bytes drop down to the
+     * {@linkplain ChannelConfig#getWriteBufferLowWaterMark() low water mark}.
+     * {@link ChannelInboundHandler#channelWritabilityChanged(ChannelInboundHandlerContext)}
+     * is invoked whenever the returned value changes.
+     */
+    boolean isWritable();
+
     ChannelBuffer outboundByteBuffer();
     Queue<Object> outboundMessageBuffer();
 
@@ -176,6 +189,16 @@ public interface Channel extends AttributeMap, ChannelOutboundInvoker, ChannelFu
      */
     ChannelFuture closeFuture();
 
+    /**
+     * Requests to read the inbound data of this channel once.  This method is
+     * useful only when {@linkplain ChannelConfig#isAutoRead() auto read} is
+     * disabled; the channel stops reading again once the requested data has
+     * been read and passed to the pipeline.  A request made while the channel
+     * is not active is ignored, and thus a handler usually requests the first
+     * read in {@code channelActive()}.
+     */
+    void read();
+
     Unsafe unsafe();
 
     public interface Unsafe {
@@ -194,5 +217,8 @@ public interface Channel extends AttributeMap, ChannelOutboundInvoker, ChannelFu
 
         void flush(ChannelFuture future);
         void flushNow();
+        void sendFile(FileRegion region, ChannelFuture future);
+
+        void beginRead();
     }
 }
@@ -130,4 +130,58 @@ public interface ChannelConfig {
      *         if the specified value is {@code 0} or less than {@code 0}
      */
     void setWriteSpinCount(int writeSpinCount);
+
+    /**
+     * Returns the high water mark of the write buffer.  If the number of bytes
+     * queued in the write buffer exceeds this value, {@link Channel#isWritable()}
+     * will start to return {@code false}.  The default value is {@code 64 KiB}.
+     */
+    int getWriteBufferHighWaterMark();
+
+    /**
+     * Sets the high water mark of the write buffer.  If the number of bytes
+     * queued in the write buffer exceeds this value, {@link Channel#isWritable()}
+     * will start to return {@code false}.
+     *
+     * @throws IllegalArgumentException
+     *         if the specified value is less than the current low water mark
+     */
+    void setWriteBufferHighWaterMark(int writeBufferHighWaterMark);
+
+    /**
+     * Returns the low water mark of the write buffer.  Once the number of bytes
+     * queued in the write buffer exceeded the {@linkplain #getWriteBufferHighWaterMark()
+     * high water mark} and then dropped down to or below this value,
+     * {@link Channel#isWritable()} will start to return {@code true} again.
+     * The default value is {@code 32 KiB}.
+     */
+    int getWriteBufferLowWaterMark();
+
+    /**
+     * Sets the low water mark of the write buffer.  Once the number of bytes
+     * queued in the write buffer exceeded the {@linkplain #getWriteBufferHighWaterMark()
+     * high water mark} and then dropped down to or below this value,
+     * {@link Channel#isWritable()} will start to return {@code true} again.
+     *
+     * @throws IllegalArgumentException
+     *         if the specified value is less than {@code 0} or greater than
+     *         the current high water mark
+     */
+    void setWriteBufferLowWaterMark(int writeBufferLowWaterMark);
+
+    /**
+     * Returns {@code true} if and only if the {@link Channel} reads its inbound
+     * data continuously without an explicit {@link Channel#read()} request.
+     * The default value is {@code true}.
+     */
+    boolean isAutoRead();
+
+    /**
+     * Sets if the {@link Channel} reads its inbound data continuously without
+     * an explicit {@link Channel#read()} request.  Disabling auto read stops
+     * the transport from reading (i.e. applies back pressure to the remote
+     * peer) once the current read is finished.  Re-enabling it resumes
+     * reading immediately.
+     */
+    void setAutoRead(boolean autoRead);
 }
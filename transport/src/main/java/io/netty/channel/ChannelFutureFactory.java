@@ -4,4 +4,14 @@ public interface ChannelFutureFactory {
     ChannelFuture newFuture();
     ChannelFuture newSucceededFuture();
     ChannelFuture newFailedFuture(Throwable cause);
+
+    /**
+     * Returns a shared {@link ChannelFuture} which can be passed to an outbound
+     * operation whose result is of no interest, such as a fire-and-forget
+     * {@link ChannelOutboundInvoker#write(Object, ChannelFuture) write}, so that
+     * no future is allocated for it.  The returned future never completes and
+     * does not accept any listener; a failure of the operation is notified via
+     * an {@code exceptionCaught} event instead.
+     */
+    ChannelFuture voidFuture();
 }
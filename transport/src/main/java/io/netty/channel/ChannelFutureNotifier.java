@@ -0,0 +1,71 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import java.util.List;
+
+/**
+ * {@link ChannelFutureListener} which propagates the result of the future it
+ * listens to into the specified futures.  Use it when a single operation, such
+ * as a flush, completes the operations requested by more than one caller.
+ */
+public final class ChannelFutureNotifier implements ChannelFutureListener {
+
+    /**
+     * Returns a future that completes all the specified futures, and clears
+     * the list.  No future is allocated if the list has less than two futures;
+     * {@link ChannelFutureFactory#voidFuture()} is returned if the list is empty.
+     */
+    public static ChannelFuture combine(ChannelFutureFactory factory, List<ChannelFuture> futures) {
+        final ChannelFuture future;
+        switch (futures.size()) {
+        case 0:
+            future = factory.voidFuture();
+            break;
+        case 1:
+            future = futures.get(0);
+            break;
+        default:
+            future = factory.newFuture();
+            future.addListener(new ChannelFutureNotifier(futures.toArray(new ChannelFuture[futures.size()])));
+        }
+        futures.clear();
+        return future;
+    }
+
+    private final ChannelFuture[] futures;
+
+    public ChannelFutureNotifier(ChannelFuture... futures) {
+        if (futures == null) {
+            throw new NullPointerException("futures");
+        }
+        this.futures = futures.clone();
+    }
+
+    @Override
+    public void operationComplete(ChannelFuture future) throws Exception {
+        if (future.isSuccess()) {
+            for (ChannelFuture f: futures) {
+                f.setSuccess();
+            }
+        } else {
+            Throwable cause = future.cause();
+            for (ChannelFuture f: futures) {
+                f.setFailure(cause);
+            }
+        }
+    }
+}
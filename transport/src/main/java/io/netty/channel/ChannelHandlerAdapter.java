@@ -1,36 +1,50 @@
 package io.netty.channel;
 
+import io.netty.channel.ChannelHandlerMask.Skip;
+
 import java.net.SocketAddress;
 
 public abstract class ChannelHandlerAdapter<I, O> extends AbstractChannelHandler
         implements ChannelInboundHandler<I>, ChannelOutboundHandler<O> {
 
     @Override
+    @Skip
     public void channelRegistered(ChannelInboundHandlerContext<I> ctx) throws Exception {
         ctx.fireChannelRegistered();
     }
 
     @Override
+    @Skip
     public void channelUnregistered(ChannelInboundHandlerContext<I> ctx) throws Exception {
         ctx.fireChannelUnregistered();
     }
 
     @Override
+    @Skip
     public void channelActive(ChannelInboundHandlerContext<I> ctx) throws Exception {
         ctx.fireChannelActive();
     }
 
     @Override
+    @Skip
     public void channelInactive(ChannelInboundHandlerContext<I> ctx) throws Exception {
         ctx.fireChannelInactive();
     }
 
     @Override
+    @Skip
+    public void channelWritabilityChanged(ChannelInboundHandlerContext<I> ctx) throws Exception {
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    @Skip
     public void exceptionCaught(ChannelInboundHandlerContext<I> ctx, Throwable cause) throws Exception {
         ctx.fireExceptionCaught(cause);
     }
 
     @Override
+    @Skip
     public void userEventTriggered(ChannelInboundHandlerContext<I> ctx, Object evt) throws Exception {
         ctx.fireUserEventTriggered(evt);
     }
@@ -41,26 +55,31 @@ public abstract class ChannelHandlerAdapter<I, O> extends AbstractChannelHandler
     }
 
     @Override
+    @Skip
     public void bind(ChannelOutboundHandlerContext<O> ctx, SocketAddress localAddress, ChannelFuture future) throws Exception {
         ctx.bind(localAddress, future);
     }
 
     @Override
+    @Skip
     public void connect(ChannelOutboundHandlerContext<O> ctx, SocketAddress remoteAddress, SocketAddress localAddress, ChannelFuture future) throws Exception {
         ctx.connect(remoteAddress, localAddress, future);
     }
 
     @Override
+    @Skip
     public void disconnect(ChannelOutboundHandlerContext<O> ctx, ChannelFuture future) throws Exception {
         ctx.disconnect(future);
     }
 
     @Override
+    @Skip
     public void close(ChannelOutboundHandlerContext<O> ctx, ChannelFuture future) throws Exception {
         ctx.close(future);
     }
 
     @Override
+    @Skip
     public void deregister(ChannelOutboundHandlerContext<O> ctx, ChannelFuture future) throws Exception {
         ctx.deregister(future);
     }
@@ -69,4 +88,9 @@ public abstract class ChannelHandlerAdapter<I, O> extends AbstractChannelHandler
     public void flush(ChannelOutboundHandlerContext<O> ctx, ChannelFuture future) throws Exception {
         ChannelOutboundHandlerAdapter.flush0(ctx, future);
     }
+
+    @Override
+    public void sendFile(ChannelOutboundHandlerContext<O> ctx, FileRegion region, ChannelFuture future) throws Exception {
+        ChannelOutboundHandlerAdapter.sendFile0(this, ctx, region, future);
+    }
 }
@@ -139,11 +139,39 @@ public interface ChannelHandlerContext
 
     boolean hasNextInboundByteBuffer();
     boolean hasNextInboundMessageBuffer();
+
+    /**
+     * Returns the inbound byte buffer of the next handler.  If the next handler
+     * runs in a different {@link EventExecutor}, the returned buffer is handed
+     * over to it by {@link #fireInboundBufferUpdated()}, so it is valid only
+     * until then.  Do not keep it across the events; get it again instead.
+     */
     ChannelBuffer nextInboundByteBuffer();
+
+    /**
+     * Returns the inbound message buffer of the next handler, which is valid
+     * only until the next {@link #fireInboundBufferUpdated()}.
+     *
+     * @see #nextInboundByteBuffer()
+     */
     Queue<Object> nextInboundMessageBuffer();
 
     boolean hasNextOutboundByteBuffer();
     boolean hasNextOutboundMessageBuffer();
+
+    /**
+     * Returns the outbound byte buffer of the next handler.  If the next handler
+     * runs in a different {@link EventExecutor}, the returned buffer is handed
+     * over to it by {@link #flush(ChannelFuture)}, so it is valid only until
+     * then.  Do not keep it across the events; get it again instead.
+     */
     ChannelBuffer nextOutboundByteBuffer();
+
+    /**
+     * Returns the outbound message buffer of the next handler, which is valid
+     * only until the next {@link #flush(ChannelFuture)}.
+     *
+     * @see #nextOutboundByteBuffer()
+     */
     Queue<Object> nextOutboundMessageBuffer();
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Computes which events a {@link ChannelHandler} only forwards to the next
+ * handler, so that the pipeline can pass them to the next interested handler
+ * directly.  The result is cached per handler class.
+ */
+final class ChannelHandlerMask {
+
+    static final int MASK_CHANNEL_REGISTERED = 1;
+    static final int MASK_CHANNEL_UNREGISTERED = 1 << 1;
+    static final int MASK_CHANNEL_ACTIVE = 1 << 2;
+    static final int MASK_CHANNEL_INACTIVE = 1 << 3;
+    static final int MASK_CHANNEL_WRITABILITY_CHANGED = 1 << 4;
+    static final int MASK_EXCEPTION_CAUGHT = 1 << 5;
+    static final int MASK_USER_EVENT_TRIGGERED = 1 << 6;
+    static final int MASK_BIND = 1 << 7;
+    static final int MASK_CONNECT = 1 << 8;
+    static final int MASK_DISCONNECT = 1 << 9;
+    static final int MASK_CLOSE = 1 << 10;
+    static final int MASK_DEREGISTER = 1 << 11;
+
+    /**
+     * Marks a handler method which does nothing but forward the event to the
+     * next handler.  Such a method is not invoked at all unless a subclass
+     * overrides it.
+     */
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Skip {
+        // no value
+    }
+
+    private static final ThreadLocal<Map<Class<?>, Integer>> CACHE =
+            new ThreadLocal<Map<Class<?>, Integer>>() {
+        @Override
+        protected Map<Class<?>, Integer> initialValue() {
+            return new WeakHashMap<Class<?>, Integer>();
+        }
+    };
+
+    /**
+     * Returns the bitwise OR of the {@code MASK_*} constants of the events
+     * which the specified handler does not need to see.
+     */
+    static int skipFlags(ChannelHandler handler) {
+        Class<? extends ChannelHandler> handlerType = handler.getClass();
+        Map<Class<?>, Integer> cache = CACHE.get();
+        Integer flags = cache.get(handlerType);
+        if (flags == null) {
+            flags = skipFlags0(handlerType);
+            cache.put(handlerType, flags);
+        }
+        return flags;
+    }
+
+    private static int skipFlags0(Class<? extends ChannelHandler> handlerType) {
+        int flags = 0;
+        if (ChannelInboundHandler.class.isAssignableFrom(handlerType)) {
+            Class<?> ctxType = ChannelInboundHandlerContext.class;
+            flags |= skipFlag(handlerType, MASK_CHANNEL_REGISTERED, "channelRegistered", ctxType);
+            flags |= skipFlag(handlerType, MASK_CHANNEL_UNREGISTERED, "channelUnregistered", ctxType);
+            flags |= skipFlag(handlerType, MASK_CHANNEL_ACTIVE, "channelActive", ctxType);
+            flags |= skipFlag(handlerType, MASK_CHANNEL_INACTIVE, "channelInactive", ctxType);
+            flags |= skipFlag(handlerType, MASK_CHANNEL_WRITABILITY_CHANGED, "channelWritabilityChanged", ctxType);
+            flags |= skipFlag(handlerType, MASK_EXCEPTION_CAUGHT, "exceptionCaught", ctxType, Throwable.class);
+            flags |= skipFlag(handlerType, MASK_USER_EVENT_TRIGGERED, "userEventTriggered", ctxType, Object.class);
+        }
+        if (ChannelOutboundHandler.class.isAssignableFrom(handlerType)) {
+            Class<?> ctxType = ChannelOutboundHandlerContext.class;
+            flags |= skipFlag(handlerType, MASK_BIND, "bind",
+                    ctxType, SocketAddress.class, ChannelFuture.class);
+            flags |= skipFlag(handlerType, MASK_CONNECT, "connect",
+                    ctxType, SocketAddress.class, SocketAddress.class, ChannelFuture.class);
+            flags |= skipFlag(handlerType, MASK_DISCONNECT, "disconnect", ctxType, ChannelFuture.class);
+            flags |= skipFlag(handlerType, MASK_CLOSE, "close", ctxType, ChannelFuture.class);
+            flags |= skipFlag(handlerType, MASK_DEREGISTER, "deregister", ctxType, ChannelFuture.class);
+        }
+        return flags;
+    }
+
+    private static int skipFlag(Class<?> handlerType, int flag, String methodName, Class<?>... paramTypes) {
+        try {
+            Method m = handlerType.getMethod(methodName, paramTypes);
+            return m.isAnnotationPresent(Skip.class)? flag : 0;
+        } catch (Exception e) {
+            // Not accessible - do not skip.
+            return 0;
+        }
+    }
+
+    private ChannelHandlerMask() {
+        // Unused
+    }
+}
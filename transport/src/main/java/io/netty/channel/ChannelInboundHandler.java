@@ -11,6 +11,12 @@ public interface ChannelInboundHandler<T> extends ChannelHandler {
     void channelActive(ChannelInboundHandlerContext<T> ctx) throws Exception;
     void channelInactive(ChannelInboundHandlerContext<T> ctx) throws Exception;
 
+    /**
+     * Invoked when {@link Channel#isWritable()} has changed.  Check the new
+     * state with {@link Channel#isWritable()}.
+     */
+    void channelWritabilityChanged(ChannelInboundHandlerContext<T> ctx) throws Exception;
+
     void inboundBufferUpdated(ChannelInboundHandlerContext<T> ctx) throws Exception;
 
     void exceptionCaught(ChannelInboundHandlerContext<T> ctx, Throwable cause) throws Exception;
@@ -1,6 +1,7 @@
 package io.netty.channel;
 
 import io.netty.buffer.ChannelBuffer;
+import io.netty.channel.ChannelHandlerMask.Skip;
 
 import java.util.Queue;
 
@@ -8,31 +9,43 @@ public abstract class ChannelInboundHandlerAdapter<I> extends AbstractChannelHan
         implements ChannelInboundHandler<I> {
 
     @Override
+    @Skip
     public void channelRegistered(ChannelInboundHandlerContext<I> ctx) throws Exception {
         ctx.fireChannelRegistered();
     }
 
     @Override
+    @Skip
     public void channelUnregistered(ChannelInboundHandlerContext<I> ctx) throws Exception {
         ctx.fireChannelUnregistered();
     }
 
     @Override
+    @Skip
     public void channelActive(ChannelInboundHandlerContext<I> ctx) throws Exception {
         ctx.fireChannelActive();
     }
 
     @Override
+    @Skip
     public void channelInactive(ChannelInboundHandlerContext<I> ctx) throws Exception {
         ctx.fireChannelInactive();
     }
 
     @Override
+    @Skip
+    public void channelWritabilityChanged(ChannelInboundHandlerContext<I> ctx) throws Exception {
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    @Skip
     public void exceptionCaught(ChannelInboundHandlerContext<I> ctx, Throwable cause) throws Exception {
         ctx.fireExceptionCaught(cause);
     }
 
     @Override
+    @Skip
     public void userEventTriggered(ChannelInboundHandlerContext<I> ctx, Object evt) throws Exception {
         ctx.fireUserEventTriggered(evt);
     }
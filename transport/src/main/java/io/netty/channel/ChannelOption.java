@@ -17,6 +17,12 @@ public class ChannelOption<T> extends UniqueName {
             new ChannelOption<Integer>("CONNECT_TIMEOUT_MILLIS");
     public static final ChannelOption<Integer> WRITE_SPIN_COUNT =
             new ChannelOption<Integer>("WRITE_SPIN_COUNT");
+    public static final ChannelOption<Integer> WRITE_BUFFER_HIGH_WATER_MARK =
+            new ChannelOption<Integer>("WRITE_BUFFER_HIGH_WATER_MARK");
+    public static final ChannelOption<Integer> WRITE_BUFFER_LOW_WATER_MARK =
+            new ChannelOption<Integer>("WRITE_BUFFER_LOW_WATER_MARK");
+    public static final ChannelOption<Boolean> AUTO_READ =
+            new ChannelOption<Boolean>("AUTO_READ");
 
     public static final ChannelOption<Boolean> SO_BROADCAST =
             new ChannelOption<Boolean>("SO_BROADCAST");
@@ -28,6 +34,8 @@ public class ChannelOption<T> extends UniqueName {
             new ChannelOption<Integer>("SO_RCVBUF");
     public static final ChannelOption<Boolean> SO_REUSEADDR =
             new ChannelOption<Boolean>("SO_REUSEADDR");
+    public static final ChannelOption<Boolean> SO_REUSEPORT =
+            new ChannelOption<Boolean>("SO_REUSEPORT");
     public static final ChannelOption<Integer> SO_LINGER =
             new ChannelOption<Integer>("SO_LINGER");
     public static final ChannelOption<Integer> SO_BACKLOG =
@@ -11,4 +11,5 @@ public interface ChannelOutboundHandler<T> extends ChannelHandler {
     void close(ChannelOutboundHandlerContext<T> ctx, ChannelFuture future) throws Exception;
     void deregister(ChannelOutboundHandlerContext<T> ctx, ChannelFuture future) throws Exception;
     void flush(ChannelOutboundHandlerContext<T> ctx, ChannelFuture future) throws Exception;
+    void sendFile(ChannelOutboundHandlerContext<T> ctx, FileRegion region, ChannelFuture future) throws Exception;
 }
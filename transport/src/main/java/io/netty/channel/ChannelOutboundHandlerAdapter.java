@@ -1,6 +1,7 @@
 package io.netty.channel;
 
 import io.netty.buffer.ChannelBuffer;
+import io.netty.channel.ChannelHandlerMask.Skip;
 
 import java.net.SocketAddress;
 import java.util.Queue;
@@ -9,26 +10,31 @@ public abstract class ChannelOutboundHandlerAdapter<O> extends AbstractChannelHa
         implements ChannelOutboundHandler<O> {
 
     @Override
+    @Skip
     public void bind(ChannelOutboundHandlerContext<O> ctx, SocketAddress localAddress, ChannelFuture future) throws Exception {
         ctx.bind(localAddress, future);
     }
 
     @Override
+    @Skip
     public void connect(ChannelOutboundHandlerContext<O> ctx, SocketAddress remoteAddress, SocketAddress localAddress, ChannelFuture future) throws Exception {
         ctx.connect(remoteAddress, localAddress, future);
     }
 
     @Override
+    @Skip
     public void disconnect(ChannelOutboundHandlerContext<O> ctx, ChannelFuture future) throws Exception {
         ctx.disconnect(future);
     }
 
     @Override
+    @Skip
     public void close(ChannelOutboundHandlerContext<O> ctx, ChannelFuture future) throws Exception {
         ctx.close(future);
     }
 
     @Override
+    @Skip
     public void deregister(ChannelOutboundHandlerContext<O> ctx, ChannelFuture future) throws Exception {
         ctx.deregister(future);
     }
@@ -38,6 +44,20 @@ public abstract class ChannelOutboundHandlerAdapter<O> extends AbstractChannelHa
         flush0(ctx, future);
     }
 
+    @Override
+    public void sendFile(ChannelOutboundHandlerContext<O> ctx, FileRegion region, ChannelFuture future) throws Exception {
+        sendFile0(this, ctx, region, future);
+    }
+
+    static <O> void sendFile0(ChannelOutboundHandler<O> handler,
+            ChannelOutboundHandlerContext<O> ctx, FileRegion region, ChannelFuture future) throws Exception {
+        // Flush what's been buffered so far so that the region is not sent before it.
+        if (!ctx.outbound().isBypass() && !ctx.outbound().isEmpty()) {
+            handler.flush(ctx, ctx.newFuture());
+        }
+        ctx.sendFile(region, future);
+    }
+
     static <O> void flush0(ChannelOutboundHandlerContext<O> ctx, ChannelFuture future) {
         if (ctx.outbound().isBypass()) {
             ctx.flush(future);
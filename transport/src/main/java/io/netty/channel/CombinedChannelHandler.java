@@ -108,6 +108,11 @@ public class CombinedChannelHandler extends AbstractChannelHandler
         in.channelInactive(ctx);
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelInboundHandlerContext<Object> ctx) throws Exception {
+        in.channelWritabilityChanged(ctx);
+    }
+
     @Override
     public void exceptionCaught(
             ChannelInboundHandlerContext<Object> ctx, Throwable cause) throws Exception {
@@ -163,4 +168,11 @@ public class CombinedChannelHandler extends AbstractChannelHandler
             ChannelOutboundHandlerContext<Object> ctx, ChannelFuture future) throws Exception {
         out.flush(ctx, future);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void sendFile(
+            ChannelOutboundHandlerContext<Object> ctx, FileRegion region,
+            ChannelFuture future) throws Exception {
+        out.sendFile(ctx, region, future);
+    }
+}
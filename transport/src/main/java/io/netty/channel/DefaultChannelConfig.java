@@ -29,12 +29,35 @@ public class DefaultChannelConfig implements ChannelConfig {
 
     private static final int DEFAULT_CONNECT_TIMEOUT = 30000;
 
+    private final Channel channel;
+
     private volatile int connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT;
     private volatile int writeSpinCount = 16;
+    private volatile int writeBufferHighWaterMark = 64 * 1024;
+    private volatile int writeBufferLowWaterMark = 32 * 1024;
+    private volatile boolean autoRead = true;
+
+    /**
+     * Creates a new instance which is not bound to any {@link Channel}.
+     * Re-enabling auto read will not trigger a read immediately.
+     */
+    public DefaultChannelConfig() {
+        this(null);
+    }
+
+    /**
+     * Creates a new instance which requests a read from the specified
+     * {@link Channel} when auto read is re-enabled.
+     */
+    public DefaultChannelConfig(Channel channel) {
+        this.channel = channel;
+    }
 
     @Override
     public Map<ChannelOption<?>, Object> getOptions() {
-        return getOptions(null, CONNECT_TIMEOUT_MILLIS, WRITE_SPIN_COUNT);
+        return getOptions(
+                null, CONNECT_TIMEOUT_MILLIS, WRITE_SPIN_COUNT,
+                WRITE_BUFFER_HIGH_WATER_MARK, WRITE_BUFFER_LOW_WATER_MARK, AUTO_READ);
     }
 
     protected Map<ChannelOption<?>, Object> getOptions(Map<ChannelOption<?>, Object> result, ChannelOption<?>... options) {
@@ -73,6 +96,12 @@ public class DefaultChannelConfig implements ChannelConfig {
             return (T) Integer.valueOf(getConnectTimeoutMillis());
         } else if (option == WRITE_SPIN_COUNT) {
             return (T) Integer.valueOf(getWriteSpinCount());
+        } else if (option == WRITE_BUFFER_HIGH_WATER_MARK) {
+            return (T) Integer.valueOf(getWriteBufferHighWaterMark());
+        } else if (option == WRITE_BUFFER_LOW_WATER_MARK) {
+            return (T) Integer.valueOf(getWriteBufferLowWaterMark());
+        } else if (option == AUTO_READ) {
+            return (T) Boolean.valueOf(isAutoRead());
         }
 
         return null;
@@ -86,6 +115,12 @@ public class DefaultChannelConfig implements ChannelConfig {
             setConnectTimeoutMillis((Integer) value);
         } else if (option == WRITE_SPIN_COUNT) {
             setWriteSpinCount((Integer) value);
+        } else if (option == WRITE_BUFFER_HIGH_WATER_MARK) {
+            setWriteBufferHighWaterMark((Integer) value);
+        } else if (option == WRITE_BUFFER_LOW_WATER_MARK) {
+            setWriteBufferLowWaterMark((Integer) value);
+        } else if (option == AUTO_READ) {
+            setAutoRead((Boolean) value);
         } else {
             return false;
         }
@@ -127,4 +162,52 @@ public class DefaultChannelConfig implements ChannelConfig {
         }
         this.writeSpinCount = writeSpinCount;
     }
+
+    @Override
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    @Override
+    public void setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+        if (writeBufferHighWaterMark < getWriteBufferLowWaterMark()) {
+            throw new IllegalArgumentException(String.format(
+                    "writeBufferHighWaterMark: %d (expected: >= writeBufferLowWaterMark (%d))",
+                    writeBufferHighWaterMark, getWriteBufferLowWaterMark()));
+        }
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+    }
+
+    @Override
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    @Override
+    public void setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+        if (writeBufferLowWaterMark < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "writeBufferLowWaterMark: %d (expected: >= 0)", writeBufferLowWaterMark));
+        }
+        if (writeBufferLowWaterMark > getWriteBufferHighWaterMark()) {
+            throw new IllegalArgumentException(String.format(
+                    "writeBufferLowWaterMark: %d (expected: <= writeBufferHighWaterMark (%d))",
+                    writeBufferLowWaterMark, getWriteBufferHighWaterMark()));
+        }
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+    }
+
+    @Override
+    public boolean isAutoRead() {
+        return autoRead;
+    }
+
+    @Override
+    public void setAutoRead(boolean autoRead) {
+        boolean oldAutoRead = this.autoRead;
+        this.autoRead = autoRead;
+        if (autoRead && !oldAutoRead && channel != null && channel.isRegistered()) {
+            channel.read();
+        }
+    }
 }
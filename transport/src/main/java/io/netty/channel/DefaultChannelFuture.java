@@ -21,10 +21,9 @@ import io.netty.logging.InternalLogger;
 import io.netty.logging.InternalLoggerFactory;
 
 import java.nio.channels.Channels;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * The default {@link ChannelFuture} implementation.  It is recommended to
@@ -45,17 +44,33 @@ public class DefaultChannelFuture extends FlushCheckpoint implements ChannelFutu
         }
     };
 
-    private static final Throwable CANCELLED = new Throwable();
+    /** The result of a successful operation. */
+    private static final Object SUCCESS = new Object();
+    /** The result of a cancelled operation. */
+    private static final CauseHolder CANCELLED = new CauseHolder(null);
+    /** The listener array after the listeners have been notified. */
+    private static final Object[] NOTIFIED = new Object[0];
+
+    private static final AtomicReferenceFieldUpdater<DefaultChannelFuture, Object> RESULT_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(DefaultChannelFuture.class, Object.class, "result");
+    private static final AtomicReferenceFieldUpdater<DefaultChannelFuture, Object[]> LISTENERS_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(DefaultChannelFuture.class, Object[].class, "listeners");
 
     private final Channel channel;
     private final boolean cancellable;
 
-    private ChannelFutureListener firstListener;
-    private List<ChannelFutureListener> otherListeners;
-    private List<ChannelFutureProgressListener> progressListeners;
-    private boolean done;
-    private Throwable cause;
-    private int waiters;
+    /**
+     * {@code null} until the operation is complete, and then {@link #SUCCESS} or a
+     * {@link CauseHolder}.  Set only once by a compare-and-set.
+     */
+    private volatile Object result;
+
+    /**
+     * The {@link ChannelFutureListener}s and the {@link Waiter}s, which are replaced
+     * by a compare-and-set of a new array.  {@link #NOTIFIED} once the operation is
+     * complete and they have been taken for notification.
+     */
+    private volatile Object[] listeners;
 
     /**
      * Opportunistically extending FlushCheckpoint to reduce GC.
@@ -81,27 +96,28 @@ public class DefaultChannelFuture extends FlushCheckpoint implements ChannelFutu
     }
 
     @Override
-    public synchronized boolean isDone() {
-        return done;
+    public boolean isDone() {
+        return result != null;
     }
 
     @Override
-    public synchronized boolean isSuccess() {
-        return done && cause == null;
+    public boolean isSuccess() {
+        return result == SUCCESS;
     }
 
     @Override
-    public synchronized Throwable cause() {
-        if (cause != CANCELLED) {
-            return cause;
+    public Throwable cause() {
+        Object result = this.result;
+        if (result instanceof CauseHolder) {
+            return ((CauseHolder) result).cause;
         } else {
             return null;
         }
     }
 
     @Override
-    public synchronized boolean isCancelled() {
-        return cause == CANCELLED;
+    public boolean isCancelled() {
+        return result == CANCELLED;
     }
 
     @Override
@@ -110,30 +126,7 @@ public class DefaultChannelFuture extends FlushCheckpoint implements ChannelFutu
             throw new NullPointerException("listener");
         }
 
-        boolean notifyNow = false;
-        synchronized (this) {
-            if (done) {
-                notifyNow = true;
-            } else {
-                if (firstListener == null) {
-                    firstListener = listener;
-                } else {
-                    if (otherListeners == null) {
-                        otherListeners = new ArrayList<ChannelFutureListener>(1);
-                    }
-                    otherListeners.add(listener);
-                }
-
-                if (listener instanceof ChannelFutureProgressListener) {
-                    if (progressListeners == null) {
-                        progressListeners = new ArrayList<ChannelFutureProgressListener>(1);
-                    }
-                    progressListeners.add((ChannelFutureProgressListener) listener);
-                }
-            }
-        }
-
-        if (notifyNow) {
+        if (!add(listener)) {
             notifyListener(this, listener);
         }
 
@@ -146,25 +139,68 @@ public class DefaultChannelFuture extends FlushCheckpoint implements ChannelFutu
             throw new NullPointerException("listener");
         }
 
-        synchronized (this) {
-            if (!done) {
-                if (listener == firstListener) {
-                    if (otherListeners != null && !otherListeners.isEmpty()) {
-                        firstListener = otherListeners.remove(0);
-                    } else {
-                        firstListener = null;
-                    }
-                } else if (otherListeners != null) {
-                    otherListeners.remove(listener);
-                }
+        remove(listener);
+        return this;
+    }
 
-                if (listener instanceof ChannelFutureProgressListener) {
-                    progressListeners.remove(listener);
-                }
+    /**
+     * Appends the specified listener or waiter to {@link #listeners}.
+     *
+     * @return {@code false} if the listeners have been notified already
+     */
+    private boolean add(Object listener) {
+        for (;;) {
+            Object[] oldListeners = listeners;
+            if (oldListeners == NOTIFIED) {
+                return false;
+            }
+
+            Object[] newListeners;
+            if (oldListeners == null) {
+                newListeners = new Object[] { listener };
+            } else {
+                newListeners = new Object[oldListeners.length + 1];
+                System.arraycopy(oldListeners, 0, newListeners, 0, oldListeners.length);
+                newListeners[oldListeners.length] = listener;
+            }
+
+            if (LISTENERS_UPDATER.compareAndSet(this, oldListeners, newListeners)) {
+                return true;
             }
         }
+    }
 
-        return this;
+    private void remove(Object listener) {
+        for (;;) {
+            Object[] oldListeners = listeners;
+            if (oldListeners == null || oldListeners == NOTIFIED) {
+                return;
+            }
+
+            int index = -1;
+            for (int i = 0; i < oldListeners.length; i ++) {
+                if (listener.equals(oldListeners[i])) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return;
+            }
+
+            Object[] newListeners;
+            if (oldListeners.length == 1) {
+                newListeners = null;
+            } else {
+                newListeners = new Object[oldListeners.length - 1];
+                System.arraycopy(oldListeners, 0, newListeners, 0, index);
+                System.arraycopy(oldListeners, index + 1, newListeners, index, newListeners.length - index);
+            }
+
+            if (LISTENERS_UPDATER.compareAndSet(this, oldListeners, newListeners)) {
+                return;
+            }
+        }
     }
 
     @Override
@@ -200,63 +236,35 @@ public class DefaultChannelFuture extends FlushCheckpoint implements ChannelFutu
 
     @Override
     public ChannelFuture await() throws InterruptedException {
-        if (Thread.interrupted()) {
-            throw new InterruptedException();
-        }
-
-        synchronized (this) {
-            while (!done) {
-                checkDeadLock();
-                waiters++;
-                try {
-                    this.wait();
-                } finally {
-                    waiters--;
-                }
-            }
-        }
+        await0(0, true, false);
         return this;
     }
 
     @Override
     public boolean await(long timeout, TimeUnit unit)
             throws InterruptedException {
-        return await0(unit.toNanos(timeout), true);
+        return await0(unit.toNanos(timeout), true, true);
     }
 
     @Override
     public boolean await(long timeoutMillis) throws InterruptedException {
-        return await0(MILLISECONDS.toNanos(timeoutMillis), true);
+        return await0(MILLISECONDS.toNanos(timeoutMillis), true, true);
     }
 
     @Override
     public ChannelFuture awaitUninterruptibly() {
-        boolean interrupted = false;
-        synchronized (this) {
-            while (!done) {
-                checkDeadLock();
-                waiters++;
-                try {
-                    this.wait();
-                } catch (InterruptedException e) {
-                    interrupted = true;
-                } finally {
-                    waiters--;
-                }
-            }
-        }
-
-        if (interrupted) {
-            Thread.currentThread().interrupt();
+        try {
+            await0(0, false, false);
+        } catch (InterruptedException e) {
+            throw new InternalError();
         }
-
         return this;
     }
 
     @Override
     public boolean awaitUninterruptibly(long timeout, TimeUnit unit) {
         try {
-            return await0(unit.toNanos(timeout), false);
+            return await0(unit.toNanos(timeout), false, true);
         } catch (InterruptedException e) {
             throw new InternalError();
         }
@@ -265,57 +273,56 @@ public class DefaultChannelFuture extends FlushCheckpoint implements ChannelFutu
     @Override
     public boolean awaitUninterruptibly(long timeoutMillis) {
         try {
-            return await0(MILLISECONDS.toNanos(timeoutMillis), false);
+            return await0(MILLISECONDS.toNanos(timeoutMillis), false, true);
         } catch (InterruptedException e) {
             throw new InternalError();
         }
     }
 
-    private boolean await0(long timeoutNanos, boolean interruptable) throws InterruptedException {
+    private boolean await0(long timeoutNanos, boolean interruptable, boolean timed) throws InterruptedException {
         if (interruptable && Thread.interrupted()) {
             throw new InterruptedException();
         }
 
-        long startTime = timeoutNanos <= 0 ? 0 : System.nanoTime();
-        long waitTime = timeoutNanos;
-        boolean interrupted = false;
+        if (isDone()) {
+            return true;
+        }
+        if (timed && timeoutNanos <= 0) {
+            return false;
+        }
 
+        checkDeadLock();
+
+        // Park until complete() unparks this thread.
+        Waiter waiter = new Waiter(Thread.currentThread());
+        if (!add(waiter)) {
+            return true;
+        }
+
+        final long deadline = timed? System.nanoTime() + timeoutNanos : 0;
+        boolean interrupted = false;
         try {
-            synchronized (this) {
-                if (done) {
-                    return done;
-                } else if (waitTime <= 0) {
-                    return done;
+            while (!isDone()) {
+                if (timed) {
+                    long waitTime = deadline - System.nanoTime();
+                    if (waitTime <= 0) {
+                        break;
+                    }
+                    LockSupport.parkNanos(this, waitTime);
+                } else {
+                    LockSupport.park(this);
                 }
 
-                checkDeadLock();
-                waiters++;
-                try {
-                    for (;;) {
-                        try {
-                            this.wait(waitTime / 1000000, (int) (waitTime % 1000000));
-                        } catch (InterruptedException e) {
-                            if (interruptable) {
-                                throw e;
-                            } else {
-                                interrupted = true;
-                            }
-                        }
-
-                        if (done) {
-                            return true;
-                        } else {
-                            waitTime = timeoutNanos - (System.nanoTime() - startTime);
-                            if (waitTime <= 0) {
-                                return done;
-                            }
-                        }
+                if (Thread.interrupted()) {
+                    if (interruptable) {
+                        throw new InterruptedException();
                     }
-                } finally {
-                    waiters--;
+                    interrupted = true;
                 }
             }
+            return isDone();
         } finally {
+            remove(waiter);
             if (interrupted) {
                 Thread.currentThread().interrupt();
             }
@@ -330,39 +337,12 @@ public class DefaultChannelFuture extends FlushCheckpoint implements ChannelFutu
 
     @Override
     public boolean setSuccess() {
-        synchronized (this) {
-            // Allow only once.
-            if (done) {
-                return false;
-            }
-
-            done = true;
-            if (waiters > 0) {
-                notifyAll();
-            }
-        }
-
-        notifyListeners();
-        return true;
+        return complete(SUCCESS);
     }
 
     @Override
     public boolean setFailure(Throwable cause) {
-        synchronized (this) {
-            // Allow only once.
-            if (done) {
-                return false;
-            }
-
-            this.cause = cause;
-            done = true;
-            if (waiters > 0) {
-                notifyAll();
-            }
-        }
-
-        notifyListeners();
-        return true;
+        return complete(new CauseHolder(cause));
     }
 
     @Override
@@ -371,63 +351,57 @@ public class DefaultChannelFuture extends FlushCheckpoint implements ChannelFutu
             return false;
         }
 
-        synchronized (this) {
-            // Allow only once.
-            if (done) {
-                return false;
-            }
+        return complete(CANCELLED);
+    }
 
-            cause = CANCELLED;
-            done = true;
-            if (waiters > 0) {
-                notifyAll();
-            }
+    private boolean complete(Object result) {
+        // Allow only once.
+        if (!RESULT_UPDATER.compareAndSet(this, null, result)) {
+            return false;
         }
 
-        notifyListeners();
+        // No listener can be added or removed from now on.
+        Object[] listeners = LISTENERS_UPDATER.getAndSet(this, NOTIFIED);
+        if (listeners != null) {
+            notifyListeners(listeners);
+        }
         return true;
     }
 
-    private void notifyListeners() {
-        // This method doesn't need synchronization because:
-        // 1) This method is always called after synchronized (this) block.
-        //    Hence any listener list modification happens-before this method.
-        // 2) This method is called only when 'done' is true.  Once 'done'
-        //    becomes true, the listener list is never modified - see add/removeListener()
+    private void notifyListeners(final Object[] listeners) {
+        boolean hasListener = false;
+        for (Object l: listeners) {
+            if (l instanceof Waiter) {
+                LockSupport.unpark(((Waiter) l).thread);
+            } else {
+                hasListener = true;
+            }
+        }
 
-        if (firstListener == null) {
+        if (!hasListener) {
             return;
         }
 
         if (channel().eventLoop().inEventLoop()) {
-            notifyListener0(this, firstListener);
-            firstListener = null;
-
-            if (otherListeners != null) {
-                for (ChannelFutureListener l: otherListeners) {
-                    notifyListener0(this, l);
-                }
-                otherListeners = null;
-            }
+            notifyListeners0(listeners);
         } else {
-            final ChannelFutureListener firstListener = this.firstListener;
-            final List<ChannelFutureListener> otherListeners = this.otherListeners;
-            this.firstListener = null;
-            this.otherListeners = null;
             channel().eventLoop().execute(new Runnable() {
                 @Override
                 public void run() {
-                    notifyListener0(DefaultChannelFuture.this, firstListener);
-                    if (otherListeners != null) {
-                        for (ChannelFutureListener l: otherListeners) {
-                            notifyListener0(DefaultChannelFuture.this, l);
-                        }
-                    }
+                    notifyListeners0(listeners);
                 }
             });
         }
     }
 
+    private void notifyListeners0(Object[] listeners) {
+        for (Object l: listeners) {
+            if (l instanceof ChannelFutureListener) {
+                notifyListener0(this, (ChannelFutureListener) l);
+            }
+        }
+    }
+
     static void notifyListener(final ChannelFuture f, final ChannelFutureListener l) {
         EventLoop loop = f.channel().eventLoop();
         if (loop.inEventLoop()) {
@@ -466,26 +440,21 @@ public class DefaultChannelFuture extends FlushCheckpoint implements ChannelFutu
 
     @Override
     public boolean setProgress(long amount, long current, long total) {
-        ChannelFutureProgressListener[] plisteners;
-        synchronized (this) {
-            // Do not generate progress event after completion.
-            if (done) {
-                return false;
-            }
-
-            Collection<ChannelFutureProgressListener> progressListeners =
-                this.progressListeners;
-            if (progressListeners == null || progressListeners.isEmpty()) {
-                // Nothing to notify - no need to create an empty array.
-                return true;
-            }
-
-            plisteners = progressListeners.toArray(
-                    new ChannelFutureProgressListener[progressListeners.size()]);
+        // Do not generate progress event after completion.
+        if (isDone()) {
+            return false;
         }
 
-        for (ChannelFutureProgressListener pl: plisteners) {
-            notifyProgressListener(pl, amount, current, total);
+        Object[] listeners = this.listeners;
+        if (listeners == NOTIFIED) {
+            return false;
+        }
+        if (listeners != null) {
+            for (Object l: listeners) {
+                if (l instanceof ChannelFutureProgressListener) {
+                    notifyProgressListener((ChannelFutureProgressListener) l, amount, current, total);
+                }
+            }
         }
 
         return true;
@@ -520,4 +489,20 @@ public class DefaultChannelFuture extends FlushCheckpoint implements ChannelFutu
     ChannelFuture future() {
         return this;
     }
+
+    private static final class CauseHolder {
+        final Throwable cause;
+
+        CauseHolder(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+
+    private static final class Waiter {
+        final Thread thread;
+
+        Waiter(Thread thread) {
+            this.thread = thread;
+        }
+    }
 }
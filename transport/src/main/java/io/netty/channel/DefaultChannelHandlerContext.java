@@ -1,14 +1,17 @@
 package io.netty.channel;
 
+import static io.netty.channel.ChannelHandlerMask.*;
 import io.netty.buffer.ChannelBuffer;
 import io.netty.buffer.ChannelBuffers;
+import io.netty.channel.metrics.TransportEventType;
+import io.netty.channel.metrics.TransportEvents;
 import io.netty.util.DefaultAttributeMap;
-import io.netty.util.internal.QueueFactory;
+import io.netty.util.internal.MpscLinkedQueue;
 
 import java.net.SocketAddress;
 import java.util.ArrayDeque;
 import java.util.Queue;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 final class DefaultChannelHandlerContext extends DefaultAttributeMap implements ChannelInboundHandlerContext<Object>, ChannelOutboundHandlerContext<Object> {
@@ -19,6 +22,8 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
     EventExecutor executor; // not thread-safe but OK because it never changes once set.
     private final String name;
     private final ChannelHandler handler;
+    // The events to pass on to the next handler without invoking this handler.
+    final int skipFlags;
     final ChannelBufferHolder<Object> in;
     final ChannelBufferHolder<Object> out;
 
@@ -26,7 +31,8 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
     // each other's buffers can be accessed at the same time resulting in a race condition.
     // To avoid such situation, we lazily creates an additional thread-safe buffer called
     // 'bridge' so that the two handlers access each other's buffer only via the bridges.
-    // The content written into a bridge is flushed into the actual buffer by flushBridge().
+    // The content written into a bridge is handed over to the other thread by fill*Bridge()
+    // and flushed into the actual buffer by flush*Bridge().
     final AtomicReference<MessageBridge> inMsgBridge;
     final AtomicReference<MessageBridge> outMsgBridge;
     final AtomicReference<StreamBridge> inByteBridge;
@@ -81,17 +87,37 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
             }
         }
     };
+    final Runnable fireChannelWritabilityChangedTask = new Runnable() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            DefaultChannelHandlerContext ctx = DefaultChannelHandlerContext.this;
+            try {
+                ((ChannelInboundHandler<Object>) ctx.handler).channelWritabilityChanged(ctx);
+            } catch (Throwable t) {
+                pipeline.notifyHandlerException(t);
+            }
+        }
+    };
     final Runnable curCtxFireInboundBufferUpdatedTask = new Runnable() {
         @Override
         @SuppressWarnings("unchecked")
         public void run() {
             DefaultChannelHandlerContext ctx = DefaultChannelHandlerContext.this;
-            flushBridge();
+            flushInboundBridge();
+            long startTime = 0;
+            boolean timed = TransportEvents.isEnabled(TransportEventType.HANDLER_INVOCATION);
+            if (timed) {
+                startTime = TransportEvents.handlerInvoking();
+            }
             try {
                 ((ChannelInboundHandler<Object>) ctx.handler).inboundBufferUpdated(ctx);
             } catch (Throwable t) {
                 pipeline.notifyHandlerException(t);
             } finally {
+                if (timed) {
+                    TransportEvents.handlerInvoked(ctx, "inboundBufferUpdated", startTime);
+                }
                 if (inByteBridge != null) {
                     ChannelBuffer buf = ctx.in.byteBuffer();
                     if (!buf.readable()) {
@@ -106,12 +132,26 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
         public void run() {
             DefaultChannelHandlerContext next =
                     DefaultChannelPipeline.nextInboundContext(DefaultChannelHandlerContext.this.next);
-            if (next != null) {
-                next.fillBridge();
+            if (next != null && next.fillInboundBridge()) {
                 DefaultChannelPipeline.fireInboundBufferUpdated(next);
             }
         }
     };
+    private final Runnable drainOutboundBridgeTask = new Runnable() {
+        @Override
+        public void run() {
+            DefaultChannelHandlerContext ctx = DefaultChannelHandlerContext.this;
+            Bridge<?> bridge = outboundBridge();
+            bridge.drainStarted();
+            for (;;) {
+                ChannelFuture future = bridge.pollFlushFuture();
+                if (future == null) {
+                    break;
+                }
+                pipeline.flush(ctx, future);
+            }
+        }
+    };
 
     @SuppressWarnings("unchecked")
     DefaultChannelHandlerContext(
@@ -152,10 +192,15 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
                 pipeline.childExecutors.put(executor, childExecutor);
             }
             this.executor = childExecutor;
-        } else if (channel.isRegistered()) {
-            this.executor = channel.eventLoop();
+            // Let the child executor see all events so that their order is preserved.
+            skipFlags = 0;
         } else {
-            this.executor = null;
+            if (channel.isRegistered()) {
+                this.executor = channel.eventLoop();
+            } else {
+                this.executor = null;
+            }
+            skipFlags = ChannelHandlerMask.skipFlags(handler);
         }
 
         if (canHandleInbound) {
@@ -212,33 +257,41 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
         }
     }
 
-    void fillBridge() {
+    /**
+     * Hands the content written into the inbound bridge by the current thread
+     * over to the executor of this context.  Returns {@code false} if the
+     * {@code inboundBufferUpdated} event fired for the content handed over
+     * earlier has not been handled yet, so that it does not need to be fired
+     * again.
+     */
+    boolean fillInboundBridge() {
+        if (executor().inEventLoop()) {
+            // The bridge is not used by the current thread.
+            return true;
+        }
+
+        Bridge<?> bridge;
         if (inMsgBridge != null) {
-            MessageBridge bridge = inMsgBridge.get();
-            if (bridge != null) {
-                bridge.fill();
-            }
+            bridge = inMsgBridge.get();
         } else if (inByteBridge != null) {
-            StreamBridge bridge = inByteBridge.get();
-            if (bridge != null) {
-                bridge.fill();
-            }
+            bridge = inByteBridge.get();
+        } else {
+            bridge = null;
         }
+        return bridge == null || bridge.fill();
+    }
 
+    Bridge<?> outboundBridge() {
         if (outMsgBridge != null) {
-            MessageBridge bridge = outMsgBridge.get();
-            if (bridge != null) {
-                bridge.fill();
-            }
-        } else if (outByteBridge != null) {
-            StreamBridge bridge = outByteBridge.get();
-            if (bridge != null) {
-                bridge.fill();
-            }
+            return outMsgBridge.get();
         }
+        if (outByteBridge != null) {
+            return outByteBridge.get();
+        }
+        return null;
     }
 
-    void flushBridge() {
+    void flushInboundBridge() {
         if (inMsgBridge != null) {
             MessageBridge bridge = inMsgBridge.get();
             if (bridge != null) {
@@ -250,7 +303,9 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
                 bridge.flush(in.byteBuffer());
             }
         }
+    }
 
+    void flushOutboundBridge() {
         if (outMsgBridge != null) {
             MessageBridge bridge = outMsgBridge.get();
             if (bridge != null) {
@@ -355,7 +410,7 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
 
     @Override
     public void fireChannelRegistered() {
-        DefaultChannelHandlerContext next = DefaultChannelPipeline.nextInboundContext(this.next);
+        DefaultChannelHandlerContext next = DefaultChannelPipeline.nextInboundContext(this.next, MASK_CHANNEL_REGISTERED);
         if (next != null) {
             DefaultChannelPipeline.fireChannelRegistered(next);
         }
@@ -363,7 +418,7 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
 
     @Override
     public void fireChannelUnregistered() {
-        DefaultChannelHandlerContext next = DefaultChannelPipeline.nextInboundContext(this.next);
+        DefaultChannelHandlerContext next = DefaultChannelPipeline.nextInboundContext(this.next, MASK_CHANNEL_UNREGISTERED);
         if (next != null) {
             DefaultChannelPipeline.fireChannelUnregistered(next);
         }
@@ -371,7 +426,7 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
 
     @Override
     public void fireChannelActive() {
-        DefaultChannelHandlerContext next = DefaultChannelPipeline.nextInboundContext(this.next);
+        DefaultChannelHandlerContext next = DefaultChannelPipeline.nextInboundContext(this.next, MASK_CHANNEL_ACTIVE);
         if (next != null) {
             DefaultChannelPipeline.fireChannelActive(next);
         }
@@ -379,15 +434,23 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
 
     @Override
     public void fireChannelInactive() {
-        DefaultChannelHandlerContext next = DefaultChannelPipeline.nextInboundContext(this.next);
+        DefaultChannelHandlerContext next = DefaultChannelPipeline.nextInboundContext(this.next, MASK_CHANNEL_INACTIVE);
         if (next != null) {
             DefaultChannelPipeline.fireChannelInactive(next);
         }
     }
 
+    @Override
+    public void fireChannelWritabilityChanged() {
+        DefaultChannelHandlerContext next = DefaultChannelPipeline.nextInboundContext(this.next, MASK_CHANNEL_WRITABILITY_CHANGED);
+        if (next != null) {
+            DefaultChannelPipeline.fireChannelWritabilityChanged(next);
+        }
+    }
+
     @Override
     public void fireExceptionCaught(Throwable cause) {
-        DefaultChannelHandlerContext next = DefaultChannelPipeline.nextInboundContext(this.next);
+        DefaultChannelHandlerContext next = DefaultChannelPipeline.nextInboundContext(this.next, MASK_EXCEPTION_CAUGHT);
         if (next != null) {
             pipeline.fireExceptionCaught(next, cause);
         } else {
@@ -397,7 +460,7 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
 
     @Override
     public void fireUserEventTriggered(Object event) {
-        DefaultChannelHandlerContext next = DefaultChannelPipeline.nextInboundContext(this.next);
+        DefaultChannelHandlerContext next = DefaultChannelPipeline.nextInboundContext(this.next, MASK_USER_EVENT_TRIGGERED);
         if (next != null) {
             pipeline.fireUserEventTriggered(next, event);
         }
@@ -453,9 +516,14 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
         return write(message, newFuture());
     }
 
+    @Override
+    public ChannelFuture sendFile(FileRegion region) {
+        return sendFile(region, newFuture());
+    }
+
     @Override
     public ChannelFuture bind(SocketAddress localAddress, ChannelFuture future) {
-        return pipeline.bind(DefaultChannelPipeline.nextOutboundContext(prev), localAddress, future);
+        return pipeline.bind(DefaultChannelPipeline.nextOutboundContext(prev, MASK_BIND), localAddress, future);
     }
 
     @Override
@@ -465,22 +533,22 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
 
     @Override
     public ChannelFuture connect(SocketAddress remoteAddress, SocketAddress localAddress, ChannelFuture future) {
-        return pipeline.connect(DefaultChannelPipeline.nextOutboundContext(prev), remoteAddress, localAddress, future);
+        return pipeline.connect(DefaultChannelPipeline.nextOutboundContext(prev, MASK_CONNECT), remoteAddress, localAddress, future);
     }
 
     @Override
     public ChannelFuture disconnect(ChannelFuture future) {
-        return pipeline.disconnect(DefaultChannelPipeline.nextOutboundContext(prev), future);
+        return pipeline.disconnect(DefaultChannelPipeline.nextOutboundContext(prev, MASK_DISCONNECT), future);
     }
 
     @Override
     public ChannelFuture close(ChannelFuture future) {
-        return pipeline.close(DefaultChannelPipeline.nextOutboundContext(prev), future);
+        return pipeline.close(DefaultChannelPipeline.nextOutboundContext(prev, MASK_CLOSE), future);
     }
 
     @Override
     public ChannelFuture deregister(ChannelFuture future) {
-        return pipeline.deregister(DefaultChannelPipeline.nextOutboundContext(prev), future);
+        return pipeline.deregister(DefaultChannelPipeline.nextOutboundContext(prev, MASK_DEREGISTER), future);
     }
 
     @Override
@@ -488,8 +556,16 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
         EventExecutor executor = executor();
         if (executor.inEventLoop()) {
             DefaultChannelHandlerContext prev = DefaultChannelPipeline.nextOutboundContext(this.prev);
-            prev.fillBridge();
-            pipeline.flush(prev, future);
+            Bridge<?> bridge = prev.outboundBridge();
+            if (bridge == null || prev.executor().inEventLoop()) {
+                pipeline.flush(prev, future);
+            } else {
+                // The flushes requested until the drain task runs are handled by a single task.
+                pipeline.validateFuture(future);
+                if (bridge.fill(future)) {
+                    prev.executor().execute(prev.drainOutboundBridgeTask);
+                }
+            }
         } else {
             executor.execute(new Runnable() {
                 @Override
@@ -507,6 +583,11 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
         return pipeline.write(prev, message, future);
     }
 
+    @Override
+    public ChannelFuture sendFile(FileRegion region, ChannelFuture future) {
+        return pipeline.sendFile(DefaultChannelPipeline.nextOutboundContext(prev), region, future);
+    }
+
     @Override
     public ChannelFuture newFuture() {
         return channel.newFuture();
@@ -522,55 +603,130 @@ final class DefaultChannelHandlerContext extends DefaultAttributeMap implements
         return channel.newFailedFuture(cause);
     }
 
-    static final class MessageBridge {
-        final Queue<Object> msgBuf = new ArrayDeque<Object>();
-        final BlockingQueue<Object[]> exchangeBuf = QueueFactory.createQueue();
+    @Override
+    public ChannelFuture voidFuture() {
+        return channel.voidFuture();
+    }
+
+    /**
+     * Exchanges the content written by one thread with the thread of the
+     * handler which owns the bridge.  The producer hands over the whole
+     * buffer it has written into and continues with a spare one, so the
+     * content is copied only once, into the buffer of the handler.  A
+     * producer notifies the consumer only when the exchange was drained
+     * since the last notification, so a burst of fills results in a single
+     * task.
+     */
+    abstract static class Bridge<T> {
+        private final Queue<T> exchangeBuf = new MpscLinkedQueue<T>();
+        private final Queue<ChannelFuture> flushFutures = new MpscLinkedQueue<ChannelFuture>();
+        private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+        /**
+         * Returns {@code true} if the consumer has to be notified.
+         */
+        final boolean fill() {
+            T data = handOff();
+            if (data != null) {
+                exchangeBuf.add(data);
+            }
+            return drainScheduled.compareAndSet(false, true);
+        }
+
+        /**
+         * Returns {@code true} if the consumer has to be notified.
+         */
+        final boolean fill(ChannelFuture flushFuture) {
+            T data = handOff();
+            if (data != null) {
+                exchangeBuf.add(data);
+            }
+            flushFutures.add(flushFuture);
+            return drainScheduled.compareAndSet(false, true);
+        }
+
+        final void drainStarted() {
+            // Clear the flag before draining, so that the content handed over from now on
+            // notifies the consumer again.
+            drainScheduled.set(false);
+        }
+
+        final T poll() {
+            return exchangeBuf.poll();
+        }
+
+        final ChannelFuture pollFlushFuture() {
+            return flushFutures.poll();
+        }
+
+        /**
+         * Returns the buffer written by the producer so far, or {@code null} if it is empty.
+         */
+        abstract T handOff();
+    }
 
-        void fill() {
+    static final class MessageBridge extends Bridge<Queue<Object>> {
+        Queue<Object> msgBuf = new ArrayDeque<Object>();
+        private final AtomicReference<Queue<Object>> spare = new AtomicReference<Queue<Object>>();
+
+        @Override
+        Queue<Object> handOff() {
             if (msgBuf.isEmpty()) {
-                return;
+                return null;
             }
-            Object[] data = msgBuf.toArray();
-            msgBuf.clear();
-            exchangeBuf.add(data);
+            Queue<Object> data = msgBuf;
+            Queue<Object> buf = spare.getAndSet(null);
+            msgBuf = buf != null? buf : new ArrayDeque<Object>();
+            return data;
         }
 
         void flush(Queue<Object> out) {
+            drainStarted();
             for (;;) {
-                Object[] data = exchangeBuf.poll();
+                Queue<Object> data = poll();
                 if (data == null) {
                     break;
                 }
 
-                for (Object d: data) {
-                    out.add(d);
+                for (;;) {
+                    Object msg = data.poll();
+                    if (msg == null) {
+                        break;
+                    }
+                    out.add(msg);
                 }
+                spare.lazySet(data);
             }
         }
     }
 
-    static final class StreamBridge {
-        final ChannelBuffer byteBuf = ChannelBuffers.dynamicBuffer();
-        final BlockingQueue<ChannelBuffer> exchangeBuf = QueueFactory.createQueue();
+    static final class StreamBridge extends Bridge<ChannelBuffer> {
+        ChannelBuffer byteBuf = ChannelBuffers.dynamicBuffer();
+        private final AtomicReference<ChannelBuffer> spare = new AtomicReference<ChannelBuffer>();
 
-        void fill() {
+        @Override
+        ChannelBuffer handOff() {
             if (!byteBuf.readable()) {
-                return;
+                return null;
             }
-            ChannelBuffer data = byteBuf.readBytes(byteBuf.readableBytes());
-            byteBuf.discardReadBytes();
-            exchangeBuf.add(data);
+            ChannelBuffer data = byteBuf;
+            ChannelBuffer buf = spare.getAndSet(null);
+            byteBuf = buf != null? buf : ChannelBuffers.dynamicBuffer();
+            return data;
         }
 
         void flush(ChannelBuffer out) {
+            drainStarted();
             for (;;) {
-                ChannelBuffer data = exchangeBuf.poll();
+                ChannelBuffer data = poll();
                 if (data == null) {
                     break;
                 }
 
                 out.writeBytes(data);
+                data.clear();
+                spare.lazySet(data);
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -15,14 +15,19 @@
  */
 package io.netty.channel;
 
+import static io.netty.channel.ChannelHandlerMask.*;
 import io.netty.buffer.ChannelBuffer;
 import io.netty.channel.DefaultChannelHandlerContext.MessageBridge;
 import io.netty.channel.DefaultChannelHandlerContext.StreamBridge;
+import io.netty.channel.metrics.TransportEventType;
+import io.netty.channel.metrics.TransportEvents;
 import io.netty.logging.InternalLogger;
 import io.netty.logging.InternalLoggerFactory;
+import io.netty.util.Recycler;
 
 import java.net.SocketAddress;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
@@ -46,8 +51,12 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
     private final DefaultChannelHandlerContext head;
     private volatile DefaultChannelHandlerContext tail;
-    private final Map<String, DefaultChannelHandlerContext> name2ctx =
-        new HashMap<String, DefaultChannelHandlerContext>(4);
+    /**
+     * Copy-on-write index of the contexts, so that lookups do not need to acquire the lock.
+     * Replaced only while the structure of the pipeline is being modified.
+     */
+    private volatile Map<String, DefaultChannelHandlerContext> name2ctx =
+        Collections.emptyMap();
     private boolean firedChannelActive;
     private boolean fireInboundBufferUpdatedOnActivation;
 
@@ -112,7 +121,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
             nextCtx.prev = newCtx;
         }
         head.next = newCtx;
-        name2ctx.put(name, newCtx);
+        putContext(name, newCtx);
 
         callAfterAdd(newCtx);
     }
@@ -154,7 +163,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
         oldTail.next = newTail;
         tail = newTail;
-        name2ctx.put(name, newTail);
+        putContext(name, newTail);
 
         callAfterAdd(newTail);
     }
@@ -194,7 +203,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
         ctx.prev.next = newCtx;
         ctx.prev = newCtx;
-        name2ctx.put(name, newCtx);
+        putContext(name, newCtx);
 
         callAfterAdd(newCtx);
     }
@@ -242,7 +251,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
         ctx.next.prev = newCtx;
         ctx.next = newCtx;
-        name2ctx.put(name, newCtx);
+        putContext(name, newCtx);
 
         callAfterAdd(newCtx);
     }
@@ -358,7 +367,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
         DefaultChannelHandlerContext next = ctx.next;
         prev.next = next;
         next.prev = prev;
-        name2ctx.remove(ctx.name());
+        removeContext(ctx.name());
 
         callAfterRemove(ctx);
     }
@@ -404,7 +413,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
         oldTail.prev.next = null;
         tail = oldTail.prev;
-        name2ctx.remove(oldTail.name());
+        removeContext(oldTail.name());
 
         callBeforeRemove(oldTail);
     }
@@ -475,10 +484,13 @@ public class DefaultChannelPipeline implements ChannelPipeline {
         prev.next = newCtx;
         next.prev = newCtx;
 
+        Map<String, DefaultChannelHandlerContext> newName2ctx =
+                new HashMap<String, DefaultChannelHandlerContext>(name2ctx);
         if (!sameName) {
-            name2ctx.remove(ctx.name());
+            newName2ctx.remove(ctx.name());
         }
-        name2ctx.put(newName, newCtx);
+        newName2ctx.put(newName, newCtx);
+        name2ctx = newName2ctx;
 
         ChannelHandlerLifeCycleException removeException = null;
         ChannelHandlerLifeCycleException addException = null;
@@ -578,7 +590,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
     }
 
     @Override
-    public synchronized ChannelHandler first() {
+    public ChannelHandler first() {
         DefaultChannelHandlerContext first = head.next;
         if (first == null) {
             return null;
@@ -587,7 +599,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
     }
 
     @Override
-    public synchronized ChannelHandler last() {
+    public ChannelHandler last() {
         DefaultChannelHandlerContext last = tail;
         if (last == head || last == null) {
             return null;
@@ -596,7 +608,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
     }
 
     @Override
-    public synchronized ChannelHandler get(String name) {
+    public ChannelHandler get(String name) {
         DefaultChannelHandlerContext ctx = name2ctx.get(name);
         if (ctx == null) {
             return null;
@@ -606,7 +618,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
     }
 
     @Override
-    public synchronized <T extends ChannelHandler> T get(Class<T> handlerType) {
+    public <T extends ChannelHandler> T get(Class<T> handlerType) {
         ChannelHandlerContext ctx = context(handlerType);
         if (ctx == null) {
             return null;
@@ -616,7 +628,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
     }
 
     @Override
-    public synchronized ChannelHandlerContext context(String name) {
+    public ChannelHandlerContext context(String name) {
         if (name == null) {
             throw new NullPointerException("name");
         }
@@ -624,47 +636,29 @@ public class DefaultChannelPipeline implements ChannelPipeline {
     }
 
     @Override
-    public synchronized ChannelHandlerContext context(ChannelHandler handler) {
+    public ChannelHandlerContext context(ChannelHandler handler) {
         if (handler == null) {
             throw new NullPointerException("handler");
         }
-        if (name2ctx.isEmpty()) {
-            return null;
-        }
-        DefaultChannelHandlerContext ctx = head;
-        for (;;) {
+        for (DefaultChannelHandlerContext ctx = head.next; ctx != null; ctx = ctx.next) {
             if (ctx.handler() == handler) {
                 return ctx;
             }
-
-            ctx = ctx.next;
-            if (ctx == null) {
-                break;
-            }
         }
         return null;
     }
 
     @Override
-    public synchronized ChannelHandlerContext context(
+    public ChannelHandlerContext context(
             Class<? extends ChannelHandler> handlerType) {
         if (handlerType == null) {
             throw new NullPointerException("handlerType");
         }
 
-        if (name2ctx.isEmpty()) {
-            return null;
-        }
-        DefaultChannelHandlerContext ctx = head.next;
-        for (;;) {
+        for (DefaultChannelHandlerContext ctx = head.next; ctx != null; ctx = ctx.next) {
             if (handlerType.isAssignableFrom(ctx.handler().getClass())) {
                 return ctx;
             }
-
-            ctx = ctx.next;
-            if (ctx == null) {
-                break;
-            }
         }
         return null;
     }
@@ -672,17 +666,8 @@ public class DefaultChannelPipeline implements ChannelPipeline {
     @Override
     public List<String> names() {
         List<String> list = new ArrayList<String>();
-        if (name2ctx.isEmpty()) {
-            return list;
-        }
-
-        DefaultChannelHandlerContext ctx = head.next;
-        for (;;) {
+        for (DefaultChannelHandlerContext ctx = head.next; ctx != null; ctx = ctx.next) {
             list.add(ctx.name());
-            ctx = ctx.next;
-            if (ctx == null) {
-                break;
-            }
         }
         return list;
     }
@@ -690,17 +675,8 @@ public class DefaultChannelPipeline implements ChannelPipeline {
     @Override
     public Map<String, ChannelHandler> toMap() {
         Map<String, ChannelHandler> map = new LinkedHashMap<String, ChannelHandler>();
-        if (name2ctx.isEmpty()) {
-            return map;
-        }
-
-        DefaultChannelHandlerContext ctx = head.next;
-        for (;;) {
+        for (DefaultChannelHandlerContext ctx = head.next; ctx != null; ctx = ctx.next) {
             map.put(ctx.name(), ctx.handler());
-            ctx = ctx.next;
-            if (ctx == null) {
-                break;
-            }
         }
         return map;
     }
@@ -713,18 +689,15 @@ public class DefaultChannelPipeline implements ChannelPipeline {
         StringBuilder buf = new StringBuilder();
         buf.append(getClass().getSimpleName());
         buf.append('{');
-        DefaultChannelHandlerContext ctx = head.next;
-        for (;;) {
+        for (DefaultChannelHandlerContext ctx = head.next; ctx != null; ctx = ctx.next) {
+            if (ctx != head.next) {
+                buf.append(", ");
+            }
             buf.append('(');
             buf.append(ctx.name());
             buf.append(" = ");
             buf.append(ctx.handler().getClass().getName());
             buf.append(')');
-            ctx = ctx.next;
-            if (ctx == null) {
-                break;
-            }
-            buf.append(", ");
         }
         buf.append('}');
         return buf.toString();
@@ -908,7 +881,10 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
     @Override
     public void fireChannelRegistered() {
-        DefaultChannelHandlerContext ctx = firstInboundContext();
+        if (TransportEvents.isEnabled(TransportEventType.CHANNEL_REGISTERED)) {
+            TransportEvents.channelStateChanged(channel, TransportEventType.CHANNEL_REGISTERED);
+        }
+        DefaultChannelHandlerContext ctx = nextInboundContext(head.next, MASK_CHANNEL_REGISTERED);
         if (ctx != null) {
             fireChannelRegistered(ctx);
         }
@@ -925,7 +901,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
     @Override
     public void fireChannelUnregistered() {
-        DefaultChannelHandlerContext ctx = firstInboundContext();
+        DefaultChannelHandlerContext ctx = nextInboundContext(head.next, MASK_CHANNEL_UNREGISTERED);
         if (ctx != null) {
             fireChannelUnregistered(ctx);
         }
@@ -942,10 +918,16 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
     @Override
     public void fireChannelActive() {
+        if (TransportEvents.isEnabled(TransportEventType.CHANNEL_ACTIVE)) {
+            TransportEvents.channelStateChanged(channel, TransportEventType.CHANNEL_ACTIVE);
+        }
         DefaultChannelHandlerContext ctx = firstInboundContext();
         if (ctx != null) {
             firedChannelActive = true;
-            fireChannelActive(ctx);
+            DefaultChannelHandlerContext activeCtx = nextInboundContext(ctx, MASK_CHANNEL_ACTIVE);
+            if (activeCtx != null) {
+                fireChannelActive(activeCtx);
+            }
             if (fireInboundBufferUpdatedOnActivation) {
                 fireInboundBufferUpdatedOnActivation = false;
                 fireInboundBufferUpdated(ctx);
@@ -964,7 +946,10 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
     @Override
     public void fireChannelInactive() {
-        DefaultChannelHandlerContext ctx = firstInboundContext();
+        if (TransportEvents.isEnabled(TransportEventType.CHANNEL_INACTIVE)) {
+            TransportEvents.channelStateChanged(channel, TransportEventType.CHANNEL_INACTIVE);
+        }
+        DefaultChannelHandlerContext ctx = nextInboundContext(head.next, MASK_CHANNEL_INACTIVE);
         if (ctx != null) {
             // Some implementations such as EmbeddedChannel can trigger inboundBufferUpdated()
             // after deactivation, so it's safe not to revert the firedChannelActive flag here.
@@ -983,9 +968,26 @@ public class DefaultChannelPipeline implements ChannelPipeline {
         }
     }
 
+    @Override
+    public void fireChannelWritabilityChanged() {
+        DefaultChannelHandlerContext ctx = nextInboundContext(head.next, MASK_CHANNEL_WRITABILITY_CHANGED);
+        if (ctx != null) {
+            fireChannelWritabilityChanged(ctx);
+        }
+    }
+
+    static void fireChannelWritabilityChanged(DefaultChannelHandlerContext ctx) {
+        EventExecutor executor = ctx.executor();
+        if (executor.inEventLoop()) {
+            ctx.fireChannelWritabilityChangedTask.run();
+        } else {
+            executor.execute(ctx.fireChannelWritabilityChangedTask);
+        }
+    }
+
     @Override
     public void fireExceptionCaught(Throwable cause) {
-        DefaultChannelHandlerContext ctx = firstInboundContext();
+        DefaultChannelHandlerContext ctx = nextInboundContext(head.next, MASK_EXCEPTION_CAUGHT);
         if (ctx != null) {
             fireExceptionCaught(ctx, cause);
         } else {
@@ -1029,7 +1031,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
     @Override
     public void fireUserEventTriggered(Object event) {
-        DefaultChannelHandlerContext ctx = firstInboundContext();
+        DefaultChannelHandlerContext ctx = nextInboundContext(head.next, MASK_USER_EVENT_TRIGGERED);
         if (ctx != null) {
             fireUserEventTriggered(ctx, event);
         }
@@ -1118,9 +1120,14 @@ public class DefaultChannelPipeline implements ChannelPipeline {
         return write(message, channel.newFuture());
     }
 
+    @Override
+    public ChannelFuture sendFile(FileRegion region) {
+        return sendFile(region, channel.newFuture());
+    }
+
     @Override
     public ChannelFuture bind(SocketAddress localAddress, ChannelFuture future) {
-        return bind(firstOutboundContext(), localAddress, future);
+        return bind(nextOutboundContext(tail, MASK_BIND), localAddress, future);
     }
 
     ChannelFuture bind(final DefaultChannelHandlerContext ctx, final SocketAddress localAddress, final ChannelFuture future) {
@@ -1154,7 +1161,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
     @Override
     public ChannelFuture connect(SocketAddress remoteAddress, SocketAddress localAddress, ChannelFuture future) {
-        return connect(firstOutboundContext(), remoteAddress, localAddress, future);
+        return connect(nextOutboundContext(tail, MASK_CONNECT), remoteAddress, localAddress, future);
     }
 
     ChannelFuture connect(final DefaultChannelHandlerContext ctx, final SocketAddress remoteAddress, final SocketAddress localAddress, final ChannelFuture future) {
@@ -1184,7 +1191,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
     @Override
     public ChannelFuture disconnect(ChannelFuture future) {
-        return disconnect(firstOutboundContext(), future);
+        return disconnect(nextOutboundContext(tail, MASK_DISCONNECT), future);
     }
 
     ChannelFuture disconnect(final DefaultChannelHandlerContext ctx, final ChannelFuture future) {
@@ -1210,7 +1217,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
     @Override
     public ChannelFuture close(ChannelFuture future) {
-        return close(firstOutboundContext(), future);
+        return close(nextOutboundContext(tail, MASK_CLOSE), future);
     }
 
     ChannelFuture close(final DefaultChannelHandlerContext ctx, final ChannelFuture future) {
@@ -1236,7 +1243,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
     @Override
     public ChannelFuture deregister(final ChannelFuture future) {
-        return deregister(firstOutboundContext(), future);
+        return deregister(nextOutboundContext(tail, MASK_DEREGISTER), future);
     }
 
     ChannelFuture deregister(final DefaultChannelHandlerContext ctx, final ChannelFuture future) {
@@ -1271,24 +1278,27 @@ public class DefaultChannelPipeline implements ChannelPipeline {
         if (executor.inEventLoop()) {
             flush0(ctx, future);
         } else {
-            executor.execute(new Runnable() {
-                @Override
-                public void run() {
-                    flush(ctx, future);
-                }
-            });
+            executor.execute(FlushTask.newInstance(this, ctx, future));
         }
 
         return future;
     }
 
     private void flush0(final DefaultChannelHandlerContext ctx, ChannelFuture future) {
+        long startTime = 0;
+        boolean timed = TransportEvents.isEnabled(TransportEventType.HANDLER_INVOCATION);
+        if (timed) {
+            startTime = TransportEvents.handlerInvoking();
+        }
         try {
-            ctx.flushBridge();
+            ctx.flushOutboundBridge();
             ((ChannelOutboundHandler<Object>) ctx.handler()).flush(ctx, future);
         } catch (Throwable t) {
             notifyHandlerException(t);
         } finally {
+            if (timed) {
+                TransportEvents.handlerInvoked(ctx, "flush", startTime);
+            }
             if (ctx.outByteBridge != null) {
                 ChannelBuffer buf = ctx.out.byteBuffer();
                 if (!buf.readable()) {
@@ -1307,6 +1317,10 @@ public class DefaultChannelPipeline implements ChannelPipeline {
         if (message == null) {
             throw new NullPointerException("message");
         }
+        if (message instanceof FileRegion) {
+            // A file region never goes into a buffer - it is sent by the transport directly.
+            return sendFile(nextOutboundContext(ctx), (FileRegion) message, future);
+        }
         validateFuture(future);
 
         EventExecutor executor;
@@ -1342,11 +1356,35 @@ public class DefaultChannelPipeline implements ChannelPipeline {
             flush0(ctx, future);
             return future;
         } else {
-            final DefaultChannelHandlerContext ctx0 = ctx;
+            executor.execute(WriteTask.newInstance(this, ctx, message, future));
+        }
+
+        return future;
+    }
+
+    @Override
+    public ChannelFuture sendFile(FileRegion region, ChannelFuture future) {
+        return sendFile(firstOutboundContext(), region, future);
+    }
+
+    ChannelFuture sendFile(final DefaultChannelHandlerContext ctx, final FileRegion region, final ChannelFuture future) {
+        if (region == null) {
+            throw new NullPointerException("region");
+        }
+        validateFuture(future);
+
+        EventExecutor executor = ctx.executor();
+        if (executor.inEventLoop()) {
+            try {
+                ((ChannelOutboundHandler<Object>) ctx.handler()).sendFile(ctx, region, future);
+            } catch (Throwable t) {
+                notifyHandlerException(t);
+            }
+        } else {
             executor.execute(new Runnable() {
                 @Override
                 public void run() {
-                    write(ctx0, message, future);
+                    sendFile(ctx, region, future);
                 }
             });
         }
@@ -1354,7 +1392,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
         return future;
     }
 
-    private void validateFuture(ChannelFuture future) {
+    void validateFuture(ChannelFuture future) {
         if (future == null) {
             throw new NullPointerException("future");
         }
@@ -1362,6 +1400,10 @@ public class DefaultChannelPipeline implements ChannelPipeline {
             throw new IllegalArgumentException(String.format(
                     "future.channel does not match: %s (expected: %s)", future.channel(), channel));
         }
+        if (future == channel.voidFuture()) {
+            // The failure of the operation is notified via exceptionCaught.
+            return;
+        }
         if (future.isDone()) {
             throw new IllegalArgumentException("future already done");
         }
@@ -1394,6 +1436,34 @@ public class DefaultChannelPipeline implements ChannelPipeline {
         return realCtx;
     }
 
+    /**
+     * Returns the first context from the specified one toward the tail which
+     * handles inbound events and does not skip the specified event.
+     *
+     * @param mask one of the {@link ChannelHandlerMask} {@code MASK_*} constants
+     */
+    static DefaultChannelHandlerContext nextInboundContext(DefaultChannelHandlerContext ctx, int mask) {
+        DefaultChannelHandlerContext realCtx = ctx;
+        while (realCtx != null && (!realCtx.canHandleInbound() || (realCtx.skipFlags & mask) != 0)) {
+            realCtx = realCtx.next;
+        }
+        return realCtx;
+    }
+
+    /**
+     * Returns the first context from the specified one toward the head which
+     * handles outbound events and does not skip the specified event.
+     *
+     * @param mask one of the {@link ChannelHandlerMask} {@code MASK_*} constants
+     */
+    static DefaultChannelHandlerContext nextOutboundContext(DefaultChannelHandlerContext ctx, int mask) {
+        DefaultChannelHandlerContext realCtx = ctx;
+        while (realCtx != null && (!realCtx.canHandleOutbound() || (realCtx.skipFlags & mask) != 0)) {
+            realCtx = realCtx.prev;
+        }
+        return realCtx;
+    }
+
     static DefaultChannelHandlerContext nextOutboundContext(DefaultChannelHandlerContext ctx) {
         if (ctx == null) {
             return null;
@@ -1444,6 +1514,20 @@ public class DefaultChannelPipeline implements ChannelPipeline {
         return inExceptionCaught(cause.getCause());
     }
 
+    private void putContext(String name, DefaultChannelHandlerContext ctx) {
+        Map<String, DefaultChannelHandlerContext> newName2ctx =
+                new HashMap<String, DefaultChannelHandlerContext>(name2ctx);
+        newName2ctx.put(name, ctx);
+        name2ctx = newName2ctx;
+    }
+
+    private void removeContext(String name) {
+        Map<String, DefaultChannelHandlerContext> newName2ctx =
+                new HashMap<String, DefaultChannelHandlerContext>(name2ctx);
+        newName2ctx.remove(name);
+        name2ctx = newName2ctx;
+    }
+
     private void checkDuplicateName(String name) {
         if (name2ctx.containsKey(name)) {
             throw new IllegalArgumentException("Duplicate handler name: " + name);
@@ -1549,5 +1633,104 @@ public class DefaultChannelPipeline implements ChannelPipeline {
                 ChannelFuture future) throws Exception {
             unsafe.flush(future);
         }
+
+        @Override
+        public void sendFile(ChannelOutboundHandlerContext ctx,
+                FileRegion region, ChannelFuture future) throws Exception {
+            unsafe.sendFile(region, future);
+        }
+    }
+
+    /**
+     * Writes a message from outside of the event loop.  Recycled to avoid an
+     * allocation per write.
+     */
+    private static final class WriteTask implements Runnable {
+        private static final Recycler<WriteTask> RECYCLER = new Recycler<WriteTask>() {
+            @Override
+            protected WriteTask newObject(Handle handle) {
+                return new WriteTask(handle);
+            }
+        };
+
+        static WriteTask newInstance(
+                DefaultChannelPipeline pipeline, DefaultChannelHandlerContext ctx,
+                Object message, ChannelFuture future) {
+            WriteTask task = RECYCLER.get();
+            task.pipeline = pipeline;
+            task.ctx = ctx;
+            task.message = message;
+            task.future = future;
+            return task;
+        }
+
+        private final Recycler.Handle handle;
+        private DefaultChannelPipeline pipeline;
+        private DefaultChannelHandlerContext ctx;
+        private Object message;
+        private ChannelFuture future;
+
+        private WriteTask(Recycler.Handle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public void run() {
+            DefaultChannelPipeline pipeline = this.pipeline;
+            DefaultChannelHandlerContext ctx = this.ctx;
+            Object message = this.message;
+            ChannelFuture future = this.future;
+            this.pipeline = null;
+            this.ctx = null;
+            this.message = null;
+            this.future = null;
+            handle.recycle();
+
+            pipeline.write(ctx, message, future);
+        }
+    }
+
+    /**
+     * Flushes from outside of the event loop.  Recycled to avoid an allocation
+     * per flush.
+     */
+    private static final class FlushTask implements Runnable {
+        private static final Recycler<FlushTask> RECYCLER = new Recycler<FlushTask>() {
+            @Override
+            protected FlushTask newObject(Handle handle) {
+                return new FlushTask(handle);
+            }
+        };
+
+        static FlushTask newInstance(
+                DefaultChannelPipeline pipeline, DefaultChannelHandlerContext ctx, ChannelFuture future) {
+            FlushTask task = RECYCLER.get();
+            task.pipeline = pipeline;
+            task.ctx = ctx;
+            task.future = future;
+            return task;
+        }
+
+        private final Recycler.Handle handle;
+        private DefaultChannelPipeline pipeline;
+        private DefaultChannelHandlerContext ctx;
+        private ChannelFuture future;
+
+        private FlushTask(Recycler.Handle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public void run() {
+            DefaultChannelPipeline pipeline = this.pipeline;
+            DefaultChannelHandlerContext ctx = this.ctx;
+            ChannelFuture future = this.future;
+            this.pipeline = null;
+            this.ctx = null;
+            this.future = null;
+            handle.recycle();
+
+            pipeline.flush(ctx, future);
+        }
     }
 }
@@ -14,12 +14,12 @@ class DefaultChildEventExecutor extends SingleThreadEventExecutor {
             Runnable task;
             try {
                 task = takeTask();
-                task.run();
+                runTask(task);
             } catch (InterruptedException e) {
                 // Waken up by interruptThread()
             }
 
-            if (isShutdown() && peekTask() == null) {
+            if (isShuttingDown() && confirmShutdown()) {
                 break;
             }
         }
@@ -1,11 +1,24 @@
 package io.netty.channel;
 
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public interface EventExecutor extends ScheduledExecutorService {
     boolean inEventLoop();
     Unsafe unsafe();
 
+    /**
+     * Shuts down this executor without cutting off the work in progress.
+     * Unlike {@link #shutdown()}, the executor keeps accepting and running
+     * tasks until no task has been submitted for the {@code quietPeriod},
+     * or until the {@code timeout} has passed since this method was called.
+     * The channels of an event loop are closed once their outbound buffers
+     * are flushed, or when the executor is finally shut down.  This method
+     * returns immediately; use {@link #awaitTermination(long, TimeUnit)} to
+     * wait for the termination.
+     */
+    void shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit);
+
     public interface Unsafe {
         EventExecutor nextChild();
     }
@@ -69,6 +69,18 @@ public abstract class MultithreadEventExecutor implements EventExecutor {
         return unsafe;
     }
 
+    /**
+     * Returns {@code true} if the specified executor is one of the children of this executor.
+     */
+    public boolean isChild(EventExecutor executor) {
+        for (EventExecutor l: children) {
+            if (l == executor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void shutdown() {
         for (EventExecutor l: children) {
@@ -76,6 +88,13 @@ public abstract class MultithreadEventExecutor implements EventExecutor {
         }
     }
 
+    @Override
+    public void shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        for (EventExecutor l: children) {
+            l.shutdownGracefully(quietPeriod, timeout, unit);
+        }
+    }
+
     @Override
     public List<Runnable> shutdownNow() {
         for (EventExecutor l: children) {
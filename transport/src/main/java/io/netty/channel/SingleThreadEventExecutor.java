@@ -1,5 +1,9 @@
 package io.netty.channel;
 
+import io.netty.channel.metrics.ChannelMetricsRegistry;
+import io.netty.channel.metrics.EventLoopMetrics;
+import io.netty.channel.metrics.TransportEventType;
+import io.netty.channel.metrics.TransportEvents;
 import io.netty.logging.InternalLogger;
 import io.netty.logging.InternalLoggerFactory;
 import io.netty.util.internal.QueueFactory;
@@ -36,6 +40,14 @@ public abstract class SingleThreadEventExecutor extends AbstractExecutorService
 
     static final ThreadLocal<SingleThreadEventExecutor> CURRENT_EVENT_LOOP = new ThreadLocal<SingleThreadEventExecutor>();
 
+    /** Returned by {@link #takeTask()} periodically while shutting down gracefully. */
+    private static final Runnable WAKEUP_TASK = new Runnable() {
+        @Override
+        public void run() {
+            // Do nothing.
+        }
+    };
+
     public static SingleThreadEventExecutor currentEventLoop() {
         return CURRENT_EVENT_LOOP.get();
     }
@@ -62,27 +74,40 @@ public abstract class SingleThreadEventExecutor extends AbstractExecutorService
     // TODO: Use PriorityQueue to reduce the locking overhead of DelayQueue.
     private final Queue<ScheduledFutureTask<?>> scheduledTasks = new DelayQueue<ScheduledFutureTask<?>>();
     private final Set<Runnable> shutdownHooks = new LinkedHashSet<Runnable>();
-    /** 0 - not started, 1 - started, 2 - shut down, 3 - terminated */
+    /** 0 - not started, 1 - started, 2 - shutting down, 3 - shut down, 4 - terminated */
     private volatile int state;
     private long lastCheckTimeNanos;
     private long lastPurgeTimeNanos;
+    private volatile long gracefulShutdownQuietPeriod;
+    private volatile long gracefulShutdownTimeout;
+    private boolean gracefulShutdownStarted;
+    private long gracefulShutdownStartTime;
+    private long lastExecutionTime;
+    private final EventLoopMetrics metrics;
 
     protected SingleThreadEventExecutor(ThreadFactory threadFactory) {
+        metrics = ChannelMetricsRegistry.newEventLoopMetrics(this);
         thread = threadFactory.newThread(new Runnable() {
             @Override
             public void run() {
                 CURRENT_EVENT_LOOP.set(SingleThreadEventExecutor.this);
+                if (metrics != null) {
+                    ChannelMetricsRegistry.registerEventLoop(metrics);
+                }
                 try {
                     SingleThreadEventExecutor.this.run();
                 } finally {
                     synchronized (stateLock) {
-                        state = 3;
+                        state = 4;
                     }
                     try {
                         cancelScheduledTasks();
                         runShutdownHooks();
                         cleanup();
                     } finally {
+                        if (metrics != null) {
+                            ChannelMetricsRegistry.unregisterEventLoop(metrics);
+                        }
                         threadLock.release();
                         assert taskQueue.isEmpty();
                     }
@@ -96,6 +121,16 @@ public abstract class SingleThreadEventExecutor extends AbstractExecutorService
         return unsafe;
     }
 
+    /**
+     * Returns the latency histograms of this event loop, or {@code null} if
+     * the metrics were disabled when this event loop was created.
+     *
+     * @see ChannelMetricsRegistry
+     */
+    public EventLoopMetrics metrics() {
+        return metrics;
+    }
+
     protected void interruptThread() {
         thread.interrupt();
     }
@@ -104,16 +139,13 @@ public abstract class SingleThreadEventExecutor extends AbstractExecutorService
         assert inEventLoop();
 
         Runnable task = taskQueue.poll();
-        if (task != null) {
-            return task;
-        }
-
-        if (fetchScheduledTasks()) {
+        if (task == null && fetchScheduledTasks()) {
             task = taskQueue.poll();
-            return task;
         }
-
-        return null;
+        if (task != null && state == 2) {
+            lastExecutionTime = System.nanoTime();
+        }
+        return task;
     }
 
     protected Runnable takeTask() throws InterruptedException {
@@ -121,14 +153,20 @@ public abstract class SingleThreadEventExecutor extends AbstractExecutorService
 
         for (;;) {
             Runnable task = taskQueue.poll(SCHEDULE_CHECK_INTERVAL * 2 / 3, TimeUnit.NANOSECONDS);
-            if (task != null) {
-                return task;
+            if (task == null) {
+                fetchScheduledTasks();
+                task = taskQueue.poll();
             }
-            fetchScheduledTasks();
-            task = taskQueue.poll();
             if (task != null) {
+                if (state == 2) {
+                    lastExecutionTime = System.nanoTime();
+                }
                 return task;
             }
+            if (isShuttingDown()) {
+                // Let the loop check if the quiet period is over.
+                return WAKEUP_TASK;
+            }
         }
     }
 
@@ -181,13 +219,51 @@ public abstract class SingleThreadEventExecutor extends AbstractExecutorService
     }
 
     protected void runAllTasks() {
+        final EventLoopMetrics metrics = this.metrics;
+        if (metrics == null) {
+            for (;;) {
+                final Runnable task = pollTask();
+                if (task == null) {
+                    break;
+                }
+
+                runTask(task);
+            }
+            return;
+        }
+
+        metrics.taskQueueDepth().record(metrics.getPendingTasks());
+        long startTime = System.nanoTime();
+        boolean ran = false;
         for (;;) {
             final Runnable task = pollTask();
             if (task == null) {
                 break;
             }
 
+            runTask(task);
+            ran = true;
+        }
+        if (ran) {
+            metrics.taskTime().record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Runs the specified task polled from the task queue, reporting it to
+     * {@link TransportEvents} if it takes long.
+     */
+    protected void runTask(Runnable task) {
+        if (!TransportEvents.isEnabled(TransportEventType.LONG_TASK)) {
             task.run();
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            TransportEvents.taskExecuted(this, task instanceof TimedTask? ((TimedTask) task).task : task, startTime);
         }
     }
 
@@ -251,23 +327,19 @@ public abstract class SingleThreadEventExecutor extends AbstractExecutorService
         boolean wakeup = false;
         if (inEventLoop) {
             synchronized (stateLock) {
-                assert state == 1;
-                state = 2;
+                assert state == 1 || state == 2;
+                state = 3;
                 wakeup = true;
             }
         } else {
             synchronized (stateLock) {
                 switch (state) {
                 case 0:
-                    state = 3;
-                    try {
-                        cleanup();
-                    } finally {
-                        threadLock.release();
-                    }
+                    terminateUnstarted();
                     break;
                 case 1:
-                    state = 2;
+                case 2:
+                    state = 3;
                     wakeup = true;
                     break;
                 }
@@ -279,6 +351,128 @@ public abstract class SingleThreadEventExecutor extends AbstractExecutorService
         }
     }
 
+    @Override
+    public void shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        if (unit == null) {
+            throw new NullPointerException("unit");
+        }
+        if (quietPeriod < 0) {
+            throw new IllegalArgumentException(
+                    String.format("quietPeriod: %d (expected: >= 0)", quietPeriod));
+        }
+        if (timeout < quietPeriod) {
+            throw new IllegalArgumentException(String.format(
+                    "timeout: %d (expected: >= quietPeriod (%d))", timeout, quietPeriod));
+        }
+
+        boolean wakeup = false;
+        synchronized (stateLock) {
+            switch (state) {
+            case 0:
+                terminateUnstarted();
+                break;
+            case 1:
+                gracefulShutdownQuietPeriod = unit.toNanos(quietPeriod);
+                gracefulShutdownTimeout = unit.toNanos(timeout);
+                state = 2;
+                wakeup = true;
+                break;
+            }
+        }
+
+        if (wakeup) {
+            wakeup(inEventLoop());
+        }
+    }
+
+    private void terminateUnstarted() {
+        assert Thread.holdsLock(stateLock);
+        state = 4;
+        try {
+            cleanup();
+        } finally {
+            threadLock.release();
+        }
+    }
+
+    /**
+     * Returns {@code true} if {@link #shutdown()} or
+     * {@link #shutdownGracefully(long, long, TimeUnit)} has been called.
+     */
+    public boolean isShuttingDown() {
+        return state >= 2;
+    }
+
+    /**
+     * Returns {@code true} if the event loop can stop now, which is when
+     * the event loop has been shut down and no task is left.  While shutting
+     * down gracefully, the event loop is shut down once no task has run for
+     * the quiet period and no scheduled task is due within the quiet period,
+     * or the timeout has passed.  Must be called by the event loop once
+     * {@link #isShuttingDown()} returns {@code true}.
+     */
+    protected boolean confirmShutdown() {
+        assert inEventLoop();
+
+        if (!isShuttingDown()) {
+            return false;
+        }
+
+        if (!isShutdown()) {
+            // Shutting down gracefully.  Scheduled tasks keep running so that delayed work, such
+            // as the writes held back by a traffic shaper, is done.  The ones left when the
+            // event loop terminates, such as long timeouts, are cancelled then.
+            long nanoTime = System.nanoTime();
+            if (!gracefulShutdownStarted) {
+                gracefulShutdownStarted = true;
+                gracefulShutdownStartTime = nanoTime;
+                lastExecutionTime = nanoTime;
+            }
+
+            if (nanoTime - gracefulShutdownStartTime < gracefulShutdownTimeout &&
+                (nanoTime - lastExecutionTime < gracefulShutdownQuietPeriod || hasTasks() ||
+                 hasScheduledTasksDueSoon())) {
+                return false;
+            }
+
+            synchronized (stateLock) {
+                if (state == 2) {
+                    state = 3;
+                }
+            }
+            // Let the loop close the remaining channels before stopping.
+            return false;
+        }
+
+        return peekTask() == null;
+    }
+
+    /**
+     * Returns {@code true} if the event loop is shutting down gracefully and
+     * a scheduled task is due within the quiet period.  A loop should keep
+     * its channels open meanwhile, because the task may write to them.
+     */
+    protected boolean hasScheduledTasksDueSoon() {
+        assert inEventLoop();
+
+        if (state != 2) {
+            return false;
+        }
+
+        final long deadlineNanos = nanoTime() + gracefulShutdownQuietPeriod;
+        for (;;) {
+            ScheduledFutureTask<?> task = scheduledTasks.peek();
+            if (task == null) {
+                return false;
+            }
+            if (task.isCancelled()) {
+                scheduledTasks.remove(task);
+                continue;
+            }
+            return task.deadlineNanos() <= deadlineNanos;
+        }
+    }
+
     @Override
     public List<Runnable> shutdownNow() {
         shutdown();
@@ -287,12 +481,12 @@ public abstract class SingleThreadEventExecutor extends AbstractExecutorService
 
     @Override
     public boolean isShutdown() {
-        return state >= 2;
+        return state >= 3;
     }
 
     @Override
     public boolean isTerminated() {
-        return state == 3;
+        return state == 4;
     }
 
     @Override
@@ -318,6 +512,10 @@ public abstract class SingleThreadEventExecutor extends AbstractExecutorService
             throw new NullPointerException("task");
         }
 
+        if (metrics != null) {
+            task = new TimedTask(task, metrics);
+        }
+
         if (inEventLoop()) {
             addTask(task);
             wakeup(true);
@@ -330,6 +528,9 @@ public abstract class SingleThreadEventExecutor extends AbstractExecutorService
             }
             addTask(task);
             if (isShutdown() && removeTask(task)) {
+                if (metrics != null) {
+                    metrics.taskRemoved();
+                }
                 reject();
             }
             wakeup(false);
@@ -473,6 +674,27 @@ public abstract class SingleThreadEventExecutor extends AbstractExecutorService
         return false;
     }
 
+    /**
+     * Records how long a task has waited in the queue.  Used only when the metrics are enabled.
+     */
+    private static final class TimedTask implements Runnable {
+        private final Runnable task;
+        private final EventLoopMetrics metrics;
+        private final long submitTimeNanos = System.nanoTime();
+
+        TimedTask(Runnable task, EventLoopMetrics metrics) {
+            this.task = task;
+            this.metrics = metrics;
+            metrics.taskSubmitted();
+        }
+
+        @Override
+        public void run() {
+            metrics.taskStarted(System.nanoTime() - submitTimeNanos);
+            task.run();
+        }
+    }
+
     private void cancelScheduledTasks() {
         if (scheduledTasks.isEmpty()) {
             return;
@@ -549,6 +771,9 @@ public abstract class SingleThreadEventExecutor extends AbstractExecutorService
 
         @Override
         public void run() {
+            if (metrics != null) {
+                metrics.scheduledTaskLateness().record(nanoTime() - deadlineNanos);
+            }
             if (periodNanos == 0) {
                 super.run();
             } else {
@@ -114,6 +114,29 @@ public interface ChannelGroup extends Set<Channel>, Comparable<ChannelGroup> {
      */
     ChannelGroupFuture write(Object message);
 
+    /**
+     * Writes the specified {@code message} to all {@link Channel}s in this
+     * group, submitting a single task to the event loop of each set of
+     * members which share the loop.  If the specified {@code message} is an
+     * instance of {@link ChannelBuffer}, all members share its content as a
+     * read-only buffer, so it is encoded only once.  Unlike
+     * {@link #write(Object)}, no future is created for each {@link Channel};
+     * a failed write is reported to the pipeline of its {@link Channel} as an
+     * {@code exceptionCaught} event.  Use {@link #broadcastAndTrack(Object)}
+     * to get the outcome of the writes.
+     */
+    void broadcast(Object message);
+
+    /**
+     * Writes the specified {@code message} to all {@link Channel}s in this
+     * group, just like {@link #broadcast(Object)} does, and tracks the outcome
+     * of the writes with counters rather than with a {@link ChannelGroupFuture}.
+     *
+     * @return the {@link ChannelGroupBroadcast} instance that tracks the
+     *         progress of the writes
+     */
+    ChannelGroupBroadcast broadcastAndTrack(Object message);
+
     /**
      * Disconnects all {@link Channel}s in this group from their remote peers.
      *
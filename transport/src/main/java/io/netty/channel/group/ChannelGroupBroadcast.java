@@ -0,0 +1,186 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.group;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The progress of a {@link ChannelGroup#broadcastAndTrack(Object)} operation.
+ * Unlike {@link ChannelGroupFuture}, it keeps only the number of the
+ * succeeded and failed writes rather than the future of each write, so that
+ * broadcasting to a large group stays cheap.
+ */
+public final class ChannelGroupBroadcast {
+
+    private final ChannelGroup group;
+    private final int memberCount;
+    private final AtomicInteger successCount = new AtomicInteger();
+    private final AtomicInteger failureCount = new AtomicInteger();
+    private final AtomicReference<Throwable> cause = new AtomicReference<Throwable>();
+    private final CountDownLatch doneLatch = new CountDownLatch(1);
+
+    private final ChannelFutureListener counter = new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+            if (future.isSuccess()) {
+                succeeded();
+            } else {
+                failed(future.cause());
+            }
+        }
+    };
+
+    ChannelGroupBroadcast(ChannelGroup group, int memberCount) {
+        this.group = group;
+        this.memberCount = memberCount;
+        if (memberCount == 0) {
+            doneLatch.countDown();
+        }
+    }
+
+    /**
+     * Returns the {@link ChannelGroup} which is associated with this broadcast.
+     */
+    public ChannelGroup group() {
+        return group;
+    }
+
+    /**
+     * Returns the number of the {@link Channel}s the message is written to.
+     */
+    public int memberCount() {
+        return memberCount;
+    }
+
+    /**
+     * Returns the number of the writes which succeeded so far.
+     */
+    public int successCount() {
+        return successCount.get();
+    }
+
+    /**
+     * Returns the number of the writes which failed so far.
+     */
+    public int failureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * Returns the cause of the first failed write, or {@code null} if no
+     * write failed so far.
+     */
+    public Throwable cause() {
+        return cause.get();
+    }
+
+    /**
+     * Returns {@code true} if and only if the writes to all members are done,
+     * either successfully or not.
+     */
+    public boolean isDone() {
+        return doneLatch.getCount() == 0;
+    }
+
+    /**
+     * Returns {@code true} if and only if the writes to all members succeeded.
+     */
+    public boolean isCompleteSuccess() {
+        return successCount.get() == memberCount;
+    }
+
+    /**
+     * Waits for the writes to all members to be done.
+     *
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    public ChannelGroupBroadcast await() throws InterruptedException {
+        doneLatch.await();
+        return this;
+    }
+
+    /**
+     * Waits for the writes to all members to be done within the specified
+     * time limit.
+     *
+     * @return {@code true} if and only if the writes are done within the time limit
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return doneLatch.await(timeout, unit);
+    }
+
+    /**
+     * Waits for the writes to all members to be done without interruption.
+     */
+    public ChannelGroupBroadcast awaitUninterruptibly() {
+        boolean interrupted = false;
+        for (;;) {
+            try {
+                doneLatch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return this;
+    }
+
+    void write(Channel channel, Object message) {
+        ChannelFuture future;
+        try {
+            future = channel.write(message);
+        } catch (Throwable t) {
+            failed(t);
+            return;
+        }
+        future.addListener(counter);
+    }
+
+    void failed(Throwable t) {
+        cause.compareAndSet(null, t);
+        failureCount.incrementAndGet();
+        checkDone();
+    }
+
+    private void succeeded() {
+        successCount.incrementAndGet();
+        checkDone();
+    }
+
+    private void checkDone() {
+        if (successCount.get() + failureCount.get() == memberCount) {
+            doneLatch.countDown();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(group: " + group.name() +
+               ", members: " + memberCount + ", succeeded: " + successCount() +
+               ", failed: " + failureCount() + ')';
+    }
+}
@@ -16,19 +16,24 @@
 package io.netty.channel.group;
 
 import io.netty.buffer.ChannelBuffer;
+import io.netty.buffer.ChannelBuffers;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.EventLoop;
 import io.netty.channel.ServerChannel;
 
 import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -222,6 +227,102 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
         return new DefaultChannelGroupFuture(this, futures);
     }
 
+    @Override
+    public void broadcast(Object message) {
+        broadcast(message, false);
+    }
+
+    @Override
+    public ChannelGroupBroadcast broadcastAndTrack(Object message) {
+        return broadcast(message, true);
+    }
+
+    /**
+     * Returns the {@link ChannelGroupBroadcast} which tracks the writes, or
+     * {@code null} if {@code track} is {@code false}.
+     */
+    private ChannelGroupBroadcast broadcast(Object message, boolean track) {
+        if (message == null) {
+            throw new NullPointerException("message");
+        }
+
+        final Object msg;
+        if (message instanceof ChannelBuffer) {
+            msg = ChannelBuffers.unmodifiableBuffer((ChannelBuffer) message);
+        } else {
+            msg = message;
+        }
+
+        // Group the members by their event loops.
+        Map<EventLoop, List<Channel>> channelsPerLoop = new IdentityHashMap<EventLoop, List<Channel>>();
+        List<Channel> unregistered = null;
+        int memberCount = 0;
+        for (Channel c: nonServerChannels.values()) {
+            memberCount ++;
+            if (c.isRegistered()) {
+                EventLoop loop = c.eventLoop();
+                List<Channel> channels = channelsPerLoop.get(loop);
+                if (channels == null) {
+                    channels = new ArrayList<Channel>();
+                    channelsPerLoop.put(loop, channels);
+                }
+                channels.add(c);
+            } else {
+                if (unregistered == null) {
+                    unregistered = new ArrayList<Channel>();
+                }
+                unregistered.add(c);
+            }
+        }
+
+        final ChannelGroupBroadcast broadcast = track? new ChannelGroupBroadcast(this, memberCount) : null;
+        for (Map.Entry<EventLoop, List<Channel>> e: channelsPerLoop.entrySet()) {
+            final List<Channel> channels = e.getValue();
+            try {
+                e.getKey().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (Channel c: channels) {
+                            broadcast(c, msg, broadcast);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException cause) {
+                if (broadcast != null) {
+                    for (int i = 0; i < channels.size(); i ++) {
+                        broadcast.failed(cause);
+                    }
+                }
+            }
+        }
+        if (unregistered != null && broadcast != null) {
+            // Let the channels fail the writes.
+            for (Channel c: unregistered) {
+                broadcast(c, msg, broadcast);
+            }
+        }
+
+        return broadcast;
+    }
+
+    private static void broadcast(Channel channel, Object msg, ChannelGroupBroadcast broadcast) {
+        if (msg instanceof ChannelBuffer) {
+            // Give each member its own indexes on the shared content.
+            msg = ((ChannelBuffer) msg).duplicate();
+        }
+
+        if (broadcast != null) {
+            broadcast.write(channel, msg);
+            return;
+        }
+
+        try {
+            channel.write(msg, channel.voidFuture());
+        } catch (Throwable t) {
+            channel.pipeline().fireExceptionCaught(t);
+        }
+    }
+
     @Override
     public int hashCode() {
         return System.identityHashCode(this);
@@ -26,6 +26,7 @@ import io.netty.channel.ChannelType;
 import io.netty.channel.DefaultChannelConfig;
 import io.netty.channel.EventLoop;
 import io.netty.channel.SingleThreadEventLoop;
+import io.netty.util.internal.QueueFactory;
 
 import java.net.SocketAddress;
 import java.nio.channels.AlreadyConnectedException;
@@ -33,13 +34,14 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ConnectionPendingException;
 import java.nio.channels.NotYetConnectedException;
 import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A {@link Channel} for the local transport.
  */
 public class LocalChannel extends AbstractChannel {
 
-    private final ChannelConfig config = new DefaultChannelConfig();
+    private final ChannelConfig config = new DefaultChannelConfig(this);
     private final Runnable shutdownHook = new Runnable() {
         @Override
         public void run() {
@@ -47,6 +49,33 @@ public class LocalChannel extends AbstractChannel {
         }
     };
 
+    private final Queue<Object> inboundQueue = QueueFactory.createQueue();
+    private final AtomicBoolean readScheduled = new AtomicBoolean();
+    private final Runnable readTask = new Runnable() {
+        @Override
+        public void run() {
+            // Clear the flag first so that the messages enqueued from now on schedule a new read.
+            readScheduled.set(false);
+
+            Queue<Object> in = inboundQueue;
+            Queue<Object> out = pipeline().inboundMessageBuffer();
+            int read = 0;
+            for (;;) {
+                Object msg = in.poll();
+                if (msg == null) {
+                    break;
+                }
+                out.add(msg);
+                read ++;
+            }
+
+            if (read > 0) {
+                recordRead(read);
+                pipeline().fireInboundBufferUpdated();
+            }
+        }
+    };
+
     private volatile int state; // 0 - open, 1 - bound, 2 - connected, 3 - closed
     private volatile LocalChannel peer;
     private volatile LocalAddress localAddress;
@@ -210,8 +239,11 @@ public class LocalChannel extends AbstractChannel {
         final LocalChannel peer = this.peer;
         assert peer != null;
 
+        // Hand the messages over to the peer, which drains them in its own event loop.
+        // Only the first flush since the last drain schedules the read task, so that
+        // a burst of flushes results in a single inboundBufferUpdated event.
         Queue<Object> in = buf.messageBuffer();
-        Queue<Object> out = peer.pipeline().inboundMessageBuffer();
+        Queue<Object> out = peer.inboundQueue;
         for (;;) {
             Object msg = in.poll();
             if (msg == null) {
@@ -220,12 +252,9 @@ public class LocalChannel extends AbstractChannel {
             out.add(msg);
         }
 
-        peer.eventLoop().execute(new Runnable() {
-            @Override
-            public void run() {
-                peer.pipeline().fireInboundBufferUpdated();
-            }
-        });
+        if (peer.readScheduled.compareAndSet(false, true)) {
+            peer.eventLoop().execute(peer.readTask);
+        }
     }
 
     @Override
@@ -31,12 +31,12 @@ final class LocalChildEventLoop extends SingleThreadEventLoop {
             Runnable task;
             try {
                 task = takeTask();
-                task.run();
+                runTask(task);
             } catch (InterruptedException e) {
                 // Waken up by interruptThread()
             }
 
-            if (isShutdown() && peekTask() == null) {
+            if (isShuttingDown() && confirmShutdown()) {
                 break;
             }
         }
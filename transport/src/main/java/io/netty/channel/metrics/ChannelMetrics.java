@@ -0,0 +1,163 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.metrics;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelType;
+
+/**
+ * The traffic counters of a {@link Channel}.  Only the event loop of the
+ * {@link Channel} updates them, so that no contention is involved, while
+ * any thread can read them.
+ * <p>
+ * The amount passed to {@link #read(int)} and {@link #flushed(int, int)} is
+ * the number of bytes for a {@link ChannelType#STREAM} channel and the
+ * number of messages for a {@link ChannelType#MESSAGE} channel.
+ */
+public final class ChannelMetrics {
+
+    private final Channel channel;
+    private final boolean stream;
+    final ChannelMetricsGroup loopGroup;
+    final ChannelMetricsGroup parentGroup;
+    final ChannelMetricsGroup childGroup;
+
+    // Written only by the event loop.
+    private volatile long bytesRead;
+    private volatile long bytesWritten;
+    private volatile long messagesRead;
+    private volatile long messagesWritten;
+    private volatile long flushes;
+    private volatile long pendingOutboundBytes;
+    private volatile long lastReadTimeMillis;
+    private volatile long lastWriteTimeMillis;
+
+    ChannelMetrics(Channel channel, ChannelMetricsGroup loopGroup,
+            ChannelMetricsGroup parentGroup, ChannelMetricsGroup childGroup) {
+        this.channel = channel;
+        this.loopGroup = loopGroup;
+        this.parentGroup = parentGroup;
+        this.childGroup = childGroup;
+        stream = channel.type() == ChannelType.STREAM;
+    }
+
+    /**
+     * Returns the {@link Channel} these counters belong to.
+     */
+    public Channel channel() {
+        return channel;
+    }
+
+    /**
+     * Records that the specified amount of data has been read.
+     */
+    public void read(int amount) {
+        if (stream) {
+            bytesRead += amount;
+        } else {
+            messagesRead += amount;
+        }
+        lastReadTimeMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Records a flush which wrote the specified amount of data and left the
+     * specified amount of data in the outbound buffer.
+     */
+    public void flushed(int written, int pending) {
+        flushes ++;
+        if (written > 0) {
+            if (stream) {
+                bytesWritten += written;
+            } else {
+                messagesWritten += written;
+            }
+            lastWriteTimeMillis = System.currentTimeMillis();
+        }
+        if (stream) {
+            pendingOutboundBytes = pending;
+        }
+    }
+
+    /**
+     * Records that a {@link io.netty.channel.FileRegion} of the specified
+     * size has been transferred completely.
+     */
+    public void fileRegionWritten(long bytes) {
+        if (bytes > 0) {
+            bytesWritten += bytes;
+            lastWriteTimeMillis = System.currentTimeMillis();
+        }
+    }
+
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    public long bytesWritten() {
+        return bytesWritten;
+    }
+
+    public long messagesRead() {
+        return messagesRead;
+    }
+
+    public long messagesWritten() {
+        return messagesWritten;
+    }
+
+    public long flushes() {
+        return flushes;
+    }
+
+    /**
+     * Returns the number of the bytes which were not written by the last flush.
+     */
+    public long pendingOutboundBytes() {
+        return pendingOutboundBytes;
+    }
+
+    /**
+     * Returns the time of the last read in milliseconds, or {@code 0} if nothing has been read.
+     */
+    public long lastReadTimeMillis() {
+        return lastReadTimeMillis;
+    }
+
+    /**
+     * Returns the time of the last write in milliseconds, or {@code 0} if nothing has been written.
+     */
+    public long lastWriteTimeMillis() {
+        return lastWriteTimeMillis;
+    }
+
+    /**
+     * Returns the {@link ChannelMetricsGroup} which aggregates the children
+     * of the channel, or {@code null} if the channel is not a server channel.
+     */
+    public ChannelMetricsGroup childGroup() {
+        return childGroup;
+    }
+
+    @Override
+    public String toString() {
+        return channel + "(bytesRead: " + bytesRead + ", bytesWritten: " + bytesWritten +
+               ", messagesRead: " + messagesRead + ", messagesWritten: " + messagesWritten +
+               ", flushes: " + flushes + ", pendingOutboundBytes: " + pendingOutboundBytes +
+               ", lastReadTimeMillis: " + lastReadTimeMillis +
+               ", lastWriteTimeMillis: " + lastWriteTimeMillis + ')';
+    }
+}
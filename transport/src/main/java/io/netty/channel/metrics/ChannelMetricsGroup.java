@@ -0,0 +1,173 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates the {@link ChannelMetrics} of a set of channels, such as the
+ * channels of an event loop or the children of a server channel.  The
+ * totals are computed when requested, by summing the counters of the open
+ * channels and the final counters of the closed ones.
+ */
+public final class ChannelMetricsGroup implements ChannelMetricsGroupMBean {
+
+    private static final Comparator<ChannelMetrics> BUSIEST = new Comparator<ChannelMetrics>() {
+        @Override
+        public int compare(ChannelMetrics o1, ChannelMetrics o2) {
+            return compareDescending(
+                    o1.bytesRead() + o1.bytesWritten(), o2.bytesRead() + o2.bytesWritten());
+        }
+    };
+
+    private static final Comparator<ChannelMetrics> MOST_BACKED_UP = new Comparator<ChannelMetrics>() {
+        @Override
+        public int compare(ChannelMetrics o1, ChannelMetrics o2) {
+            return compareDescending(o1.pendingOutboundBytes(), o2.pendingOutboundBytes());
+        }
+    };
+
+    private static int compareDescending(long v1, long v2) {
+        return v1 > v2? -1 : v1 < v2? 1 : 0;
+    }
+
+    private final String name;
+    private final Map<ChannelMetrics, Boolean> channels = new ConcurrentHashMap<ChannelMetrics, Boolean>();
+    private final AtomicLong closedBytesRead = new AtomicLong();
+    private final AtomicLong closedBytesWritten = new AtomicLong();
+    private final AtomicLong closedMessagesRead = new AtomicLong();
+    private final AtomicLong closedMessagesWritten = new AtomicLong();
+    private final AtomicLong closedFlushes = new AtomicLong();
+
+    ChannelMetricsGroup(String name) {
+        this.name = name;
+    }
+
+    void add(ChannelMetrics metrics) {
+        channels.put(metrics, Boolean.TRUE);
+    }
+
+    void remove(ChannelMetrics metrics) {
+        if (channels.remove(metrics) != null) {
+            closedBytesRead.addAndGet(metrics.bytesRead());
+            closedBytesWritten.addAndGet(metrics.bytesWritten());
+            closedMessagesRead.addAndGet(metrics.messagesRead());
+            closedMessagesWritten.addAndGet(metrics.messagesWritten());
+            closedFlushes.addAndGet(metrics.flushes());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getChannelCount() {
+        return channels.size();
+    }
+
+    @Override
+    public long getBytesRead() {
+        long sum = closedBytesRead.get();
+        for (ChannelMetrics m: channels.keySet()) {
+            sum += m.bytesRead();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        long sum = closedBytesWritten.get();
+        for (ChannelMetrics m: channels.keySet()) {
+            sum += m.bytesWritten();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getMessagesRead() {
+        long sum = closedMessagesRead.get();
+        for (ChannelMetrics m: channels.keySet()) {
+            sum += m.messagesRead();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getMessagesWritten() {
+        long sum = closedMessagesWritten.get();
+        for (ChannelMetrics m: channels.keySet()) {
+            sum += m.messagesWritten();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getFlushes() {
+        long sum = closedFlushes.get();
+        for (ChannelMetrics m: channels.keySet()) {
+            sum += m.flushes();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getPendingOutboundBytes() {
+        long sum = 0;
+        for (ChannelMetrics m: channels.keySet()) {
+            sum += m.pendingOutboundBytes();
+        }
+        return sum;
+    }
+
+    @Override
+    public String[] busiestChannels(int count) {
+        return top(count, BUSIEST);
+    }
+
+    @Override
+    public String[] mostBackedUpChannels(int count) {
+        return top(count, MOST_BACKED_UP);
+    }
+
+    private String[] top(int count, Comparator<ChannelMetrics> comparator) {
+        if (count < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "count: %d (expected: >= 0)", count));
+        }
+
+        List<ChannelMetrics> snapshot = new ArrayList<ChannelMetrics>(channels.keySet());
+        Collections.sort(snapshot, comparator);
+        int size = Math.min(count, snapshot.size());
+        String[] result = new String[size];
+        for (int i = 0; i < size; i ++) {
+            result[i] = snapshot.get(i).toString();
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(name: " + name + ", channels: " + getChannelCount() + ')';
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.metrics;
+
+/**
+ * The management interface of a {@link ChannelMetricsGroup}.
+ */
+public interface ChannelMetricsGroupMBean {
+
+    String getName();
+
+    int getChannelCount();
+
+    long getBytesRead();
+
+    long getBytesWritten();
+
+    long getMessagesRead();
+
+    long getMessagesWritten();
+
+    long getFlushes();
+
+    long getPendingOutboundBytes();
+
+    /**
+     * Returns the open channels which have transferred the largest number of bytes.
+     */
+    String[] busiestChannels(int count);
+
+    /**
+     * Returns the open channels which have the largest number of pending outbound bytes.
+     */
+    String[] mostBackedUpChannels(int count);
+}
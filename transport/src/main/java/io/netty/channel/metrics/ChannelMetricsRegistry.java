@@ -0,0 +1,230 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.metrics;
+
+import io.netty.channel.AbstractChannel;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.EventExecutor;
+import io.netty.channel.EventLoop;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.SingleThreadEventExecutor;
+import io.netty.logging.InternalLogger;
+import io.netty.logging.InternalLoggerFactory;
+import io.netty.util.internal.SystemPropertyUtil;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Creates the {@link ChannelMetrics} of the channels and publishes their
+ * aggregates as MBeans, one {@link ChannelMetricsGroup} per event loop and
+ * one per server channel:
+ * <pre>
+ * io.netty:type=EventLoop,name=&lt;event loop&gt;
+ * io.netty:type=ServerChannel,id=&lt;channel ID&gt;
+ * </pre>
+ * The {@link EventLoopMetrics} of each event loop are published while its
+ * thread is running:
+ * <pre>
+ * io.netty:type=EventLoopStats,name=&lt;event loop&gt;
+ * </pre>
+ * The metrics are disabled by default, and then cost nothing but a
+ * {@code null} check.  They are enabled by the {@code io.netty.channel.metrics}
+ * system property or {@link #setEnabled(boolean)}, and apply to the channels
+ * registered and the event loops created afterwards.
+ */
+public final class ChannelMetricsRegistry {
+
+    private static final InternalLogger logger =
+            InternalLoggerFactory.getInstance(ChannelMetricsRegistry.class);
+
+    private static final String DOMAIN = "io.netty";
+
+    private static volatile boolean enabled =
+            "true".equalsIgnoreCase(SystemPropertyUtil.get("io.netty.channel.metrics", "false"));
+
+    private static final ConcurrentMap<EventLoop, ChannelMetricsGroup> loopGroups =
+            new ConcurrentHashMap<EventLoop, ChannelMetricsGroup>();
+
+    /**
+     * Returns {@code true} if the channels registered from now on keep their metrics.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the metrics of the channels registered from now on.
+     */
+    public static void setEnabled(boolean enabled) {
+        ChannelMetricsRegistry.enabled = enabled;
+    }
+
+    /**
+     * Returns the {@link ChannelMetricsGroup} of the specified event loop, or
+     * {@code null} if no channel with metrics has been registered to it.
+     */
+    public static ChannelMetricsGroup group(EventLoop loop) {
+        return loopGroups.get(loop);
+    }
+
+    /**
+     * Creates the metrics of the specified channel, which has just been
+     * registered to its event loop, and adds them to the groups of the event
+     * loop and the parent.  They are removed from the groups when the
+     * channel is closed.  Called by the transport.
+     */
+    public static ChannelMetrics register(Channel channel) {
+        final EventLoop loop = channel.eventLoop();
+        ChannelMetricsGroup loopGroup = loopGroups.get(loop);
+        if (loopGroup == null) {
+            loopGroup = newLoopGroup(loop);
+        }
+
+        ChannelMetricsGroup parentGroup = null;
+        Channel parent = channel.parent();
+        if (parent instanceof AbstractChannel) {
+            ChannelMetrics parentMetrics = ((AbstractChannel) parent).metrics();
+            if (parentMetrics != null) {
+                parentGroup = parentMetrics.childGroup;
+            }
+        }
+
+        ChannelMetricsGroup childGroup = null;
+        ObjectName childGroupName = null;
+        if (channel instanceof ServerChannel) {
+            childGroupName = objectName("type=ServerChannel,id=" + channel.id());
+            childGroup = new ChannelMetricsGroup(childGroupName.toString());
+            registerMBean(childGroup, childGroupName);
+        }
+
+        final ChannelMetrics metrics = new ChannelMetrics(channel, loopGroup, parentGroup, childGroup);
+        loopGroup.add(metrics);
+        if (parentGroup != null) {
+            parentGroup.add(metrics);
+        }
+
+        final ObjectName finalChildGroupName = childGroupName;
+        channel.closeFuture().addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                metrics.loopGroup.remove(metrics);
+                if (metrics.parentGroup != null) {
+                    metrics.parentGroup.remove(metrics);
+                }
+                if (finalChildGroupName != null) {
+                    unregisterMBean(finalChildGroupName);
+                }
+            }
+        });
+        return metrics;
+    }
+
+    /**
+     * Creates the {@link EventLoopMetrics} of the specified event loop, or
+     * returns {@code null} if the metrics are disabled.  Called by the event
+     * loop when it is created.
+     */
+    public static EventLoopMetrics newEventLoopMetrics(EventExecutor loop) {
+        if (!enabled) {
+            return null;
+        }
+        return new EventLoopMetrics(loopName(loop));
+    }
+
+    /**
+     * Publishes the specified {@link EventLoopMetrics}.  Called by the event
+     * loop when its thread starts.
+     */
+    public static void registerEventLoop(EventLoopMetrics metrics) {
+        registerMBean(metrics, eventLoopObjectName(metrics));
+    }
+
+    /**
+     * Stops publishing the specified {@link EventLoopMetrics}.  Called by the
+     * event loop when its thread terminates.
+     */
+    public static void unregisterEventLoop(EventLoopMetrics metrics) {
+        unregisterMBean(eventLoopObjectName(metrics));
+    }
+
+    private static ObjectName eventLoopObjectName(EventLoopMetrics metrics) {
+        return objectName("type=EventLoopStats,name=" + ObjectName.quote(metrics.getName()));
+    }
+
+    private static String loopName(EventExecutor loop) {
+        return loop.getClass().getSimpleName() + '@' + Integer.toHexString(System.identityHashCode(loop));
+    }
+
+    private static ChannelMetricsGroup newLoopGroup(final EventLoop loop) {
+        final ObjectName name = objectName("type=EventLoop,name=" + ObjectName.quote(loopName(loop)));
+        ChannelMetricsGroup group = new ChannelMetricsGroup(name.toString());
+        ChannelMetricsGroup oldGroup = loopGroups.putIfAbsent(loop, group);
+        if (oldGroup != null) {
+            return oldGroup;
+        }
+
+        registerMBean(group, name);
+        if (loop instanceof SingleThreadEventExecutor) {
+            ((SingleThreadEventExecutor) loop).addShutdownHook(new Runnable() {
+                @Override
+                public void run() {
+                    loopGroups.remove(loop);
+                    unregisterMBean(name);
+                }
+            });
+        }
+        return group;
+    }
+
+    private static ObjectName objectName(String properties) {
+        try {
+            return new ObjectName(DOMAIN + ':' + properties);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("invalid object name: " + properties, e);
+        }
+    }
+
+    private static void registerMBean(Object mbean, ObjectName name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(mbean, name);
+        } catch (Exception e) {
+            logger.warn("Failed to register an MBean: " + name, e);
+        }
+    }
+
+    private static void unregisterMBean(ObjectName name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to unregister an MBean: " + name, e);
+        }
+    }
+
+    private ChannelMetricsRegistry() {
+        // Unused
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The latency histograms of an event loop.  All histograms are recorded by
+ * the event loop thread, and the durations are in nanoseconds.
+ */
+public final class EventLoopMetrics implements EventLoopMetricsMXBean {
+
+    private final String name;
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+    private final Histogram selectTime = new Histogram("selectTime");
+    private final Histogram selectedKeys = new Histogram("selectedKeys");
+    private final Histogram ioTime = new Histogram("ioTime");
+    private final Histogram taskTime = new Histogram("taskTime");
+    private final Histogram taskQueueDepth = new Histogram("taskQueueDepth");
+    private final Histogram taskDelay = new Histogram("taskDelay");
+    private final Histogram scheduledTaskLateness = new Histogram("scheduledTaskLateness");
+
+    public EventLoopMetrics(String name) {
+        if (name == null) {
+            throw new NullPointerException("name");
+        }
+        this.name = name;
+    }
+
+    /**
+     * The time spent blocking in a {@code select} call.
+     */
+    public Histogram selectTime() {
+        return selectTime;
+    }
+
+    /**
+     * The number of the selected keys per wakeup.
+     */
+    public Histogram selectedKeys() {
+        return selectedKeys;
+    }
+
+    /**
+     * The time spent handling the selected keys per wakeup.
+     */
+    public Histogram ioTime() {
+        return ioTime;
+    }
+
+    /**
+     * The time spent running the queued tasks per batch.
+     */
+    public Histogram taskTime() {
+        return taskTime;
+    }
+
+    /**
+     * The number of the pending tasks at the beginning of each batch.
+     */
+    public Histogram taskQueueDepth() {
+        return taskQueueDepth;
+    }
+
+    /**
+     * The time between the submission and the execution of a task.
+     */
+    public Histogram taskDelay() {
+        return taskDelay;
+    }
+
+    /**
+     * The time between the deadline and the execution of a scheduled task.
+     */
+    public Histogram scheduledTaskLateness() {
+        return scheduledTaskLateness;
+    }
+
+    /**
+     * Called when a task is submitted to the event loop.
+     */
+    public void taskSubmitted() {
+        pendingTasks.incrementAndGet();
+    }
+
+    /**
+     * Called when a submitted task is about to run.
+     */
+    public void taskStarted(long delayNanos) {
+        pendingTasks.decrementAndGet();
+        taskDelay.record(delayNanos);
+    }
+
+    /**
+     * Called when a submitted task has been removed from the queue without running.
+     */
+    public void taskRemoved() {
+        pendingTasks.decrementAndGet();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getPendingTasks() {
+        return pendingTasks.get();
+    }
+
+    @Override
+    public HistogramSnapshot getSelectTime() {
+        return selectTime.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getSelectedKeys() {
+        return selectedKeys.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getIoTime() {
+        return ioTime.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getTaskTime() {
+        return taskTime.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getTaskQueueDepth() {
+        return taskQueueDepth.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getTaskDelay() {
+        return taskDelay.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getScheduledTaskLateness() {
+        return scheduledTaskLateness.snapshot();
+    }
+
+    @Override
+    public String toString() {
+        return name + "(pendingTasks: " + getPendingTasks() +
+                ", selectTime: " + selectTime.snapshot() +
+                ", ioTime: " + ioTime.snapshot() +
+                ", taskTime: " + taskTime.snapshot() +
+                ", taskDelay: " + taskDelay.snapshot() + ')';
+    }
+}
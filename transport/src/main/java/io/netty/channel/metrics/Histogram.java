@@ -0,0 +1,153 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram with fixed power-of-two buckets.  The bucket {@code i} counts
+ * the values in the range of {@code [2^(i-1), 2^i)}, and the bucket
+ * {@code 0} counts the zeros.  Only one thread may record values, which
+ * costs a few ordered writes without any allocation or contention, while
+ * any thread can read the histogram.
+ */
+public final class Histogram {
+
+    private static final int BUCKETS = 64;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    // Written only by the recording thread.
+    private volatile long count;
+    private volatile long sum;
+    private volatile long max;
+
+    public Histogram(String name) {
+        if (name == null) {
+            throw new NullPointerException("name");
+        }
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Records the specified value.  A negative value is recorded as {@code 0}.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        int i = BUCKETS - Long.numberOfLeadingZeros(value);
+        if (i >= BUCKETS) {
+            i = BUCKETS - 1;
+        }
+        buckets.lazySet(i, buckets.get(i) + 1);
+        count ++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long sum() {
+        return sum;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        long count = this.count;
+        return count == 0? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the upper bound of the bucket which contains the specified
+     * percentile of the recorded values.
+     *
+     * @param percentile a value between {@code 0} and {@code 100}
+     */
+    public long percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile: " + percentile + " (expected: 0-100)");
+        }
+
+        long[] counts = bucketCounts();
+        long total = 0;
+        for (long c: counts) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(total * percentile / 100);
+        long accumulated = 0;
+        for (int i = 0; i < counts.length; i ++) {
+            accumulated += counts[i];
+            if (accumulated >= threshold && counts[i] != 0) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the number of the values in each bucket.
+     */
+    public long[] bucketCounts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i ++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the largest value which belongs to the bucket at the specified index.
+     */
+    public static long upperBound(int bucket) {
+        if (bucket == 0) {
+            return 0;
+        }
+        if (bucket >= BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        return (1L << bucket) - 1;
+    }
+
+    /**
+     * Returns the summary of this histogram.
+     */
+    public HistogramSnapshot snapshot() {
+        return new HistogramSnapshot(
+                count(), mean(), percentile(50), percentile(90), percentile(99), percentile(99.9), max());
+    }
+
+    @Override
+    public String toString() {
+        return name + snapshot();
+    }
+}
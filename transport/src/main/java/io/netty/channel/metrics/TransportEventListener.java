@@ -0,0 +1,57 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.metrics;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventExecutor;
+
+/**
+ * Receives the transport events enabled in {@link TransportEvents}, for
+ * example to commit them as JDK Flight Recorder events.  The methods are
+ * called by the event loop threads, and therefore must return quickly.
+ * The durations are in nanoseconds.
+ */
+public interface TransportEventListener {
+
+    /**
+     * Invoked when a handler took long to handle an event.  The duration
+     * excludes the time spent by the following handlers if the event was
+     * passed on synchronously.
+     *
+     * @param event the name of the handler method
+     */
+    void handlerInvoked(ChannelHandlerContext ctx, String event, long durationNanos);
+
+    void channelRegistered(Channel channel);
+
+    void channelActive(Channel channel);
+
+    void channelInactive(Channel channel);
+
+    /**
+     * Invoked when a channel has written its outbound buffer to the transport.
+     *
+     * @param written the number of the bytes (or messages) written
+     * @param pending the number of the bytes (or messages) left in the outbound buffer
+     */
+    void flushed(Channel channel, int written, int pending, long durationNanos);
+
+    /**
+     * Invoked when an event loop took long to run a task.
+     */
+    void longTaskExecuted(EventExecutor executor, Runnable task, long durationNanos);
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.metrics;
+
+/**
+ * The types of the events reported to a {@link TransportEventListener}.
+ *
+ * @see TransportEvents
+ */
+public enum TransportEventType {
+    /**
+     * A handler took longer than {@link TransportEvents#handlerThresholdNanos()}
+     * to handle an {@code inboundBufferUpdated} or a {@code flush} event.
+     */
+    HANDLER_INVOCATION,
+    /**
+     * A channel has been registered to its event loop.
+     */
+    CHANNEL_REGISTERED,
+    /**
+     * A channel has become active.
+     */
+    CHANNEL_ACTIVE,
+    /**
+     * A channel has become inactive.
+     */
+    CHANNEL_INACTIVE,
+    /**
+     * A channel has written its outbound buffer to the transport.
+     */
+    FLUSH,
+    /**
+     * An event loop took longer than {@link TransportEvents#longTaskThresholdNanos()}
+     * to run a task.
+     */
+    LONG_TASK
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.metrics;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventExecutor;
+import io.netty.logging.InternalLogger;
+import io.netty.logging.InternalLoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports the activity of the pipelines and the transports to a
+ * {@link TransportEventListener}, so that the latency of a production system
+ * can be diagnosed with a continuous recording such as JDK Flight Recorder.
+ * <pre>
+ * TransportEvents.setListener(new MyFlightRecorderBridge());
+ * TransportEvents.enable(TransportEventType.HANDLER_INVOCATION, TransportEventType.LONG_TASK);
+ * TransportEvents.setHandlerThreshold(1, TimeUnit.MILLISECONDS);
+ * </pre>
+ * Each {@link TransportEventType} is enabled individually.  A disabled event
+ * costs a volatile read, and an event is never enabled while no listener
+ * is set.
+ */
+public final class TransportEvents {
+
+    private static final InternalLogger logger =
+            InternalLoggerFactory.getInstance(TransportEvents.class);
+
+    private static volatile TransportEventListener listener;
+    /** The types enabled by the user, guarded by the class lock. */
+    private static int requestedTypes;
+    /** The types to report, which is {@code 0} while no listener is set. */
+    private static volatile int enabledTypes;
+    private static volatile long handlerThresholdNanos = TimeUnit.MILLISECONDS.toNanos(1);
+    private static volatile long longTaskThresholdNanos = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final ThreadLocal<NestedInvocations> nestedInvocations = new ThreadLocal<NestedInvocations>() {
+        @Override
+        protected NestedInvocations initialValue() {
+            return new NestedInvocations();
+        }
+    };
+
+    public static TransportEventListener listener() {
+        return listener;
+    }
+
+    /**
+     * Sets the listener which receives the enabled events.  {@code null}
+     * stops reporting any event.
+     */
+    public static synchronized void setListener(TransportEventListener listener) {
+        TransportEvents.listener = listener;
+        updateEnabledTypes();
+    }
+
+    public static synchronized void enable(TransportEventType... types) {
+        for (TransportEventType t: types) {
+            requestedTypes |= mask(t);
+        }
+        updateEnabledTypes();
+    }
+
+    public static synchronized void disable(TransportEventType... types) {
+        for (TransportEventType t: types) {
+            requestedTypes &= ~mask(t);
+        }
+        updateEnabledTypes();
+    }
+
+    private static void updateEnabledTypes() {
+        enabledTypes = listener != null? requestedTypes : 0;
+    }
+
+    private static int mask(TransportEventType type) {
+        if (type == null) {
+            throw new NullPointerException("type");
+        }
+        return 1 << type.ordinal();
+    }
+
+    /**
+     * Returns {@code true} if the events of the specified type are reported to the listener.
+     */
+    public static boolean isEnabled(TransportEventType type) {
+        return (enabledTypes & 1 << type.ordinal()) != 0;
+    }
+
+    public static long handlerThresholdNanos() {
+        return handlerThresholdNanos;
+    }
+
+    /**
+     * Sets the minimum duration of a handler invocation to report.  The default is 1 millisecond.
+     */
+    public static void setHandlerThreshold(long threshold, TimeUnit unit) {
+        handlerThresholdNanos = toNanos("threshold", threshold, unit);
+    }
+
+    public static long longTaskThresholdNanos() {
+        return longTaskThresholdNanos;
+    }
+
+    /**
+     * Sets the minimum duration of a task to report.  The default is 10 milliseconds.
+     */
+    public static void setLongTaskThreshold(long threshold, TimeUnit unit) {
+        longTaskThresholdNanos = toNanos("threshold", threshold, unit);
+    }
+
+    private static long toNanos(String name, long value, TimeUnit unit) {
+        if (unit == null) {
+            throw new NullPointerException("unit");
+        }
+        if (value < 0) {
+            throw new IllegalArgumentException(String.format("%s: %d (expected: >= 0)", name, value));
+        }
+        return unit.toNanos(value);
+    }
+
+    /**
+     * Marks the start of a handler invocation and returns its start time,
+     * which has to be passed to {@link #handlerInvoked(ChannelHandlerContext, String, long)}
+     * once the invocation is over.  Called by the pipeline.
+     */
+    public static long handlerInvoking() {
+        nestedInvocations.get().enter();
+        return System.nanoTime();
+    }
+
+    /**
+     * Reports a handler invocation which started at the specified
+     * {@link System#nanoTime()} if it took longer than the threshold.  The
+     * time spent by the invocations nested in it, such as the next handler
+     * handling the event passed on synchronously, is not counted.
+     * Called by the pipeline.
+     */
+    public static void handlerInvoked(ChannelHandlerContext ctx, String event, long startTimeNanos) {
+        long elapsed = System.nanoTime() - startTimeNanos;
+        long duration = elapsed - nestedInvocations.get().exit(elapsed);
+        TransportEventListener listener = TransportEvents.listener;
+        if (listener == null || duration < handlerThresholdNanos) {
+            return;
+        }
+        try {
+            listener.handlerInvoked(ctx, event, duration);
+        } catch (Throwable t) {
+            notifyListenerException(t);
+        }
+    }
+
+    /**
+     * Reports the state change of a channel.  Called by the pipeline.
+     */
+    public static void channelStateChanged(Channel channel, TransportEventType type) {
+        TransportEventListener listener = TransportEvents.listener;
+        if (listener == null) {
+            return;
+        }
+        try {
+            switch (type) {
+            case CHANNEL_REGISTERED:
+                listener.channelRegistered(channel);
+                break;
+            case CHANNEL_ACTIVE:
+                listener.channelActive(channel);
+                break;
+            case CHANNEL_INACTIVE:
+                listener.channelInactive(channel);
+                break;
+            default:
+                throw new IllegalArgumentException("not a state change: " + type);
+            }
+        } catch (Throwable t) {
+            notifyListenerException(t);
+        }
+    }
+
+    /**
+     * Reports a flush which started at the specified {@link System#nanoTime()}.
+     * Called by the transport.
+     */
+    public static void flushed(Channel channel, int written, int pending, long startTimeNanos) {
+        long duration = System.nanoTime() - startTimeNanos;
+        TransportEventListener listener = TransportEvents.listener;
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.flushed(channel, written, pending, duration);
+        } catch (Throwable t) {
+            notifyListenerException(t);
+        }
+    }
+
+    /**
+     * Reports a task which started at the specified {@link System#nanoTime()}
+     * if it took longer than the threshold.  Called by the event loop.
+     */
+    public static void taskExecuted(EventExecutor executor, Runnable task, long startTimeNanos) {
+        long duration = System.nanoTime() - startTimeNanos;
+        TransportEventListener listener = TransportEvents.listener;
+        if (listener == null || duration < longTaskThresholdNanos) {
+            return;
+        }
+        try {
+            listener.longTaskExecuted(executor, task, duration);
+        } catch (Throwable t) {
+            notifyListenerException(t);
+        }
+    }
+
+    private static void notifyListenerException(Throwable t) {
+        logger.warn("A " + TransportEventListener.class.getSimpleName() + " raised an exception.", t);
+    }
+
+    private TransportEvents() {
+        // Unused
+    }
+
+    /**
+     * The time spent by the nested handler invocations of the current thread,
+     * one slot per invocation in progress.
+     */
+    private static final class NestedInvocations {
+        private long[] nestedNanos = new long[8];
+        private int depth;
+
+        void enter() {
+            if (++ depth == nestedNanos.length) {
+                nestedNanos = Arrays.copyOf(nestedNanos, depth << 1);
+            }
+            nestedNanos[depth] = 0;
+        }
+
+        /**
+         * Returns the time spent by the invocations nested in the current one,
+         * and adds the time spent by the current one to its enclosing invocation.
+         */
+        long exit(long elapsedNanos) {
+            long nested = nestedNanos[depth];
+            if (-- depth > 0) {
+                nestedNanos[depth] += elapsedNanos;
+            }
+            return nested;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import java.io.File;
+import java.net.SocketAddress;
+
+/**
+ * An endpoint in the shared-memory transport, identified by the path of the
+ * memory-mapped file shared by the two processes.
+ */
+public final class ShmAddress extends SocketAddress {
+
+    private static final long serialVersionUID = -5367296722429536578L;
+
+    private final File file;
+    private final String strVal;
+
+    public ShmAddress(String path) {
+        this(new File(path));
+    }
+
+    public ShmAddress(File file) {
+        if (file == null) {
+            throw new NullPointerException("file");
+        }
+        this.file = file.getAbsoluteFile();
+        strVal = "shm:" + this.file.getPath();
+    }
+
+    /**
+     * Returns the memory-mapped file of this address.
+     */
+    public File file() {
+        return file;
+    }
+
+    @Override
+    public int hashCode() {
+        return file.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ShmAddress)) {
+            return false;
+        }
+
+        return file.equals(((ShmAddress) o).file);
+    }
+
+    @Override
+    public String toString() {
+        return strVal;
+    }
+}
@@ -0,0 +1,454 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import static io.netty.channel.shm.ShmRegion.*;
+import io.netty.buffer.ChannelBuffer;
+import io.netty.channel.AbstractChannel;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelBufferHolder;
+import io.netty.channel.ChannelBufferHolders;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelException;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelType;
+import io.netty.channel.DefaultChannelConfig;
+import io.netty.channel.EventLoop;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketAddress;
+import java.nio.channels.AlreadyConnectedException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ConnectionPendingException;
+import java.nio.channels.NotYetConnectedException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Channel} for the shared-memory transport.  It connects to the
+ * {@link ShmServerChannel} bound to the same {@link ShmAddress}, usually in
+ * another process on the same host.
+ * <p>
+ * Both parties of a connection beat a heartbeat counter in the shared file
+ * while their event loop is running.  A channel whose peer has not beaten for
+ * the peer timeout assumes that the peer process is gone, and closes itself
+ * with an {@link IOException}, so that the file can accept a new connection.
+ */
+public class ShmChannel extends AbstractChannel implements ShmPollable {
+
+    /** The default peer timeout in milliseconds. */
+    public static final long DEFAULT_PEER_TIMEOUT_MILLIS = 5000;
+
+    private static final long HEARTBEAT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final ChannelConfig config = new DefaultChannelConfig(this);
+    private final long peerTimeoutNanos;
+
+    private volatile int state; // 0 - open, 1 - connection pending, 2 - connected, 3 - closed
+    private volatile ShmAddress localAddress;
+    private volatile ShmAddress remoteAddress;
+
+    private final boolean server;
+    private ShmRegion region;
+    private ShmRing in;
+    private ShmRing out;
+
+    private ChannelFuture connectFuture;
+    private ScheduledFuture<?> connectTimeoutFuture;
+    private boolean flushPending;
+    private boolean readPending;
+
+    private long lastHeartbeatTime;
+    private long peerHeartbeat;
+    private long peerHeartbeatTime;
+    private boolean peerLost;
+
+    public ShmChannel() {
+        this(null);
+    }
+
+    public ShmChannel(Integer id) {
+        this(id, DEFAULT_PEER_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param peerTimeoutMillis the time without a heartbeat from the peer after
+     *                          which the connection is closed, or {@code 0} to
+     *                          wait for the peer forever.  The peer beats every
+     *                          {@code 100} milliseconds.
+     */
+    public ShmChannel(Integer id, long peerTimeoutMillis) {
+        super(null, id, ChannelBufferHolders.byteBuffer());
+        if (peerTimeoutMillis < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "peerTimeoutMillis: %d (expected: >= 0)", peerTimeoutMillis));
+        }
+        server = false;
+        peerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(peerTimeoutMillis);
+    }
+
+    ShmChannel(ShmServerChannel parent, ShmRegion region, long peerTimeoutMillis) {
+        super(parent, null, ChannelBufferHolders.byteBuffer());
+        server = true;
+        peerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(peerTimeoutMillis);
+        region.retain();
+        this.region = region;
+        in = region.clientToServer();
+        out = region.serverToClient();
+        localAddress = remoteAddress = parent.localAddress();
+        state = 2;
+        resetHeartbeat();
+    }
+
+    @Override
+    public ChannelType type() {
+        return ChannelType.STREAM;
+    }
+
+    @Override
+    public ChannelConfig config() {
+        return config;
+    }
+
+    @Override
+    public ShmServerChannel parent() {
+        return (ShmServerChannel) super.parent();
+    }
+
+    @Override
+    public ShmAddress localAddress() {
+        return (ShmAddress) super.localAddress();
+    }
+
+    @Override
+    public ShmAddress remoteAddress() {
+        return (ShmAddress) super.remoteAddress();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return state < 3;
+    }
+
+    @Override
+    public boolean isActive() {
+        return state == 2;
+    }
+
+    @Override
+    protected Unsafe newUnsafe() {
+        return new ShmUnsafe();
+    }
+
+    @Override
+    protected boolean isCompatible(EventLoop loop) {
+        return loop instanceof ShmChildEventLoop;
+    }
+
+    @Override
+    protected SocketAddress localAddress0() {
+        return localAddress;
+    }
+
+    @Override
+    protected SocketAddress remoteAddress0() {
+        return remoteAddress;
+    }
+
+    @Override
+    protected Runnable doRegister() throws Exception {
+        ((ShmChildEventLoop) eventLoop()).add(this);
+        return null;
+    }
+
+    @Override
+    protected void doDeregister() throws Exception {
+        ((ShmChildEventLoop) eventLoop()).remove(this);
+    }
+
+    @Override
+    protected void doBind(SocketAddress localAddress) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void doDisconnect() throws Exception {
+        doClose();
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        final int oldState = state;
+        if (oldState > 2) {
+            // Closed already
+            return;
+        }
+
+        state = 3;
+        if (connectTimeoutFuture != null) {
+            connectTimeoutFuture.cancel(false);
+            connectTimeoutFuture = null;
+        }
+        if (connectFuture != null) {
+            connectFuture.setFailure(new ClosedChannelException());
+            connectFuture = null;
+        }
+
+        if (oldState == 0) {
+            return;
+        }
+
+        try {
+            if (oldState == 1 && region.compareAndSetInt(
+                    CONNECTION_STATE_OFFSET, CONNECTION_REQUESTED, CONNECTION_IDLE)) {
+                // Withdrew the connection request before the server accepted it.
+                return;
+            }
+
+            region.putIntVolatile(server? SERVER_CLOSED_OFFSET : CLIENT_CLOSED_OFFSET, 1);
+            if (peerLost || isPeerClosed()) {
+                // Both parties are gone - let the server accept a new connection.
+                region.compareAndSetInt(CONNECTION_STATE_OFFSET, CONNECTION_ESTABLISHED, CONNECTION_IDLE);
+            }
+        } finally {
+            region.release();
+        }
+    }
+
+    @Override
+    protected void doFlush(ChannelBufferHolder<Object> buf) throws Exception {
+        if (state < 2) {
+            throw new NotYetConnectedException();
+        }
+        if (state > 2 || isPeerClosed()) {
+            throw new ClosedChannelException();
+        }
+
+        ChannelBuffer byteBuf = buf.byteBuffer();
+        out.write(byteBuf);
+        flushPending = byteBuf.readable();
+    }
+
+    @Override
+    protected boolean isFlushPending() {
+        return flushPending;
+    }
+
+    @Override
+    protected void doBeginRead() throws Exception {
+        readPending = true;
+    }
+
+    @Override
+    public boolean poll() {
+        switch (state) {
+        case 1:
+            return pollConnect();
+        case 2:
+            return pollTransfer();
+        default:
+            return false;
+        }
+    }
+
+    private boolean pollConnect() {
+        if (region.getIntVolatile(CONNECTION_STATE_OFFSET) != CONNECTION_ESTABLISHED) {
+            if (region.getIntVolatile(SERVER_STATE_OFFSET) != SERVER_LISTENING) {
+                failConnect(new ConnectException("connection refused: " + remoteAddress));
+                return true;
+            }
+            return false;
+        }
+
+        state = 2;
+        resetHeartbeat();
+        if (connectTimeoutFuture != null) {
+            connectTimeoutFuture.cancel(false);
+            connectTimeoutFuture = null;
+        }
+        ChannelFuture connectFuture = this.connectFuture;
+        this.connectFuture = null;
+        connectFuture.setSuccess();
+        pipeline().fireChannelActive();
+        return true;
+    }
+
+    private void failConnect(Exception cause) {
+        ChannelFuture connectFuture = this.connectFuture;
+        this.connectFuture = null;
+        if (connectFuture != null && connectFuture.setFailure(cause)) {
+            pipeline().fireExceptionCaught(cause);
+            unsafe().close(unsafe().voidFuture());
+        }
+    }
+
+    private boolean pollTransfer() {
+        if (!heartbeat() && !isPeerClosed()) {
+            peerLost = true;
+            pipeline().fireExceptionCaught(new IOException(
+                    "peer not responding for " + TimeUnit.NANOSECONDS.toMillis(peerTimeoutNanos) +
+                    " ms: " + remoteAddress));
+            unsafe().close(unsafe().voidFuture());
+            return true;
+        }
+
+        boolean worked = false;
+        if (flushPending) {
+            int oldSize = unsafe().directOutbound().size();
+            unsafe().flushNow();
+            worked = unsafe().directOutbound().size() != oldSize;
+            if (!isActive()) {
+                return true;
+            }
+        }
+
+        // Check if the peer is closed before reading, so that no data written before is missed.
+        final boolean peerClosed = isPeerClosed();
+        if (config.isAutoRead() || readPending) {
+            ChannelBuffer byteBuf = pipeline().inboundByteBuffer();
+            if (!byteBuf.writable()) {
+                // FIXME: Magic number
+                byteBuf.ensureWritableBytes(4096);
+            }
+            int localReadAmount = in.read(byteBuf);
+            if (localReadAmount > 0) {
+                readPending = false;
+                recordRead(localReadAmount);
+                pipeline().fireInboundBufferUpdated();
+                return true;
+            }
+        }
+
+        if (peerClosed && in.isEmpty()) {
+            unsafe().close(unsafe().voidFuture());
+            return true;
+        }
+
+        return worked;
+    }
+
+    private boolean isPeerClosed() {
+        return region.getIntVolatile(server? CLIENT_CLOSED_OFFSET : SERVER_CLOSED_OFFSET) != 0;
+    }
+
+    private void resetHeartbeat() {
+        lastHeartbeatTime = peerHeartbeatTime = System.nanoTime();
+        peerHeartbeat = region.getLongVolatile(server? CLIENT_HEARTBEAT_OFFSET : SERVER_HEARTBEAT_OFFSET);
+    }
+
+    /**
+     * Beats the heartbeat of this party if due, and checks the one of the peer.
+     *
+     * @return {@code false} if the peer has not beaten for the peer timeout
+     */
+    private boolean heartbeat() {
+        final long currentTime = System.nanoTime();
+        if (currentTime - lastHeartbeatTime >= HEARTBEAT_INTERVAL_NANOS) {
+            int offset = server? SERVER_HEARTBEAT_OFFSET : CLIENT_HEARTBEAT_OFFSET;
+            region.putLongOrdered(offset, region.getLongVolatile(offset) + 1);
+            lastHeartbeatTime = currentTime;
+        }
+
+        long peerHeartbeat = region.getLongVolatile(server? CLIENT_HEARTBEAT_OFFSET : SERVER_HEARTBEAT_OFFSET);
+        if (peerHeartbeat != this.peerHeartbeat) {
+            this.peerHeartbeat = peerHeartbeat;
+            peerHeartbeatTime = currentTime;
+            return true;
+        }
+        return peerTimeoutNanos == 0 || currentTime - peerHeartbeatTime < peerTimeoutNanos;
+    }
+
+    private class ShmUnsafe extends AbstractUnsafe {
+
+        @Override
+        public void connect(final SocketAddress remoteAddress,
+                final SocketAddress localAddress, final ChannelFuture future) {
+            if (eventLoop().inEventLoop()) {
+                if (!ensureOpen(future)) {
+                    return;
+                }
+
+                if (state == 2) {
+                    Exception cause = new AlreadyConnectedException();
+                    future.setFailure(cause);
+                    pipeline().fireExceptionCaught(cause);
+                    return;
+                }
+
+                if (connectFuture != null) {
+                    throw new ConnectionPendingException();
+                }
+
+                try {
+                    if (!(remoteAddress instanceof ShmAddress)) {
+                        throw new ChannelException("unsupported address type: " + remoteAddress);
+                    }
+
+                    ShmAddress address = (ShmAddress) remoteAddress;
+                    ShmRegion region;
+                    try {
+                        region = ShmRegion.open(address.file());
+                    } catch (FileNotFoundException e) {
+                        throw new ConnectException("connection refused: " + address);
+                    }
+
+                    if (region.getIntVolatile(SERVER_STATE_OFFSET) != SERVER_LISTENING ||
+                        !region.compareAndSetInt(
+                                CONNECTION_STATE_OFFSET, CONNECTION_IDLE, CONNECTION_REQUESTED)) {
+                        region.release();
+                        throw new ConnectException("connection refused: " + address);
+                    }
+
+                    ShmChannel.this.region = region;
+                    in = region.serverToClient();
+                    out = region.clientToServer();
+                    ShmChannel.this.localAddress = ShmChannel.this.remoteAddress = address;
+                    connectFuture = future;
+                    state = 1;
+                } catch (Throwable t) {
+                    future.setFailure(t);
+                    pipeline().fireExceptionCaught(t);
+                    close(voidFuture());
+                    return;
+                }
+
+                // The event loop completes the connection attempt once the server accepts it.
+                int connectTimeoutMillis = config().getConnectTimeoutMillis();
+                if (connectTimeoutMillis > 0) {
+                    connectTimeoutFuture = eventLoop().schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (state == 1) {
+                                failConnect(new ConnectException("connection timed out"));
+                            }
+                        }
+                    }, connectTimeoutMillis, TimeUnit.MILLISECONDS);
+                }
+            } else {
+                eventLoop().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        connect(remoteAddress, localAddress, future);
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import io.netty.channel.SingleThreadEventLoop;
+import io.netty.logging.InternalLogger;
+import io.netty.logging.InternalLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Polls the rings of its channels.  The other process cannot wake up this
+ * thread, so it spins while idle, then yields, and finally parks for an
+ * exponentially growing but bounded period of time.
+ */
+final class ShmChildEventLoop extends SingleThreadEventLoop {
+
+    private static final InternalLogger logger =
+            InternalLoggerFactory.getInstance(ShmChildEventLoop.class);
+
+    private static final int SPINS = 1000;
+    private static final int YIELDS = 100;
+    private static final long MIN_PARK_NANOS = 1000;
+    private static final long MAX_PARK_NANOS = 1000000;
+
+    private final List<ShmPollable> channels = new ArrayList<ShmPollable>();
+    private volatile Thread thread;
+    private volatile boolean blocked;
+    private volatile boolean parked;
+
+    ShmChildEventLoop(ThreadFactory threadFactory) {
+        super(threadFactory);
+    }
+
+    void add(ShmPollable ch) {
+        assert inEventLoop();
+        channels.add(ch);
+    }
+
+    void remove(ShmPollable ch) {
+        assert inEventLoop();
+        channels.remove(ch);
+    }
+
+    @Override
+    protected void run() {
+        thread = Thread.currentThread();
+        int idleCount = 0;
+        long parkNanos = MIN_PARK_NANOS;
+        for (;;) {
+            if (channels.isEmpty()) {
+                // Nothing to poll - wait for a task such as a registration.
+                Runnable task = null;
+                blocked = true;
+                try {
+                    if (!isShutdown()) {
+                        task = takeTask();
+                    }
+                } catch (InterruptedException e) {
+                    // Waken up by interruptThread()
+                } finally {
+                    blocked = false;
+                }
+                if (task != null) {
+                    runTask(task);
+                }
+            } else {
+                boolean worked = hasTasks();
+                runAllTasks();
+                worked |= poll();
+
+                if (worked) {
+                    idleCount = 0;
+                    parkNanos = MIN_PARK_NANOS;
+                } else if (idleCount < SPINS) {
+                    idleCount ++;
+                } else if (idleCount < SPINS + YIELDS) {
+                    idleCount ++;
+                    Thread.yield();
+                } else {
+                    park(parkNanos);
+                    parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+                }
+            }
+
+            if (isShuttingDown()) {
+                closeAll();
+                if (confirmShutdown()) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean poll() {
+        boolean worked = false;
+        // Iterate by index because a channel may deregister itself while being polled.
+        for (int i = channels.size() - 1; i >= 0; i --) {
+            if (i >= channels.size()) {
+                continue;
+            }
+            ShmPollable ch = channels.get(i);
+            try {
+                worked |= ch.poll();
+            } catch (Throwable t) {
+                logger.warn("Unexpected exception while polling a channel.", t);
+            }
+        }
+        return worked;
+    }
+
+    private void park(long nanos) {
+        parked = true;
+        try {
+            // Check again so that a task added before 'parked' became visible is not missed.
+            if (!hasTasks() && !isShutdown()) {
+                LockSupport.parkNanos(this, nanos);
+            }
+        } finally {
+            parked = false;
+        }
+    }
+
+    /**
+     * Closes the channels of this loop.  While shutting down gracefully, the
+     * channels are left open while a scheduled task is due soon, and the
+     * channels with pending outbound data are left open to flush it.
+     */
+    private void closeAll() {
+        boolean graceful = !isShutdown();
+        if (graceful && hasScheduledTasksDueSoon()) {
+            return;
+        }
+
+        for (ShmPollable ch: new ArrayList<ShmPollable>(channels)) {
+            if (graceful && ch.unsafe().directOutbound().size() != 0) {
+                continue;
+            }
+            ch.unsafe().close(ch.unsafe().voidFuture());
+        }
+    }
+
+    @Override
+    protected void wakeup(boolean inEventLoop) {
+        if (inEventLoop) {
+            return;
+        }
+
+        if (parked) {
+            // Do not interrupt a polling thread, which would close the file channel
+            // that it may be mapping.
+            LockSupport.unpark(thread);
+        } else if (blocked && isShuttingDown()) {
+            // A new task wakes up takeTask() by itself.
+            interruptThread();
+        }
+    }
+}
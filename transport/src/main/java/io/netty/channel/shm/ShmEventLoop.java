@@ -0,0 +1,46 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import io.netty.channel.EventExecutor;
+import io.netty.channel.MultithreadEventLoop;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The event loop of the shared-memory transport.  Every thread keeps one CPU
+ * core busy while any of its channels is idle for a short time, so the
+ * default number of threads is {@code 1}.
+ */
+public class ShmEventLoop extends MultithreadEventLoop {
+
+    public ShmEventLoop() {
+        this(1);
+    }
+
+    public ShmEventLoop(int nThreads) {
+        super(nThreads);
+    }
+
+    public ShmEventLoop(int nThreads, ThreadFactory threadFactory) {
+        super(nThreads, threadFactory);
+    }
+
+    @Override
+    protected EventExecutor newChild(ThreadFactory threadFactory, Object... args) throws Exception {
+        return new ShmChildEventLoop(threadFactory);
+    }
+}
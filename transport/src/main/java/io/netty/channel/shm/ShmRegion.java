@@ -0,0 +1,277 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import io.netty.channel.ChannelException;
+import io.netty.util.internal.DetectionUtil;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A memory-mapped file shared by the two processes of a connection.
+ * <p>
+ * The layout of the file is:
+ * <pre>
+ * +--------+------------------------------+------------------------------+
+ * | header | ring: server -&gt; client       | ring: client -&gt; server       |
+ * +--------+------------------------------+------------------------------+
+ * </pre>
+ * where the header consists of the following 4-byte fields in native byte order:
+ * magic, version, ring capacity, server state, connection state, server
+ * closed flag, and client closed flag, followed by the 8-byte heartbeat
+ * counters of the server and the client.  See {@link ShmRing} for the layout
+ * of a ring.
+ * <p>
+ * The header fields and the ring indexes are accessed with volatile semantics
+ * via {@code sun.misc.Unsafe}, so that the other process observes the ring
+ * content written before an index update.
+ */
+final class ShmRegion {
+
+    static final int MAGIC = 0x4E53484D; // 'NSHM'
+    static final int VERSION = 1;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int CAPACITY_OFFSET = 8;
+    static final int SERVER_STATE_OFFSET = 12;
+    static final int CONNECTION_STATE_OFFSET = 16;
+    static final int SERVER_CLOSED_OFFSET = 20;
+    static final int CLIENT_CLOSED_OFFSET = 24;
+    static final int SERVER_HEARTBEAT_OFFSET = 32;
+    static final int CLIENT_HEARTBEAT_OFFSET = 40;
+    static final int HEADER_SIZE = 64;
+
+    /** No server is bound to the file. */
+    static final int SERVER_NONE = 0;
+    /** A server is bound to the file and accepts a connection. */
+    static final int SERVER_LISTENING = 1;
+
+    /** No connection has been requested. */
+    static final int CONNECTION_IDLE = 0;
+    /** A client requested a connection, which has not been accepted yet. */
+    static final int CONNECTION_REQUESTED = 1;
+    /** The server accepted the connection. */
+    static final int CONNECTION_ESTABLISHED = 2;
+
+    private static final sun.misc.Unsafe UNSAFE;
+    private static final long ADDRESS_FIELD_OFFSET;
+    /** {@code Unsafe.invokeCleaner(ByteBuffer)} of Java 9 and above, or {@code null}. */
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        sun.misc.Unsafe unsafe = null;
+        long addressFieldOffset = -1;
+        if (DetectionUtil.hasUnsafe()) {
+            try {
+                Field f = sun.misc.Unsafe.class.getDeclaredField("theUnsafe");
+                f.setAccessible(true);
+                unsafe = (sun.misc.Unsafe) f.get(null);
+                addressFieldOffset = unsafe.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+            } catch (Throwable t) {
+                unsafe = null;
+            }
+        }
+
+        Method invokeCleaner = null;
+        if (unsafe != null) {
+            try {
+                invokeCleaner = sun.misc.Unsafe.class.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (Throwable t) {
+                // Java 8 or below - use DirectBuffer.cleaner() instead.
+            }
+        }
+
+        UNSAFE = unsafe;
+        ADDRESS_FIELD_OFFSET = addressFieldOffset;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    /**
+     * Returns {@code true} if the shared-memory transport can run on the current JVM.
+     */
+    static boolean isSupported() {
+        return UNSAFE != null;
+    }
+
+    /**
+     * Creates a new file, overwriting the existing one, and initializes its header.
+     */
+    static ShmRegion create(File file, int ringCapacity) throws IOException {
+        ShmRegion region = new ShmRegion(file, HEADER_SIZE + 2 * ShmRing.size(ringCapacity), true);
+        region.putIntVolatile(CAPACITY_OFFSET, ringCapacity);
+        region.putIntVolatile(VERSION_OFFSET, VERSION);
+        region.putIntVolatile(MAGIC_OFFSET, MAGIC);
+        return region;
+    }
+
+    /**
+     * Maps the existing file created by {@link #create(File, int)}.
+     */
+    static ShmRegion open(File file) throws IOException {
+        if (!file.isFile()) {
+            // Do not let RandomAccessFile create a new file.
+            throw new FileNotFoundException(file.getPath());
+        }
+
+        ShmRegion region = new ShmRegion(file, file.length(), false);
+        if (region.size() < HEADER_SIZE ||
+            region.getIntVolatile(MAGIC_OFFSET) != MAGIC ||
+            region.getIntVolatile(VERSION_OFFSET) != VERSION ||
+            region.size() != HEADER_SIZE + 2L * ShmRing.size(region.getIntVolatile(CAPACITY_OFFSET))) {
+            region.release();
+            throw new ChannelException("not a shared-memory transport file: " + file);
+        }
+        return region;
+    }
+
+    private final MappedByteBuffer buffer;
+    private final long address;
+    private final AtomicInteger refCnt = new AtomicInteger(1);
+
+    private ShmRegion(File file, long size, boolean create) throws IOException {
+        if (!isSupported()) {
+            throw new ChannelException(
+                    "The shared-memory transport requires sun.misc.Unsafe.");
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new ChannelException("file too large: " + file);
+        }
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            if (create) {
+                raf.setLength(0);
+                raf.setLength(size);
+            }
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            // The mapping remains valid after the file is closed.
+            raf.close();
+        }
+        address = UNSAFE.getLong(buffer, ADDRESS_FIELD_OFFSET);
+    }
+
+    int size() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Increases the reference count of this region by {@code 1}.
+     */
+    void retain() {
+        for (;;) {
+            int refCnt = this.refCnt.get();
+            if (refCnt == 0) {
+                throw new IllegalStateException("region unmapped already");
+            }
+            if (this.refCnt.compareAndSet(refCnt, refCnt + 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Decreases the reference count of this region by {@code 1}, and unmaps
+     * the file once it reaches {@code 0}.  The region must not be accessed by
+     * the caller after this method is called.
+     */
+    void release() {
+        int refCnt = this.refCnt.decrementAndGet();
+        if (refCnt == 0) {
+            unmap(buffer);
+        } else if (refCnt < 0) {
+            this.refCnt.incrementAndGet();
+            throw new IllegalStateException("region unmapped already");
+        }
+    }
+
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } else {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (Throwable t) {
+            // The garbage collector will unmap it eventually.
+        }
+    }
+
+    int ringCapacity() {
+        return getIntVolatile(CAPACITY_OFFSET);
+    }
+
+    /**
+     * Returns the ring which carries the data from the server to the client.
+     */
+    ShmRing serverToClient() {
+        return new ShmRing(this, HEADER_SIZE, ringCapacity());
+    }
+
+    /**
+     * Returns the ring which carries the data from the client to the server.
+     */
+    ShmRing clientToServer() {
+        int capacity = ringCapacity();
+        return new ShmRing(this, HEADER_SIZE + ShmRing.size(capacity), capacity);
+    }
+
+    /**
+     * Returns a new view of the specified range of the region.
+     */
+    ByteBuffer slice(int offset, int length) {
+        ByteBuffer buf = buffer.duplicate();
+        buf.position(offset);
+        buf.limit(offset + length);
+        return buf.slice();
+    }
+
+    int getIntVolatile(int offset) {
+        return UNSAFE.getIntVolatile(null, address + offset);
+    }
+
+    void putIntVolatile(int offset, int value) {
+        UNSAFE.putIntVolatile(null, address + offset, value);
+    }
+
+    boolean compareAndSetInt(int offset, int expect, int update) {
+        return UNSAFE.compareAndSwapInt(null, address + offset, expect, update);
+    }
+
+    long getLongVolatile(int offset) {
+        return UNSAFE.getLongVolatile(null, address + offset);
+    }
+
+    void putLongOrdered(int offset, long value) {
+        UNSAFE.putOrderedLong(null, address + offset, value);
+    }
+}
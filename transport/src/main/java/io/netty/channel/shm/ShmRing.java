@@ -0,0 +1,156 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import io.netty.buffer.ChannelBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A single-producer single-consumer byte ring in a {@link ShmRegion}.
+ * <p>
+ * The layout of a ring is:
+ * <pre>
+ * +-------------+------------+----------------+
+ * | write index | read index | data           |
+ * | (64 bytes)  | (64 bytes) | (capacity)     |
+ * +-------------+------------+----------------+
+ * </pre>
+ * Each index is a monotonically increasing 8-byte counter which occupies its
+ * own cache line, so that the producer and the consumer do not contend on it.
+ * Only the producer updates the write index and only the consumer updates the
+ * read index.  An instance must be accessed only by a single thread, and only
+ * as either the producer or the consumer.
+ */
+final class ShmRing {
+
+    private static final int WRITE_INDEX_OFFSET = 0;
+    private static final int READ_INDEX_OFFSET = 64;
+    private static final int DATA_OFFSET = 128;
+
+    static int size(int capacity) {
+        return DATA_OFFSET + capacity;
+    }
+
+    private final ShmRegion region;
+    private final int writeIndexOffset;
+    private final int readIndexOffset;
+    private final int capacity;
+    private final int mask;
+    private final ByteBuffer data;
+
+    /** The last known index of the other party. */
+    private long cachedIndex;
+
+    ShmRing(ShmRegion region, int offset, int capacity) {
+        if (capacity <= 0 || (capacity & capacity - 1) != 0) {
+            throw new IllegalArgumentException(
+                    "capacity: " + capacity + " (expected: a power of 2)");
+        }
+        this.region = region;
+        this.capacity = capacity;
+        writeIndexOffset = offset + WRITE_INDEX_OFFSET;
+        readIndexOffset = offset + READ_INDEX_OFFSET;
+        mask = capacity - 1;
+        data = region.slice(offset + DATA_OFFSET, capacity);
+    }
+
+    /**
+     * Empties the ring.  Must be called only while neither party accesses it.
+     */
+    void reset() {
+        region.putLongOrdered(writeIndexOffset, 0);
+        region.putLongOrdered(readIndexOffset, 0);
+        cachedIndex = 0;
+    }
+
+    /**
+     * Transfers as many readable bytes of the specified buffer as the free
+     * space of this ring allows.  Called by the producer.
+     *
+     * @return the number of the transferred bytes
+     */
+    int write(ChannelBuffer src) {
+        final long writeIndex = region.getLongVolatile(writeIndexOffset);
+        int length = src.readableBytes();
+        if (capacity - (int) (writeIndex - cachedIndex) < length) {
+            cachedIndex = region.getLongVolatile(readIndexOffset);
+        }
+
+        length = Math.min(length, capacity - (int) (writeIndex - cachedIndex));
+        if (length == 0) {
+            return 0;
+        }
+
+        final int position = (int) writeIndex & mask;
+        final int firstLength = Math.min(length, capacity - position);
+        final int readerIndex = src.readerIndex();
+        src.getBytes(readerIndex, range(position, firstLength));
+        if (firstLength < length) {
+            src.getBytes(readerIndex + firstLength, range(0, length - firstLength));
+        }
+        src.skipBytes(length);
+
+        // Publish the data.
+        region.putLongOrdered(writeIndexOffset, writeIndex + length);
+        return length;
+    }
+
+    /**
+     * Transfers as many bytes of this ring as the writable space of the
+     * specified buffer allows.  Called by the consumer.
+     *
+     * @return the number of the transferred bytes
+     */
+    int read(ChannelBuffer dst) {
+        final long readIndex = region.getLongVolatile(readIndexOffset);
+        int length = dst.writableBytes();
+        if ((int) (cachedIndex - readIndex) < length) {
+            cachedIndex = region.getLongVolatile(writeIndexOffset);
+        }
+
+        length = Math.min(length, (int) (cachedIndex - readIndex));
+        if (length == 0) {
+            return 0;
+        }
+
+        final int position = (int) readIndex & mask;
+        final int firstLength = Math.min(length, capacity - position);
+        dst.writeBytes(range(position, firstLength));
+        if (firstLength < length) {
+            dst.writeBytes(range(0, length - firstLength));
+        }
+
+        // Release the space.
+        region.putLongOrdered(readIndexOffset, readIndex + length);
+        return length;
+    }
+
+    /**
+     * Returns {@code true} if there is nothing to read.  Called by the consumer.
+     */
+    boolean isEmpty() {
+        return region.getLongVolatile(writeIndexOffset) == region.getLongVolatile(readIndexOffset);
+    }
+
+    private ByteBuffer range(int position, int length) {
+        ByteBuffer data = this.data;
+        data.clear();
+        data.position(position);
+        data.limit(position + length);
+        return data;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import static io.netty.channel.shm.ShmRegion.*;
+import io.netty.channel.AbstractServerChannel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelException;
+import io.netty.channel.DefaultChannelConfig;
+import io.netty.channel.EventLoop;
+import io.netty.channel.ServerChannel;
+
+import java.net.SocketAddress;
+
+/**
+ * A {@link ServerChannel} for the shared-memory transport.  Binding it to a
+ * {@link ShmAddress} creates the memory-mapped file of the address, replacing
+ * the existing one.  The file holds one connection at a time; a new
+ * {@link ShmChannel} can connect once both parties of the previous connection
+ * are closed.
+ */
+public class ShmServerChannel extends AbstractServerChannel implements ShmPollable {
+
+    /** The default capacity of the ring in each direction. */
+    public static final int DEFAULT_RING_CAPACITY = 1048576;
+
+    private final ChannelConfig config = new DefaultChannelConfig(this);
+    private final int ringCapacity;
+    private final long peerTimeoutMillis;
+
+    private volatile int state; // 0 - open, 1 - active, 2 - closed
+    private volatile ShmAddress localAddress;
+    private ShmRegion region;
+    private boolean readPending;
+
+    public ShmServerChannel() {
+        this(null, DEFAULT_RING_CAPACITY);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ringCapacity the capacity of the ring in each direction, which must be a power of 2
+     */
+    public ShmServerChannel(Integer id, int ringCapacity) {
+        this(id, ringCapacity, ShmChannel.DEFAULT_PEER_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ringCapacity the capacity of the ring in each direction, which must be a power of 2
+     * @param peerTimeoutMillis the peer timeout of the accepted {@link ShmChannel}s
+     */
+    public ShmServerChannel(Integer id, int ringCapacity, long peerTimeoutMillis) {
+        super(id);
+        if (ringCapacity <= 0 || (ringCapacity & ringCapacity - 1) != 0) {
+            throw new IllegalArgumentException(String.format(
+                    "ringCapacity: %d (expected: a power of 2)", ringCapacity));
+        }
+        if (peerTimeoutMillis < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "peerTimeoutMillis: %d (expected: >= 0)", peerTimeoutMillis));
+        }
+        this.ringCapacity = ringCapacity;
+        this.peerTimeoutMillis = peerTimeoutMillis;
+    }
+
+    @Override
+    public ChannelConfig config() {
+        return config;
+    }
+
+    @Override
+    public ShmAddress localAddress() {
+        return (ShmAddress) super.localAddress();
+    }
+
+    @Override
+    public ShmAddress remoteAddress() {
+        return (ShmAddress) super.remoteAddress();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return state < 2;
+    }
+
+    @Override
+    public boolean isActive() {
+        return state == 1;
+    }
+
+    @Override
+    protected boolean isCompatible(EventLoop loop) {
+        return loop instanceof ShmChildEventLoop;
+    }
+
+    @Override
+    protected SocketAddress localAddress0() {
+        return localAddress;
+    }
+
+    @Override
+    protected Runnable doRegister() throws Exception {
+        ((ShmChildEventLoop) eventLoop()).add(this);
+        return null;
+    }
+
+    @Override
+    protected void doDeregister() throws Exception {
+        ((ShmChildEventLoop) eventLoop()).remove(this);
+    }
+
+    @Override
+    protected void doBind(SocketAddress localAddress) throws Exception {
+        if (!(localAddress instanceof ShmAddress)) {
+            throw new ChannelException("unsupported address type: " + localAddress);
+        }
+
+        ShmAddress address = (ShmAddress) localAddress;
+        region = ShmRegion.create(address.file(), ringCapacity);
+        region.putIntVolatile(SERVER_STATE_OFFSET, SERVER_LISTENING);
+        this.localAddress = address;
+        state = 1;
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (state > 1) {
+            // Closed already.
+            return;
+        }
+
+        if (region != null) {
+            region.putIntVolatile(SERVER_STATE_OFFSET, SERVER_NONE);
+            // Unmapped once the accepted channel, if any, is closed as well.
+            region.release();
+        }
+        state = 2;
+    }
+
+    @Override
+    protected void doBeginRead() throws Exception {
+        readPending = true;
+    }
+
+    @Override
+    public boolean poll() {
+        if (state != 1 || !config.isAutoRead() && !readPending ||
+            region.getIntVolatile(CONNECTION_STATE_OFFSET) != CONNECTION_REQUESTED) {
+            return false;
+        }
+
+        // Prepare the rings for the new connection, which the client does not access
+        // until the connection is established.
+        region.serverToClient().reset();
+        region.clientToServer().reset();
+        region.putIntVolatile(SERVER_CLOSED_OFFSET, 0);
+        region.putIntVolatile(CLIENT_CLOSED_OFFSET, 0);
+        if (!region.compareAndSetInt(CONNECTION_STATE_OFFSET, CONNECTION_REQUESTED, CONNECTION_ESTABLISHED)) {
+            // The client gave up.
+            return true;
+        }
+
+        ShmChannel child = new ShmChannel(this, region, peerTimeoutMillis);
+        readPending = false;
+        pipeline().inboundMessageBuffer().add(child);
+        pipeline().fireInboundBufferUpdated();
+        return true;
+    }
+}
@@ -16,6 +16,7 @@
 package io.netty.channel.socket;
 
 import static io.netty.channel.ChannelOption.*;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelException;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.DefaultChannelConfig;
@@ -39,9 +40,21 @@ public class DefaultDatagramChannelConfig extends DefaultChannelConfig implement
     private volatile int receivePacketSize = DEFAULT_RECEIVE_PACKET_SIZE;
 
     /**
-     * Creates a new instance.
+     * Creates a new instance which is not bound to any {@link Channel}.
+     *
+     * @deprecated Use {@link #DefaultDatagramChannelConfig(Channel, DatagramSocket)} instead, so that
+     *             re-enabling auto read triggers a read immediately.
      */
+    @Deprecated
     public DefaultDatagramChannelConfig(DatagramSocket socket) {
+        this(null, socket);
+    }
+
+    /**
+     * Creates a new instance.
+     */
+    public DefaultDatagramChannelConfig(Channel channel, DatagramSocket socket) {
+        super(channel);
         if (socket == null) {
             throw new NullPointerException("socket");
         }
@@ -118,6 +131,8 @@ public class DefaultDatagramChannelConfig extends DefaultChannelConfig implement
             setTimeToLive((Integer) value);
         } else if (option == IP_TOS) {
             setTrafficClass((Integer) value);
+        } else if (option == UDP_RECEIVE_PACKET_SIZE) {
+            setReceivePacketSize((Integer) value);
         } else {
             return super.setOption(option, value);
         }
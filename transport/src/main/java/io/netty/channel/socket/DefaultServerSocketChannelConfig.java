@@ -16,10 +16,13 @@
 package io.netty.channel.socket;
 
 import static io.netty.channel.ChannelOption.*;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelException;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.DefaultChannelConfig;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.net.ServerSocket;
 import java.net.SocketException;
 import java.util.Map;
@@ -30,13 +33,51 @@ import java.util.Map;
 public class DefaultServerSocketChannelConfig extends DefaultChannelConfig
                                               implements ServerSocketChannelConfig {
 
+    private static final Object SO_REUSEPORT_OPTION;
+    private static final Method GET_OPTION;
+    private static final Method SET_OPTION;
+
+    static {
+        // SO_REUSEPORT is available only via java.net.StandardSocketOptions in Java 9+.
+        Object reusePort = null;
+        Method getOption = null;
+        Method setOption = null;
+        try {
+            ClassLoader classLoader = ServerSocket.class.getClassLoader();
+            Class<?> socketOptionType = Class.forName("java.net.SocketOption", true, classLoader);
+            reusePort = Class.forName("java.net.StandardSocketOptions", true, classLoader)
+                    .getDeclaredField("SO_REUSEPORT").get(null);
+            getOption = ServerSocket.class.getMethod("getOption", socketOptionType);
+            setOption = ServerSocket.class.getMethod("setOption", socketOptionType, Object.class);
+        } catch (Throwable t) {
+            // Not supported by the current platform.
+            reusePort = null;
+        }
+
+        SO_REUSEPORT_OPTION = reusePort;
+        GET_OPTION = getOption;
+        SET_OPTION = setOption;
+    }
+
     private final ServerSocket socket;
     private volatile int backlog;
 
     /**
-     * Creates a new instance.
+     * Creates a new instance which is not bound to any {@link Channel}.
+     *
+     * @deprecated Use {@link #DefaultServerSocketChannelConfig(Channel, ServerSocket)} instead, so that
+     *             re-enabling auto read triggers a read immediately.
      */
+    @Deprecated
     public DefaultServerSocketChannelConfig(ServerSocket socket) {
+        this(null, socket);
+    }
+
+    /**
+     * Creates a new instance.
+     */
+    public DefaultServerSocketChannelConfig(Channel channel, ServerSocket socket) {
+        super(channel);
         if (socket == null) {
             throw new NullPointerException("socket");
         }
@@ -45,7 +86,7 @@ public class DefaultServerSocketChannelConfig extends DefaultChannelConfig
 
     @Override
     public Map<ChannelOption<?>, Object> getOptions() {
-        return getOptions(super.getOptions(), SO_RCVBUF, SO_REUSEADDR, SO_BACKLOG);
+        return getOptions(super.getOptions(), SO_RCVBUF, SO_REUSEADDR, SO_REUSEPORT, SO_BACKLOG);
     }
 
     @Override
@@ -56,6 +97,9 @@ public class DefaultServerSocketChannelConfig extends DefaultChannelConfig
         if (option == SO_REUSEADDR) {
             return (T) Boolean.valueOf(isReuseAddress());
         }
+        if (option == SO_REUSEPORT) {
+            return (T) Boolean.valueOf(isReusePort());
+        }
         if (option == SO_BACKLOG) {
             return (T) Integer.valueOf(getBacklog());
         }
@@ -71,6 +115,8 @@ public class DefaultServerSocketChannelConfig extends DefaultChannelConfig
             setReceiveBufferSize((Integer) value);
         } else if (option == SO_REUSEADDR) {
             setReuseAddress((Boolean) value);
+        } else if (option == SO_REUSEPORT) {
+            setReusePort((Boolean) value);
         } else if (option == SO_BACKLOG) {
             setBacklog((Integer) value);
         } else {
@@ -98,6 +144,42 @@ public class DefaultServerSocketChannelConfig extends DefaultChannelConfig
         }
     }
 
+    @Override
+    public boolean isReusePort() {
+        if (SO_REUSEPORT_OPTION == null) {
+            return false;
+        }
+
+        try {
+            return (Boolean) GET_OPTION.invoke(socket, SO_REUSEPORT_OPTION);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof UnsupportedOperationException) {
+                return false;
+            }
+            throw new ChannelException(e.getCause());
+        } catch (Exception e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    @Override
+    public void setReusePort(boolean reusePort) {
+        if (SO_REUSEPORT_OPTION == null) {
+            throw new UnsupportedOperationException("SO_REUSEPORT is not supported by the current platform.");
+        }
+
+        try {
+            SET_OPTION.invoke(socket, SO_REUSEPORT_OPTION, reusePort);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof UnsupportedOperationException) {
+                throw (UnsupportedOperationException) e.getCause();
+            }
+            throw new ChannelException(e.getCause());
+        } catch (Exception e) {
+            throw new ChannelException(e);
+        }
+    }
+
     @Override
     public int getReceiveBufferSize() {
         try {
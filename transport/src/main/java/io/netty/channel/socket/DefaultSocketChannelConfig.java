@@ -16,6 +16,7 @@
 package io.netty.channel.socket;
 
 import static io.netty.channel.ChannelOption.*;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelException;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.DefaultChannelConfig;
@@ -33,9 +34,21 @@ public class DefaultSocketChannelConfig extends DefaultChannelConfig
     private final Socket socket;
 
     /**
-     * Creates a new instance.
+     * Creates a new instance which is not bound to any {@link Channel}.
+     *
+     * @deprecated Use {@link #DefaultSocketChannelConfig(Channel, Socket)} instead, so that
+     *             re-enabling auto read triggers a read immediately.
      */
+    @Deprecated
     public DefaultSocketChannelConfig(Socket socket) {
+        this(null, socket);
+    }
+
+    /**
+     * Creates a new instance.
+     */
+    public DefaultSocketChannelConfig(Channel channel, Socket socket) {
+        super(channel);
         if (socket == null) {
             throw new NullPointerException("socket");
         }
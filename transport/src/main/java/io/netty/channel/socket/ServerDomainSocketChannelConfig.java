@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.socket;
+
+import io.netty.channel.ChannelConfig;
+
+/**
+ * A {@link ChannelConfig} for a {@link ServerDomainSocketChannel}.
+ *
+ * <h3>Available options</h3>
+ *
+ * In addition to the options provided by {@link ChannelConfig},
+ * {@link ServerDomainSocketChannelConfig} allows the following options in the
+ * option map:
+ *
+ * <table border="1" cellspacing="0" cellpadding="6">
+ * <tr>
+ * <th>Name</th><th>Associated setter method</th>
+ * </tr><tr>
+ * <td>{@code "backlog"}</td><td>{@link #setBacklog(int)}</td>
+ * </tr>
+ * </table>
+ */
+public interface ServerDomainSocketChannelConfig extends ChannelConfig {
+
+    /**
+     * Gets the backlog value to specify when the channel binds to a local
+     * address.
+     */
+    int getBacklog();
+
+    /**
+     * Sets the backlog value to specify when the channel binds to a local
+     * address.
+     */
+    void setBacklog(int backlog);
+}
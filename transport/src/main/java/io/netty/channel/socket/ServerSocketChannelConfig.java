@@ -64,6 +64,23 @@ public interface ServerSocketChannelConfig extends ChannelConfig {
      */
     void setReuseAddress(boolean reuseAddress);
 
+    /**
+     * Gets the {@code SO_REUSEPORT} option.  Always {@code false} if the
+     * current platform does not support the option.
+     */
+    boolean isReusePort();
+
+    /**
+     * Sets the {@code SO_REUSEPORT} option, which allows more than one socket
+     * to listen on the same address and port so that the operating system
+     * spreads incoming connections across them.  The option is available only
+     * with Java 9 or above on the operating systems which support it, such as Linux.
+     *
+     * @throws UnsupportedOperationException
+     *         if the current platform does not support the option
+     */
+    void setReusePort(boolean reusePort);
+
     /**
      * Gets the <a href="http://java.sun.com/javase/6/docs/technotes/guides/net/socketOpt.html">{@code SO_RCVBUF}</a> option.
      */
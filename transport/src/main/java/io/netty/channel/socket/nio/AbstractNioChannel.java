@@ -18,6 +18,7 @@ package io.netty.channel.socket.nio;
 import io.netty.channel.AbstractChannel;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelBufferHolder;
+import io.netty.channel.ChannelConfig;
 import io.netty.channel.ChannelException;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.EventLoop;
@@ -26,7 +27,6 @@ import io.netty.logging.InternalLoggerFactory;
 
 import java.io.IOException;
 import java.net.ConnectException;
-import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
@@ -78,16 +78,6 @@ public abstract class AbstractNioChannel extends AbstractChannel {
         return ch.isOpen();
     }
 
-    @Override
-    public InetSocketAddress localAddress() {
-        return (InetSocketAddress) super.localAddress();
-    }
-
-    @Override
-    public InetSocketAddress remoteAddress() {
-        return (InetSocketAddress) super.remoteAddress();
-    }
-
     @Override
     public NioUnsafe unsafe() {
         return (NioUnsafe) super.unsafe();
@@ -209,10 +199,44 @@ public abstract class AbstractNioChannel extends AbstractChannel {
     protected Runnable doRegister() throws Exception {
         NioChildEventLoop loop = (NioChildEventLoop) eventLoop();
         selectionKey = javaChannel().register(
-                loop.selector, isActive()? defaultInterestOps : 0, this);
+                loop.selector, isActive() && config().isAutoRead()? defaultInterestOps : 0, this);
         return null;
     }
 
+    @Override
+    protected void doBeginRead() throws Exception {
+        SelectionKey selectionKey = this.selectionKey;
+        if (!selectionKey.isValid()) {
+            return;
+        }
+
+        final int interestOps = selectionKey.interestOps();
+        if ((interestOps & defaultInterestOps) == 0) {
+            selectionKey.interestOps(interestOps | defaultInterestOps);
+        }
+    }
+
+    /**
+     * Stops selecting this channel for reads unless {@link ChannelConfig#isAutoRead()}
+     * is enabled.  Called after every read so that a read is performed only once per
+     * {@link Channel#read()} request when auto read is disabled.
+     */
+    protected final void suspendReadIfNotAutoRead() {
+        if (config().isAutoRead()) {
+            return;
+        }
+
+        SelectionKey selectionKey = this.selectionKey;
+        if (!selectionKey.isValid()) {
+            return;
+        }
+
+        final int interestOps = selectionKey.interestOps();
+        if ((interestOps & defaultInterestOps) != 0) {
+            selectionKey.interestOps(interestOps & ~defaultInterestOps);
+        }
+    }
+
     @Override
     protected void doDeregister() throws Exception {
         ((NioChildEventLoop) eventLoop()).cancel(selectionKey());
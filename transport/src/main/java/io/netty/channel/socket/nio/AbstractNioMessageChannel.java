@@ -41,6 +41,7 @@ abstract class AbstractNioMessageChannel extends AbstractNioChannel {
                     int localReadAmount = doReadMessages(msgBuf);
                     if (localReadAmount > 0) {
                         read = true;
+                        recordRead(localReadAmount);
                     } else if (localReadAmount == 0) {
                         break;
                     } else if (localReadAmount < 0) {
@@ -59,6 +60,7 @@ abstract class AbstractNioMessageChannel extends AbstractNioChannel {
                 }
             } finally {
                 if (read) {
+                    suspendReadIfNotAutoRead();
                     pipeline.fireInboundBufferUpdated();
                 }
                 if (closed && isOpen()) {
@@ -4,15 +4,24 @@ import io.netty.buffer.ChannelBuffer;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelBufferHolder;
 import io.netty.channel.ChannelBufferHolders;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelType;
+import io.netty.channel.FileRegion;
 
 import java.io.IOException;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
 
 abstract class AbstractNioStreamChannel extends AbstractNioChannel {
 
+    /** {@link FileRegion}s which were requested to be sent but have not been transferred completely yet. */
+    private Queue<PendingFileRegion> pendingFileRegions;
+
     protected AbstractNioStreamChannel(
             Channel parent, Integer id, SelectableChannel ch) {
         super(parent, id, ChannelBufferHolders.byteBuffer(), ch, SelectionKey.OP_READ);
@@ -43,6 +52,7 @@ abstract class AbstractNioStreamChannel extends AbstractNioChannel {
                     int localReadAmount = doReadBytes(byteBuf);
                     if (localReadAmount > 0) {
                         read = true;
+                        recordRead(localReadAmount);
                     } else if (localReadAmount < 0) {
                         closed = true;
                         break;
@@ -62,6 +72,7 @@ abstract class AbstractNioStreamChannel extends AbstractNioChannel {
                 }
             } finally {
                 if (read) {
+                    suspendReadIfNotAutoRead();
                     pipeline.fireInboundBufferUpdated();
                 }
                 if (closed && isOpen()) {
@@ -73,7 +84,130 @@ abstract class AbstractNioStreamChannel extends AbstractNioChannel {
 
     @Override
     protected void doFlush(ChannelBufferHolder<Object> buf) throws Exception {
-        flushByteBuf(buf.byteBuffer());
+        ChannelBuffer byteBuf = buf.byteBuffer();
+        Queue<PendingFileRegion> pendingFileRegions = this.pendingFileRegions;
+        if (pendingFileRegions == null || pendingFileRegions.isEmpty()) {
+            flushByteBuf(byteBuf);
+            return;
+        }
+
+        for (;;) {
+            PendingFileRegion r = pendingFileRegions.peek();
+            if (r == null) {
+                if (byteBuf.readable()) {
+                    flushByteBuf(byteBuf);
+                } else {
+                    byteBuf.clear();
+                    clearOpWrite();
+                }
+                break;
+            }
+
+            // Write the bytes which were written before the region first.
+            if (r.precedingBytes > 0) {
+                ChannelBuffer slice = byteBuf.slice(byteBuf.readerIndex(), (int) r.precedingBytes);
+                flushByteBuf(slice);
+                int writtenBytes = (int) r.precedingBytes - slice.readableBytes();
+                byteBuf.skipBytes(writtenBytes);
+                r.precedingBytes -= writtenBytes;
+                if (r.precedingBytes > 0) {
+                    // The socket buffer is full - OP_WRITE has been set already.
+                    break;
+                }
+            }
+
+            if (!flushFileRegion(r)) {
+                break;
+            }
+            pendingFileRegions.remove();
+        }
+    }
+
+    @Override
+    protected void doSendFile(FileRegion region, ChannelFuture future) throws Exception {
+        if (pendingFileRegions == null) {
+            pendingFileRegions = new ArrayDeque<PendingFileRegion>();
+        }
+
+        long precedingBytes = unsafe().directOutbound().byteBuffer().readableBytes();
+        for (PendingFileRegion r: pendingFileRegions) {
+            precedingBytes -= r.precedingBytes;
+        }
+        pendingFileRegions.add(new PendingFileRegion(region, future, precedingBytes));
+    }
+
+    @Override
+    protected void failPendingWrites(Throwable cause) {
+        Queue<PendingFileRegion> pendingFileRegions = this.pendingFileRegions;
+        if (pendingFileRegions == null) {
+            return;
+        }
+
+        for (;;) {
+            PendingFileRegion r = pendingFileRegions.poll();
+            if (r == null) {
+                break;
+            }
+            releaseFileRegion(r.region);
+            r.future.setFailure(cause);
+        }
+    }
+
+    /**
+     * Transfers the specified region as much as the socket accepts.
+     *
+     * @return {@code true} if and only if the region has been transferred completely
+     */
+    private boolean flushFileRegion(PendingFileRegion r) throws Exception {
+        final FileRegion region = r.region;
+        final long count = region.count();
+        try {
+            if (r.transferred < count) {
+                WritableByteChannel ch = (WritableByteChannel) javaChannel();
+                for (int i = config().getWriteSpinCount() - 1; i >= 0; i --) {
+                    long localTransferred = region.transferTo(ch, r.transferred);
+                    if (localTransferred > 0) {
+                        r.transferred += localTransferred;
+                        r.future.setProgress(localTransferred, r.transferred, count);
+                        if (r.transferred >= count) {
+                            break;
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            pendingFileRegions.remove();
+            releaseFileRegion(region);
+            r.future.setFailure(e);
+            throw e;
+        }
+
+        if (r.transferred < count) {
+            // The socket buffer is full - try again when the channel becomes writable.
+            setOpWrite();
+            return false;
+        }
+
+        recordFileRegionWritten(region);
+        releaseFileRegion(region);
+        r.future.setSuccess();
+        return true;
+    }
+
+    private void setOpWrite() {
+        final SelectionKey key = selectionKey();
+        final int interestOps = key.interestOps();
+        if ((interestOps & SelectionKey.OP_WRITE) == 0) {
+            key.interestOps(interestOps | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void clearOpWrite() {
+        final SelectionKey key = selectionKey();
+        final int interestOps = key.interestOps();
+        if ((interestOps & SelectionKey.OP_WRITE) != 0) {
+            key.interestOps(interestOps & ~SelectionKey.OP_WRITE);
+        }
     }
 
     private void flushByteBuf(ChannelBuffer buf) throws Exception {
@@ -97,7 +231,34 @@ abstract class AbstractNioStreamChannel extends AbstractNioChannel {
     }
 
     protected abstract int doReadBytes(ChannelBuffer buf) throws Exception;
-    protected abstract int doWriteBytes(ChannelBuffer buf, boolean lastSpin) throws Exception;
+
+    protected int doWriteBytes(ChannelBuffer buf, boolean lastSpin) throws Exception {
+        final int expectedWrittenBytes = buf.readableBytes();
+
+        // FIXME: This is not as efficient as Netty 3's SendBufferPool if heap buffer is used
+        //        because of potentially unwanted repetitive memory copy in case of
+        //        a slow connection or a large output buffer that triggers OP_WRITE.
+        final int writtenBytes = buf.readBytes((GatheringByteChannel) javaChannel(), expectedWrittenBytes);
+
+        if (writtenBytes >= expectedWrittenBytes) {
+            // Wrote the outbound buffer completely - clear OP_WRITE.
+            clearOpWrite();
+        } else {
+            // Wrote something or nothing.
+            // a) If wrote something, the caller will not retry.
+            //    - Set OP_WRITE so that the event loop calls flushForcibly() later.
+            // b) If wrote nothing:
+            //    1) If 'lastSpin' is false, the caller will call this method again real soon.
+            //       - Do not update OP_WRITE.
+            //    2) If 'lastSpin' is true, the caller will not retry.
+            //       - Set OP_WRITE so that the event loop calls flushForcibly() later.
+            if (writtenBytes > 0 || lastSpin) {
+                setOpWrite();
+            }
+        }
+
+        return writtenBytes;
+    }
 
     private static boolean expandReadBuffer(ChannelBuffer byteBuf) {
         if (!byteBuf.writable()) {
@@ -108,4 +269,19 @@ abstract class AbstractNioStreamChannel extends AbstractNioChannel {
 
         return false;
     }
+
+    private static final class PendingFileRegion {
+        final FileRegion region;
+        final ChannelFuture future;
+        /** the number of the outbound bytes which have to be written before the region */
+        long precedingBytes;
+        /** the number of the bytes of the region which have been transferred so far */
+        long transferred;
+
+        PendingFileRegion(FileRegion region, ChannelFuture future, long precedingBytes) {
+            this.region = region;
+            this.future = future;
+            this.precedingBytes = precedingBytes;
+        }
+    }
 }
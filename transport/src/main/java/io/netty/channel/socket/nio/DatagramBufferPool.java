@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.socket.nio;
+
+import io.netty.buffer.ChannelBuffer;
+import io.netty.buffer.ChannelBuffers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Holds the buffers which are reused by all {@link NioDatagramChannel}s of an
+ * {@link NioChildEventLoop}.  A datagram is received into a direct buffer which
+ * is reused for every datagram, and then copied into a right-sized slice of a
+ * larger heap chunk, so that no buffer has to be allocated per datagram.
+ * <p>
+ * An instance must be accessed only by the thread of its event loop.
+ */
+final class DatagramBufferPool {
+
+    private static final int CHUNK_SIZE = 65536;
+
+    private ByteBuffer directBuffer;
+    private ChannelBuffer chunk;
+
+    /**
+     * Returns the direct buffer of this pool whose position is {@code 0} and
+     * whose limit is the specified {@code size}.  The content of the returned
+     * buffer is overwritten by the next call.
+     */
+    ByteBuffer directBuffer(int size) {
+        ByteBuffer directBuffer = this.directBuffer;
+        if (directBuffer == null || directBuffer.capacity() < size) {
+            this.directBuffer = directBuffer = ByteBuffer.allocateDirect(normalizeCapacity(size));
+        }
+        directBuffer.clear();
+        directBuffer.limit(size);
+        return directBuffer;
+    }
+
+    /**
+     * Copies the remaining bytes of the specified buffer into a new
+     * {@link ChannelBuffer} whose capacity equals to the number of the copied
+     * bytes.
+     */
+    ChannelBuffer copy(ByteBuffer src) {
+        final int length = src.remaining();
+        if (length > CHUNK_SIZE >>> 2) {
+            // Too large to share a chunk with others.
+            ChannelBuffer buf = ChannelBuffers.buffer(length);
+            buf.writeBytes(src);
+            return buf;
+        }
+
+        ChannelBuffer chunk = this.chunk;
+        if (chunk == null || chunk.writableBytes() < length) {
+            // The previous chunk is released by GC once all its slices are released.
+            this.chunk = chunk = ChannelBuffers.buffer(CHUNK_SIZE);
+        }
+
+        final int index = chunk.writerIndex();
+        chunk.writeBytes(src);
+        return chunk.slice(index, length);
+    }
+
+    private static int normalizeCapacity(int capacity) {
+        int q = capacity >>> 10;
+        int r = capacity & 1023;
+        if (r != 0) {
+            q ++;
+        }
+        return q << 10;
+    }
+}
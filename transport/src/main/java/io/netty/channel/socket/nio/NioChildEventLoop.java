@@ -18,6 +18,7 @@ package io.netty.channel.socket.nio;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelException;
 import io.netty.channel.SingleThreadEventLoop;
+import io.netty.channel.metrics.EventLoopMetrics;
 import io.netty.channel.socket.nio.AbstractNioChannel.NioUnsafe;
 import io.netty.logging.InternalLogger;
 import io.netty.logging.InternalLoggerFactory;
@@ -57,6 +58,11 @@ final class NioChildEventLoop extends SingleThreadEventLoop {
      */
     protected final AtomicBoolean wakenUp = new AtomicBoolean();
 
+    /**
+     * The buffers shared by the {@link NioDatagramChannel}s of this loop.
+     */
+    final DatagramBufferPool datagramBufferPool = new DatagramBufferPool();
+
     private int cancelledKeys;
     private boolean cleanedCancelledKeys;
 
@@ -79,13 +85,24 @@ final class NioChildEventLoop extends SingleThreadEventLoop {
     @Override
     protected void run() {
         Selector selector = this.selector;
+        EventLoopMetrics metrics = metrics();
         for (;;) {
 
             wakenUp.set(false);
 
             try {
+                long selectStartTime = 0;
+                if (metrics != null) {
+                    selectStartTime = System.nanoTime();
+                }
+
                 SelectorUtil.select(selector);
 
+                if (metrics != null) {
+                    metrics.selectTime().record(System.nanoTime() - selectStartTime);
+                    metrics.selectedKeys().record(selector.selectedKeys().size());
+                }
+
                 // 'wakenUp.compareAndSet(false, true)' is always evaluated
                 // before calling 'selector.wakeup()' to reduce the wake-up
                 // overhead. (Selector.wakeup() is an expensive operation.)
@@ -120,11 +137,17 @@ final class NioChildEventLoop extends SingleThreadEventLoop {
 
                 cancelledKeys = 0;
                 runAllTasks();
-                processSelectedKeys();
+                if (metrics != null) {
+                    long ioStartTime = System.nanoTime();
+                    processSelectedKeys();
+                    metrics.ioTime().record(System.nanoTime() - ioStartTime);
+                } else {
+                    processSelectedKeys();
+                }
 
-                if (isShutdown()) {
+                if (isShuttingDown()) {
                     closeAll();
-                    if (peekTask() == null) {
+                    if (confirmShutdown()) {
                         break;
                     }
                 }
@@ -213,7 +236,17 @@ final class NioChildEventLoop extends SingleThreadEventLoop {
         }
     }
 
+    /**
+     * Closes the channels of this loop.  While shutting down gracefully, the
+     * channels are left open while a scheduled task is due soon, and the
+     * channels with pending outbound data are left open to flush it.
+     */
     private void closeAll() {
+        boolean graceful = !isShutdown();
+        if (graceful && hasScheduledTasksDueSoon()) {
+            return;
+        }
+
         SelectorUtil.cleanupKeys(selector);
         Set<SelectionKey> keys = selector.keys();
         Collection<Channel> channels = new ArrayList<Channel>(keys.size());
@@ -222,6 +255,9 @@ final class NioChildEventLoop extends SingleThreadEventLoop {
         }
 
         for (Channel ch: channels) {
+            if (graceful && ch.unsafe().directOutbound().size() != 0) {
+                continue;
+            }
             ch.unsafe().close(ch.unsafe().voidFuture());
         }
     }
@@ -16,7 +16,6 @@
 package io.netty.channel.socket.nio;
 
 import io.netty.buffer.ChannelBuffer;
-import io.netty.buffer.ChannelBuffers;
 import io.netty.channel.ChannelBufferHolders;
 import io.netty.channel.ChannelException;
 import io.netty.channel.ChannelFuture;
@@ -89,7 +88,7 @@ public final class NioDatagramChannel extends AbstractNioMessageChannel implemen
 
     public NioDatagramChannel(Integer id, DatagramChannel socket) {
         super(null, id, ChannelBufferHolders.messageBuffer(), socket, SelectionKey.OP_READ);
-        config = new NioDatagramChannelConfig(socket);
+        config = new NioDatagramChannelConfig(this, socket);
     }
 
     @Override
@@ -103,6 +102,16 @@ public final class NioDatagramChannel extends AbstractNioMessageChannel implemen
         return ch.isOpen() && ch.socket().isBound();
     }
 
+    @Override
+    public InetSocketAddress localAddress() {
+        return (InetSocketAddress) super.localAddress();
+    }
+
+    @Override
+    public InetSocketAddress remoteAddress() {
+        return (InetSocketAddress) super.remoteAddress();
+    }
+
     @Override
     protected DatagramChannel javaChannel() {
         return (DatagramChannel) super.javaChannel();
@@ -121,7 +130,7 @@ public final class NioDatagramChannel extends AbstractNioMessageChannel implemen
     @Override
     protected void doBind(SocketAddress localAddress) throws Exception {
         javaChannel().socket().bind(localAddress);
-        selectionKey().interestOps(SelectionKey.OP_READ);
+        selectionKey().interestOps(config().isAutoRead()? SelectionKey.OP_READ : 0);
     }
 
     @Override
@@ -134,7 +143,9 @@ public final class NioDatagramChannel extends AbstractNioMessageChannel implemen
         boolean success = false;
         try {
             javaChannel().connect(remoteAddress);
-            selectionKey().interestOps(selectionKey().interestOps() | SelectionKey.OP_READ);
+            if (config().isAutoRead()) {
+                selectionKey().interestOps(selectionKey().interestOps() | SelectionKey.OP_READ);
+            }
             success = true;
             return true;
         } finally {
@@ -159,17 +170,22 @@ public final class NioDatagramChannel extends AbstractNioMessageChannel implemen
         javaChannel().close();
     }
 
+    private DatagramBufferPool bufferPool() {
+        return ((NioChildEventLoop) eventLoop()).datagramBufferPool;
+    }
+
     @Override
     protected int doReadMessages(Queue<Object> buf) throws Exception {
         DatagramChannel ch = javaChannel();
-        ByteBuffer data = ByteBuffer.allocate(config().getReceivePacketSize());
+        DatagramBufferPool bufferPool = bufferPool();
+        ByteBuffer data = bufferPool.directBuffer(config().getReceivePacketSize());
         InetSocketAddress remoteAddress = (InetSocketAddress) ch.receive(data);
         if (remoteAddress == null) {
             return 0;
         }
 
         data.flip();
-        buf.add(new DatagramPacket(ChannelBuffers.wrappedBuffer(data), remoteAddress));
+        buf.add(new DatagramPacket(bufferPool.copy(data), remoteAddress));
         return 1;
     }
 
@@ -177,11 +193,11 @@ public final class NioDatagramChannel extends AbstractNioMessageChannel implemen
     protected int doWriteMessages(Queue<Object> buf, boolean lastSpin) throws Exception {
         DatagramPacket packet = (DatagramPacket) buf.peek();
         ChannelBuffer data = packet.data();
-        ByteBuffer nioData;
-        if (data.hasNioBuffer()) {
-            nioData = data.nioBuffer();
-        } else {
-            nioData = ByteBuffer.allocate(data.readableBytes());
+        ByteBuffer nioData = data.hasNioBuffer()? data.nioBuffer() : null;
+        if (nioData == null || !nioData.isDirect()) {
+            // Copy into the reusable direct buffer because the JDK would copy
+            // a heap buffer into a temporary direct buffer anyway.
+            nioData = bufferPool().directBuffer(data.readableBytes());
             data.getBytes(data.readerIndex(), nioData);
             nioData.flip();
         }
@@ -15,6 +15,7 @@
  */
 package io.netty.channel.socket.nio;
 
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelException;
 import io.netty.channel.socket.DefaultDatagramChannelConfig;
 import io.netty.util.internal.DetectionUtil;
@@ -92,9 +93,9 @@ class NioDatagramChannelConfig extends DefaultDatagramChannelConfig {
 
     private final DatagramChannel channel;
 
-    NioDatagramChannelConfig(DatagramChannel channel) {
-        super(channel.socket());
-        this.channel = channel;
+    NioDatagramChannelConfig(Channel channel, DatagramChannel javaChannel) {
+        super(channel, javaChannel.socket());
+        this.channel = javaChannel;
     }
 
     @Override
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.socket.nio;
+
+import io.netty.buffer.ChannelBuffer;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelException;
+import io.netty.channel.DefaultChannelConfig;
+import io.netty.channel.socket.DomainSocketChannel;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A {@link DomainSocketChannel} which uses the Unix domain socket support of
+ * NIO.  Requires Java 16 or above; see {@link NioDomainSockets#isSupported()}.
+ */
+public class NioDomainSocketChannel extends AbstractNioStreamChannel implements DomainSocketChannel {
+
+    private final ChannelConfig config;
+
+    private static SocketChannel newSocket() {
+        try {
+            return NioDomainSockets.openSocket();
+        } catch (IOException e) {
+            throw new ChannelException("Failed to open a socket.", e);
+        }
+    }
+
+    public NioDomainSocketChannel() {
+        this(newSocket());
+    }
+
+    public NioDomainSocketChannel(SocketChannel socket) {
+        this(null, null, socket);
+    }
+
+    public NioDomainSocketChannel(Channel parent, Integer id, SocketChannel socket) {
+        super(parent, id, socket);
+        config = new DefaultChannelConfig(this);
+    }
+
+    @Override
+    public ChannelConfig config() {
+        return config;
+    }
+
+    @Override
+    protected SocketChannel javaChannel() {
+        return (SocketChannel) super.javaChannel();
+    }
+
+    @Override
+    public boolean isActive() {
+        SocketChannel ch = javaChannel();
+        return ch.isOpen() && ch.isConnected();
+    }
+
+    @Override
+    protected SocketAddress localAddress0() {
+        try {
+            return NioDomainSockets.localAddress(javaChannel());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    protected SocketAddress remoteAddress0() {
+        try {
+            return NioDomainSockets.remoteAddress(javaChannel());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    protected void doBind(SocketAddress localAddress) throws Exception {
+        NioDomainSockets.bind(javaChannel(), localAddress);
+    }
+
+    @Override
+    protected boolean doConnect(SocketAddress remoteAddress, SocketAddress localAddress) throws Exception {
+        if (localAddress != null) {
+            NioDomainSockets.bind(javaChannel(), localAddress);
+        }
+
+        boolean success = false;
+        try {
+            boolean connected = javaChannel().connect(remoteAddress);
+            if (connected) {
+                selectionKey().interestOps(config().isAutoRead()? SelectionKey.OP_READ : 0);
+            } else {
+                selectionKey().interestOps(SelectionKey.OP_CONNECT);
+            }
+            success = true;
+            return connected;
+        } finally {
+            if (!success) {
+                doClose();
+            }
+        }
+    }
+
+    @Override
+    protected void doFinishConnect() throws Exception {
+        if (!javaChannel().finishConnect()) {
+            throw new Error();
+        }
+        selectionKey().interestOps(config().isAutoRead()? SelectionKey.OP_READ : 0);
+    }
+
+    @Override
+    protected void doDisconnect() throws Exception {
+        doClose();
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        javaChannel().close();
+    }
+
+    @Override
+    protected int doReadBytes(ChannelBuffer byteBuf) throws Exception {
+        return byteBuf.writeBytes(javaChannel(), byteBuf.writableBytes());
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.socket.nio;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.SocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Provides access to the Unix domain socket support of the JDK (Java 16+)
+ * for {@link NioDomainSocketChannel} and {@link NioServerDomainSocketChannel}.
+ * The JDK API is accessed reflectively because Netty runs on Java 6.
+ */
+public final class NioDomainSockets {
+
+    private static final Object UNIX;
+    private static final Class<?> ADDRESS_TYPE;
+    private static final Method NEW_ADDRESS;
+    private static final Method GET_PATH;
+    private static final Method OPEN_SOCKET;
+    private static final Method OPEN_SERVER_SOCKET;
+    private static final Method BIND_SOCKET;
+    private static final Method BIND_SERVER_SOCKET;
+    private static final Method GET_LOCAL_ADDRESS;
+    private static final Method GET_REMOTE_ADDRESS;
+
+    static {
+        Object unix = null;
+        Class<?> addressType = null;
+        Method newAddress = null;
+        Method getPath = null;
+        Method openSocket = null;
+        Method openServerSocket = null;
+        Method bindSocket = null;
+        Method bindServerSocket = null;
+        Method getLocalAddress = null;
+        Method getRemoteAddress = null;
+        try {
+            Class<?> protocolFamilyType = Class.forName("java.net.ProtocolFamily");
+            Class<?> networkChannelType = Class.forName("java.nio.channels.NetworkChannel");
+            unix = Class.forName("java.net.StandardProtocolFamily").getField("UNIX").get(null);
+            addressType = Class.forName("java.net.UnixDomainSocketAddress");
+            newAddress = addressType.getMethod("of", String.class);
+            getPath = addressType.getMethod("getPath");
+            openSocket = SocketChannel.class.getMethod("open", protocolFamilyType);
+            openServerSocket = ServerSocketChannel.class.getMethod("open", protocolFamilyType);
+            bindSocket = SocketChannel.class.getMethod("bind", SocketAddress.class);
+            bindServerSocket = ServerSocketChannel.class.getMethod("bind", SocketAddress.class, int.class);
+            getLocalAddress = networkChannelType.getMethod("getLocalAddress");
+            getRemoteAddress = SocketChannel.class.getMethod("getRemoteAddress");
+        } catch (Throwable t) {
+            // Not supported by the current JDK.
+            unix = null;
+        }
+
+        UNIX = unix;
+        ADDRESS_TYPE = addressType;
+        NEW_ADDRESS = newAddress;
+        GET_PATH = getPath;
+        OPEN_SOCKET = openSocket;
+        OPEN_SERVER_SOCKET = openServerSocket;
+        BIND_SOCKET = bindSocket;
+        BIND_SERVER_SOCKET = bindServerSocket;
+        GET_LOCAL_ADDRESS = getLocalAddress;
+        GET_REMOTE_ADDRESS = getRemoteAddress;
+    }
+
+    /**
+     * Returns {@code true} if the current JDK supports Unix domain sockets.
+     */
+    public static boolean isSupported() {
+        return UNIX != null;
+    }
+
+    /**
+     * Creates a new Unix domain socket address from the specified path.
+     *
+     * @throws UnsupportedOperationException if {@link #isSupported()} is {@code false}
+     */
+    public static SocketAddress newAddress(String path) {
+        if (path == null) {
+            throw new NullPointerException("path");
+        }
+        ensureSupported();
+        return (SocketAddress) invoke(NEW_ADDRESS, null, path);
+    }
+
+    static SocketChannel openSocket() throws IOException {
+        ensureSupported();
+        return (SocketChannel) invokeIo(OPEN_SOCKET, null, UNIX);
+    }
+
+    static ServerSocketChannel openServerSocket() throws IOException {
+        ensureSupported();
+        return (ServerSocketChannel) invokeIo(OPEN_SERVER_SOCKET, null, UNIX);
+    }
+
+    static void bind(SocketChannel ch, SocketAddress localAddress) throws IOException {
+        invokeIo(BIND_SOCKET, ch, localAddress);
+    }
+
+    static void bind(ServerSocketChannel ch, SocketAddress localAddress, int backlog) throws IOException {
+        invokeIo(BIND_SERVER_SOCKET, ch, localAddress, backlog);
+    }
+
+    static SocketAddress localAddress(Object ch) throws IOException {
+        return (SocketAddress) invokeIo(GET_LOCAL_ADDRESS, ch);
+    }
+
+    static SocketAddress remoteAddress(SocketChannel ch) throws IOException {
+        return (SocketAddress) invokeIo(GET_REMOTE_ADDRESS, ch);
+    }
+
+    /**
+     * Returns the file system path of the specified Unix domain socket
+     * address, or {@code null} if the address is not a Unix domain socket address.
+     */
+    static String path(SocketAddress address) {
+        if (!isSupported() || !ADDRESS_TYPE.isInstance(address)) {
+            return null;
+        }
+        return String.valueOf(invoke(GET_PATH, address));
+    }
+
+    private static void ensureSupported() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException(
+                    "Unix domain sockets are not supported by the current JDK.");
+        }
+    }
+
+    private static Object invokeIo(Method method, Object target, Object... args) throws IOException {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return invokeIo(method, target, args);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private NioDomainSockets() {
+        // Utility class
+    }
+}
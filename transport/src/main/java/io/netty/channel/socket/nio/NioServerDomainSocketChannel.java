@@ -0,0 +1,141 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.socket.nio;
+
+import io.netty.channel.ChannelBufferHolders;
+import io.netty.channel.ChannelException;
+import io.netty.channel.socket.DefaultServerDomainSocketChannelConfig;
+import io.netty.channel.socket.ServerDomainSocketChannel;
+import io.netty.channel.socket.ServerDomainSocketChannelConfig;
+import io.netty.logging.InternalLogger;
+import io.netty.logging.InternalLoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+
+/**
+ * A {@link ServerDomainSocketChannel} which uses the Unix domain socket
+ * support of NIO.  Requires Java 16 or above; see {@link NioDomainSockets#isSupported()}.
+ * <p>
+ * The socket file created by {@link #bind(SocketAddress)} is deleted when
+ * the channel is closed.
+ */
+public class NioServerDomainSocketChannel extends AbstractNioMessageChannel
+                                          implements ServerDomainSocketChannel {
+
+    private static final InternalLogger logger =
+            InternalLoggerFactory.getInstance(NioServerDomainSocketChannel.class);
+
+    private static ServerSocketChannel newSocket() {
+        try {
+            return NioDomainSockets.openServerSocket();
+        } catch (IOException e) {
+            throw new ChannelException(
+                    "Failed to open a server socket.", e);
+        }
+    }
+
+    private final ServerDomainSocketChannelConfig config;
+    private volatile SocketAddress boundAddress;
+
+    public NioServerDomainSocketChannel() {
+        super(null, null, ChannelBufferHolders.discardMessageBuffer(),
+                newSocket(), SelectionKey.OP_ACCEPT);
+        config = new DefaultServerDomainSocketChannelConfig(this);
+    }
+
+    @Override
+    public ServerDomainSocketChannelConfig config() {
+        return config;
+    }
+
+    @Override
+    public boolean isActive() {
+        return isOpen() && boundAddress != null;
+    }
+
+    @Override
+    protected ServerSocketChannel javaChannel() {
+        return (ServerSocketChannel) super.javaChannel();
+    }
+
+    @Override
+    protected SocketAddress localAddress0() {
+        return boundAddress;
+    }
+
+    @Override
+    protected void doBind(SocketAddress localAddress) throws Exception {
+        NioDomainSockets.bind(javaChannel(), localAddress, config.getBacklog());
+        boundAddress = NioDomainSockets.localAddress(javaChannel());
+        if (config().isAutoRead()) {
+            SelectionKey selectionKey = selectionKey();
+            selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_ACCEPT);
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        javaChannel().close();
+
+        String path = NioDomainSockets.path(boundAddress);
+        if (path != null && path.length() != 0 && !new File(path).delete()) {
+            logger.warn("Failed to delete the socket file: " + path);
+        }
+    }
+
+    @Override
+    protected int doReadMessages(Queue<Object> buf) throws Exception {
+        SocketChannel ch = javaChannel().accept();
+        if (ch == null) {
+            return 0;
+        }
+        buf.add(new NioDomainSocketChannel(this, null, ch));
+        return 1;
+    }
+
+    // Unnecessary stuff
+    @Override
+    protected boolean doConnect(
+            SocketAddress remoteAddress, SocketAddress localAddress) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void doFinishConnect() throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected SocketAddress remoteAddress0() {
+        return null;
+    }
+
+    @Override
+    protected void doDisconnect() throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected int doWriteMessages(Queue<Object> buf, boolean lastSpin) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+}
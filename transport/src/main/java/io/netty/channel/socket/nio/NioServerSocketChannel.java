@@ -44,7 +44,7 @@ public class NioServerSocketChannel extends AbstractNioMessageChannel
     public NioServerSocketChannel() {
         super(null, null, ChannelBufferHolders.discardMessageBuffer(),
                 newSocket(), SelectionKey.OP_ACCEPT);
-        config = new DefaultServerSocketChannelConfig(javaChannel().socket());
+        config = new DefaultServerSocketChannelConfig(this, javaChannel().socket());
     }
 
     @Override
@@ -57,6 +57,11 @@ public class NioServerSocketChannel extends AbstractNioMessageChannel
         return javaChannel().socket().isBound();
     }
 
+    @Override
+    public InetSocketAddress localAddress() {
+        return (InetSocketAddress) super.localAddress();
+    }
+
     @Override
     public InetSocketAddress remoteAddress() {
         return null;
@@ -75,8 +80,10 @@ public class NioServerSocketChannel extends AbstractNioMessageChannel
     @Override
     protected void doBind(SocketAddress localAddress) throws Exception {
         javaChannel().socket().bind(localAddress);
-        SelectionKey selectionKey = selectionKey();
-        selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_ACCEPT);
+        if (config().isAutoRead()) {
+            SelectionKey selectionKey = selectionKey();
+            selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_ACCEPT);
+        }
     }
 
     @Override
@@ -24,6 +24,7 @@ import io.netty.logging.InternalLogger;
 import io.netty.logging.InternalLoggerFactory;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
@@ -68,7 +69,7 @@ public class NioSocketChannel extends AbstractNioStreamChannel implements io.net
             throw new ChannelException("Failed to enter non-blocking mode.", e);
         }
 
-        config = new DefaultSocketChannelConfig(socket.socket());
+        config = new DefaultSocketChannelConfig(this, socket.socket());
     }
 
     @Override
@@ -76,6 +77,16 @@ public class NioSocketChannel extends AbstractNioStreamChannel implements io.net
         return config;
     }
 
+    @Override
+    public InetSocketAddress localAddress() {
+        return (InetSocketAddress) super.localAddress();
+    }
+
+    @Override
+    public InetSocketAddress remoteAddress() {
+        return (InetSocketAddress) super.remoteAddress();
+    }
+
     @Override
     protected SocketChannel javaChannel() {
         return (SocketChannel) super.javaChannel();
@@ -112,7 +123,7 @@ public class NioSocketChannel extends AbstractNioStreamChannel implements io.net
         try {
             boolean connected = javaChannel().connect(remoteAddress);
             if (connected) {
-                selectionKey().interestOps(SelectionKey.OP_READ);
+                selectionKey().interestOps(config().isAutoRead()? SelectionKey.OP_READ : 0);
             } else {
                 selectionKey().interestOps(SelectionKey.OP_CONNECT);
             }
@@ -130,7 +141,7 @@ public class NioSocketChannel extends AbstractNioStreamChannel implements io.net
         if (!javaChannel().finishConnect()) {
             throw new Error();
         }
-        selectionKey().interestOps(SelectionKey.OP_READ);
+        selectionKey().interestOps(config().isAutoRead()? SelectionKey.OP_READ : 0);
     }
 
     @Override
@@ -147,39 +158,4 @@ public class NioSocketChannel extends AbstractNioStreamChannel implements io.net
     protected int doReadBytes(ChannelBuffer byteBuf) throws Exception {
         return byteBuf.writeBytes(javaChannel(), byteBuf.writableBytes());
     }
-
-    @Override
-    protected int doWriteBytes(ChannelBuffer buf, boolean lastSpin) throws Exception {
-        final int expectedWrittenBytes = buf.readableBytes();
-
-        // FIXME: This is not as efficient as Netty 3's SendBufferPool if heap buffer is used
-        //        because of potentially unwanted repetitive memory copy in case of
-        //        a slow connection or a large output buffer that triggers OP_WRITE.
-        final int writtenBytes = buf.readBytes(javaChannel(), expectedWrittenBytes);
-
-        final SelectionKey key = selectionKey();
-        final int interestOps = key.interestOps();
-        if (writtenBytes >= expectedWrittenBytes) {
-            // Wrote the outbound buffer completely - clear OP_WRITE.
-            if ((interestOps & SelectionKey.OP_WRITE) != 0) {
-                key.interestOps(interestOps & ~SelectionKey.OP_WRITE);
-            }
-        } else {
-            // Wrote something or nothing.
-            // a) If wrote something, the caller will not retry.
-            //    - Set OP_WRITE so that the event loop calls flushForcibly() later.
-            // b) If wrote nothing:
-            //    1) If 'lastSpin' is false, the caller will call this method again real soon.
-            //       - Do not update OP_WRITE.
-            //    2) If 'lastSpin' is true, the caller will not retry.
-            //       - Set OP_WRITE so that the event loop calls flushForcibly() later.
-            if (writtenBytes > 0 || lastSpin) {
-                if ((interestOps & SelectionKey.OP_WRITE) == 0) {
-                    key.interestOps(interestOps | SelectionKey.OP_WRITE);
-                }
-            }
-        }
-
-        return writtenBytes;
-    }
 }
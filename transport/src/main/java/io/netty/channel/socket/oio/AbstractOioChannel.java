@@ -11,6 +11,9 @@ import java.net.SocketAddress;
 
 abstract class AbstractOioChannel extends AbstractChannel {
 
+    /** {@code true} if {@link #read()} has been requested but no data has been read yet. */
+    volatile boolean readPending;
+
     protected AbstractOioChannel(Channel parent, Integer id, ChannelBufferHolder<?> outboundBuffer) {
         super(parent, id, outboundBuffer);
     }
@@ -89,6 +92,19 @@ abstract class AbstractOioChannel extends AbstractChannel {
         return false;
     }
 
+    @Override
+    protected void doBeginRead() throws Exception {
+        readPending = true;
+    }
+
+    /**
+     * Returns {@code true} if the event loop must not read from this channel
+     * until {@link #read()} is requested or auto read is enabled again.
+     */
+    boolean isReadSuspended() {
+        return !readPending && !config().isAutoRead();
+    }
+
     protected abstract void doConnect(
             SocketAddress remoteAddress, SocketAddress localAddress) throws Exception;
 }
@@ -38,6 +38,7 @@ abstract class AbstractOioMessageChannel extends AbstractOioChannel {
                 int localReadAmount = doReadMessages(msgBuf);
                 if (localReadAmount > 0) {
                     read = true;
+                    recordRead(localReadAmount);
                 } else if (localReadAmount < 0) {
                     closed = true;
                 }
@@ -52,6 +53,7 @@ abstract class AbstractOioMessageChannel extends AbstractOioChannel {
                 }
             } finally {
                 if (read) {
+                    readPending = false;
                     pipeline.fireInboundBufferUpdated();
                 }
                 if (closed && isOpen()) {
@@ -4,13 +4,20 @@ import io.netty.buffer.ChannelBuffer;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelBufferHolder;
 import io.netty.channel.ChannelBufferHolders;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelType;
+import io.netty.channel.FileRegion;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
 
 abstract class AbstractOioStreamChannel extends AbstractOioChannel {
 
+    /** {@link FileRegion}s which were requested to be sent but have not been transferred yet. */
+    private Queue<PendingFileRegion> pendingFileRegions;
+
     protected AbstractOioStreamChannel(Channel parent, Integer id) {
         super(parent, id, ChannelBufferHolders.byteBuffer());
     }
@@ -39,6 +46,7 @@ abstract class AbstractOioStreamChannel extends AbstractOioChannel {
                 int localReadAmount = doReadBytes(byteBuf);
                 if (localReadAmount > 0) {
                     read = true;
+                    recordRead(localReadAmount);
                 } else if (localReadAmount < 0) {
                     closed = true;
                 }
@@ -53,6 +61,7 @@ abstract class AbstractOioStreamChannel extends AbstractOioChannel {
                 }
             } finally {
                 if (read) {
+                    readPending = false;
                     pipeline.fireInboundBufferUpdated();
                 }
                 if (closed && isOpen()) {
@@ -64,7 +73,74 @@ abstract class AbstractOioStreamChannel extends AbstractOioChannel {
 
     @Override
     protected void doFlush(ChannelBufferHolder<Object> buf) throws Exception {
-        flushByteBuf(buf.byteBuffer());
+        ChannelBuffer byteBuf = buf.byteBuffer();
+        Queue<PendingFileRegion> pendingFileRegions = this.pendingFileRegions;
+        if (pendingFileRegions != null) {
+            for (;;) {
+                PendingFileRegion r = pendingFileRegions.poll();
+                if (r == null) {
+                    break;
+                }
+
+                // Write the bytes which were written before the region first.
+                if (r.precedingBytes > 0) {
+                    doWriteBytes(byteBuf.readSlice((int) r.precedingBytes));
+                }
+                flushFileRegion(r.region, r.future);
+            }
+        }
+
+        flushByteBuf(byteBuf);
+    }
+
+    @Override
+    protected void doSendFile(FileRegion region, ChannelFuture future) throws Exception {
+        if (pendingFileRegions == null) {
+            pendingFileRegions = new ArrayDeque<PendingFileRegion>();
+        }
+
+        long precedingBytes = unsafe().directOutbound().byteBuffer().readableBytes();
+        for (PendingFileRegion r: pendingFileRegions) {
+            precedingBytes -= r.precedingBytes;
+        }
+        pendingFileRegions.add(new PendingFileRegion(region, future, precedingBytes));
+    }
+
+    @Override
+    protected void failPendingWrites(Throwable cause) {
+        Queue<PendingFileRegion> pendingFileRegions = this.pendingFileRegions;
+        if (pendingFileRegions == null) {
+            return;
+        }
+
+        for (;;) {
+            PendingFileRegion r = pendingFileRegions.poll();
+            if (r == null) {
+                break;
+            }
+            releaseFileRegion(r.region);
+            r.future.setFailure(cause);
+        }
+    }
+
+    private void flushFileRegion(FileRegion region, ChannelFuture future) throws Exception {
+        final long count = region.count();
+        long transferred = 0;
+        try {
+            while (transferred < count) {
+                long localTransferred = doWriteFileRegion(region, transferred);
+                transferred += localTransferred;
+                future.setProgress(localTransferred, transferred, count);
+            }
+        } catch (Exception e) {
+            releaseFileRegion(region);
+            future.setFailure(e);
+            throw e;
+        }
+
+        recordFileRegionWritten(region);
+        releaseFileRegion(region);
+        future.setSuccess();
     }
 
     private void flushByteBuf(ChannelBuffer buf) throws Exception {
@@ -77,6 +153,7 @@ abstract class AbstractOioStreamChannel extends AbstractOioChannel {
     protected abstract int available();
     protected abstract int doReadBytes(ChannelBuffer buf) throws Exception;
     protected abstract int doWriteBytes(ChannelBuffer buf) throws Exception;
+    protected abstract long doWriteFileRegion(FileRegion region, long position) throws Exception;
 
     private void expandReadBuffer(ChannelBuffer byteBuf) {
         int available = available();
@@ -87,4 +164,17 @@ abstract class AbstractOioStreamChannel extends AbstractOioChannel {
             byteBuf.ensureWritableBytes(4096);
         }
     }
+
+    private static final class PendingFileRegion {
+        final FileRegion region;
+        final ChannelFuture future;
+        /** the number of the outbound bytes which have to be written before the region */
+        final long precedingBytes;
+
+        PendingFileRegion(FileRegion region, ChannelFuture future, long precedingBytes) {
+            this.region = region;
+            this.future = future;
+            this.precedingBytes = precedingBytes;
+        }
+    }
 }
@@ -9,7 +9,8 @@ import io.netty.channel.SingleThreadEventLoop;
 class OioChildEventLoop extends SingleThreadEventLoop {
 
     private final OioEventLoop parent;
-    private AbstractOioChannel ch;
+    private volatile AbstractOioChannel ch;
+    private volatile OioSocketReader reader;
 
     OioChildEventLoop(OioEventLoop parent) {
         super(parent.threadFactory);
@@ -38,13 +39,38 @@ class OioChildEventLoop extends SingleThreadEventLoop {
                 Runnable task;
                 try {
                     task = takeTask();
-                    task.run();
+                    runTask(task);
                 } catch (InterruptedException e) {
                     // Waken up by interruptThread()
                 }
             } else {
+                // Clear the interrupt which might have been left by wakeup()
+                // while the channel was not active yet.
+                Thread.interrupted();
                 runAllTasks();
-                ch.unsafe().read();
+                if (parent.dedicatedReadThread && ch instanceof OioSocketChannel) {
+                    // Let the reader wait for the inbound data while waiting for a task.
+                    OioSocketReader reader = reader((OioSocketChannel) ch);
+                    if (reader != null && !ch.isReadSuspended()) {
+                        reader.resume();
+                    }
+                    try {
+                        Runnable task = takeTask();
+                        runTask(task);
+                    } catch (InterruptedException e) {
+                        // Waken up by interruptThread()
+                    }
+                } else if (ch.isReadSuspended()) {
+                    // Wait for a task such as a read request instead of reading.
+                    try {
+                        Runnable task = takeTask();
+                        runTask(task);
+                    } catch (InterruptedException e) {
+                        // Waken up by interruptThread()
+                    }
+                } else {
+                    ch.unsafe().read();
+                }
 
                 // Handle deregistration
                 if (!ch.isRegistered()) {
@@ -53,24 +79,74 @@ class OioChildEventLoop extends SingleThreadEventLoop {
                 }
             }
 
-            if (isShutdown()) {
-                if (ch != null) {
+            if (isShuttingDown()) {
+                // While shutting down gracefully, let the channel flush its pending outbound data
+                // and let the scheduled tasks due soon write to it.
+                if (ch != null && (isShutdown() ||
+                        ch.unsafe().directOutbound().size() == 0 && !hasScheduledTasksDueSoon())) {
                     ch.unsafe().close(ch.unsafe().voidFuture());
                 }
-                if (peekTask() == null) {
+                if (confirmShutdown()) {
                     break;
                 }
             }
         }
+
+        OioSocketReader reader = this.reader;
+        if (reader != null) {
+            this.reader = null;
+            reader.stop();
+        }
+    }
+
+    /**
+     * Returns the {@link OioSocketReader} of the specified channel, starting a
+     * new one if necessary, or {@code null} if it could not be started.
+     */
+    private OioSocketReader reader(OioSocketChannel ch) {
+        OioSocketReader reader = this.reader;
+        if (reader != null && reader.channel() == ch) {
+            return reader;
+        }
+
+        try {
+            ch.disableReadTimeout();
+        } catch (Throwable t) {
+            ch.pipeline().fireExceptionCaught(t);
+            ch.unsafe().close(ch.unsafe().voidFuture());
+            return null;
+        }
+
+        if (reader != null) {
+            reader.stop();
+        }
+        reader = new OioSocketReader(this, ch);
+        parent.threadFactory.newThread(reader).start();
+        this.reader = reader;
+        return reader;
     }
 
     @Override
     protected void wakeup(boolean inEventLoop) {
-        interruptThread();
+        // Interrupt only when the loop is blocked in takeTask().  An active channel picks up
+        // new tasks after its read timeout, and an interrupt would close an interruptible
+        // channel in use by the loop, such as the FileChannel of a FileRegion being sent.
+        // A suspended channel or a channel with a dedicated read thread picks up new tasks
+        // immediately and needs an interrupt only to notice the shutdown.
+        AbstractOioChannel ch = this.ch;
+        if (!inEventLoop && (ch == null || !ch.isActive() ||
+                isShuttingDown() && (ch.isReadSuspended() || reader != null))) {
+            interruptThread();
+        }
     }
 
     private void deregister() {
         ch = null;
+        OioSocketReader reader = this.reader;
+        if (reader != null) {
+            this.reader = null;
+            reader.stop();
+        }
         parent.activeChildren.remove(this);
         parent.idleChildren.add(this);
     }
@@ -83,7 +83,7 @@ public class OioDatagramChannel extends AbstractOioMessageChannel
         }
 
         this.socket = socket;
-        config = new DefaultDatagramChannelConfig(socket);
+        config = new DefaultDatagramChannelConfig(this, socket);
     }
 
     @Override
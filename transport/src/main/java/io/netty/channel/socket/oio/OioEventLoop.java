@@ -28,6 +28,7 @@ public class OioEventLoop implements EventLoop {
 
     private final int maxChannels;
     final ThreadFactory threadFactory;
+    final boolean dedicatedReadThread;
     final Set<OioChildEventLoop> activeChildren = Collections.newSetFromMap(
             new ConcurrentHashMap<OioChildEventLoop, Boolean>());
     final Queue<OioChildEventLoop> idleChildren = QueueFactory.createQueue();
@@ -48,6 +49,26 @@ public class OioEventLoop implements EventLoop {
     }
 
     public OioEventLoop(int maxChannels, ThreadFactory threadFactory) {
+        this(maxChannels, threadFactory, false);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxChannels
+     *        the maximum number of the channels, or {@code 0} for no limit
+     * @param threadFactory
+     *        the {@link ThreadFactory} which creates the threads of this event loop,
+     *        such as {@link #newVirtualThreadFactory()}
+     * @param dedicatedReadThread
+     *        {@code true} if a socket channel waits for its inbound data in a separate
+     *        thread created by {@code threadFactory}.  The socket is then read without
+     *        a read timeout, and a task submitted to the channel's event loop, such as
+     *        a write or a close request, is executed immediately instead of after the
+     *        current read times out.  It costs one more thread per socket channel, which
+     *        is affordable with virtual threads.
+     */
+    public OioEventLoop(int maxChannels, ThreadFactory threadFactory, boolean dedicatedReadThread) {
         if (maxChannels < 0) {
             throw new IllegalArgumentException(String.format(
                     "maxChannels: %d (expected: >= 0)", maxChannels));
@@ -58,11 +79,26 @@ public class OioEventLoop implements EventLoop {
 
         this.maxChannels = maxChannels;
         this.threadFactory = threadFactory;
+        this.dedicatedReadThread = dedicatedReadThread;
 
         tooManyChannels = new ChannelException("too many channels (max: " + maxChannels + ')');
         tooManyChannels.setStackTrace(new StackTraceElement[0]);
     }
 
+    /**
+     * Returns a new {@link ThreadFactory} which creates a virtual thread, or
+     * {@code null} if the current JVM does not support virtual threads (Java 21+).
+     */
+    public static ThreadFactory newVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                    .getMethod("factory").invoke(builder);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
     @Override
     public Unsafe unsafe() {
         return unsafe;
@@ -78,6 +114,16 @@ public class OioEventLoop implements EventLoop {
         }
     }
 
+    @Override
+    public void shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        for (EventLoop l: activeChildren) {
+            l.shutdownGracefully(quietPeriod, timeout, unit);
+        }
+        for (EventLoop l: idleChildren) {
+            l.shutdownGracefully(quietPeriod, timeout, unit);
+        }
+    }
+
     @Override
     public List<Runnable> shutdownNow() {
         for (EventLoop l: activeChildren) {
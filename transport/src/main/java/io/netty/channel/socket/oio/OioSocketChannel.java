@@ -18,6 +18,7 @@ package io.netty.channel.socket.oio;
 import io.netty.buffer.ChannelBuffer;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelException;
+import io.netty.channel.FileRegion;
 import io.netty.channel.socket.DefaultSocketChannelConfig;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.SocketChannelConfig;
@@ -30,7 +31,9 @@ import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketTimeoutException;
+import java.nio.channels.Channels;
 import java.nio.channels.NotYetConnectedException;
+import java.nio.channels.WritableByteChannel;
 
 public class OioSocketChannel extends AbstractOioStreamChannel
                               implements SocketChannel {
@@ -42,6 +45,15 @@ public class OioSocketChannel extends AbstractOioStreamChannel
     private final SocketChannelConfig config;
     private InputStream is;
     private OutputStream os;
+    private WritableByteChannel outChannel;
+
+    /**
+     * The first byte read by {@link #awaitInbound()}, {@code -1} on the end of
+     * the stream, or {@link #NO_PENDING_BYTE} if no read has been awaited.
+     */
+    private int pendingByte = NO_PENDING_BYTE;
+    private IOException pendingException;
+    private static final int NO_PENDING_BYTE = Integer.MIN_VALUE;
 
     public OioSocketChannel() {
         this(new Socket());
@@ -54,7 +66,7 @@ public class OioSocketChannel extends AbstractOioStreamChannel
     public OioSocketChannel(Channel parent, Integer id, Socket socket) {
         super(parent, id);
         this.socket = socket;
-        config = new DefaultSocketChannelConfig(socket);
+        config = new DefaultSocketChannelConfig(this, socket);
 
         boolean success = false;
         try {
@@ -146,11 +158,67 @@ public class OioSocketChannel extends AbstractOioStreamChannel
         }
     }
 
+    /**
+     * Disables the read timeout so that {@link #awaitInbound()} blocks until
+     * the socket becomes readable.
+     */
+    void disableReadTimeout() throws IOException {
+        socket.setSoTimeout(0);
+    }
+
+    /**
+     * Blocks until the socket becomes readable, the stream ends, or the read
+     * fails, and keeps the outcome for {@link #doReadBytes(ChannelBuffer)}.
+     * Called by an {@link OioSocketReader} while the event loop does not read
+     * from this channel.
+     *
+     * @return {@code false} if the channel has been closed or the stream has
+     *         ended, so that no more inbound data can be awaited
+     */
+    boolean awaitInbound() {
+        assert pendingByte == NO_PENDING_BYTE && pendingException == null;
+        int b;
+        try {
+            b = is.read();
+        } catch (IOException e) {
+            if (socket.isClosed()) {
+                return false;
+            }
+            pendingException = e;
+            return true;
+        }
+        pendingByte = b;
+        return b >= 0;
+    }
+
     @Override
     protected int doReadBytes(ChannelBuffer buf) throws Exception {
         if (socket.isClosed()) {
             return -1;
         }
+
+        IOException pendingException = this.pendingException;
+        if (pendingException != null) {
+            this.pendingException = null;
+            throw pendingException;
+        }
+
+        int pendingByte = this.pendingByte;
+        if (pendingByte != NO_PENDING_BYTE) {
+            // Awaited by OioSocketReader; read only what is available without blocking.
+            this.pendingByte = NO_PENDING_BYTE;
+            if (pendingByte < 0) {
+                return -1;
+            }
+
+            buf.writeByte(pendingByte);
+            int length = Math.min(available(), buf.writableBytes());
+            if (length > 0) {
+                length = buf.writeBytes(is, length);
+            }
+            return length > 0? length + 1 : 1;
+        }
+
         try {
             return buf.writeBytes(is, buf.writableBytes());
         } catch (SocketTimeoutException e) {
@@ -168,4 +236,16 @@ public class OioSocketChannel extends AbstractOioStreamChannel
         buf.readBytes(os, length);
         return length;
     }
+
+    @Override
+    protected long doWriteFileRegion(FileRegion region, long position) throws Exception {
+        OutputStream os = this.os;
+        if (os == null) {
+            throw new NotYetConnectedException();
+        }
+        if (outChannel == null) {
+            outChannel = Channels.newChannel(os);
+        }
+        return region.transferTo(outChannel, position);
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.socket.oio;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Waits for the inbound data of an {@link OioSocketChannel} in a dedicated
+ * thread, so that the {@link OioChildEventLoop} of the channel can block on
+ * its task queue instead of polling the socket with a read timeout.
+ * <p>
+ * Only one read is in progress at a time: the event loop requests a read with
+ * {@link #resume()}, the reader blocks until the socket becomes readable, and
+ * then hands the actual read over to the event loop.
+ */
+final class OioSocketReader implements Runnable {
+
+    private final OioChildEventLoop loop;
+    private final OioSocketChannel ch;
+    private final Semaphore permit = new Semaphore(0);
+    private final Runnable readTask = new Runnable() {
+        @Override
+        public void run() {
+            busy = false;
+            if (ch.isOpen() && ch.isRegistered() && ch.eventLoop() == loop) {
+                ch.unsafe().read();
+            }
+        }
+    };
+
+    /** {@code true} if the reader is waiting for data or a read has been handed over. */
+    private boolean busy;
+    private volatile boolean stopped;
+
+    OioSocketReader(OioChildEventLoop loop, OioSocketChannel ch) {
+        this.loop = loop;
+        this.ch = ch;
+    }
+
+    OioSocketChannel channel() {
+        return ch;
+    }
+
+    /**
+     * Lets the reader wait for the next inbound data unless it is doing so
+     * already.  Must be called by the event loop.
+     */
+    void resume() {
+        assert loop.inEventLoop();
+
+        if (!busy) {
+            busy = true;
+            permit.release();
+        }
+    }
+
+    /**
+     * Lets the reader thread exit once the channel has been deregistered.  A
+     * reader blocked on the socket exits when the socket is closed.
+     */
+    void stop() {
+        stopped = true;
+        permit.release();
+    }
+
+    @Override
+    public void run() {
+        try {
+            for (;;) {
+                permit.acquire();
+                if (stopped) {
+                    break;
+                }
+
+                boolean more = ch.awaitInbound();
+                if (!ch.isOpen()) {
+                    break;
+                }
+                loop.execute(readTask);
+                if (!more) {
+                    // The end of the stream - the read task closes the channel.
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Stop reading.
+        } catch (RejectedExecutionException e) {
+            // The event loop has been shut down.
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.bootstrap;
+
+import static org.junit.Assert.*;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelException;
+import io.netty.channel.ChannelInboundMessageHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventExecutor;
+import io.netty.channel.EventLoop;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalEventLoop;
+import io.netty.channel.local.LocalServerChannel;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChannelPoolTest {
+
+    private static final LocalAddress ADDRESS = new LocalAddress("channel-pool");
+
+    private final TestHandler handler = new TestHandler();
+    private ServerBootstrap sb;
+    private Channel serverChannel;
+    private EventLoop loop;
+
+    @Before
+    public void startServer() throws Exception {
+        sb = new ServerBootstrap();
+        sb.eventLoop(new LocalEventLoop(1), new LocalEventLoop(1))
+          .channel(new LocalServerChannel())
+          .localAddress(ADDRESS)
+          .childHandler(new ChannelInitializer<Channel>() {
+              @Override
+              public void initChannel(Channel ch) throws Exception {
+                  ch.pipeline().addLast(new ChannelInboundMessageHandlerAdapter<Object>());
+              }
+          });
+        serverChannel = sb.bind().sync().channel();
+        loop = new LocalEventLoop(2);
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        // Unbind the address before the next test binds it again.
+        serverChannel.close().sync();
+        sb.shutdown();
+        loop.shutdown();
+    }
+
+    @Test(timeout = 10000)
+    public void testReuse() throws Exception {
+        ChannelPool pool = new FixedChannelPool(loop, handler, ADDRESS, 2, 0, 0, TimeUnit.SECONDS);
+        Channel ch = pool.acquire(5, TimeUnit.SECONDS);
+        assertTrue(ch.isActive());
+        pool.release(ch);
+        assertEquals(1, pool.metrics().idleChannels());
+
+        assertSame(ch, pool.acquire(5, TimeUnit.SECONDS));
+        pool.release(ch);
+
+        ChannelPoolMetrics metrics = pool.metrics();
+        assertEquals(2, metrics.acquired());
+        assertEquals(1, metrics.reused());
+        assertEquals(1, metrics.created());
+        assertEquals(0.5, metrics.reuseRatio(), 0);
+
+        pool.close();
+        ch.closeFuture().sync();
+    }
+
+    @Test(timeout = 10000)
+    public void testPendingAcquire() throws Exception {
+        ChannelPool pool = new FixedChannelPool(loop, handler, ADDRESS, 1, 1, 200, TimeUnit.MILLISECONDS);
+        Channel ch = pool.acquire(5, TimeUnit.SECONDS);
+
+        QueueListener pending = new QueueListener();
+        pool.acquire(pending);
+        assertEquals(1, pool.metrics().pendingAcquires());
+
+        // Too many pending acquires
+        QueueListener rejected = new QueueListener();
+        pool.acquire(rejected);
+        assertTrue(rejected.poll() instanceof ChannelException);
+
+        // The pending acquire gets the released channel.
+        pool.release(ch);
+        assertSame(ch, pending.poll());
+        assertEquals(0, pool.metrics().pendingAcquires());
+
+        // Nothing is released this time.
+        QueueListener timedOut = new QueueListener();
+        long startTime = System.nanoTime();
+        pool.acquire(timedOut);
+        assertTrue(timedOut.poll() instanceof TimeoutException);
+        assertTrue(System.nanoTime() - startTime >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(1, pool.metrics().timeouts());
+        assertEquals(1, pool.metrics().rejected());
+
+        pool.release(ch);
+        pool.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testUnhealthyChannel() throws Exception {
+        ChannelPool pool = new FixedChannelPool(loop, handler, ADDRESS, 1, 0, 0, TimeUnit.SECONDS);
+        Channel ch = pool.acquire(5, TimeUnit.SECONDS);
+        pool.release(ch);
+
+        handler.healthy = false;
+        Channel ch2 = pool.acquire(5, TimeUnit.SECONDS);
+        assertNotSame(ch, ch2);
+        assertEquals(1, pool.metrics().unhealthy());
+        ch.closeFuture().sync();
+
+        // A closed channel is not pooled.
+        handler.healthy = true;
+        ch2.close().sync();
+        pool.release(ch2);
+        while (pool.metrics().openChannels() != 0) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, pool.metrics().idleChannels());
+        pool.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testElastic() throws Exception {
+        ChannelPool pool = new ElasticChannelPool(loop, handler, ADDRESS, 1, 5, TimeUnit.SECONDS);
+        Channel ch1 = pool.acquire(5, TimeUnit.SECONDS);
+        Channel ch2 = pool.acquire(5, TimeUnit.SECONDS);
+        Channel ch3 = pool.acquire(5, TimeUnit.SECONDS);
+        assertEquals(3, pool.metrics().openChannels());
+
+        pool.release(ch1);
+        pool.release(ch2);
+        pool.release(ch3);
+        ch2.closeFuture().sync();
+        ch3.closeFuture().sync();
+        while (pool.metrics().openChannels() != 1) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, pool.metrics().idleChannels());
+        assertSame(ch1, pool.acquire(5, TimeUnit.SECONDS));
+        pool.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testPreferCallerEventLoop() throws Exception {
+        final ChannelPool pool = new ElasticChannelPool(loop, handler, ADDRESS, 2, 5, TimeUnit.SECONDS);
+        final QueueListener listener = new QueueListener();
+        final EventExecutor child = loop.unsafe().nextChild();
+        for (int i = 0; i < 2; i ++) {
+            child.execute(new Runnable() {
+                @Override
+                public void run() {
+                    pool.acquire(listener);
+                }
+            });
+            Channel ch = (Channel) listener.poll();
+            assertSame(child, ch.eventLoop());
+            pool.release(ch);
+        }
+        assertEquals(1, pool.metrics().created());
+        pool.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReleaseUnknownChannel() {
+        new FixedChannelPool(loop, handler, ADDRESS, 1, 0, 0, TimeUnit.SECONDS).release(new LocalChannel());
+    }
+
+    private static final class TestHandler implements ChannelPoolHandler {
+        volatile boolean healthy = true;
+
+        @Override
+        public Channel newChannel() {
+            return new LocalChannel();
+        }
+
+        @Override
+        public void initChannel(Channel channel) throws Exception {
+            channel.pipeline().addLast(new ChannelInboundMessageHandlerAdapter<Object>());
+        }
+
+        @Override
+        public boolean isHealthy(Channel channel) {
+            return healthy;
+        }
+    }
+
+    private static final class QueueListener implements ChannelAcquireListener {
+        private final BlockingQueue<Object> results = new LinkedBlockingQueue<Object>();
+
+        Object poll() throws InterruptedException {
+            return results.poll(5, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void acquired(Channel channel) {
+            results.add(channel);
+        }
+
+        @Override
+        public void failed(Throwable cause) {
+            results.add(cause);
+        }
+    }
+}
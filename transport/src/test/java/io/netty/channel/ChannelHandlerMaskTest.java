@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import static io.netty.channel.ChannelHandlerMask.*;
+import static org.junit.Assert.*;
+import io.netty.channel.local.LocalChannel;
+
+import java.net.SocketAddress;
+
+import org.junit.Test;
+
+public class ChannelHandlerMaskTest {
+
+    @Test
+    public void testInboundAdapter() {
+        int flags = skipFlags(new ChannelInboundMessageHandlerAdapter<Object>() {
+            @Override
+            public void channelActive(ChannelInboundHandlerContext<Object> ctx) throws Exception {
+                ctx.fireChannelActive();
+            }
+        });
+
+        assertEquals(0, flags & MASK_CHANNEL_ACTIVE);
+        assertTrue((flags & MASK_CHANNEL_INACTIVE) != 0);
+        assertTrue((flags & MASK_EXCEPTION_CAUGHT) != 0);
+        assertTrue((flags & MASK_USER_EVENT_TRIGGERED) != 0);
+        assertEquals(0, flags & MASK_CLOSE);
+    }
+
+    @Test
+    public void testOutboundAdapter() {
+        int flags = skipFlags(new ChannelOutboundHandlerAdapter<Object>() {
+            @Override
+            public ChannelBufferHolder<Object> newOutboundBuffer(
+                    ChannelOutboundHandlerContext<Object> ctx) throws Exception {
+                return ChannelBufferHolders.messageBuffer();
+            }
+
+            @Override
+            public void connect(ChannelOutboundHandlerContext<Object> ctx, SocketAddress remoteAddress,
+                    SocketAddress localAddress, ChannelFuture future) throws Exception {
+                ctx.connect(remoteAddress, localAddress, future);
+            }
+        });
+
+        assertEquals(0, flags & MASK_CONNECT);
+        assertTrue((flags & MASK_BIND) != 0);
+        assertTrue((flags & MASK_CLOSE) != 0);
+        assertEquals(0, flags & MASK_CHANNEL_ACTIVE);
+    }
+
+    @Test
+    public void testNextInterestedContext() {
+        DefaultChannelPipeline pipeline = new DefaultChannelPipeline(new LocalChannel());
+        pipeline.addLast("forwarder", new ChannelInboundMessageHandlerAdapter<Object>());
+        pipeline.addLast("handler", new ChannelInboundMessageHandlerAdapter<Object>() {
+            @Override
+            public void userEventTriggered(ChannelInboundHandlerContext<Object> ctx, Object evt) throws Exception {
+                // Consume
+            }
+        });
+
+        DefaultChannelHandlerContext forwarder = (DefaultChannelHandlerContext) pipeline.context("forwarder");
+        assertSame(pipeline.context("handler"),
+                DefaultChannelPipeline.nextInboundContext(forwarder, MASK_USER_EVENT_TRIGGERED));
+        assertSame(forwarder, DefaultChannelPipeline.nextInboundContext(forwarder));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import static org.junit.Assert.*;
+import io.netty.channel.local.LocalChannel;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.Test;
+
+public class ChannelIdTest {
+
+    @Test
+    public void testAutoGeneratedIdsAreUniqueAcrossThreads() throws Exception {
+        final int nThreads = 4;
+        final int nChannels = 1000;
+        final ConcurrentMap<Integer, Boolean> ids = new ConcurrentHashMap<Integer, Boolean>();
+        Thread[] threads = new Thread[nThreads];
+        for (int i = 0; i < nThreads; i ++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < nChannels; j ++) {
+                        ids.put(new LocalChannel().id(), Boolean.TRUE);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread t: threads) {
+            t.join();
+        }
+
+        Set<Integer> idSet = ids.keySet();
+        assertEquals(nThreads * nChannels, idSet.size());
+        for (Integer id: idSet) {
+            assertTrue(id.intValue() < 0);
+        }
+    }
+
+    @Test
+    public void testUserSpecifiedId() {
+        Channel ch = new LocalChannel(42);
+        try {
+            assertEquals(Integer.valueOf(42), ch.id());
+        } finally {
+            AbstractChannel.allChannels.remove(ch.id());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeUserSpecifiedId() {
+        new LocalChannel(-1);
+    }
+
+    @Test
+    public void testDuplicateUserSpecifiedId() {
+        Channel ch = new LocalChannel(43);
+        try {
+            new LocalChannel(43);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        } finally {
+            AbstractChannel.allChannels.remove(ch.id());
+        }
+    }
+
+    @Test
+    public void testAutoGeneratedIdSkipsIdInUse() {
+        // The next ID of the current thread is one less than the last one,
+        // unless a new block is reserved.
+        Channel placeholder = new LocalChannel();
+        Channel ch = new LocalChannel();
+        Integer taken = Integer.valueOf(ch.id().intValue() - 1);
+        boolean reserved = AbstractChannel.allChannels.putIfAbsent(taken, placeholder) == null;
+        try {
+            assertFalse(taken.equals(new LocalChannel().id()));
+        } finally {
+            if (reserved) {
+                AbstractChannel.allChannels.remove(taken, placeholder);
+            }
+        }
+    }
+}
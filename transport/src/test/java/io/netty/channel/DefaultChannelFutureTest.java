@@ -0,0 +1,178 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import static org.junit.Assert.*;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalEventLoop;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class DefaultChannelFutureTest {
+
+    private static EventLoop loop;
+    private static Channel channel;
+
+    @BeforeClass
+    public static void init() {
+        loop = new LocalEventLoop();
+        channel = new LocalChannel();
+        loop.register(channel).syncUninterruptibly();
+    }
+
+    @AfterClass
+    public static void destroy() {
+        loop.shutdown();
+    }
+
+    @Test
+    public void testCompletesOnlyOnce() {
+        DefaultChannelFuture future = new DefaultChannelFuture(channel, true);
+        assertFalse(future.isDone());
+
+        Exception cause = new Exception();
+        assertTrue(future.setFailure(cause));
+        assertFalse(future.setSuccess());
+        assertFalse(future.cancel());
+        assertFalse(future.setProgress(1, 1, 1));
+
+        assertTrue(future.isDone());
+        assertFalse(future.isSuccess());
+        assertFalse(future.isCancelled());
+        assertSame(cause, future.cause());
+    }
+
+    @Test
+    public void testCancel() {
+        DefaultChannelFuture future = new DefaultChannelFuture(channel, true);
+        assertTrue(future.cancel());
+        assertTrue(future.isDone());
+        assertTrue(future.isCancelled());
+        assertFalse(future.isSuccess());
+        assertNull(future.cause());
+
+        assertFalse(new DefaultChannelFuture(channel, false).cancel());
+    }
+
+    @Test(timeout = 10000)
+    public void testListenersAreNotifiedOnce() throws Exception {
+        final int listeners = 1000;
+        final DefaultChannelFuture future = new DefaultChannelFuture(channel, false);
+        final AtomicInteger notified = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(listeners);
+        final ChannelFutureListener listener = new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture f) throws Exception {
+                assertSame(future, f);
+                notified.incrementAndGet();
+                latch.countDown();
+            }
+        };
+
+        // Add the listeners while completing the future concurrently.
+        Thread adder = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; i < listeners; i ++) {
+                    future.addListener(listener);
+                }
+            }
+        };
+        adder.start();
+        future.setSuccess();
+        adder.join();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(listeners, notified.get());
+    }
+
+    @Test
+    public void testRemoveListener() throws Exception {
+        final AtomicInteger notified = new AtomicInteger();
+        ChannelFutureListener listener = new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture f) throws Exception {
+                notified.incrementAndGet();
+            }
+        };
+
+        DefaultChannelFuture future = new DefaultChannelFuture(channel, false);
+        future.addListener(listener);
+        future.removeListener(listener);
+        future.setSuccess();
+
+        channel.eventLoop().submit(new Runnable() {
+            @Override
+            public void run() {
+                // NOOP
+            }
+        }).get();
+        assertEquals(0, notified.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testAwait() throws Exception {
+        final DefaultChannelFuture future = new DefaultChannelFuture(channel, false);
+        assertFalse(future.await(10));
+        assertFalse(future.awaitUninterruptibly(10, TimeUnit.MILLISECONDS));
+
+        final int waiters = 8;
+        final CountDownLatch done = new CountDownLatch(waiters);
+        for (int i = 0; i < waiters; i ++) {
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        future.await();
+                        if (future.isSuccess()) {
+                            done.countDown();
+                        }
+                    } catch (InterruptedException e) {
+                        // Fail
+                    }
+                }
+            }.start();
+        }
+
+        Thread.sleep(100);
+        future.setSuccess();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(future.await(0));
+    }
+
+    @Test(timeout = 10000)
+    public void testAwaitInterrupted() throws Exception {
+        DefaultChannelFuture future = new DefaultChannelFuture(channel, false);
+        Thread.currentThread().interrupt();
+        try {
+            future.await();
+            fail();
+        } catch (InterruptedException e) {
+            // Expected
+        }
+
+        Thread.currentThread().interrupt();
+        assertFalse(future.awaitUninterruptibly(10));
+        assertTrue(Thread.interrupted());
+    }
+}
@@ -18,6 +18,9 @@ package io.netty.channel;
 import static org.junit.Assert.*;
 import io.netty.channel.local.LocalChannel;
 
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
 import org.junit.Test;
 
 public class DefaultChannelPipelineTest {
@@ -46,6 +49,51 @@ public class DefaultChannelPipelineTest {
         assertTrue(pipeline.get("handler2") == newHandler2);
     }
 
+    @Test(timeout = 10000)
+    public void testLookupDoesNotAcquireLock() throws Exception {
+        final DefaultChannelPipeline pipeline = new DefaultChannelPipeline(new LocalChannel());
+        ChannelHandler handler1 = newHandler();
+        ChannelHandler handler2 = newHandler();
+        pipeline.addLast("handler1", handler1);
+        pipeline.addLast("handler2", handler2);
+
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch unlock = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                synchronized (pipeline) {
+                    locked.countDown();
+                    try {
+                        unlock.await();
+                    } catch (InterruptedException e) {
+                        // Ignore
+                    }
+                }
+            }
+        };
+        t.start();
+        locked.await();
+
+        try {
+            assertSame(handler1, pipeline.get("handler1"));
+            assertSame(handler2, pipeline.context("handler2").handler());
+            assertSame(handler1, pipeline.context(handler1).handler());
+            assertSame(handler1, pipeline.first());
+            assertSame(handler2, pipeline.last());
+            assertNull(pipeline.get("handler3"));
+            assertEquals(Arrays.asList("handler1", "handler2"), pipeline.names());
+        } finally {
+            unlock.countDown();
+            t.join();
+        }
+
+        pipeline.remove("handler1");
+        assertNull(pipeline.get("handler1"));
+        assertSame(handler2, pipeline.first());
+        assertEquals(Arrays.asList("handler2"), pipeline.names());
+    }
+
     private static ChannelHandler newHandler() {
         return new ChannelHandlerAdapter<Byte, Byte>() {
             @Override
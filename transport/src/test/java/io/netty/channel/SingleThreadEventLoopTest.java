@@ -6,6 +6,7 @@ import java.util.Queue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -243,6 +244,117 @@ public class SingleThreadEventLoopTest {
         assertEquals(NUM_TASKS, ranTasks.get());
     }
 
+    @Test
+    public void shutdownGracefullyBeforeStart() throws Exception {
+        loop.shutdownGracefully(1, 2, TimeUnit.SECONDS);
+        assertTrue(loop.isTerminated());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shutdownGracefullyWithTimeoutShorterThanQuietPeriod() throws Exception {
+        loop.shutdownGracefully(2, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(timeout = 10000)
+    public void shutdownGracefullyAfterQuietPeriod() throws Exception {
+        final AtomicInteger ranTasks = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                ranTasks.incrementAndGet();
+            }
+        };
+        loop.execute(task);
+
+        long startTime = System.nanoTime();
+        loop.shutdownGracefully(200, 5000, TimeUnit.MILLISECONDS);
+        assertTrue(loop.isShuttingDown());
+        assertFalse(loop.isShutdown());
+
+        // Tasks are still accepted during the quiet period.
+        loop.execute(task);
+        Thread.sleep(100);
+        loop.execute(task);
+
+        assertTrue(loop.awaitTermination(5, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - startTime;
+        assertEquals(3, ranTasks.get());
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(300));
+        assertTrue(elapsed < TimeUnit.MILLISECONDS.toNanos(5000));
+
+        try {
+            loop.execute(task);
+            fail();
+        } catch (RejectedExecutionException e) {
+            // Expected
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void shutdownGracefullyAfterTimeout() throws Exception {
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                // Do nothing.
+            }
+        };
+        loop.execute(task);
+
+        // Keep the loop busy so that the quiet period never passes.
+        Thread submitter = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (;;) {
+                        loop.execute(task);
+                        Thread.sleep(10);
+                    }
+                } catch (RejectedExecutionException e) {
+                    // Shut down
+                } catch (InterruptedException e) {
+                    // Ignore
+                }
+            }
+        };
+        submitter.start();
+
+        long startTime = System.nanoTime();
+        loop.shutdownGracefully(200, 500, TimeUnit.MILLISECONDS);
+        assertTrue(loop.awaitTermination(5, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - startTime;
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(500));
+        submitter.join();
+    }
+
+    @Test(timeout = 10000)
+    public void shutdownGracefullyRunsScheduledTasksDueInQuietPeriod() throws Exception {
+        final AtomicInteger ranTasks = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                ranTasks.incrementAndGet();
+            }
+        };
+        loop.execute(task);
+        ScheduledFuture<?> f1 = loop.schedule(task, 300, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> f2 = loop.schedule(task, 1, TimeUnit.DAYS);
+
+        long startTime = System.nanoTime();
+        loop.shutdownGracefully(500, 5000, TimeUnit.MILLISECONDS);
+        // A task scheduled while shutting down is not cancelled either.
+        ScheduledFuture<?> f3 = loop.schedule(task, 100, TimeUnit.MILLISECONDS);
+
+        assertTrue(loop.awaitTermination(5, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - startTime;
+        assertTrue(f1.isDone() && !f1.isCancelled());
+        assertTrue(f3.isDone() && !f3.isCancelled());
+        // The task due after the quiet period is cancelled on termination.
+        assertTrue(f2.isCancelled());
+        assertEquals(3, ranTasks.get());
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(800));
+        assertTrue(elapsed < TimeUnit.MILLISECONDS.toNanos(5000));
+    }
+
     private static class SingleThreadEventLoopImpl extends SingleThreadEventLoop {
 
         final AtomicInteger cleanedUp = new AtomicInteger();
@@ -262,7 +374,7 @@ public class SingleThreadEventLoopTest {
                     // Waken up by interruptThread()
                 }
 
-                if (isShutdown() && peekTask() == null) {
+                if (isShuttingDown() && confirmShutdown()) {
                     break;
                 }
             }
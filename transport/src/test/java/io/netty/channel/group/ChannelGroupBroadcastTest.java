@@ -0,0 +1,120 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.group;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ChannelBuffer;
+import io.netty.buffer.ChannelBuffers;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelInboundMessageHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalEventLoop;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.util.CharsetUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ChannelGroupBroadcastTest {
+
+    @Test
+    public void testEmptyGroup() {
+        ChannelGroupBroadcast broadcast = new DefaultChannelGroup().broadcastAndTrack("a");
+        assertTrue(broadcast.isDone());
+        assertTrue(broadcast.isCompleteSuccess());
+        assertEquals(0, broadcast.memberCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testBroadcast() throws Exception {
+        final int nClients = 8;
+        final ChannelGroup group = new DefaultChannelGroup();
+        final BlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+
+        ServerBootstrap sb = new ServerBootstrap();
+        sb.eventLoop(new LocalEventLoop(), new LocalEventLoop(2))
+          .channel(new LocalServerChannel())
+          .localAddress(new LocalAddress("group-broadcast"))
+          .childHandler(new ChannelInitializer<LocalChannel>() {
+              @Override
+              public void initChannel(LocalChannel ch) throws Exception {
+                  group.add(ch);
+              }
+          });
+
+        List<Bootstrap> clients = new ArrayList<Bootstrap>();
+        try {
+            sb.bind().sync();
+            for (int i = 0; i < nClients; i ++) {
+                Bootstrap cb = new Bootstrap();
+                clients.add(cb);
+                cb.eventLoop(new LocalEventLoop(1))
+                  .channel(new LocalChannel())
+                  .remoteAddress(new LocalAddress("group-broadcast"))
+                  .handler(new ChannelInboundMessageHandlerAdapter<Object>() {
+                      @Override
+                      public void messageReceived(ChannelInboundHandlerContext<Object> ctx, Object msg) {
+                          received.add(msg);
+                      }
+                  });
+                cb.connect().sync();
+            }
+            while (group.size() < nClients) {
+                Thread.sleep(10);
+            }
+
+            ChannelGroupBroadcast broadcast = group.broadcastAndTrack("a");
+            assertTrue(broadcast.await(5, TimeUnit.SECONDS));
+            assertEquals(nClients, broadcast.memberCount());
+            assertEquals(nClients, broadcast.successCount());
+            assertEquals(0, broadcast.failureCount());
+            for (int i = 0; i < nClients; i ++) {
+                assertEquals("a", received.poll(5, TimeUnit.SECONDS));
+            }
+
+            // All members share the content of a buffer.
+            ChannelBuffer buf = ChannelBuffers.copiedBuffer("b", CharsetUtil.US_ASCII);
+            broadcast = group.broadcastAndTrack(buf).awaitUninterruptibly();
+            assertTrue(broadcast.isCompleteSuccess());
+            assertEquals(0, buf.readerIndex());
+            for (int i = 0; i < nClients; i ++) {
+                ChannelBuffer m = (ChannelBuffer) received.poll(5, TimeUnit.SECONDS);
+                assertEquals("b", m.toString(CharsetUtil.US_ASCII));
+            }
+
+            // No future is created for each member unless the writes are tracked.
+            group.broadcast("c");
+            for (int i = 0; i < nClients; i ++) {
+                assertEquals("c", received.poll(5, TimeUnit.SECONDS));
+            }
+            assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+        } finally {
+            sb.shutdown();
+            for (Bootstrap cb: clients) {
+                cb.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.local;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelInboundMessageHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LocalChannelTest {
+
+    private static final LocalAddress ADDRESS = new LocalAddress("test.batch");
+
+    @Test(timeout = 10000)
+    public void testBurstOfFlushesIsHandedOverAtOnce() throws Exception {
+        final BlockingQueue<Channel> serverChannels = new LinkedBlockingQueue<Channel>();
+        final BlockingQueue<List<Object>> batches = new LinkedBlockingQueue<List<Object>>();
+
+        ServerBootstrap sb = new ServerBootstrap();
+        sb.eventLoop(new LocalEventLoop(), new LocalEventLoop())
+          .channel(new LocalServerChannel())
+          .localAddress(ADDRESS)
+          .childHandler(new ChannelInitializer<LocalChannel>() {
+              @Override
+              public void initChannel(LocalChannel ch) throws Exception {
+                  serverChannels.add(ch);
+                  ch.pipeline().addLast(new ChannelInboundMessageHandlerAdapter<Object>() {
+                      @Override
+                      public void inboundBufferUpdated(ChannelInboundHandlerContext<Object> ctx) {
+                          Queue<Object> in = ctx.inbound().messageBuffer();
+                          batches.add(new ArrayList<Object>(in));
+                          in.clear();
+                      }
+                  });
+              }
+          });
+
+        Bootstrap cb = new Bootstrap();
+        cb.eventLoop(new LocalEventLoop())
+          .channel(new LocalChannel())
+          .remoteAddress(ADDRESS)
+          .handler(new ChannelInboundMessageHandlerAdapter<Object>());
+
+        try {
+            sb.bind().sync();
+            final Channel cc = cb.connect().sync().channel();
+            Channel sc = serverChannels.poll(5, TimeUnit.SECONDS);
+
+            // Keep the server-side event loop busy until all flushes below have been made.
+            final CountDownLatch latch = new CountDownLatch(1);
+            sc.eventLoop().execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (;;) {
+                        try {
+                            latch.await();
+                            break;
+                        } catch (InterruptedException e) {
+                            // Waken up by a new task
+                        }
+                    }
+                }
+            });
+
+            cc.eventLoop().submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 100; i ++) {
+                        cc.write(Integer.valueOf(i));
+                    }
+                }
+            }).get();
+            latch.countDown();
+
+            List<Object> batch = batches.poll(5, TimeUnit.SECONDS);
+            assertNotNull(batch);
+            assertEquals(100, batch.size());
+            for (int i = 0; i < 100; i ++) {
+                assertEquals(Integer.valueOf(i), batch.get(i));
+            }
+            assertNull(batches.poll(100, TimeUnit.MILLISECONDS));
+        } finally {
+            cb.shutdown();
+            sb.shutdown();
+        }
+    }
+}
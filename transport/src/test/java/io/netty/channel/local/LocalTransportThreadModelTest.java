@@ -7,18 +7,23 @@ import io.netty.channel.ChannelBufferHolder;
 import io.netty.channel.ChannelBufferHolders;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerContext;
 import io.netty.channel.ChannelInboundMessageHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelOutboundHandlerContext;
 import io.netty.channel.DefaultEventExecutor;
 import io.netty.channel.EventExecutor;
 import io.netty.channel.EventLoop;
 import io.netty.util.internal.QueueFactory;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
@@ -312,6 +317,52 @@ public class LocalTransportThreadModelTest {
         }
     }
 
+    @Test(timeout = 10000)
+    public void testBridgedFlushes() throws Throwable {
+        EventLoop l = new LocalEventLoop(1, new PrefixThreadFactory("l"));
+        EventExecutor e1 = new DefaultEventExecutor(1, new PrefixThreadFactory("e1"));
+
+        try {
+            final FlushRecorder h1 = new FlushRecorder();
+            final FlushRecorder h2 = new FlushRecorder();
+
+            Channel ch = new LocalChannel();
+            ch.pipeline().addLast(h1).addLast(e1, h2);
+
+            l.register(ch).sync().channel().connect(ADDR).sync();
+
+            // Flush every message separately from 'e1' so that 'h1' receives them via the bridge.
+            final int COUNT = 8192;
+            final ChannelHandlerContext ctx = ch.pipeline().context(h2);
+            List<ChannelFuture> futures = ctx.executor().submit(new Callable<List<ChannelFuture>>() {
+                @Override
+                public List<ChannelFuture> call() {
+                    List<ChannelFuture> futures = new ArrayList<ChannelFuture>();
+                    for (int i = 0; i < COUNT; i ++) {
+                        ctx.nextOutboundMessageBuffer().add(Integer.valueOf(i));
+                        futures.add(ctx.flush());
+                    }
+                    return futures;
+                }
+            }).get();
+
+            for (ChannelFuture f: futures) {
+                f.sync();
+            }
+            if (h1.exception.get() != null) {
+                throw h1.exception.get();
+            }
+            Assert.assertEquals(COUNT, h1.outCnt);
+
+            ch.close().sync();
+        } finally {
+            l.shutdown();
+            e1.shutdown();
+            l.awaitTermination(5, TimeUnit.SECONDS);
+            e1.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
     private static class ThreadNameAuditor extends ChannelHandlerAdapter<Object, Object> {
 
         private final AtomicReference<Throwable> exception = new AtomicReference<Throwable>();
@@ -691,4 +742,36 @@ public class LocalTransportThreadModelTest {
             return t;
         }
     }
+
+    private static class FlushRecorder extends ChannelOutboundHandlerAdapter<Object> {
+
+        private final AtomicReference<Throwable> exception = new AtomicReference<Throwable>();
+        private volatile int outCnt;
+
+        @Override
+        public ChannelBufferHolder<Object> newOutboundBuffer(
+                ChannelOutboundHandlerContext<Object> ctx) throws Exception {
+            return ChannelBufferHolders.messageBuffer();
+        }
+
+        @Override
+        public void flush(ChannelOutboundHandlerContext<Object> ctx, ChannelFuture future) throws Exception {
+            Queue<Object> out = ctx.outbound().messageBuffer();
+            Queue<Object> nextOut = ctx.nextOutboundMessageBuffer();
+            for (;;) {
+                Object msg = out.poll();
+                if (msg == null) {
+                    break;
+                }
+
+                // The messages should arrive in order.
+                if (!Integer.valueOf(outCnt).equals(msg)) {
+                    exception.compareAndSet(null, new AssertionError("expected: " + outCnt + ", actual: " + msg));
+                }
+                outCnt ++;
+                nextOut.add(msg);
+            }
+            ctx.flush(future);
+        }
+    }
 }
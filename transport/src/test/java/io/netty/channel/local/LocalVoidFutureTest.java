@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.local;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelInboundMessageHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LocalVoidFutureTest {
+
+    @Test(timeout = 10000)
+    public void testVoidFutureWrite() throws Exception {
+        final BlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+        final BlockingQueue<Throwable> exceptions = new LinkedBlockingQueue<Throwable>();
+
+        ServerBootstrap sb = new ServerBootstrap();
+        sb.eventLoop(new LocalEventLoop(), new LocalEventLoop())
+          .channel(new LocalServerChannel())
+          .localAddress(new LocalAddress("void-future"))
+          .childHandler(new ChannelInitializer<LocalChannel>() {
+              @Override
+              public void initChannel(LocalChannel ch) throws Exception {
+                  ch.pipeline().addLast(new ChannelInboundMessageHandlerAdapter<Object>() {
+                      @Override
+                      public void messageReceived(ChannelInboundHandlerContext<Object> ctx, Object msg) {
+                          received.add(msg);
+                      }
+                  });
+              }
+          });
+
+        Bootstrap cb = new Bootstrap();
+        cb.eventLoop(new LocalEventLoop())
+          .channel(new LocalChannel())
+          .remoteAddress(new LocalAddress("void-future"))
+          .handler(new ChannelInboundMessageHandlerAdapter<Object>() {
+              @Override
+              public void exceptionCaught(ChannelInboundHandlerContext<Object> ctx, Throwable cause) {
+                  exceptions.add(cause);
+              }
+          });
+
+        try {
+            sb.bind().sync();
+            Channel cc = cb.connect().sync().channel();
+
+            assertSame(cc.voidFuture(), cc.write("a", cc.voidFuture()));
+            assertSame(cc.voidFuture(), cc.write("b", cc.voidFuture()));
+            assertEquals("a", received.poll(5, TimeUnit.SECONDS));
+            assertEquals("b", received.poll(5, TimeUnit.SECONDS));
+
+            // A failed write is notified via exceptionCaught.
+            cc.close().sync();
+            cc.write("c", cc.voidFuture());
+            assertTrue(exceptions.poll(5, TimeUnit.SECONDS) instanceof ClosedChannelException);
+            assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+        } finally {
+            sb.shutdown();
+            cb.shutdown();
+        }
+    }
+}
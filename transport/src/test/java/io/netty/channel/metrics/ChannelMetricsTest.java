@@ -0,0 +1,203 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.metrics;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ChannelBuffer;
+import io.netty.channel.AbstractChannel;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelInboundMessageHandlerAdapter;
+import io.netty.channel.ChannelInboundStreamHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalEventLoop;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioEventLoop;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.socket.oio.OioEventLoop;
+import io.netty.channel.socket.oio.OioServerSocketChannel;
+import io.netty.channel.socket.oio.OioSocketChannel;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class ChannelMetricsTest {
+
+    @Test
+    public void testDisabledByDefault() {
+        assertFalse(ChannelMetricsRegistry.isEnabled());
+        assertNull(new LocalChannel().metrics());
+    }
+
+    @Test(timeout = 10000)
+    public void testMetrics() throws Exception {
+        final BlockingQueue<Channel> children = new LinkedBlockingQueue<Channel>();
+        final BlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+
+        ServerBootstrap sb = new ServerBootstrap();
+        sb.eventLoop(new LocalEventLoop(1), new LocalEventLoop(1))
+          .channel(new LocalServerChannel())
+          .localAddress(new LocalAddress("channel-metrics"))
+          .childHandler(new ChannelInitializer<LocalChannel>() {
+              @Override
+              public void initChannel(LocalChannel ch) throws Exception {
+                  children.add(ch);
+                  ch.pipeline().addLast(new ChannelInboundMessageHandlerAdapter<Object>() {
+                      @Override
+                      public void messageReceived(ChannelInboundHandlerContext<Object> ctx, Object msg) {
+                          received.add(msg);
+                      }
+                  });
+              }
+          });
+
+        Bootstrap cb = new Bootstrap();
+        cb.eventLoop(new LocalEventLoop(1))
+          .channel(new LocalChannel())
+          .remoteAddress(new LocalAddress("channel-metrics"))
+          .handler(new ChannelInboundMessageHandlerAdapter<Object>());
+
+        ChannelMetricsRegistry.setEnabled(true);
+        try {
+            Channel sc = sb.bind().sync().channel();
+            Channel cc = cb.connect().sync().channel();
+            Channel child = children.poll(5, TimeUnit.SECONDS);
+
+            cc.write("a");
+            cc.write("b").sync();
+            assertEquals("a", received.poll(5, TimeUnit.SECONDS));
+            assertEquals("b", received.poll(5, TimeUnit.SECONDS));
+
+            ChannelMetrics clientMetrics = ((AbstractChannel) cc).metrics();
+            assertEquals(2, clientMetrics.messagesWritten());
+            assertTrue(clientMetrics.flushes() >= 2);
+            assertTrue(clientMetrics.lastWriteTimeMillis() > 0);
+
+            // The child may still be draining its inbound queue in its own loop.
+            ChannelMetrics childMetrics = ((AbstractChannel) child).metrics();
+            assertEquals(2, childMetrics.messagesRead());
+            assertTrue(childMetrics.lastReadTimeMillis() > 0);
+
+            ChannelMetricsGroup childGroup = ((AbstractChannel) sc).metrics().childGroup();
+            assertEquals(1, childGroup.getChannelCount());
+            assertEquals(2, childGroup.getMessagesRead());
+            assertEquals(1, childGroup.busiestChannels(10).length);
+
+            ChannelMetricsGroup loopGroup = ChannelMetricsRegistry.group(cc.eventLoop());
+            assertEquals(2, loopGroup.getMessagesWritten());
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName childGroupName = new ObjectName(childGroup.getName());
+            assertEquals(2L, server.getAttribute(childGroupName, "MessagesRead"));
+
+            // The counters of a closed channel remain in the totals.
+            cc.close().sync();
+            child.closeFuture().sync();
+            while (childGroup.getChannelCount() != 0) {
+                // Removed by a close future listener, which may run after sync() returns.
+                Thread.sleep(10);
+            }
+            assertEquals(2, childGroup.getMessagesRead());
+
+            sc.close().sync();
+            while (server.isRegistered(childGroupName)) {
+                Thread.sleep(10);
+            }
+        } finally {
+            ChannelMetricsRegistry.setEnabled(false);
+            sb.shutdown();
+            cb.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testFileRegionMetrics() throws Exception {
+        testFileRegionMetrics(
+                new ServerBootstrap().eventLoop(new NioEventLoop(1), new NioEventLoop(1)).
+                        channel(new NioServerSocketChannel()),
+                new Bootstrap().eventLoop(new NioEventLoop(1)).channel(new NioSocketChannel()));
+        testFileRegionMetrics(
+                new ServerBootstrap().eventLoop(new OioEventLoop(), new OioEventLoop()).
+                        channel(new OioServerSocketChannel()),
+                new Bootstrap().eventLoop(new OioEventLoop()).channel(new OioSocketChannel()));
+    }
+
+    private static void testFileRegionMetrics(ServerBootstrap sb, Bootstrap cb) throws Exception {
+        final byte[] data = new byte[65536];
+        File file = File.createTempFile("netty-", ".tmp");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(data);
+        out.close();
+
+        final AtomicInteger received = new AtomicInteger();
+        sb.localAddress(new InetSocketAddress("127.0.0.1", 0))
+          .childHandler(new ChannelInitializer<SocketChannel>() {
+              @Override
+              public void initChannel(SocketChannel ch) throws Exception {
+                  ch.pipeline().addLast(new ChannelInboundStreamHandlerAdapter() {
+                      @Override
+                      public void inboundBufferUpdated(ChannelInboundHandlerContext<Byte> ctx, ChannelBuffer in) {
+                          received.addAndGet(in.readableBytes());
+                          in.skipBytes(in.readableBytes());
+                      }
+                  });
+              }
+          });
+        cb.handler(new ChannelInboundStreamHandlerAdapter());
+
+        ChannelMetricsRegistry.setEnabled(true);
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            Channel sc = sb.bind().sync().channel();
+            Channel cc = cb.remoteAddress(sc.localAddress()).connect().sync().channel();
+
+            cc.sendFile(new DefaultFileRegion(raf.getChannel(), 0, data.length)).sync();
+            ChannelMetrics metrics = ((AbstractChannel) cc).metrics();
+            assertEquals(data.length, metrics.bytesWritten());
+            assertTrue(metrics.lastWriteTimeMillis() > 0);
+
+            while (received.get() < data.length) {
+                Thread.sleep(10);
+            }
+            cc.close().sync();
+        } finally {
+            raf.close();
+            ChannelMetricsRegistry.setEnabled(false);
+            sb.shutdown();
+            cb.shutdown();
+        }
+    }
+}
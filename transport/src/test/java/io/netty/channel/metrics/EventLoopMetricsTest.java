@@ -0,0 +1,97 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.metrics;
+
+import static org.junit.Assert.*;
+import io.netty.channel.EventLoop;
+import io.netty.channel.SingleThreadEventExecutor;
+import io.netty.channel.socket.nio.NioEventLoop;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.Test;
+
+public class EventLoopMetricsTest {
+
+    @Test
+    public void testDisabledByDefault() {
+        EventLoop loop = new NioEventLoop(1);
+        try {
+            assertNull(((SingleThreadEventExecutor) loop.unsafe().nextChild()).metrics());
+        } finally {
+            loop.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testMetrics() throws Exception {
+        EventLoop loop;
+        ChannelMetricsRegistry.setEnabled(true);
+        try {
+            loop = new NioEventLoop(1);
+        } finally {
+            ChannelMetricsRegistry.setEnabled(false);
+        }
+
+        SingleThreadEventExecutor child = (SingleThreadEventExecutor) loop.unsafe().nextChild();
+        EventLoopMetrics metrics = child.metrics();
+        assertNotNull(metrics);
+
+        try {
+            final CountDownLatch latch = new CountDownLatch(101);
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            };
+            for (int i = 0; i < 100; i ++) {
+                child.execute(task);
+            }
+            child.schedule(task, 20, TimeUnit.MILLISECONDS);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+            assertEquals(100, metrics.taskDelay().count());
+            assertEquals(1, metrics.scheduledTaskLateness().count());
+            while (metrics.getPendingTasks() != 0 || metrics.taskTime().count() == 0) {
+                Thread.sleep(10);
+            }
+            assertTrue(metrics.taskQueueDepth().count() > 0);
+            assertTrue(metrics.taskQueueDepth().max() > 0);
+            assertTrue(metrics.selectTime().count() > 0);
+            assertTrue(metrics.selectedKeys().count() > 0);
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(
+                    "io.netty:type=EventLoopStats,name=" + ObjectName.quote(metrics.getName()));
+            assertTrue(server.isRegistered(name));
+            CompositeData taskDelay = (CompositeData) server.getAttribute(name, "TaskDelay");
+            assertEquals(100L, taskDelay.get("count"));
+
+            loop.shutdown();
+            assertTrue(loop.awaitTermination(5, TimeUnit.SECONDS));
+            assertFalse(server.isRegistered(name));
+        } finally {
+            loop.shutdown();
+        }
+    }
+}
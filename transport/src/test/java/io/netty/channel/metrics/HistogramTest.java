@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+    @Test
+    public void testEmpty() {
+        Histogram h = new Histogram("empty");
+        assertEquals(0, h.count());
+        assertEquals(0, h.max());
+        assertEquals(0, h.percentile(99), 0);
+        assertEquals(0, h.mean(), 0);
+    }
+
+    @Test
+    public void testBuckets() {
+        assertEquals(0, Histogram.upperBound(0));
+        assertEquals(1, Histogram.upperBound(1));
+        assertEquals(3, Histogram.upperBound(2));
+        assertEquals(1023, Histogram.upperBound(10));
+        assertEquals(Long.MAX_VALUE, Histogram.upperBound(63));
+
+        Histogram h = new Histogram("buckets");
+        h.record(0);
+        h.record(-1);
+        h.record(1);
+        h.record(1000);
+        h.record(Long.MAX_VALUE);
+
+        long[] counts = h.bucketCounts();
+        assertEquals(2, counts[0]);
+        assertEquals(1, counts[1]);
+        assertEquals(1, counts[10]);
+        assertEquals(1, counts[63]);
+        assertEquals(Long.MAX_VALUE, h.max());
+    }
+
+    @Test
+    public void testPercentiles() {
+        Histogram h = new Histogram("percentiles");
+        for (int i = 0; i < 99; i ++) {
+            h.record(100);
+        }
+        h.record(5000);
+
+        assertEquals(100, h.count());
+        assertEquals(149, h.mean(), 0.001);
+        assertEquals(127, h.percentile(50));
+        assertEquals(127, h.percentile(99));
+        assertEquals(5000, h.percentile(99.9));
+        assertEquals(5000, h.percentile(100));
+
+        HistogramSnapshot snapshot = h.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(127, snapshot.getP90());
+        assertEquals(5000, snapshot.getMax());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        new Histogram("invalid").percentile(101);
+    }
+}
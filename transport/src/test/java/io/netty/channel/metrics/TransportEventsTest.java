@@ -0,0 +1,252 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.metrics;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelInboundMessageHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventExecutor;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalEventLoop;
+import io.netty.channel.local.LocalServerChannel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TransportEventsTest {
+
+    @After
+    public void reset() {
+        TransportEvents.setListener(null);
+        TransportEvents.disable(TransportEventType.values());
+        TransportEvents.setHandlerThreshold(1, TimeUnit.MILLISECONDS);
+        TransportEvents.setLongTaskThreshold(10, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testEnabledOnlyWithListener() {
+        assertFalse(TransportEvents.isEnabled(TransportEventType.FLUSH));
+        TransportEvents.enable(TransportEventType.FLUSH);
+        assertFalse(TransportEvents.isEnabled(TransportEventType.FLUSH));
+
+        TransportEvents.setListener(new RecordingListener());
+        assertTrue(TransportEvents.isEnabled(TransportEventType.FLUSH));
+        assertFalse(TransportEvents.isEnabled(TransportEventType.LONG_TASK));
+
+        TransportEvents.disable(TransportEventType.FLUSH);
+        assertFalse(TransportEvents.isEnabled(TransportEventType.FLUSH));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeThreshold() {
+        TransportEvents.setHandlerThreshold(-1, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(timeout = 10000)
+    public void testEvents() throws Exception {
+        final BlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+        RecordingListener listener = new RecordingListener();
+        TransportEvents.setListener(listener);
+        TransportEvents.enable(TransportEventType.values());
+        TransportEvents.setHandlerThreshold(0, TimeUnit.NANOSECONDS);
+        TransportEvents.setLongTaskThreshold(0, TimeUnit.NANOSECONDS);
+
+        ServerBootstrap sb = new ServerBootstrap();
+        sb.eventLoop(new LocalEventLoop(1), new LocalEventLoop(1))
+          .channel(new LocalServerChannel())
+          .localAddress(new LocalAddress("transport-events"))
+          .childHandler(new ChannelInitializer<LocalChannel>() {
+              @Override
+              public void initChannel(LocalChannel ch) throws Exception {
+                  ch.pipeline().addLast(new ChannelInboundMessageHandlerAdapter<Object>() {
+                      @Override
+                      public void messageReceived(ChannelInboundHandlerContext<Object> ctx, Object msg) {
+                          received.add(msg);
+                      }
+                  });
+              }
+          });
+
+        Bootstrap cb = new Bootstrap();
+        cb.eventLoop(new LocalEventLoop(1))
+          .channel(new LocalChannel())
+          .remoteAddress(new LocalAddress("transport-events"))
+          .handler(new ChannelInboundMessageHandlerAdapter<Object>());
+
+        try {
+            sb.bind().sync();
+            Channel cc = cb.connect().sync().channel();
+            cc.write("a").sync();
+            assertEquals("a", received.poll(5, TimeUnit.SECONDS));
+            cc.close().sync();
+
+            assertTrue(listener.await(cc, "registered"));
+            assertTrue(listener.await(cc, "active"));
+            assertTrue(listener.await(cc, "flushed 1 0"));
+            assertTrue(listener.await(cc, "handler flush"));
+            assertTrue(listener.await(cc, "inactive"));
+            assertTrue(listener.await(null, "handler inboundBufferUpdated"));
+            assertTrue(listener.await(null, "task"));
+        } finally {
+            sb.shutdown();
+            cb.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testHandlerDurationExcludesNextHandler() throws Exception {
+        final BlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+        RecordingListener listener = new RecordingListener();
+        TransportEvents.setListener(listener);
+        TransportEvents.enable(TransportEventType.HANDLER_INVOCATION);
+        TransportEvents.setHandlerThreshold(0, TimeUnit.NANOSECONDS);
+
+        ServerBootstrap sb = new ServerBootstrap();
+        sb.eventLoop(new LocalEventLoop(1), new LocalEventLoop(1))
+          .channel(new LocalServerChannel())
+          .localAddress(new LocalAddress("transport-events-nested"))
+          .childHandler(new ChannelInitializer<LocalChannel>() {
+              @Override
+              public void initChannel(LocalChannel ch) throws Exception {
+                  ch.pipeline().addLast("first", new ChannelInboundMessageHandlerAdapter<Object>());
+                  ch.pipeline().addLast("last", new ChannelInboundMessageHandlerAdapter<Object>() {
+                      @Override
+                      public void messageReceived(ChannelInboundHandlerContext<Object> ctx, Object msg) {
+                          // Spin instead of sleeping, because a wakeup of the event loop interrupts it.
+                          long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+                          while (System.nanoTime() < deadline) {
+                              continue;
+                          }
+                          received.add(msg);
+                      }
+                  });
+              }
+          });
+
+        Bootstrap cb = new Bootstrap();
+        cb.eventLoop(new LocalEventLoop(1))
+          .channel(new LocalChannel())
+          .remoteAddress(new LocalAddress("transport-events-nested"))
+          .handler(new ChannelInboundMessageHandlerAdapter<Object>());
+
+        try {
+            sb.bind().sync();
+            Channel cc = cb.connect().sync().channel();
+            cc.write("a").sync();
+            assertEquals("a", received.poll(5, TimeUnit.SECONDS));
+            // The first handler is reported after the last one it passed the message to.
+            while (listener.maxDuration("first") < 0) {
+                Thread.sleep(10);
+            }
+            assertTrue(listener.maxDuration("last") >= TimeUnit.MILLISECONDS.toNanos(100));
+            assertTrue(listener.maxDuration("first") < TimeUnit.MILLISECONDS.toNanos(100));
+        } finally {
+            sb.shutdown();
+            cb.shutdown();
+        }
+    }
+
+    private static final class RecordingListener implements TransportEventListener {
+        private final List<Object[]> events = new ArrayList<Object[]>();
+        private final ConcurrentMap<String, Long> maxDurations = new ConcurrentHashMap<String, Long>();
+
+        /**
+         * Returns the longest duration of the invocations of the handler with the specified name.
+         */
+        long maxDuration(String name) {
+            Long duration = maxDurations.get(name);
+            return duration != null? duration : -1;
+        }
+
+        /**
+         * Waits until an event of the specified name is recorded for the
+         * specified channel ({@code null} for any).
+         */
+        boolean await(Channel channel, String name) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            synchronized (events) {
+                for (;;) {
+                    for (Object[] e: events) {
+                        if (name.equals(e[1]) && (channel == null || e[0] == channel)) {
+                            return true;
+                        }
+                    }
+                    long waitMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (waitMillis <= 0) {
+                        return false;
+                    }
+                    events.wait(waitMillis);
+                }
+            }
+        }
+
+        private void add(Channel channel, String event) {
+            synchronized (events) {
+                events.add(new Object[] { channel, event });
+                events.notifyAll();
+            }
+        }
+
+        @Override
+        public void handlerInvoked(ChannelHandlerContext ctx, String event, long durationNanos) {
+            assertTrue(durationNanos >= 0);
+            Long max = maxDurations.get(ctx.name());
+            if (max == null || max < durationNanos) {
+                maxDurations.put(ctx.name(), durationNanos);
+            }
+            add(ctx.channel(), "handler " + event);
+        }
+
+        @Override
+        public void channelRegistered(Channel channel) {
+            add(channel, "registered");
+        }
+
+        @Override
+        public void channelActive(Channel channel) {
+            add(channel, "active");
+        }
+
+        @Override
+        public void channelInactive(Channel channel) {
+            add(channel, "inactive");
+        }
+
+        @Override
+        public void flushed(Channel channel, int written, int pending, long durationNanos) {
+            add(channel, "flushed " + written + ' ' + pending);
+        }
+
+        @Override
+        public void longTaskExecuted(EventExecutor executor, Runnable task, long durationNanos) {
+            add(null, "task");
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ChannelBuffer;
+import io.netty.buffer.ChannelBuffers;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelInboundStreamHandlerAdapter;
+import io.netty.logging.InternalLogger;
+import io.netty.logging.InternalLoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class ShmTransportTest {
+
+    private static final InternalLogger logger =
+            InternalLoggerFactory.getInstance(ShmTransportTest.class);
+
+    private static final Random random = new Random();
+    static final byte[] data = new byte[1048576];
+
+    static {
+        // Use a fixed seed so that a forked peer has the same data.
+        new Random(0x4E53484DL).nextBytes(data);
+    }
+
+    @Test
+    public void testSimpleEcho() throws Throwable {
+        if (!ShmRegion.isSupported()) {
+            logger.info("sun.misc.Unsafe is not available; skipping.");
+            return;
+        }
+
+        File file = File.createTempFile("netty-", ".shm");
+        file.deleteOnExit();
+        ShmAddress addr = new ShmAddress(file.getPath());
+
+        // Use a small ring so that the data wraps around many times.
+        ServerBootstrap sb = new ServerBootstrap().
+                eventLoop(new ShmEventLoop(), new ShmEventLoop()).
+                channel(new ShmServerChannel(null, 4096)).
+                localAddress(addr);
+        try {
+            // The file accepts a new connection once the previous one is closed.
+            for (int i = 0; i < 2; i ++) {
+                Bootstrap cb = new Bootstrap().
+                        eventLoop(new ShmEventLoop()).
+                        channel(new ShmChannel()).
+                        remoteAddress(addr);
+                try {
+                    testSimpleEcho(sb, cb, i == 0);
+                } finally {
+                    cb.shutdown();
+                }
+            }
+        } finally {
+            sb.shutdown();
+        }
+    }
+
+    @Test
+    public void testConnectionRefused() throws Throwable {
+        if (!ShmRegion.isSupported()) {
+            logger.info("sun.misc.Unsafe is not available; skipping.");
+            return;
+        }
+
+        File file = File.createTempFile("netty-", ".shm");
+        file.delete();
+
+        Bootstrap cb = new Bootstrap().
+                eventLoop(new ShmEventLoop()).
+                channel(new ShmChannel()).
+                handler(new EchoHandler()).
+                remoteAddress(new ShmAddress(file.getPath()));
+        try {
+            Throwable cause = cb.connect().awaitUninterruptibly().cause();
+            assertTrue(cause instanceof ConnectException);
+        } finally {
+            cb.shutdown();
+        }
+    }
+
+    @Test
+    public void testSimpleEchoWithForkedClient() throws Throwable {
+        if (!ShmRegion.isSupported()) {
+            logger.info("sun.misc.Unsafe is not available; skipping.");
+            return;
+        }
+
+        File file = File.createTempFile("netty-", ".shm");
+        file.deleteOnExit();
+
+        EchoHandler sh = new EchoHandler();
+        ServerBootstrap sb = new ServerBootstrap().
+                eventLoop(new ShmEventLoop(), new ShmEventLoop()).
+                channel(new ShmServerChannel(null, 4096)).
+                localAddress(new ShmAddress(file.getPath())).
+                childHandler(sh);
+        try {
+            sb.bind().sync();
+            assertEquals(0, fork(file, false));
+
+            sh.channel.closeFuture().sync();
+            if (sh.exception.get() != null) {
+                throw sh.exception.get();
+            }
+            assertEquals(data.length, sh.counter);
+        } finally {
+            sb.shutdown();
+        }
+    }
+
+    @Test
+    public void testForkedClientCrash() throws Throwable {
+        if (!ShmRegion.isSupported()) {
+            logger.info("sun.misc.Unsafe is not available; skipping.");
+            return;
+        }
+
+        File file = File.createTempFile("netty-", ".shm");
+        file.deleteOnExit();
+        ShmAddress addr = new ShmAddress(file.getPath());
+
+        EchoHandler sh = new EchoHandler();
+        ServerBootstrap sb = new ServerBootstrap().
+                eventLoop(new ShmEventLoop(), new ShmEventLoop()).
+                channel(new ShmServerChannel(null, 4096, 1000)).
+                localAddress(addr).
+                childHandler(sh);
+        try {
+            sb.bind().sync();
+            // The forked client halts without closing its channel.
+            assertEquals(1, fork(file, true));
+
+            assertTrue(sh.channel.closeFuture().await(10, TimeUnit.SECONDS));
+            assertTrue(sh.exception.get() instanceof IOException);
+            // Wait until the server-side channel releases the file.
+            sh.channel.eventLoop().submit(new Runnable() {
+                @Override
+                public void run() {
+                    // NOOP
+                }
+            }).get();
+
+            // The file must accept a new connection.
+            Bootstrap cb = new Bootstrap().
+                    eventLoop(new ShmEventLoop()).
+                    channel(new ShmChannel()).
+                    remoteAddress(addr);
+            try {
+                testSimpleEcho(sb, cb, false);
+            } finally {
+                cb.shutdown();
+            }
+        } finally {
+            sb.shutdown();
+        }
+    }
+
+    /**
+     * Runs {@link ForkedClient} in a new JVM and returns its exit code.
+     */
+    private static int fork(File file, boolean crash) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ProcessBuilder pb = new ProcessBuilder(
+                java, "-cp", System.getProperty("java.class.path"),
+                ForkedClient.class.getName(), file.getPath(), String.valueOf(crash));
+        pb.redirectErrorStream(true);
+        Process p = pb.start();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InputStream in = p.getInputStream();
+        byte[] buf = new byte[4096];
+        for (;;) {
+            int n = in.read(buf);
+            if (n < 0) {
+                break;
+            }
+            out.write(buf, 0, n);
+        }
+
+        int exitCode = p.waitFor();
+        if (out.size() != 0) {
+            logger.info("Forked client output:\n" + out.toString());
+        }
+        return exitCode;
+    }
+
+    /**
+     * Echoes {@link ShmTransportTest#data} via the specified file in a forked
+     * JVM.  If {@code crash} is {@code true}, it halts right after receiving
+     * the first echo.
+     */
+    public static final class ForkedClient {
+        public static void main(String[] args) throws Throwable {
+            final boolean crash = Boolean.parseBoolean(args[1]);
+            EchoHandler ch = new EchoHandler();
+            Bootstrap cb = new Bootstrap().
+                    eventLoop(new ShmEventLoop()).
+                    channel(new ShmChannel()).
+                    handler(ch).
+                    remoteAddress(new ShmAddress(args[0]));
+            try {
+                Channel cc = cb.connect().sync().channel();
+                cc.write(ChannelBuffers.wrappedBuffer(data));
+                while (ch.counter < (crash? 1 : data.length) && ch.exception.get() == null) {
+                    Thread.sleep(1);
+                }
+                if (crash) {
+                    Runtime.getRuntime().halt(1);
+                }
+                cc.close().sync();
+                if (ch.exception.get() != null) {
+                    throw ch.exception.get();
+                }
+            } finally {
+                cb.shutdown();
+            }
+        }
+
+        private ForkedClient() {
+            // Unused
+        }
+    }
+
+    private static void testSimpleEcho(ServerBootstrap sb, Bootstrap cb, boolean bind) throws Throwable {
+        EchoHandler sh = new EchoHandler();
+        EchoHandler ch = new EchoHandler();
+
+        sb.childHandler(sh);
+        cb.handler(ch);
+
+        if (bind) {
+            sb.bind().sync();
+        }
+        Channel cc = cb.connect().sync().channel();
+
+        for (int i = 0; i < data.length;) {
+            int length = Math.min(random.nextInt(1024 * 64), data.length - i);
+            cc.write(ChannelBuffers.wrappedBuffer(data, i, length));
+            i += length;
+        }
+
+        while (ch.counter < data.length) {
+            if (sh.exception.get() != null) {
+                break;
+            }
+            if (ch.exception.get() != null) {
+                break;
+            }
+
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                // Ignore.
+            }
+        }
+
+        ch.channel.close().sync();
+        sh.channel.closeFuture().sync();
+        // Wait until the server-side channel releases the file for the next connection.
+        sh.channel.eventLoop().submit(new Runnable() {
+            @Override
+            public void run() {
+                // NOOP
+            }
+        }).get();
+
+        if (sh.exception.get() != null && !(sh.exception.get() instanceof IOException)) {
+            throw sh.exception.get();
+        }
+        if (ch.exception.get() != null && !(ch.exception.get() instanceof IOException)) {
+            throw ch.exception.get();
+        }
+        if (sh.exception.get() != null) {
+            throw sh.exception.get();
+        }
+        if (ch.exception.get() != null) {
+            throw ch.exception.get();
+        }
+        assertEquals(data.length, sh.counter);
+        assertEquals(data.length, ch.counter);
+    }
+
+    private static class EchoHandler extends ChannelInboundStreamHandlerAdapter {
+        volatile Channel channel;
+        final AtomicReference<Throwable> exception = new AtomicReference<Throwable>();
+        volatile int counter;
+
+        @Override
+        public void channelActive(ChannelInboundHandlerContext<Byte> ctx)
+                throws Exception {
+            channel = ctx.channel();
+        }
+
+        @Override
+        public void inboundBufferUpdated(
+                ChannelInboundHandlerContext<Byte> ctx, ChannelBuffer in)
+                throws Exception {
+            byte[] actual = new byte[in.readableBytes()];
+            in.readBytes(actual);
+
+            int lastIdx = counter;
+            for (int i = 0; i < actual.length; i ++) {
+                assertEquals(data[i + lastIdx], actual[i]);
+            }
+
+            if (channel.parent() != null) {
+                channel.write(ChannelBuffers.wrappedBuffer(actual));
+            }
+
+            counter += actual.length;
+        }
+
+        @Override
+        public void exceptionCaught(ChannelInboundHandlerContext<Byte> ctx,
+                Throwable cause) throws Exception {
+            if (exception.compareAndSet(null, cause)) {
+                ctx.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.socket.oio;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ChannelBuffer;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerContext;
+import io.netty.channel.ChannelInboundStreamHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.junit.Test;
+
+public class OioSocketReaderTest {
+
+    private static final int CONNECTIONS = 10;
+
+    @Test(timeout = 10000)
+    public void testReaderThreadEndsAfterClose() throws Exception {
+        final List<Thread> readerThreads = new CopyOnWriteArrayList<Thread>();
+        ThreadFactory threadFactory = new ThreadFactory() {
+            private final ThreadFactory delegate = Executors.defaultThreadFactory();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = delegate.newThread(r);
+                if (r instanceof OioSocketReader) {
+                    readerThreads.add(t);
+                }
+                return t;
+            }
+        };
+
+        ServerBootstrap sb = new ServerBootstrap();
+        sb.eventLoop(new OioEventLoop(), new OioEventLoop(0, threadFactory, true))
+          .channel(new OioServerSocketChannel())
+          .localAddress(new InetSocketAddress("127.0.0.1", 0))
+          .childHandler(new ChannelInitializer<Channel>() {
+              @Override
+              public void initChannel(Channel ch) throws Exception {
+                  ch.pipeline().addLast(new ChannelInboundStreamHandlerAdapter() {
+                      @Override
+                      public void inboundBufferUpdated(ChannelInboundHandlerContext<Byte> ctx, ChannelBuffer in) {
+                          while (in.readable()) {
+                              if (in.readByte() == 'c') {
+                                  // Closed by the server.
+                                  ctx.channel().close();
+                              }
+                          }
+                          in.discardReadBytes();
+                      }
+                  });
+              }
+          });
+
+        try {
+            InetSocketAddress addr = (InetSocketAddress) sb.bind().sync().channel().localAddress();
+            for (int i = 0; i < CONNECTIONS; i ++) {
+                Socket s = new Socket(addr.getAddress(), addr.getPort());
+                if (i % 2 == 0) {
+                    // Closed by the client.
+                    s.getOutputStream().write('a');
+                    s.close();
+                } else {
+                    s.getOutputStream().write('c');
+                    assertEquals(-1, s.getInputStream().read());
+                    s.close();
+                }
+            }
+
+            while (readerThreads.size() < CONNECTIONS) {
+                Thread.sleep(10);
+            }
+            for (Thread t: readerThreads) {
+                t.join(5000);
+                assertFalse(t.getName(), t.isAlive());
+            }
+        } finally {
+            sb.shutdown();
+        }
+    }
+}